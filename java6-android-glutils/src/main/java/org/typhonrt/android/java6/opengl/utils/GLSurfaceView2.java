@@ -35,6 +35,7 @@ import android.util.Log;
 import android.view.SurfaceHolder;
 import android.view.SurfaceView;
 
+import org.typhonrt.commons.java6.opengl.utils.IFrameListener;
 import org.typhonrt.commons.java6.opengl.utils.IGLVersion;
 import org.typhonrt.commons.java6.opengl.utils.XeGLUnknown;
 
@@ -199,6 +200,8 @@ public class GLSurfaceView2 extends SurfaceView implements SurfaceHolder.Callbac
 
    private boolean                              preserveEGLContextOnPause;
 
+   private IFrameListener                       frameListener;
+
    /**
     * Standard View constructor. In order to render something, you
     * must call {@link #setRenderer} to register a renderer.
@@ -363,6 +366,7 @@ public class GLSurfaceView2 extends SurfaceView implements SurfaceHolder.Callbac
 
       this.renderer = renderer;
       glThread = new GLThread(thisWeakRef);
+      glThread.setFrameListener(frameListener);
       glThread.start();
    }
 
@@ -527,6 +531,34 @@ public class GLSurfaceView2 extends SurfaceView implements SurfaceHolder.Callbac
       return glThread.getRenderMode();
    }
 
+   /**
+    * Install a listener that receives the time spent in each phase of every frame: running queued events, creating
+    * the EGL surface, waiting for work, drawing and swapping buffers. It is called on the rendering thread after each
+    * swap; see IFrameListener. FrameStats is a listener that keeps percentiles of these times.
+    * <p/>
+    * May be called from any thread and at any time, including before {@link #setRenderer(Renderer)}. Without a
+    * listener, the default, the rendering thread takes no timestamps at all.
+    *
+    * @param listener the listener, or null to stop timing
+    */
+   public void setFrameListener(IFrameListener listener)
+   {
+      frameListener = listener;
+
+      if (glThread != null)
+      {
+         glThread.setFrameListener(listener);
+      }
+   }
+
+   /**
+    * @return the frame listener, or null if none is installed
+    */
+   public IFrameListener getFrameListener()
+   {
+      return frameListener;
+   }
+
    /**
     * Request that the renderer render a frame.
     * This method is typically used when the render mode has been set to
@@ -632,6 +664,7 @@ public class GLSurfaceView2 extends SurfaceView implements SurfaceHolder.Callbac
             glThread.setRenderMode(renderMode);
          }
 
+         glThread.setFrameListener(frameListener);
          glThread.start();
       }
 
@@ -1391,6 +1424,7 @@ public class GLSurfaceView2 extends SurfaceView implements SurfaceHolder.Callbac
       private boolean               renderComplete;
       private ArrayList<Runnable>   eventQueue = new ArrayList<Runnable>();
       private boolean               sizeChanged = true;
+      private IFrameListener        frameListener;
 
       // End of member variables protected by the s_GLThreadManager monitor.
 
@@ -1481,12 +1515,28 @@ public class GLSurfaceView2 extends SurfaceView implements SurfaceHolder.Callbac
             int h = 0;
             Runnable event = null;
 
+            // Frame timing; the listener is read under the lock each iteration and no timestamps are taken without one.
+            IFrameListener listener = null;
+            long phaseStart = 0;
+            long eventNanos = 0;
+            long surfaceNanos = 0;
+            long waitNanos = 0;
+
             while (true)
             {
                synchronized (s_GLThreadManager)
                {
                   while (true)
                   {
+                     // Totals gathered for a previous listener are not reported to the next one.
+                     if (listener != frameListener)
+                     {
+                        listener = frameListener;
+                        eventNanos = 0;
+                        surfaceNanos = 0;
+                        waitNanos = 0;
+                     }
+
                      if (shouldExit)
                      {
                         return;
@@ -1676,17 +1726,40 @@ public class GLSurfaceView2 extends SurfaceView implements SurfaceHolder.Callbac
                          + " requestRender: " + requestRender
                          + " renderMode: " + renderMode);
                      }
+                     if (listener != null)
+                     {
+                        phaseStart = System.nanoTime();
+                     }
+
                      s_GLThreadManager.wait();
+
+                     if (listener != null)
+                     {
+                        waitNanos += System.nanoTime() - phaseStart;
+                     }
                   }
                } // end of synchronized(s_GLThreadManager)
 
+               if (listener != null)
+               {
+                  phaseStart = System.nanoTime();
+               }
+
                if (event != null)
                {
                   event.run();
                   event = null;
+
+                  if (listener != null)
+                  {
+                     eventNanos += System.nanoTime() - phaseStart;
+                  }
                   continue;
                }
 
+               // Surface time covers the surface creation and the surface created / changed callbacks only.
+               boolean timeSurface = listener != null && (createEglSurface || createEglContext || sizeChanged);
+
                if (createEglSurface)
                {
                   if (s_LOG_SURFACE)
@@ -1710,6 +1783,11 @@ public class GLSurfaceView2 extends SurfaceView implements SurfaceHolder.Callbac
                         surfaceIsBad = true;
                         s_GLThreadManager.notifyAll();
                      }
+
+                     if (timeSurface)
+                     {
+                        surfaceNanos += System.nanoTime() - phaseStart;
+                     }
                      continue;
                   }
                   createEglSurface = false;
@@ -1745,10 +1823,23 @@ public class GLSurfaceView2 extends SurfaceView implements SurfaceHolder.Callbac
                   sizeChanged = false;
                }
 
+               if (timeSurface)
+               {
+                  surfaceNanos += System.nanoTime() - phaseStart;
+               }
+
                if (s_LOG_RENDERER_DRAW_FRAME)
                {
                   Log.w("GLThread", "onGLDrawFrame tid=" + getId());
                }
+
+               long drawStart = 0;
+               long swapStart = 0;
+
+               if (listener != null)
+               {
+                  drawStart = System.nanoTime();
+               }
                {
                   GLSurfaceView2 view = glSurfaceViewWeakRef.get();
                   if (view != null)
@@ -1756,7 +1847,25 @@ public class GLSurfaceView2 extends SurfaceView implements SurfaceHolder.Callbac
                      view.renderer.onGLDrawFrame();
                   }
                }
+
+               if (listener != null)
+               {
+                  swapStart = System.nanoTime();
+               }
+
                int swapError = eglHelper.swap();
+
+               if (listener != null)
+               {
+                  long swapEnd = System.nanoTime();
+
+                  listener.onFrame(drawStart, eventNanos, surfaceNanos, waitNanos, swapStart - drawStart,
+                   swapEnd - swapStart);
+
+                  eventNanos = 0;
+                  surfaceNanos = 0;
+                  waitNanos = 0;
+               }
                switch (swapError)
                {
                   case EGL14.EGL_SUCCESS:
@@ -1981,6 +2090,14 @@ public class GLSurfaceView2 extends SurfaceView implements SurfaceHolder.Callbac
          }
       }
 
+      public void setFrameListener(IFrameListener frameListener)
+      {
+         synchronized (s_GLThreadManager)
+         {
+            this.frameListener = frameListener;
+         }
+      }
+
       public void setPresentationTime(long timestamp)
       {
          EGLExt.eglPresentationTimeANDROID(eglHelper.mEglDisplay, eglHelper.mEglSurface, timestamp);
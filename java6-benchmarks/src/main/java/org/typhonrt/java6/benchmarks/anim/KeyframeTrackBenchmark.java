@@ -0,0 +1,132 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.benchmarks.anim;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.typhonrt.java6.math.FastRandom;
+import org.typhonrt.java6.math.anim.KeyframeSampler;
+import org.typhonrt.java6.math.anim.KeyframeTrack;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * KeyframeTrackBenchmark -- Plays back `tracks` Catmull-Rom Vector3f tracks of 300 keys baked at 30 frames per second,
+ * advancing the time by one 60 Hz frame per operation. Compares a binary search per sample against KeyframeSampler
+ * one track at a time and the batch sample that searches once for all tracks sharing the key times.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyframeTrackBenchmark
+{
+   private static final int s_KEY_COUNT = 300;
+
+   private static final float s_FRAME_TIME = 1.0f / 60.0f;
+
+   @Param({"1024"})
+   private int tracks;
+
+   private KeyframeTrack[] keyframeTracks;
+
+   private KeyframeSampler[] samplers;
+
+   private float[] values;
+
+   private float duration;
+
+   private float time;
+
+   @Setup
+   public void setup()
+   {
+      FastRandom random = new FastRandom(42);
+
+      float[] times = new float[s_KEY_COUNT];
+
+      for (int cntr = 0; cntr < s_KEY_COUNT; cntr++)
+      {
+         times[cntr] = cntr / 30.0f;
+      }
+
+      duration = times[s_KEY_COUNT - 1];
+
+      keyframeTracks = new KeyframeTrack[tracks];
+      samplers = new KeyframeSampler[tracks];
+
+      float[] keys = new float[s_KEY_COUNT * 3];
+
+      for (int cntr = 0; cntr < tracks; cntr++)
+      {
+         random.fill(keys, 0, keys.length, -1.0f, 1.0f);
+
+         keyframeTracks[cntr] = new KeyframeTrack(3, KeyframeTrack.s_INTERPOLATION_CATMULL_ROM, false, times, keys);
+         samplers[cntr] = new KeyframeSampler(keyframeTracks[cntr]);
+      }
+
+      values = new float[tracks * 3];
+   }
+
+   private float advance()
+   {
+      time += s_FRAME_TIME;
+
+      if (time > duration)
+      {
+         time = 0.0f;
+      }
+
+      return time;
+   }
+
+   @Benchmark
+   public float[] binarySearch()
+   {
+      final float t = advance();
+
+      for (int cntr = 0, offset = 0; cntr < tracks; cntr++, offset += 3)
+      {
+         keyframeTracks[cntr].sample(t, values, offset);
+      }
+
+      return values;
+   }
+
+   @Benchmark
+   public float[] sampler()
+   {
+      final float t = advance();
+
+      for (int cntr = 0, offset = 0; cntr < tracks; cntr++, offset += 3)
+      {
+         samplers[cntr].sample(t, values, offset);
+      }
+
+      return values;
+   }
+
+   @Benchmark
+   public float[] batch()
+   {
+      KeyframeSampler.sample(samplers, 0, tracks, advance(), values, 0);
+
+      return values;
+   }
+}
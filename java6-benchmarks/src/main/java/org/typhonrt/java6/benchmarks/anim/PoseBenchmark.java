@@ -0,0 +1,227 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.benchmarks.anim;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.typhonrt.java6.math.ParallelRange;
+import org.typhonrt.java6.math.anim.AnimationClip;
+import org.typhonrt.java6.math.anim.Pose;
+import org.typhonrt.java6.math.anim.PoseBatch;
+import org.typhonrt.java6.math.anim.Skeleton;
+import org.typhonrt.java6.vecmath.Matrix4f;
+import org.typhonrt.java6.vecmath.Quat4f;
+import org.typhonrt.java6.vecmath.Vector3f;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PoseBenchmark -- Compares skinning matrix evaluation of one 64 bone character through per-bone Matrix4f / Quat4f
+ * objects against Pose, in the mat4 and dual quaternion layouts, and evaluates `characters` animated characters through
+ * PoseBatch.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PoseBenchmark
+{
+   private static final int s_BONE_COUNT = 64;
+
+   @Param({"256"})
+   private int characters;
+
+   private int[] parents;
+
+   private Quat4f[] rotations;
+   private Vector3f[] translations;
+   private Matrix4f[] inverseBind;
+   private Matrix4f[] world;
+   private Matrix4f[] skinningMatrices;
+   private Matrix4f local;
+
+   private Pose pose;
+   private float[] skinning;
+
+   private PoseBatch batch;
+   private float[] batchSkinning;
+   private float time;
+
+   private ExecutorService executor;
+   private ParallelRange parallel;
+
+   @Setup
+   public void setup()
+   {
+      Random random = new Random(42);
+
+      parents = new int[s_BONE_COUNT];
+      parents[0] = -1;
+
+      for (int cntr = 1; cntr < s_BONE_COUNT; cntr++)
+      {
+         parents[cntr] = cntr - 1 - random.nextInt(Math.min(cntr, 4));
+      }
+
+      Skeleton skeleton = new Skeleton(parents);
+
+      rotations = new Quat4f[s_BONE_COUNT];
+      translations = new Vector3f[s_BONE_COUNT];
+      inverseBind = new Matrix4f[s_BONE_COUNT];
+      world = new Matrix4f[s_BONE_COUNT];
+      skinningMatrices = new Matrix4f[s_BONE_COUNT];
+      local = new Matrix4f();
+
+      Vector3f scale = new Vector3f(1.0f, 1.0f, 1.0f);
+
+      for (int cntr = 0; cntr < s_BONE_COUNT; cntr++)
+      {
+         rotations[cntr] = new Quat4f(random.nextFloat() - 0.5f, random.nextFloat() - 0.5f, random.nextFloat() - 0.5f,
+          1.0f);
+         rotations[cntr].normalize();
+         translations[cntr] = new Vector3f(random.nextFloat(), random.nextFloat(), random.nextFloat());
+
+         skeleton.setBindPose(cntr, translations[cntr], rotations[cntr], scale);
+
+         world[cntr] = new Matrix4f();
+         skinningMatrices[cntr] = new Matrix4f();
+      }
+
+      skeleton.computeInverseBindMatrices();
+
+      for (int cntr = 0; cntr < s_BONE_COUNT; cntr++)
+      {
+         inverseBind[cntr] = new Matrix4f();
+         skeleton.getInverseBindMatrix(cntr, inverseBind[cntr]);
+      }
+
+      pose = new Pose(skeleton);
+      skinning = new float[s_BONE_COUNT * Pose.s_LAYOUT_MAT4];
+
+      AnimationClip clip = new AnimationClip(s_BONE_COUNT, 31, 30.0f);
+      Quat4f rotation = new Quat4f();
+      Vector3f translation = new Vector3f();
+
+      for (int frame = 0; frame < clip.frameCount; frame++)
+      {
+         for (int cntr = 0; cntr < s_BONE_COUNT; cntr++)
+         {
+            rotation.set(random.nextFloat() - 0.5f, random.nextFloat() - 0.5f, random.nextFloat() - 0.5f, 1.0f);
+            rotation.normalize();
+            translation.set(random.nextFloat(), random.nextFloat(), random.nextFloat());
+
+            clip.setKey(frame, cntr, translation, rotation, scale);
+         }
+      }
+
+      batch = new PoseBatch(characters);
+      batchSkinning = new float[characters * s_BONE_COUNT * Pose.s_LAYOUT_MAT3X4];
+
+      for (int cntr = 0; cntr < characters; cntr++)
+      {
+         int character = batch.add(new Pose(skeleton), batchSkinning, cntr * s_BONE_COUNT * Pose.s_LAYOUT_MAT3X4,
+          Pose.s_LAYOUT_MAT3X4);
+
+         batch.setClip(character, clip, cntr * 0.01f, true);
+
+         if ((cntr & 1) == 0)
+         {
+            batch.setBlend(character, clip, cntr * 0.02f, true, 0.3f);
+         }
+      }
+
+      executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+      parallel = new ParallelRange(executor);
+   }
+
+   @TearDown
+   public void tearDown()
+   {
+      executor.shutdown();
+   }
+
+   @Benchmark
+   public Matrix4f[] matrixHierarchy()
+   {
+      for (int cntr = 0; cntr < s_BONE_COUNT; cntr++)
+      {
+         local.set(rotations[cntr]);
+         local.setTranslation(translations[cntr]);
+
+         int parent = parents[cntr];
+
+         if (parent < 0)
+         {
+            world[cntr].set(local);
+         }
+         else
+         {
+            world[cntr].mul(world[parent], local);
+         }
+
+         skinningMatrices[cntr].mul(world[cntr], inverseBind[cntr]);
+      }
+
+      return skinningMatrices;
+   }
+
+   @Benchmark
+   public float[] computeMatrices()
+   {
+      pose.computeMatrices(skinning, 0, Pose.s_LAYOUT_MAT4);
+      return skinning;
+   }
+
+   @Benchmark
+   public float[] computeDualQuats()
+   {
+      pose.computeMatrices(skinning, 0, Pose.s_LAYOUT_DUAL_QUAT);
+      return skinning;
+   }
+
+   @Benchmark
+   public float[] batchUpdate()
+   {
+      advance();
+      batch.update();
+      return batchSkinning;
+   }
+
+   @Benchmark
+   public float[] batchUpdateParallel()
+   {
+      advance();
+      batch.update(parallel);
+      return batchSkinning;
+   }
+
+   private void advance()
+   {
+      time += 1.0f / 60.0f;
+
+      for (int cntr = 0; cntr < characters; cntr++)
+      {
+         batch.setTime(cntr, time + cntr * 0.01f, time);
+      }
+   }
+}
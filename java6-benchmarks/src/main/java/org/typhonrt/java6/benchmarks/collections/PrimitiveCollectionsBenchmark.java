@@ -0,0 +1,129 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.benchmarks.collections;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.typhonrt.java6.collections.FloatArrayList;
+import org.typhonrt.java6.collections.IntIntHashMap;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PrimitiveCollectionsBenchmark -- Compares building a vertex stream with FloatArrayList against ArrayList&lt;Float&gt;
+ * up to a direct ByteBuffer, and vertex welding with IntIntHashMap against HashMap&lt;Integer, Integer&gt;; scores are
+ * per batch of `size` vertices.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrimitiveCollectionsBenchmark
+{
+   @Param({"1024", "65536"})
+   private int size;
+
+   private FloatArrayList floats;
+   private IntIntHashMap weldMap;
+
+   private ByteBuffer buffer;
+
+   @Setup
+   public void setup()
+   {
+      floats = new FloatArrayList();
+      weldMap = new IntIntHashMap();
+
+      buffer = ByteBuffer.allocateDirect(size * 3 * 4).order(ByteOrder.nativeOrder());
+   }
+
+   @Benchmark
+   public ByteBuffer floatArrayList()
+   {
+      floats.clear();
+
+      for (int cntr = 0; cntr < size; cntr++)
+      {
+         floats.add(cntr, cntr * 0.5f, 1.0f);
+      }
+
+      floats.get(buffer, 0);
+      return buffer;
+   }
+
+   @Benchmark
+   public ByteBuffer boxedArrayList()
+   {
+      ArrayList<Float> list = new ArrayList<Float>();
+
+      for (int cntr = 0; cntr < size; cntr++)
+      {
+         list.add((float)cntr);
+         list.add(cntr * 0.5f);
+         list.add(1.0f);
+      }
+
+      for (int cntr = 0, length = list.size(); cntr < length; cntr++)
+      {
+         buffer.putFloat(cntr << 2, list.get(cntr));
+      }
+
+      return buffer;
+   }
+
+   @Benchmark
+   public int intIntHashMap()
+   {
+      weldMap.clear();
+
+      int unique = 0;
+
+      for (int cntr = 0; cntr < size; cntr++)
+      {
+         if (weldMap.putIfAbsent((cntr * 7) % (size >> 1), unique) == weldMap.getMissingValue())
+         {
+            unique++;
+         }
+      }
+
+      return unique;
+   }
+
+   @Benchmark
+   public int boxedHashMap()
+   {
+      HashMap<Integer, Integer> map = new HashMap<Integer, Integer>();
+
+      int unique = 0;
+
+      for (int cntr = 0; cntr < size; cntr++)
+      {
+         if (map.put((cntr * 7) % (size >> 1), unique) == null)
+         {
+            unique++;
+         }
+      }
+
+      return unique;
+   }
+}
@@ -0,0 +1,106 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.benchmarks.math;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.typhonrt.java6.math.HalfFloat;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HalfFloatBenchmark -- Measures bulk float to half float conversion into a direct native order ByteBuffer and back,
+ * serially and split across a thread pool; scores are per batch of `size` values.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HalfFloatBenchmark
+{
+   @Param({"4096", "1048576"})
+   private int size;
+
+   private float[] values;
+   private float[] output;
+
+   private ByteBuffer halves;
+
+   private ExecutorService executor;
+
+   @Setup
+   public void setup()
+   {
+      Random random = new Random(42);
+
+      values = new float[size];
+      output = new float[size];
+
+      for (int cntr = 0; cntr < size; cntr++)
+      {
+         values[cntr] = (float)random.nextGaussian() * 100.0f;
+      }
+
+      halves = ByteBuffer.allocateDirect(size * 2).order(ByteOrder.nativeOrder());
+
+      HalfFloat.fromFloat(values, 0, halves, 0, size);
+
+      executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+   }
+
+   @TearDown
+   public void tearDown()
+   {
+      executor.shutdown();
+   }
+
+   @Benchmark
+   public ByteBuffer fromFloat()
+   {
+      HalfFloat.fromFloat(values, 0, halves, 0, size);
+      return halves;
+   }
+
+   @Benchmark
+   public ByteBuffer fromFloatParallel()
+   {
+      HalfFloat.fromFloat(values, 0, halves, 0, size, executor);
+      return halves;
+   }
+
+   @Benchmark
+   public float[] toFloat()
+   {
+      HalfFloat.toFloat(halves, 0, output, 0, size);
+      return output;
+   }
+
+   @Benchmark
+   public float[] toFloatParallel()
+   {
+      HalfFloat.toFloat(halves, 0, output, 0, size, executor);
+      return output;
+   }
+}
@@ -0,0 +1,262 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.benchmarks.math;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.typhonrt.java6.math.FastRandom;
+import org.typhonrt.java6.math.MathUtil;
+import org.typhonrt.java6.vecmath.Quat4f;
+import org.typhonrt.java6.vecmath.Vector3f;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MathUtilBenchmark -- Covers the public operations of MathUtil.
+ *
+ * The random number generators are also measured with 4 threads to expose contention on shared state, next to
+ * Math.random which the per thread generators replace. Bulk fill and unit vector / quaternion sampling use a seeded
+ * generator so runs are reproducible. The fast trigonometry and inverse square root approximations are compared with
+ * the java.lang.Math paths they replace over 256 arguments per invocation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MathUtilBenchmark
+{
+   private static final int s_COUNT = 256;
+
+   private int value;
+
+   private final float[] angles = new float[s_COUNT];
+   private final float[] ratios = new float[s_COUNT];
+   private final float[] positives = new float[s_COUNT];
+   private final float[] randoms = new float[s_COUNT];
+
+   private FastRandom fastRandom;
+   private Vector3f unitVector;
+   private Quat4f unitQuat;
+
+   @Setup
+   public void setup()
+   {
+      value = 1000;
+
+      fastRandom = new FastRandom(42);
+      unitVector = new Vector3f();
+      unitQuat = new Quat4f();
+
+      Random random = new Random(42);
+
+      for (int cntr = 0; cntr < s_COUNT; cntr++)
+      {
+         angles[cntr] = (random.nextFloat() * 2.0f - 1.0f) * 10.0f;
+         ratios[cntr] = random.nextFloat() * 2.0f - 1.0f;
+         positives[cntr] = random.nextFloat() * 100.0f + 0.01f;
+      }
+   }
+
+   @Benchmark
+   public int nextPow2()
+   {
+      return MathUtil.nextPow2(value);
+   }
+
+   @Benchmark
+   public byte randByte()
+   {
+      return MathUtil.randByte();
+   }
+
+   @Benchmark
+   public float frand()
+   {
+      return MathUtil.frand();
+   }
+
+   @Benchmark
+   public float sfrand()
+   {
+      return MathUtil.sfrand();
+   }
+
+   @Benchmark
+   @Threads(4)
+   public float frandContended()
+   {
+      return MathUtil.frand();
+   }
+
+   @Benchmark
+   @Threads(4)
+   public double mathRandomContended()
+   {
+      return Math.random();
+   }
+
+   @Benchmark
+   public float[] fill()
+   {
+      fastRandom.fill(randoms, 0, s_COUNT, -1.0f, 1.0f);
+      return randoms;
+   }
+
+   @Benchmark
+   public float[] fillMathRandom()
+   {
+      for (int cntr = 0; cntr < s_COUNT; cntr++)
+      {
+         randoms[cntr] = (float)Math.random() * 2.0f - 1.0f;
+      }
+      return randoms;
+   }
+
+   @Benchmark
+   public Vector3f nextUnitVector()
+   {
+      fastRandom.nextUnitVector(unitVector);
+      return unitVector;
+   }
+
+   @Benchmark
+   public Quat4f nextUnitQuat()
+   {
+      fastRandom.nextUnitQuat(unitQuat);
+      return unitQuat;
+   }
+
+   @Benchmark
+   public float sin()
+   {
+      float sum = 0.0f;
+
+      for (int cntr = 0; cntr < s_COUNT; cntr++)
+      {
+         sum += (float)Math.sin(angles[cntr]);
+      }
+
+      return sum;
+   }
+
+   @Benchmark
+   public float sinFast()
+   {
+      float sum = 0.0f;
+
+      for (int cntr = 0; cntr < s_COUNT; cntr++)
+      {
+         sum += MathUtil.sinFast(angles[cntr]);
+      }
+
+      return sum;
+   }
+
+   @Benchmark
+   public float sinTable()
+   {
+      float sum = 0.0f;
+
+      for (int cntr = 0; cntr < s_COUNT; cntr++)
+      {
+         sum += MathUtil.sinTable(angles[cntr]);
+      }
+
+      return sum;
+   }
+
+   @Benchmark
+   public float atan2()
+   {
+      float sum = 0.0f;
+
+      for (int cntr = 0; cntr < s_COUNT; cntr++)
+      {
+         sum += (float)Math.atan2(ratios[cntr], positives[cntr]);
+      }
+
+      return sum;
+   }
+
+   @Benchmark
+   public float atan2Fast()
+   {
+      float sum = 0.0f;
+
+      for (int cntr = 0; cntr < s_COUNT; cntr++)
+      {
+         sum += MathUtil.atan2Fast(ratios[cntr], positives[cntr]);
+      }
+
+      return sum;
+   }
+
+   @Benchmark
+   public float acos()
+   {
+      float sum = 0.0f;
+
+      for (int cntr = 0; cntr < s_COUNT; cntr++)
+      {
+         sum += (float)Math.acos(ratios[cntr]);
+      }
+
+      return sum;
+   }
+
+   @Benchmark
+   public float acosFast()
+   {
+      float sum = 0.0f;
+
+      for (int cntr = 0; cntr < s_COUNT; cntr++)
+      {
+         sum += MathUtil.acosFast(ratios[cntr]);
+      }
+
+      return sum;
+   }
+
+   @Benchmark
+   public float invSqrt()
+   {
+      float sum = 0.0f;
+
+      for (int cntr = 0; cntr < s_COUNT; cntr++)
+      {
+         sum += 1.0f / (float)Math.sqrt(positives[cntr]);
+      }
+
+      return sum;
+   }
+
+   @Benchmark
+   public float invSqrtFast()
+   {
+      float sum = 0.0f;
+
+      for (int cntr = 0; cntr < s_COUNT; cntr++)
+      {
+         sum += MathUtil.invSqrtFast(positives[cntr]);
+      }
+
+      return sum;
+   }
+}
@@ -0,0 +1,131 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.benchmarks.opengl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.typhonrt.commons.java6.opengl.utils.FrameStats;
+import org.typhonrt.commons.java6.opengl.utils.LogHistogram;
+import org.typhonrt.java6.math.FastRandom;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FrameStatsBenchmark -- Cost of recording one frame on the render thread and of reading p50 / p90 / p99 / max of the
+ * frame interval over a 600 frame window. Compares FrameStats against a ring of raw samples guarded by a lock whose
+ * percentiles are computed by sorting a copy.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrameStatsBenchmark
+{
+   private static final int s_WINDOW_FRAMES = 600;
+
+   private FrameStats frameStats;
+
+   private LogHistogram histogram;
+
+   private long[] intervals;
+
+   private long[] sorted;
+
+   private int slot;
+
+   private long[] jitter;
+
+   private int frame;
+
+   private long frameStart;
+
+   @Setup
+   public void setup()
+   {
+      FastRandom random = new FastRandom(42);
+
+      jitter = new long[1024];
+
+      for (int cntr = 0; cntr < jitter.length; cntr++)
+      {
+         jitter[cntr] = FrameStats.s_TARGET_INTERVAL_60HZ + random.nextInt(2000000) - 1000000;
+      }
+
+      frameStats = new FrameStats(s_WINDOW_FRAMES, FrameStats.s_TARGET_INTERVAL_60HZ);
+      histogram = frameStats.createHistogram();
+
+      intervals = new long[s_WINDOW_FRAMES];
+      sorted = new long[s_WINDOW_FRAMES];
+
+      for (int cntr = 0; cntr < s_WINDOW_FRAMES * 2; cntr++)
+      {
+         record();
+         recordLocked();
+      }
+   }
+
+   @Benchmark
+   public long record()
+   {
+      long interval = jitter[frame++ & 1023];
+
+      frameStart += interval;
+
+      frameStats.recordFrame(frameStart, interval >> 1, interval >> 4);
+
+      return frameStart;
+   }
+
+   @Benchmark
+   public long recordLocked()
+   {
+      long interval = jitter[frame++ & 1023];
+
+      synchronized (intervals)
+      {
+         intervals[slot] = interval;
+         slot = slot + 1 == s_WINDOW_FRAMES ? 0 : slot + 1;
+      }
+
+      return interval;
+   }
+
+   @Benchmark
+   public long readPercentiles()
+   {
+      frameStats.getHistogram(FrameStats.s_METRIC_INTERVAL, histogram);
+
+      return histogram.getValueAtPercentile(50.0) + histogram.getValueAtPercentile(90.0) +
+       histogram.getValueAtPercentile(99.0) + histogram.getMaxValue();
+   }
+
+   @Benchmark
+   public long readPercentilesSorted()
+   {
+      synchronized (intervals)
+      {
+         System.arraycopy(intervals, 0, sorted, 0, s_WINDOW_FRAMES);
+      }
+
+      Arrays.sort(sorted);
+
+      return sorted[s_WINDOW_FRAMES / 2 - 1] + sorted[s_WINDOW_FRAMES * 9 / 10 - 1] +
+       sorted[s_WINDOW_FRAMES * 99 / 100 - 1] + sorted[s_WINDOW_FRAMES - 1];
+   }
+}
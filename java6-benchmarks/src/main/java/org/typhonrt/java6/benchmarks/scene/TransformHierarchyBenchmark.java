@@ -0,0 +1,145 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.benchmarks.scene;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.typhonrt.java6.math.scene.TransformHierarchy;
+import org.typhonrt.java6.vecmath.Matrix4f;
+import org.typhonrt.java6.vecmath.Quat4f;
+import org.typhonrt.java6.vecmath.Vector3f;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TransformHierarchyBenchmark -- Compares recomputing every world Matrix4f of a `size` node scene each frame against
+ * TransformHierarchy.update after moving `moved` nodes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransformHierarchyBenchmark
+{
+   @Param({"4096"})
+   private int size;
+
+   @Param({"16", "1024"})
+   private int moved;
+
+   private int[] parents;
+   private Quat4f[] rotations;
+   private Vector3f[] translations;
+   private Matrix4f[] world;
+   private Matrix4f local;
+
+   private TransformHierarchy hierarchy;
+
+   private int[] movedNodes;
+   private float offset = 0.01f;
+
+   @Setup
+   public void setup()
+   {
+      Random random = new Random(42);
+
+      parents = new int[size];
+      rotations = new Quat4f[size];
+      translations = new Vector3f[size];
+      world = new Matrix4f[size];
+      local = new Matrix4f();
+
+      hierarchy = new TransformHierarchy(size);
+
+      for (int cntr = 0; cntr < size; cntr++)
+      {
+         // Shallow scene: a few roots with objects that have a handful of attached children.
+         parents[cntr] = cntr < 8 ? -1 : random.nextInt(Math.min(cntr, 512));
+
+         rotations[cntr] = new Quat4f(random.nextFloat() - 0.5f, random.nextFloat() - 0.5f, random.nextFloat() - 0.5f,
+          1.0f);
+         rotations[cntr].normalize();
+         translations[cntr] = new Vector3f(random.nextFloat(), random.nextFloat(), random.nextFloat());
+         world[cntr] = new Matrix4f();
+
+         int node = hierarchy.create(parents[cntr]);
+         hierarchy.setRotation(node, rotations[cntr]);
+         hierarchy.setTranslation(node, translations[cntr]);
+      }
+
+      hierarchy.update();
+
+      movedNodes = new int[moved];
+
+      for (int cntr = 0; cntr < moved; cntr++)
+      {
+         movedNodes[cntr] = 512 + random.nextInt(size - 512);
+      }
+   }
+
+   @Benchmark
+   public Matrix4f[] recomputeAll()
+   {
+      move();
+
+      for (int cntr = 0; cntr < size; cntr++)
+      {
+         local.set(rotations[cntr]);
+         local.setTranslation(translations[cntr]);
+
+         int parent = parents[cntr];
+
+         if (parent < 0)
+         {
+            world[cntr].set(local);
+         }
+         else
+         {
+            world[cntr].mul(world[parent], local);
+         }
+      }
+
+      return world;
+   }
+
+   @Benchmark
+   public int update()
+   {
+      move();
+
+      for (int cntr = 0; cntr < moved; cntr++)
+      {
+         hierarchy.setTranslation(movedNodes[cntr], translations[movedNodes[cntr]]);
+      }
+
+      return hierarchy.update();
+   }
+
+   private void move()
+   {
+      // Moves back and forth so repeated invocations stay in place.
+      offset = -offset;
+
+      for (int cntr = 0; cntr < moved; cntr++)
+      {
+         translations[movedNodes[cntr]].x += offset;
+      }
+   }
+}
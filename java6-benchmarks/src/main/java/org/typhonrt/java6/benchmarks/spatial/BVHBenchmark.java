@@ -0,0 +1,199 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.benchmarks.spatial;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.typhonrt.java6.math.spatial.BVH;
+import org.typhonrt.java6.vecmath.Frustum;
+import org.typhonrt.java6.vecmath.Matrix4f;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BVHBenchmark -- Covers building, refitting and querying a BVH over `size` boxes scattered around the camera, with
+ * the linear Frustum batch cull and a brute force ray loop as baselines.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BVHBenchmark
+{
+   @Param({"1024", "65536"})
+   private int size;
+
+   private Frustum frustum;
+
+   private float[] centerX;
+   private float[] centerY;
+   private float[] centerZ;
+   private float[] extentX;
+   private float[] extentY;
+   private float[] extentZ;
+
+   private int[] indices;
+
+   private BVH bvh;
+
+   private float jitter = 0.5f;
+
+   @Setup
+   public void setup()
+   {
+      Matrix4f viewProjection = new Matrix4f();
+      viewProjection.setPerspectiveLookAt(1.2f, 1.5f, 0.5f, 200.0f, 0.0f, 5.0f, 20.0f, 0.0f, 0.0f, 0.0f, 0.0f, 1.0f,
+       0.0f);
+
+      frustum = new Frustum(viewProjection);
+
+      centerX = new float[size];
+      centerY = new float[size];
+      centerZ = new float[size];
+      extentX = new float[size];
+      extentY = new float[size];
+      extentZ = new float[size];
+
+      indices = new int[size];
+
+      bvh = new BVH(size);
+
+      Random random = new Random(42);
+
+      for (int cntr = 0; cntr < size; cntr++)
+      {
+         centerX[cntr] = random.nextFloat() * 400.0f - 200.0f;
+         centerY[cntr] = random.nextFloat() * 400.0f - 200.0f;
+         centerZ[cntr] = random.nextFloat() * 400.0f - 200.0f;
+         extentX[cntr] = random.nextFloat() * 4.0f;
+         extentY[cntr] = random.nextFloat() * 4.0f;
+         extentZ[cntr] = random.nextFloat() * 4.0f;
+
+         setBounds(cntr);
+      }
+
+      bvh.build(size);
+   }
+
+   @Benchmark
+   public BVH build()
+   {
+      bvh.build(size);
+      return bvh;
+   }
+
+   @Benchmark
+   public BVH refit()
+   {
+      // Same moves as refitIncremental followed by a full refit.
+      jitter = -jitter;
+
+      for (int cntr = 0; cntr < size; cntr += 64)
+      {
+         centerX[cntr] += jitter;
+         setBounds(cntr);
+      }
+
+      bvh.refit();
+      return bvh;
+   }
+
+   @Benchmark
+   public BVH refitIncremental()
+   {
+      // Moves one primitive in 64 back and forth along x so repeated invocations do not degrade the tree.
+      jitter = -jitter;
+
+      for (int cntr = 0; cntr < size; cntr += 64)
+      {
+         centerX[cntr] += jitter;
+         setBounds(cntr);
+         bvh.refit(cntr);
+      }
+
+      return bvh;
+   }
+
+   @Benchmark
+   public int queryFrustum()
+   {
+      return bvh.queryFrustum(frustum, indices, 0);
+   }
+
+   @Benchmark
+   public int cullBoxesToIndices()
+   {
+      return frustum.cullBoxesToIndices(centerX, centerY, centerZ, extentX, extentY, extentZ, 0, size, indices, 0);
+   }
+
+   @Benchmark
+   @OutputTimeUnit(TimeUnit.NANOSECONDS)
+   public int raycast()
+   {
+      return bvh.raycast(0.0f, 5.0f, 20.0f, -0.1f, -0.05f, -1.0f, 1000.0f, null);
+   }
+
+   @Benchmark
+   @OutputTimeUnit(TimeUnit.NANOSECONDS)
+   public int raycastLoop()
+   {
+      float originX = 0.0f, originY = 5.0f, originZ = 20.0f;
+      float invX = 1.0f / -0.1f, invY = 1.0f / -0.05f, invZ = 1.0f / -1.0f;
+
+      float closest = 1000.0f;
+      int hit = -1;
+
+      for (int cntr = 0; cntr < size; cntr++)
+      {
+         float t0 = (centerX[cntr] - extentX[cntr] - originX) * invX;
+         float t1 = (centerX[cntr] + extentX[cntr] - originX) * invX;
+
+         float near = Math.min(t0, t1);
+         float far = Math.max(t0, t1);
+
+         t0 = (centerY[cntr] - extentY[cntr] - originY) * invY;
+         t1 = (centerY[cntr] + extentY[cntr] - originY) * invY;
+
+         near = Math.max(near, Math.min(t0, t1));
+         far = Math.min(far, Math.max(t0, t1));
+
+         t0 = (centerZ[cntr] - extentZ[cntr] - originZ) * invZ;
+         t1 = (centerZ[cntr] + extentZ[cntr] - originZ) * invZ;
+
+         near = Math.max(Math.max(near, Math.min(t0, t1)), 0.0f);
+         far = Math.min(Math.min(far, Math.max(t0, t1)), closest);
+
+         if (near <= far && near < closest)
+         {
+            closest = near;
+            hit = cntr;
+         }
+      }
+
+      return hit;
+   }
+
+   private void setBounds(int index)
+   {
+      bvh.setBounds(index, centerX[index] - extentX[index], centerY[index] - extentY[index],
+       centerZ[index] - extentZ[index], centerX[index] + extentX[index], centerY[index] + extentY[index],
+       centerZ[index] + extentZ[index]);
+   }
+}
@@ -0,0 +1,189 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.benchmarks.vecmath;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.typhonrt.java6.math.ParallelRange;
+import org.typhonrt.java6.vecmath.Frustum;
+import org.typhonrt.java6.vecmath.Matrix4f;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FrustumBenchmark -- Covers plane extraction and the batched sphere / box culling of Frustum against a loop of single
+ * object tests; batch scores are per `size` objects scattered around the camera.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrustumBenchmark
+{
+   @Param({"1024", "65536"})
+   private int size;
+
+   private Matrix4f viewProjection;
+
+   private Frustum frustum;
+
+   private float[] centerX;
+   private float[] centerY;
+   private float[] centerZ;
+   private float[] radius;
+   private float[] extentX;
+   private float[] extentY;
+   private float[] extentZ;
+
+   private int[] visibility;
+   private int[] indices;
+
+   private ExecutorService executor;
+   private ParallelRange parallel;
+
+   @Setup
+   public void setup()
+   {
+      viewProjection = new Matrix4f();
+      viewProjection.setPerspectiveLookAt(1.2f, 1.5f, 0.5f, 200.0f, 0.0f, 5.0f, 20.0f, 0.0f, 0.0f, 0.0f, 0.0f, 1.0f,
+       0.0f);
+
+      frustum = new Frustum(viewProjection);
+
+      centerX = new float[size];
+      centerY = new float[size];
+      centerZ = new float[size];
+      radius = new float[size];
+      extentX = new float[size];
+      extentY = new float[size];
+      extentZ = new float[size];
+
+      Random random = new Random(42);
+
+      for (int cntr = 0; cntr < size; cntr++)
+      {
+         centerX[cntr] = random.nextFloat() * 400.0f - 200.0f;
+         centerY[cntr] = random.nextFloat() * 400.0f - 200.0f;
+         centerZ[cntr] = random.nextFloat() * 400.0f - 200.0f;
+         radius[cntr] = random.nextFloat() * 5.0f;
+         extentX[cntr] = random.nextFloat() * 4.0f;
+         extentY[cntr] = random.nextFloat() * 4.0f;
+         extentZ[cntr] = random.nextFloat() * 4.0f;
+      }
+
+      visibility = new int[(size + 31) >> 5];
+      indices = new int[size];
+
+      executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+      parallel = new ParallelRange(executor);
+   }
+
+   @TearDown
+   public void tearDown()
+   {
+      executor.shutdown();
+   }
+
+   @Benchmark
+   @OutputTimeUnit(TimeUnit.NANOSECONDS)
+   public Frustum set()
+   {
+      frustum.set(viewProjection);
+      return frustum;
+   }
+
+   @Benchmark
+   public int intersectsSphereLoop()
+   {
+      int visible = 0;
+
+      for (int cntr = 0; cntr < size; cntr++)
+      {
+         if (frustum.intersectsSphere(centerX[cntr], centerY[cntr], centerZ[cntr], radius[cntr]))
+         {
+            indices[visible++] = cntr;
+         }
+      }
+
+      return visible;
+   }
+
+   @Benchmark
+   public int cullSpheres()
+   {
+      return frustum.cullSpheres(centerX, centerY, centerZ, radius, 0, size, visibility);
+   }
+
+   @Benchmark
+   public int cullSpheresParallel()
+   {
+      return frustum.cullSpheres(centerX, centerY, centerZ, radius, 0, size, visibility, parallel);
+   }
+
+   @Benchmark
+   public int cullSpheresToIndices()
+   {
+      return frustum.cullSpheresToIndices(centerX, centerY, centerZ, radius, 0, size, indices, 0);
+   }
+
+   @Benchmark
+   public int intersectsBoxLoop()
+   {
+      int visible = 0;
+
+      for (int cntr = 0; cntr < size; cntr++)
+      {
+         if (frustum.intersectsBox(centerX[cntr], centerY[cntr], centerZ[cntr], extentX[cntr], extentY[cntr],
+          extentZ[cntr]))
+         {
+            indices[visible++] = cntr;
+         }
+      }
+
+      return visible;
+   }
+
+   @Benchmark
+   public int cullBoxes()
+   {
+      return frustum.cullBoxes(centerX, centerY, centerZ, extentX, extentY, extentZ, 0, size, visibility);
+   }
+
+   @Benchmark
+   public int cullBoxesParallel()
+   {
+      return frustum.cullBoxes(centerX, centerY, centerZ, extentX, extentY, extentZ, 0, size, visibility, parallel);
+   }
+
+   @Benchmark
+   public int cullBoxesToIndices()
+   {
+      return frustum.cullBoxesToIndices(centerX, centerY, centerZ, extentX, extentY, extentZ, 0, size, indices, 0);
+   }
+
+   @Benchmark
+   public int bitsToIndices()
+   {
+      return Frustum.bitsToIndices(visibility, 0, size, indices, 0);
+   }
+}
@@ -0,0 +1,133 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.benchmarks.vecmath;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.typhonrt.java6.vecmath.MathStack;
+import org.typhonrt.java6.vecmath.Matrix4f;
+import org.typhonrt.java6.vecmath.Quat4f;
+import org.typhonrt.java6.vecmath.Vector3f;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MathStackBenchmark -- Compares building a transform with freshly allocated temporaries against temporaries taken
+ * from MathStack. Run with "-prof gc": the MathStack variants report a normalized allocation rate of 0 B/op once
+ * warmed up, while the allocating variant reports the size of its temporaries.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MathStackBenchmark
+{
+   private Matrix4f result;
+
+   private Vector3f position;
+
+   private MathStack stack;
+
+   private float angle;
+
+   @Setup
+   public void setup()
+   {
+      result = new Matrix4f();
+      position = new Vector3f(1.0f, 2.0f, 3.0f);
+      stack = MathStack.get();
+   }
+
+   @Benchmark
+   public Matrix4f allocating()
+   {
+      angle += 0.01f;
+
+      Quat4f rotation = new Quat4f(0.0f, (float)Math.sin(angle), 0.0f, (float)Math.cos(angle));
+      Vector3f translation = new Vector3f(position);
+      translation.scale(2.0f);
+
+      Matrix4f model = new Matrix4f();
+      model.set(rotation, translation, 1.0f);
+
+      Matrix4f view = new Matrix4f();
+      view.setTranslation(new Vector3f(0.0f, 0.0f, -5.0f));
+
+      result.mul(view, model);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f mathStack()
+   {
+      MathStack s = MathStack.get();
+      int frame = s.push();
+
+      try
+      {
+         compose(s);
+      }
+      finally
+      {
+         s.pop(frame);
+      }
+
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f mathStackCached()
+   {
+      int frame = stack.push();
+
+      try
+      {
+         compose(stack);
+      }
+      finally
+      {
+         stack.pop(frame);
+      }
+
+      return result;
+   }
+
+   private void compose(MathStack s)
+   {
+      angle += 0.01f;
+
+      Quat4f rotation = s.quat4f();
+      rotation.set(0.0f, (float)Math.sin(angle), 0.0f, (float)Math.cos(angle));
+
+      Vector3f translation = s.vector3f();
+      translation.set(position);
+      translation.scale(2.0f);
+
+      Matrix4f model = s.matrix4f();
+      model.set(rotation, translation, 1.0f);
+
+      Vector3f eye = s.vector3f();
+      eye.set(0.0f, 0.0f, -5.0f);
+
+      Matrix4f view = s.matrix4f();
+      view.setIdentity();
+      view.setTranslation(eye);
+
+      result.mul(view, model);
+   }
+}
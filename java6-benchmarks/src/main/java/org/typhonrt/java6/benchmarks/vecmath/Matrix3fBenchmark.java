@@ -0,0 +1,518 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.benchmarks.vecmath;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.typhonrt.java6.vecmath.Matrix3f;
+import org.typhonrt.java6.vecmath.Quat4f;
+import org.typhonrt.java6.vecmath.Vector3f;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matrix3fBenchmark -- Covers the public operations of Matrix3f.
+ *
+ * Operations that modify the matrix in place first copy a fixed source matrix into the result; the cost of that copy
+ * is measured by `set`.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Matrix3fBenchmark
+{
+   private Matrix3f a;
+   private Matrix3f b;
+   private Matrix3f result;
+
+   private Quat4f quat;
+
+   private Vector3f vec3;
+   private Vector3f vec3Result;
+
+   private float[] array9;
+   private float[] array3;
+
+   private float angle;
+   private float scalar;
+
+   @Setup
+   public void setup()
+   {
+      quat = new Quat4f(0.2f, 0.4f, 0.1f, 0.9f);
+      quat.normalize();
+
+      a = new Matrix3f();
+      a.set(quat);
+      a.mul(1.25f);
+
+      b = new Matrix3f();
+      b.rotY(0.7f);
+      b.m01 = 0.2f;
+
+      result = new Matrix3f();
+
+      vec3 = new Vector3f(0.3f, -1.2f, 2.4f);
+      vec3Result = new Vector3f();
+
+      array9 = new float[] { 1.0f, 0.5f, 0.25f, 0.0f, 2.0f, 0.5f, 0.1f, 0.0f, 3.0f };
+      array3 = new float[] { 1.0f, 2.0f, 3.0f };
+
+      angle = 0.35f;
+      scalar = 1.5f;
+   }
+
+   // Copy / set ---------------------------------------------------------------------------------------------------
+
+   @Benchmark
+   public Matrix3f set()
+   {
+      result.set(a);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix3f setIdentity()
+   {
+      result.setIdentity();
+      return result;
+   }
+
+   @Benchmark
+   public Matrix3f setZero()
+   {
+      result.setZero();
+      return result;
+   }
+
+   @Benchmark
+   public Matrix3f setArray()
+   {
+      result.set(array9);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix3f setScalar()
+   {
+      result.set(scalar);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix3f setQuat4f()
+   {
+      result.set(quat);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix3f setScale()
+   {
+      result.set(a);
+      result.setScale(scalar);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix3f rotX()
+   {
+      result.rotX(angle);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix3f rotY()
+   {
+      result.rotY(angle);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix3f rotZ()
+   {
+      result.rotZ(angle);
+      return result;
+   }
+
+   // Element / row / column access --------------------------------------------------------------------------------
+
+   @Benchmark
+   public Matrix3f setElement()
+   {
+      result.setElement(1, 2, scalar);
+      return result;
+   }
+
+   @Benchmark
+   public float getElement()
+   {
+      return a.getElement(1, 2);
+   }
+
+   @Benchmark
+   public Matrix3f setRowFloats()
+   {
+      result.setRow(1, 1.0f, 2.0f, 3.0f);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix3f setRowVector3f()
+   {
+      result.setRow(1, vec3);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix3f setRowArray()
+   {
+      result.setRow(1, array3);
+      return result;
+   }
+
+   @Benchmark
+   public Vector3f getRowVector3f()
+   {
+      a.getRow(1, vec3Result);
+      return vec3Result;
+   }
+
+   @Benchmark
+   public float[] getRowArray()
+   {
+      a.getRow(1, array3);
+      return array3;
+   }
+
+   @Benchmark
+   public Matrix3f setColumnFloats()
+   {
+      result.setColumn(1, 1.0f, 2.0f, 3.0f);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix3f setColumnVector3f()
+   {
+      result.setColumn(1, vec3);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix3f setColumnArray()
+   {
+      result.setColumn(1, array3);
+      return result;
+   }
+
+   @Benchmark
+   public Vector3f getColumnVector3f()
+   {
+      a.getColumn(1, vec3Result);
+      return vec3Result;
+   }
+
+   @Benchmark
+   public float[] getColumnArray()
+   {
+      a.getColumn(1, array3);
+      return array3;
+   }
+
+   @Benchmark
+   public float getScale()
+   {
+      return a.getScale();
+   }
+
+   @Benchmark
+   public float determinant()
+   {
+      return a.determinant();
+   }
+
+   // Arithmetic ---------------------------------------------------------------------------------------------------
+
+   @Benchmark
+   public Matrix3f addScalar()
+   {
+      result.set(a);
+      result.add(scalar);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix3f addScalarMatrix()
+   {
+      result.add(scalar, a);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix3f addMatrices()
+   {
+      result.add(a, b);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix3f addMatrix()
+   {
+      result.set(a);
+      result.add(b);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix3f subMatrices()
+   {
+      result.sub(a, b);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix3f subMatrix()
+   {
+      result.set(a);
+      result.sub(b);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix3f negate()
+   {
+      result.set(a);
+      result.negate();
+      return result;
+   }
+
+   @Benchmark
+   public Matrix3f negateMatrix()
+   {
+      result.negate(a);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix3f transpose()
+   {
+      result.set(a);
+      result.transpose();
+      return result;
+   }
+
+   @Benchmark
+   public Matrix3f transposeMatrix()
+   {
+      result.transpose(a);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix3f invert()
+   {
+      result.set(a);
+      result.invert();
+      return result;
+   }
+
+   @Benchmark
+   public Matrix3f invertMatrix()
+   {
+      result.invert(a);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix3f invertAliased()
+   {
+      result.set(a);
+      result.invert(result);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix3f mulScalar()
+   {
+      result.set(a);
+      result.mul(scalar);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix3f mulScalarMatrix()
+   {
+      result.mul(scalar, a);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix3f mul()
+   {
+      result.mul(a, b);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix3f mulInPlace()
+   {
+      result.set(a);
+      result.mul(b);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix3f mulAliasedBoth()
+   {
+      result.set(a);
+      result.mul(result, result);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix3f mulNormalize()
+   {
+      result.set(a);
+      result.mulNormalize(b);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix3f mulNormalizeMatrices()
+   {
+      result.mulNormalize(a, b);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix3f mulTransposeBoth()
+   {
+      result.mulTransposeBoth(a, b);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix3f mulTransposeRight()
+   {
+      result.mulTransposeRight(a, b);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix3f mulTransposeLeft()
+   {
+      result.mulTransposeLeft(a, b);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix3f normalize()
+   {
+      result.set(a);
+      result.normalize();
+      return result;
+   }
+
+   @Benchmark
+   public Matrix3f normalizeMatrix()
+   {
+      result.normalize(a);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix3f normalizeCP()
+   {
+      result.set(a);
+      result.normalizeCP();
+      return result;
+   }
+
+   @Benchmark
+   public Matrix3f normalizeCPMatrix()
+   {
+      result.normalizeCP(a);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix3f orthonormalize()
+   {
+      result.set(a);
+      result.orthonormalize();
+      return result;
+   }
+
+   @Benchmark
+   public Matrix3f orthonormalizeMatrix()
+   {
+      result.orthonormalize(a);
+      return result;
+   }
+
+   // Transform ----------------------------------------------------------------------------------------------------
+
+   @Benchmark
+   public Vector3f transformTuple3f()
+   {
+      vec3Result.set(vec3);
+      a.transform(vec3Result);
+      return vec3Result;
+   }
+
+   @Benchmark
+   public Vector3f transformTuple3fOutput()
+   {
+      a.transform(vec3, vec3Result);
+      return vec3Result;
+   }
+
+   // Comparison ---------------------------------------------------------------------------------------------------
+
+   @Benchmark
+   public boolean equalsMatrix()
+   {
+      return a.equals(b);
+   }
+
+   @Benchmark
+   public boolean equalsObject()
+   {
+      return a.equals((Object)b);
+   }
+
+   @Benchmark
+   public boolean epsilonEquals()
+   {
+      return a.epsilonEquals(b, 1e-6);
+   }
+
+   @Benchmark
+   public int hashCodeMatrix()
+   {
+      return a.hashCode();
+   }
+
+   @Benchmark
+   public String toStringMatrix()
+   {
+      return a.toString();
+   }
+}
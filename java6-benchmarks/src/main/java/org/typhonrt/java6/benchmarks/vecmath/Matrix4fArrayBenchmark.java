@@ -0,0 +1,174 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.benchmarks.vecmath;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.typhonrt.java6.vecmath.Matrix4f;
+import org.typhonrt.java6.vecmath.Matrix4fArray;
+import org.typhonrt.java6.vecmath.Quat4f;
+import org.typhonrt.java6.vecmath.Vector3f;
+
+import java.nio.FloatBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matrix4fArrayBenchmark -- Compares the Matrix4fArray bulk kernels against a loop over Matrix4f[] doing the same
+ * work; scores are per batch of `size` matrices. invertPacked runs the static Matrix4f.invert over the same matrices
+ * packed as 16 consecutive floats each.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Matrix4fArrayBenchmark
+{
+   @Param({"1024", "16384"})
+   private int size;
+
+   private Matrix4f viewProjection;
+
+   private Matrix4f[] models;
+   private Matrix4f[] results;
+
+   private Matrix4fArray modelArray;
+   private Matrix4fArray resultArray;
+
+   private float[] packedModels;
+   private float[] packedResults;
+
+   @Setup
+   public void setup()
+   {
+      viewProjection = new Matrix4f();
+      viewProjection.rotY(0.3f);
+      viewProjection.m32 = -1.0f;
+      viewProjection.m23 = -0.2f;
+      viewProjection.markDirty();
+
+      models = new Matrix4f[size];
+      results = new Matrix4f[size];
+
+      modelArray = new Matrix4fArray(size);
+      resultArray = new Matrix4fArray(size);
+
+      packedModels = new float[size * 16];
+      packedResults = new float[size * 16];
+
+      Quat4f rotation = new Quat4f();
+      Vector3f translation = new Vector3f();
+
+      for (int cntr = 0; cntr < size; cntr++)
+      {
+         rotation.set(cntr * 0.001f, 0.5f, 0.25f, 1.0f);
+         rotation.normalize();
+         translation.set(cntr, -cntr * 0.5f, 2.0f);
+
+         models[cntr] = new Matrix4f();
+         models[cntr].set(rotation, translation, 1.0f + cntr * 0.0001f);
+
+         results[cntr] = new Matrix4f();
+
+         modelArray.set(cntr, models[cntr]);
+         models[cntr].getRowMajor(FloatBuffer.wrap(packedModels), cntr * 16);
+      }
+   }
+
+   @Benchmark
+   public Matrix4f[] mulScalar()
+   {
+      for (int cntr = 0; cntr < size; cntr++)
+      {
+         results[cntr].mul(viewProjection, models[cntr]);
+      }
+      return results;
+   }
+
+   @Benchmark
+   public Matrix4fArray mulBulk()
+   {
+      resultArray.mul(viewProjection, modelArray, 0, size);
+      return resultArray;
+   }
+
+   @Benchmark
+   public Matrix4f[] mulPairsScalar()
+   {
+      for (int cntr = 0; cntr < size; cntr++)
+      {
+         results[cntr].mul(models[cntr], models[size - cntr - 1]);
+      }
+      return results;
+   }
+
+   @Benchmark
+   public Matrix4fArray mulPairsBulk()
+   {
+      resultArray.mul(modelArray, modelArray, 0, size);
+      return resultArray;
+   }
+
+   @Benchmark
+   public Matrix4fArray mulAffineBulk()
+   {
+      resultArray.mulAffine(modelArray, modelArray, 0, size);
+      return resultArray;
+   }
+
+   @Benchmark
+   public Matrix4f[] invertScalar()
+   {
+      for (int cntr = 0; cntr < size; cntr++)
+      {
+         results[cntr].invert(models[cntr]);
+      }
+      return results;
+   }
+
+   @Benchmark
+   public Matrix4fArray invertBulk()
+   {
+      resultArray.invert(modelArray, 0, size);
+      return resultArray;
+   }
+
+   @Benchmark
+   public float[] invertPacked()
+   {
+      Matrix4f.invert(packedModels, 0, packedResults, 0, size);
+      return packedResults;
+   }
+
+   @Benchmark
+   public Matrix4f[] transposeScalar()
+   {
+      for (int cntr = 0; cntr < size; cntr++)
+      {
+         results[cntr].transpose(models[cntr]);
+      }
+      return results;
+   }
+
+   @Benchmark
+   public Matrix4fArray transposeBulk()
+   {
+      resultArray.transpose(modelArray, 0, size);
+      return resultArray;
+   }
+}
@@ -0,0 +1,973 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.benchmarks.vecmath;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.typhonrt.java6.vecmath.Matrix3f;
+import org.typhonrt.java6.vecmath.Matrix4f;
+import org.typhonrt.java6.vecmath.Quat4f;
+import org.typhonrt.java6.vecmath.Vector3f;
+import org.typhonrt.java6.vecmath.Vector4f;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matrix4fBenchmark -- Covers the public operations of Matrix4f.
+ *
+ * Operations that modify the matrix in place first copy a fixed source matrix into the result, so repeated
+ * invocations do not drift toward denormals / infinity; the cost of that copy is measured by `set`.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Matrix4fBenchmark
+{
+   private Matrix4f a;
+   private Matrix4f b;
+   private Matrix4f affine;
+   private Matrix4f unclassified;
+   private Matrix4f rigid;
+   private Matrix4f nonUniform;
+   private Matrix4f translate;
+   private Matrix4f identity;
+   private Matrix4f perspective;
+   private Matrix4f view;
+   private Matrix4f result;
+
+   private Matrix3f rot3;
+   private Matrix3f result3;
+
+   private Quat4f quat;
+   private Quat4f quatResult;
+
+   private Vector3f translation;
+   private Vector3f vec3;
+   private Vector3f vec3Result;
+
+   private Vector4f vec4;
+   private Vector4f vec4Result;
+
+   private float[] array16;
+   private FloatBuffer floatBuffer;
+   private ByteBuffer byteBuffer;
+   private float[] array4;
+
+   private float angle;
+   private float scalar;
+
+   @Setup
+   public void setup()
+   {
+      quat = new Quat4f(0.2f, 0.4f, 0.1f, 0.9f);
+      quat.normalize();
+      quatResult = new Quat4f();
+
+      translation = new Vector3f(1.5f, -2.0f, 3.25f);
+
+      a = new Matrix4f();
+      a.set(quat, translation, 1.25f);
+
+      b = new Matrix4f();
+      b.rotY(0.7f);
+      b.m03 = -0.5f;
+      b.m13 = 4.0f;
+      b.m23 = 2.0f;
+      b.m30 = 0.01f;
+      b.m32 = -0.02f;
+      b.markDirty();
+
+      affine = new Matrix4f(a);
+
+      unclassified = new Matrix4f(a);
+      unclassified.markDirty();
+
+      rigid = new Matrix4f();
+      rigid.set(quat, translation, 1.0f);
+
+      nonUniform = new Matrix4f(rigid);
+      nonUniform.m00 *= 2.0f;
+      nonUniform.m10 *= 2.0f;
+      nonUniform.m20 *= 2.0f;
+      nonUniform.markDirty();
+
+      translate = new Matrix4f();
+      translate.set(translation);
+
+      identity = new Matrix4f();
+      identity.setIdentity();
+
+      perspective = new Matrix4f();
+      perspective.setPerspective(1.0f, 1.5f, 0.1f, 100.0f);
+
+      view = new Matrix4f();
+      view.setLookAt(1.0f, 2.0f, 3.0f, 0.0f, 0.0f, 0.0f, 0.0f, 1.0f, 0.0f);
+
+      result = new Matrix4f();
+
+      rot3 = new Matrix3f();
+      rot3.rotX(0.3f);
+      result3 = new Matrix3f();
+
+      vec3 = new Vector3f(0.3f, -1.2f, 2.4f);
+      vec3Result = new Vector3f();
+
+      vec4 = new Vector4f(0.3f, -1.2f, 2.4f, 1.0f);
+      vec4Result = new Vector4f();
+
+      array16 = new float[16];
+      array4 = new float[] { 1.0f, 2.0f, 3.0f, 4.0f };
+
+      for (int cntr = 0; cntr < 16; cntr++)
+      {
+         array16[cntr] = cntr * 0.25f + 1.0f;
+      }
+
+      byteBuffer = ByteBuffer.allocateDirect(64).order(ByteOrder.nativeOrder());
+      floatBuffer = byteBuffer.asFloatBuffer();
+      a.get(floatBuffer, 0);
+
+      angle = 0.35f;
+      scalar = 1.5f;
+   }
+
+   // Copy / set ---------------------------------------------------------------------------------------------------
+
+   @Benchmark
+   public Matrix4f set()
+   {
+      result.set(a);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f setIdentity()
+   {
+      result.setIdentity();
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f setZero()
+   {
+      result.setZero();
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f setArray()
+   {
+      result.set(array16);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f setScalar()
+   {
+      result.set(scalar);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f setMatrix3f()
+   {
+      result.set(rot3);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f setQuat4f()
+   {
+      result.set(quat);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f setQuat4fVector3fScale()
+   {
+      result.set(quat, translation, scalar);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f setVector3f()
+   {
+      result.set(translation);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f setScaleVector3f()
+   {
+      result.set(scalar, translation);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f setVector3fScale()
+   {
+      result.set(translation, scalar);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f setMatrix3fVector3fScale()
+   {
+      result.set(rot3, translation, scalar);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f setTranslation()
+   {
+      result.setTranslation(translation);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f setRotationScale()
+   {
+      result.setRotationScale(rot3);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f setRotationMatrix3f()
+   {
+      result.set(a);
+      result.setRotation(rot3);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f setRotationQuat4f()
+   {
+      result.set(a);
+      result.setRotation(quat);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f setScale()
+   {
+      result.set(a);
+      result.setScale(scalar);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f rotX()
+   {
+      result.rotX(angle);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f rotY()
+   {
+      result.rotY(angle);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f rotZ()
+   {
+      result.rotZ(angle);
+      return result;
+   }
+
+   // Buffer access ------------------------------------------------------------------------------------------------
+
+   @Benchmark
+   public FloatBuffer getFloatBuffer()
+   {
+      floatBuffer.clear();
+      a.get(floatBuffer);
+      return floatBuffer;
+   }
+
+   @Benchmark
+   public FloatBuffer getFloatBufferIndex()
+   {
+      a.get(floatBuffer, 0);
+      return floatBuffer;
+   }
+
+   @Benchmark
+   public FloatBuffer getFloatBufferRowMajor()
+   {
+      a.getRowMajor(floatBuffer, 0);
+      return floatBuffer;
+   }
+
+   @Benchmark
+   public ByteBuffer getByteBufferOffset()
+   {
+      a.get(byteBuffer, 0);
+      return byteBuffer;
+   }
+
+   @Benchmark
+   public Matrix4f setFloatBufferIndex()
+   {
+      result.set(floatBuffer, 0);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f setByteBufferOffset()
+   {
+      result.set(byteBuffer, 0);
+      return result;
+   }
+
+   // Element / row / column access --------------------------------------------------------------------------------
+
+   @Benchmark
+   public Matrix4f setElement()
+   {
+      result.setElement(2, 3, scalar);
+      return result;
+   }
+
+   @Benchmark
+   public float getElement()
+   {
+      return a.getElement(2, 3);
+   }
+
+   @Benchmark
+   public Matrix4f setRowFloats()
+   {
+      result.setRow(2, 1.0f, 2.0f, 3.0f, 4.0f);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f setRowVector4f()
+   {
+      result.setRow(2, vec4);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f setRowArray()
+   {
+      result.setRow(2, array4);
+      return result;
+   }
+
+   @Benchmark
+   public Vector4f getRowVector4f()
+   {
+      a.getRow(2, vec4Result);
+      return vec4Result;
+   }
+
+   @Benchmark
+   public float[] getRowArray()
+   {
+      a.getRow(2, array4);
+      return array4;
+   }
+
+   @Benchmark
+   public Matrix4f setColumnFloats()
+   {
+      result.setColumn(2, 1.0f, 2.0f, 3.0f, 4.0f);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f setColumnVector4f()
+   {
+      result.setColumn(2, vec4);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f setColumnArray()
+   {
+      result.setColumn(2, array4);
+      return result;
+   }
+
+   @Benchmark
+   public Vector4f getColumnVector4f()
+   {
+      a.getColumn(2, vec4Result);
+      return vec4Result;
+   }
+
+   @Benchmark
+   public float[] getColumnArray()
+   {
+      a.getColumn(2, array4);
+      return array4;
+   }
+
+   // Decomposition ------------------------------------------------------------------------------------------------
+
+   @Benchmark
+   public Matrix3f getMatrix3f()
+   {
+      a.get(result3);
+      return result3;
+   }
+
+   @Benchmark
+   public float getMatrix3fVector3f()
+   {
+      return a.get(result3, vec3Result);
+   }
+
+   @Benchmark
+   public Quat4f getQuat4f()
+   {
+      a.get(quatResult);
+      return quatResult;
+   }
+
+   @Benchmark
+   public Vector3f getVector3f()
+   {
+      a.get(vec3Result);
+      return vec3Result;
+   }
+
+   @Benchmark
+   public Matrix3f getRotationScale()
+   {
+      a.getRotationScale(result3);
+      return result3;
+   }
+
+   @Benchmark
+   public Matrix3f getNormalMatrixRigid()
+   {
+      rigid.getNormalMatrix(result3);
+      return result3;
+   }
+
+   @Benchmark
+   public Matrix3f getNormalMatrixUniform()
+   {
+      a.getNormalMatrix(result3);
+      return result3;
+   }
+
+   @Benchmark
+   public Matrix3f getNormalMatrixNonUniform()
+   {
+      nonUniform.getNormalMatrix(result3);
+      return result3;
+   }
+
+   @Benchmark
+   public Matrix3f getNormalMatrixInvertTranspose()
+   {
+      nonUniform.getRotationScale(result3);
+      result3.invert();
+      result3.transpose();
+      return result3;
+   }
+
+   @Benchmark
+   public float getScale()
+   {
+      return a.getScale();
+   }
+
+   @Benchmark
+   public float determinant()
+   {
+      return a.determinant();
+   }
+
+   // Arithmetic ---------------------------------------------------------------------------------------------------
+
+   @Benchmark
+   public Matrix4f addScalar()
+   {
+      result.set(a);
+      result.add(scalar);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f addScalarMatrix()
+   {
+      result.add(scalar, a);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f addMatrices()
+   {
+      result.add(a, b);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f addMatrix()
+   {
+      result.set(a);
+      result.add(b);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f subMatrices()
+   {
+      result.sub(a, b);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f subMatrix()
+   {
+      result.set(a);
+      result.sub(b);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f negate()
+   {
+      result.set(a);
+      result.negate();
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f negateMatrix()
+   {
+      result.negate(a);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f transpose()
+   {
+      result.set(a);
+      result.transpose();
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f transposeMatrix()
+   {
+      result.transpose(a);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f invert()
+   {
+      result.set(a);
+      result.invert();
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f invertMatrix()
+   {
+      result.invert(a);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f invertMatrixGeneral()
+   {
+      result.invert(b);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f invertMatrixUnclassified()
+   {
+      result.invert(unclassified);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f invertAffineUnclassified()
+   {
+      result.invertAffine(unclassified);
+      return result;
+   }
+
+   /**
+    * The general inverse as computed before the shared minors: the determinant first, then each cofactor from its
+    * own 2x2 minors and a final scale.
+    */
+   @Benchmark
+   public Matrix4f invertMatrixGeneralDeterminantFirst()
+   {
+      final Matrix4f m = b;
+
+      float s = m.determinant();
+
+      if (s == 0.0f)
+      {
+         return result;
+      }
+
+      s = 1 / s;
+
+      result.m00 = m.m11 * (m.m22 * m.m33 - m.m23 * m.m32) + m.m12 * (m.m23 * m.m31 - m.m21 * m.m33) +
+       m.m13 * (m.m21 * m.m32 - m.m22 * m.m31);
+      result.m01 = m.m21 * (m.m02 * m.m33 - m.m03 * m.m32) + m.m22 * (m.m03 * m.m31 - m.m01 * m.m33) +
+       m.m23 * (m.m01 * m.m32 - m.m02 * m.m31);
+      result.m02 = m.m31 * (m.m02 * m.m13 - m.m03 * m.m12) + m.m32 * (m.m03 * m.m11 - m.m01 * m.m13) +
+       m.m33 * (m.m01 * m.m12 - m.m02 * m.m11);
+      result.m03 = m.m01 * (m.m13 * m.m22 - m.m12 * m.m23) + m.m02 * (m.m11 * m.m23 - m.m13 * m.m21) +
+       m.m03 * (m.m12 * m.m21 - m.m11 * m.m22);
+      result.m10 = m.m12 * (m.m20 * m.m33 - m.m23 * m.m30) + m.m13 * (m.m22 * m.m30 - m.m20 * m.m32) +
+       m.m10 * (m.m23 * m.m32 - m.m22 * m.m33);
+      result.m11 = m.m22 * (m.m00 * m.m33 - m.m03 * m.m30) + m.m23 * (m.m02 * m.m30 - m.m00 * m.m32) +
+       m.m20 * (m.m03 * m.m32 - m.m02 * m.m33);
+      result.m12 = m.m32 * (m.m00 * m.m13 - m.m03 * m.m10) + m.m33 * (m.m02 * m.m10 - m.m00 * m.m12) +
+       m.m30 * (m.m03 * m.m12 - m.m02 * m.m13);
+      result.m13 = m.m02 * (m.m13 * m.m20 - m.m10 * m.m23) + m.m03 * (m.m10 * m.m22 - m.m12 * m.m20) +
+       m.m00 * (m.m12 * m.m23 - m.m13 * m.m22);
+      result.m20 = m.m13 * (m.m20 * m.m31 - m.m21 * m.m30) + m.m10 * (m.m21 * m.m33 - m.m23 * m.m31) +
+       m.m11 * (m.m23 * m.m30 - m.m20 * m.m33);
+      result.m21 = m.m23 * (m.m00 * m.m31 - m.m01 * m.m30) + m.m20 * (m.m01 * m.m33 - m.m03 * m.m31) +
+       m.m21 * (m.m03 * m.m30 - m.m00 * m.m33);
+      result.m22 = m.m33 * (m.m00 * m.m11 - m.m01 * m.m10) + m.m30 * (m.m01 * m.m13 - m.m03 * m.m11) +
+       m.m31 * (m.m03 * m.m10 - m.m00 * m.m13);
+      result.m23 = m.m03 * (m.m11 * m.m20 - m.m10 * m.m21) + m.m00 * (m.m13 * m.m21 - m.m11 * m.m23) +
+       m.m01 * (m.m10 * m.m23 - m.m13 * m.m20);
+      result.m30 = m.m10 * (m.m22 * m.m31 - m.m21 * m.m32) + m.m11 * (m.m20 * m.m32 - m.m22 * m.m30) +
+       m.m12 * (m.m21 * m.m30 - m.m20 * m.m31);
+      result.m31 = m.m20 * (m.m02 * m.m31 - m.m01 * m.m32) + m.m21 * (m.m00 * m.m32 - m.m02 * m.m30) +
+       m.m22 * (m.m01 * m.m30 - m.m00 * m.m31);
+      result.m32 = m.m30 * (m.m02 * m.m11 - m.m01 * m.m12) + m.m31 * (m.m00 * m.m12 - m.m02 * m.m10) +
+       m.m32 * (m.m01 * m.m10 - m.m00 * m.m11);
+      result.m33 = m.m00 * (m.m11 * m.m22 - m.m12 * m.m21) + m.m01 * (m.m12 * m.m20 - m.m10 * m.m22) +
+       m.m02 * (m.m10 * m.m21 - m.m11 * m.m20);
+      result.markDirty();
+
+      result.mul(s);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f invertMatrixRigid()
+   {
+      result.invert(rigid);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f invertMatrixTranslation()
+   {
+      result.invert(translate);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f invertAliased()
+   {
+      result.set(a);
+      result.invert(result);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f mulScalar()
+   {
+      result.set(a);
+      result.mul(scalar);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f mulScalarMatrix()
+   {
+      result.mul(scalar, a);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f mul()
+   {
+      result.mul(a, b);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f mulAffine()
+   {
+      result.mul(affine, a);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f mulUnclassified()
+   {
+      result.mul(unclassified, unclassified);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f mulRigid()
+   {
+      result.mul(rigid, rigid);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f mulTranslationLeft()
+   {
+      result.mul(translate, a);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f mulTranslationRight()
+   {
+      result.mul(a, translate);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f mulIdentity()
+   {
+      result.mul(identity, a);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f mulInPlace()
+   {
+      result.set(a);
+      result.mul(b);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f mulAliasedLeft()
+   {
+      result.set(a);
+      result.mul(result, b);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f mulAliasedRight()
+   {
+      result.set(b);
+      result.mul(a, result);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f mulAliasedBoth()
+   {
+      result.set(a);
+      result.mul(result, result);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f mulTransposeBoth()
+   {
+      result.mulTransposeBoth(a, b);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f mulTransposeRight()
+   {
+      result.mulTransposeRight(a, b);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f mulTransposeLeft()
+   {
+      result.mulTransposeLeft(a, b);
+      return result;
+   }
+
+   // Transform ----------------------------------------------------------------------------------------------------
+
+   @Benchmark
+   public Vector3f transformTuple3f()
+   {
+      vec3Result.set(vec3);
+      a.transform(vec3Result);
+      return vec3Result;
+   }
+
+   @Benchmark
+   public Vector3f transformTuple3fOutput()
+   {
+      a.transform(vec3, vec3Result);
+      return vec3Result;
+   }
+
+   @Benchmark
+   public Vector3f transformTuple3fTranslation()
+   {
+      translate.transform(vec3, vec3Result);
+      return vec3Result;
+   }
+
+   @Benchmark
+   public Vector4f transformTuple4fUnclassified()
+   {
+      unclassified.transform(vec4, vec4Result);
+      return vec4Result;
+   }
+
+   @Benchmark
+   public Vector4f transformTuple4f()
+   {
+      vec4Result.set(vec4);
+      a.transform(vec4Result);
+      return vec4Result;
+   }
+
+   @Benchmark
+   public Vector4f transformTuple4fOutput()
+   {
+      a.transform(vec4, vec4Result);
+      return vec4Result;
+   }
+
+   // Projection / view --------------------------------------------------------------------------------------------
+
+   @Benchmark
+   public Matrix4f setPerspective()
+   {
+      result.setPerspective(angle, scalar, 0.1f, 100.0f);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f setFrustum()
+   {
+      result.setFrustum(-scalar, scalar, -1.0f, 1.0f, 0.1f, 100.0f);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f setOrtho()
+   {
+      result.setOrtho(-scalar, scalar, -1.0f, 1.0f, 0.1f, 100.0f);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f setLookAt()
+   {
+      result.setLookAt(translation.x, translation.y, translation.z, 0.0f, 0.0f, 0.0f, 0.0f, 1.0f, 0.0f);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f setPerspectiveLookAt()
+   {
+      result.setPerspectiveLookAt(angle, scalar, 0.1f, 100.0f, translation.x, translation.y, translation.z, 0.0f,
+       0.0f, 0.0f, 0.0f, 1.0f, 0.0f);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f mulPerspective()
+   {
+      result.mulPerspective(angle, scalar, 0.1f, 100.0f, view);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f mulPerspectiveMatrix()
+   {
+      result.mul(perspective, view);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f mulOrtho()
+   {
+      result.mulOrtho(-scalar, scalar, -1.0f, 1.0f, 0.1f, 100.0f, view);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f invertPerspective()
+   {
+      result.invertPerspective(perspective);
+      return result;
+   }
+
+   @Benchmark
+   public Matrix4f invertMatrixPerspective()
+   {
+      result.invert(perspective);
+      return result;
+   }
+
+   // Classification -----------------------------------------------------------------------------------------------
+
+   @Benchmark
+   public int classify()
+   {
+      result.set(a);
+      return result.classify();
+   }
+
+   // Comparison ---------------------------------------------------------------------------------------------------
+
+   @Benchmark
+   public boolean equalsMatrix()
+   {
+      return a.equals(affine);
+   }
+
+   @Benchmark
+   public boolean equalsObject()
+   {
+      return a.equals((Object)affine);
+   }
+
+   @Benchmark
+   public boolean epsilonEquals()
+   {
+      return a.epsilonEquals(affine, 1e-6f);
+   }
+
+   @Benchmark
+   public int hashCodeMatrix()
+   {
+      return a.hashCode();
+   }
+
+   @Benchmark
+   public String toStringMatrix()
+   {
+      return a.toString();
+   }
+}
@@ -0,0 +1,172 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.benchmarks.vecmath;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.typhonrt.java6.vecmath.Matrix4f;
+import org.typhonrt.java6.vecmath.Matrix4fStack;
+import org.typhonrt.java6.vecmath.Quat4f;
+import org.typhonrt.java6.vecmath.Vector3f;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matrix4fStackBenchmark -- Draws a batch of 1024 sprites in immediate-mode style: per sprite the model-view is pushed
+ * with a translation and a rotation, uploaded to a direct FloatBuffer and popped. Compares Matrix4fStack against a
+ * stack that allocates a Matrix4f per push. Run with "-prof gc" to see the allocation per batch of the latter.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Matrix4fStackBenchmark
+{
+   private static final int s_SPRITES = 1024;
+
+   private Matrix4f view;
+
+   private Quat4f rotation;
+
+   private Matrix4fStack stack;
+
+   private ArrayList<Matrix4f> allocatingStack;
+
+   private FloatBuffer uniform;
+
+   private Matrix4f inverse;
+
+   @Setup
+   public void setup()
+   {
+      view = new Matrix4f();
+      view.setLookAt(1.0f, 2.0f, 3.0f, 0.0f, 0.0f, 0.0f, 0.0f, 1.0f, 0.0f);
+
+      rotation = new Quat4f(0.0f, 0.0f, 0.38268343f, 0.9238795f);
+
+      stack = new Matrix4fStack();
+      stack.load(view);
+
+      allocatingStack = new ArrayList<Matrix4f>();
+
+      uniform = ByteBuffer.allocateDirect(64).order(ByteOrder.nativeOrder()).asFloatBuffer();
+
+      inverse = new Matrix4f();
+   }
+
+   @Benchmark
+   public FloatBuffer matrix4fStack()
+   {
+      final Matrix4fStack s = stack;
+
+      for (int cntr = 0; cntr < s_SPRITES; cntr++)
+      {
+         s.pushTranslate(cntr & 31, cntr >> 5, 0.0f);
+         s.pushRotate(rotation);
+         s.get(uniform, 0);
+         s.pop();
+         s.pop();
+      }
+
+      return uniform;
+   }
+
+   @Benchmark
+   public FloatBuffer allocatingStack()
+   {
+      final ArrayList<Matrix4f> s = allocatingStack;
+
+      s.add(new Matrix4f(view));
+
+      Matrix4f translation = new Matrix4f();
+      Matrix4f rotate = new Matrix4f();
+      Vector3f offset = new Vector3f();
+
+      for (int cntr = 0; cntr < s_SPRITES; cntr++)
+      {
+         offset.set(cntr & 31, cntr >> 5, 0.0f);
+         translation.setIdentity();
+         translation.setTranslation(offset);
+
+         Matrix4f translated = new Matrix4f();
+         translated.mul(s.get(s.size() - 1), translation);
+         s.add(translated);
+
+         rotate.set(rotation);
+
+         Matrix4f rotated = new Matrix4f();
+         rotated.mul(translated, rotate);
+         s.add(rotated);
+
+         rotated.get(uniform, 0);
+
+         s.remove(s.size() - 1);
+         s.remove(s.size() - 1);
+      }
+
+      s.clear();
+
+      return uniform;
+   }
+
+   /**
+    * The view inverse is requested once per sprite with the sprite levels popped in between; only the first request
+    * per batch computes it.
+    */
+   @Benchmark
+   public Matrix4f cachedInverse()
+   {
+      final Matrix4fStack s = stack;
+
+      s.load(view);
+
+      for (int cntr = 0; cntr < s_SPRITES; cntr++)
+      {
+         s.getInverse(inverse);
+         s.pushTranslate(cntr & 31, cntr >> 5, 0.0f);
+         s.pop();
+      }
+
+      return inverse;
+   }
+
+   /**
+    * Same traversal inverting the copied top on every request as is needed without a cache.
+    */
+   @Benchmark
+   public Matrix4f uncachedInverse()
+   {
+      final Matrix4fStack s = stack;
+
+      s.load(view);
+
+      for (int cntr = 0; cntr < s_SPRITES; cntr++)
+      {
+         s.get(inverse);
+         inverse.invertAffine();
+         s.pushTranslate(cntr & 31, cntr >> 5, 0.0f);
+         s.pop();
+      }
+
+      return inverse;
+   }
+}
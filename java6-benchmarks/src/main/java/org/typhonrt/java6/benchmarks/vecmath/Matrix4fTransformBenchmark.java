@@ -0,0 +1,168 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.benchmarks.vecmath;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.typhonrt.java6.vecmath.Matrix4f;
+import org.typhonrt.java6.vecmath.Quat4f;
+import org.typhonrt.java6.vecmath.Vector3f;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matrix4fTransformBenchmark -- Compares the bulk point / vector / normal transforms of Matrix4f over interleaved
+ * x, y, z, u, v vertex data against a loop over Vector3f[]; scores are per batch of `size` vertices.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Matrix4fTransformBenchmark
+{
+   private static final int s_STRIDE = 5;
+
+   @Param({"1024", "65536"})
+   private int size;
+
+   private Matrix4f model;
+   private Matrix4f scaled;
+
+   private Vector3f[] points;
+   private Vector3f[] results;
+
+   private float[] vertices;
+   private float[] output;
+
+   private FloatBuffer vertexBuffer;
+   private FloatBuffer outputBuffer;
+
+   private ExecutorService executor;
+
+   @Setup
+   public void setup()
+   {
+      Quat4f rotation = new Quat4f(0.2f, 0.4f, 0.1f, 0.9f);
+      rotation.normalize();
+
+      model = new Matrix4f();
+      model.set(rotation, new Vector3f(1.5f, -2.0f, 3.25f), 1.0f);
+
+      scaled = new Matrix4f();
+      scaled.set(rotation, new Vector3f(1.5f, -2.0f, 3.25f), 1.5f);
+
+      points = new Vector3f[size];
+      results = new Vector3f[size];
+
+      vertices = new float[size * s_STRIDE];
+      output = new float[size * 3];
+
+      vertexBuffer = ByteBuffer.allocateDirect(vertices.length * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+      outputBuffer = ByteBuffer.allocateDirect(output.length * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+
+      for (int cntr = 0; cntr < size; cntr++)
+      {
+         float x = cntr * 0.001f;
+         float y = 1.0f - cntr * 0.0005f;
+         float z = 0.5f;
+
+         points[cntr] = new Vector3f(x, y, z);
+         results[cntr] = new Vector3f();
+
+         vertices[cntr * s_STRIDE] = x;
+         vertices[cntr * s_STRIDE + 1] = y;
+         vertices[cntr * s_STRIDE + 2] = z;
+      }
+
+      vertexBuffer.put(vertices);
+
+      executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+   }
+
+   @TearDown
+   public void tearDown()
+   {
+      executor.shutdown();
+   }
+
+   @Benchmark
+   public Vector3f[] transformPointsScalar()
+   {
+      for (int cntr = 0; cntr < size; cntr++)
+      {
+         model.transform(points[cntr], results[cntr]);
+      }
+      return results;
+   }
+
+   @Benchmark
+   public float[] transformPoints()
+   {
+      model.transformPoints(vertices, 0, s_STRIDE, output, 0, 3, size);
+      return output;
+   }
+
+   @Benchmark
+   public float[] transformPointsParallel()
+   {
+      model.transformPoints(vertices, 0, s_STRIDE, output, 0, 3, size, executor);
+      return output;
+   }
+
+   @Benchmark
+   public FloatBuffer transformPointsBuffer()
+   {
+      model.transformPoints(vertexBuffer, 0, s_STRIDE, outputBuffer, 0, 3, size);
+      return outputBuffer;
+   }
+
+   @Benchmark
+   public float[] transformVectors()
+   {
+      model.transformVectors(vertices, 0, s_STRIDE, output, 0, 3, size);
+      return output;
+   }
+
+   @Benchmark
+   public float[] transformNormalsOrthonormal()
+   {
+      model.transformNormals(vertices, 0, s_STRIDE, output, 0, 3, size);
+      return output;
+   }
+
+   @Benchmark
+   public float[] transformNormalsScaled()
+   {
+      scaled.transformNormals(vertices, 0, s_STRIDE, output, 0, 3, size);
+      return output;
+   }
+
+   @Benchmark
+   public float[] transformNormalsScaledParallel()
+   {
+      scaled.transformNormals(vertices, 0, s_STRIDE, output, 0, 3, size, executor);
+      return output;
+   }
+}
@@ -0,0 +1,194 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.benchmarks.vecmath;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.typhonrt.java6.vecmath.Matrix3f;
+import org.typhonrt.java6.vecmath.Matrix4f;
+import org.typhonrt.java6.vecmath.Quat4f;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Quat4fBenchmark -- Covers the public operations of Quat4f; the inherited Tuple4f operations are covered by
+ * Vector4fBenchmark.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Quat4fBenchmark
+{
+   private Quat4f q1;
+   private Quat4f q2;
+   private Quat4f result;
+
+   private Matrix3f rot3;
+   private Matrix4f rot4;
+
+   private double alpha;
+   private float alphaf;
+
+   @Setup
+   public void setup()
+   {
+      q1 = new Quat4f(0.2f, 0.4f, 0.1f, 0.9f);
+      q1.normalize();
+
+      q2 = new Quat4f(-0.3f, 0.1f, 0.7f, 0.6f);
+      q2.normalize();
+
+      result = new Quat4f();
+
+      rot3 = new Matrix3f();
+      rot3.rotX(0.3f);
+
+      rot4 = new Matrix4f();
+      rot4.rotZ(1.1f);
+
+      alpha = 0.35;
+      alphaf = 0.35f;
+   }
+
+   @Benchmark
+   public Quat4f set()
+   {
+      result.set(q1);
+      return result;
+   }
+
+   @Benchmark
+   public Quat4f setMatrix3f()
+   {
+      result.set(rot3);
+      return result;
+   }
+
+   @Benchmark
+   public Quat4f setMatrix4f()
+   {
+      result.set(rot4);
+      return result;
+   }
+
+   @Benchmark
+   public Quat4f conjugate()
+   {
+      result.set(q1);
+      result.conjugate();
+      return result;
+   }
+
+   @Benchmark
+   public Quat4f conjugateQuat()
+   {
+      result.conjugate(q1);
+      return result;
+   }
+
+   @Benchmark
+   public Quat4f mul()
+   {
+      result.mul(q1, q2);
+      return result;
+   }
+
+   @Benchmark
+   public Quat4f mulInPlace()
+   {
+      result.set(q1);
+      result.mul(q2);
+      return result;
+   }
+
+   @Benchmark
+   public Quat4f mulAliasedBoth()
+   {
+      result.set(q1);
+      result.mul(result, result);
+      return result;
+   }
+
+   @Benchmark
+   public Quat4f mulInverse()
+   {
+      result.set(q1);
+      result.mulInverse(q1, q2);
+      return result;
+   }
+
+   @Benchmark
+   public Quat4f mulInverseInPlace()
+   {
+      result.set(q1);
+      result.mulInverse(q2);
+      return result;
+   }
+
+   @Benchmark
+   public Quat4f inverse()
+   {
+      result.set(q1);
+      result.inverse();
+      return result;
+   }
+
+   @Benchmark
+   public Quat4f inverseQuat()
+   {
+      result.inverse(q1);
+      return result;
+   }
+
+   @Benchmark
+   public Quat4f normalizeQuat()
+   {
+      result.normalize(q1);
+      return result;
+   }
+
+   @Benchmark
+   public Quat4f interpolate()
+   {
+      result.set(q1);
+      result.interpolate(q2, alpha);
+      return result;
+   }
+
+   @Benchmark
+   public Quat4f interpolateQuats()
+   {
+      result.interpolate(q1, q2, alpha);
+      return result;
+   }
+
+   @Benchmark
+   public Quat4f nlerp()
+   {
+      result.nlerp(q1, q2, alphaf);
+      return result;
+   }
+
+   @Benchmark
+   public Quat4f slerpFast()
+   {
+      result.slerpFast(q1, q2, alphaf);
+      return result;
+   }
+}
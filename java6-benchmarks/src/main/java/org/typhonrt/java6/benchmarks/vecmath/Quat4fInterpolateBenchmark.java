@@ -0,0 +1,133 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.benchmarks.vecmath;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.typhonrt.java6.vecmath.Quat4f;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Quat4fInterpolateBenchmark -- Compares the batched structure of arrays nlerp / slerpFast kernels of Quat4f against
+ * a loop of Quat4f.interpolate; scores are per batch of `size` quaternion pairs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Quat4fInterpolateBenchmark
+{
+   @Param({"64", "4096"})
+   private int size;
+
+   private Quat4f[] from;
+   private Quat4f[] to;
+   private Quat4f[] results;
+
+   private float[] fromSoA;
+   private float[] toSoA;
+   private float[] resultSoA;
+   private float[] alphas;
+
+   @Setup
+   public void setup()
+   {
+      from = new Quat4f[size];
+      to = new Quat4f[size];
+      results = new Quat4f[size];
+
+      fromSoA = new float[size * 4];
+      toSoA = new float[size * 4];
+      resultSoA = new float[size * 4];
+      alphas = new float[size];
+
+      Random random = new Random(42);
+
+      for (int cntr = 0; cntr < size; cntr++)
+      {
+         from[cntr] = randomQuat(random);
+         to[cntr] = randomQuat(random);
+         results[cntr] = new Quat4f();
+
+         alphas[cntr] = random.nextFloat();
+
+         store(from[cntr], fromSoA, cntr);
+         store(to[cntr], toSoA, cntr);
+      }
+   }
+
+   @Benchmark
+   public Quat4f[] interpolateLoop()
+   {
+      for (int cntr = 0; cntr < size; cntr++)
+      {
+         results[cntr].interpolate(from[cntr], to[cntr], (double)alphas[cntr]);
+      }
+      return results;
+   }
+
+   @Benchmark
+   public Quat4f[] slerpFastLoop()
+   {
+      for (int cntr = 0; cntr < size; cntr++)
+      {
+         results[cntr].slerpFast(from[cntr], to[cntr], alphas[cntr]);
+      }
+      return results;
+   }
+
+   @Benchmark
+   public float[] nlerpBatch()
+   {
+      Quat4f.nlerp(fromSoA, toSoA, alphas, resultSoA, size, 0, size, true);
+      return resultSoA;
+   }
+
+   @Benchmark
+   public float[] slerpFastBatch()
+   {
+      Quat4f.slerpFast(fromSoA, toSoA, alphas, resultSoA, size, 0, size, true);
+      return resultSoA;
+   }
+
+   @Benchmark
+   public float[] slerpFastBatchUniform()
+   {
+      Quat4f.slerpFast(fromSoA, toSoA, 0.35f, resultSoA, size, 0, size, true);
+      return resultSoA;
+   }
+
+   private static Quat4f randomQuat(Random random)
+   {
+      Quat4f q = new Quat4f((float)random.nextGaussian(), (float)random.nextGaussian(), (float)random.nextGaussian(),
+       (float)random.nextGaussian());
+      q.normalize();
+      return q;
+   }
+
+   private void store(Quat4f q, float[] soa, int index)
+   {
+      soa[index] = q.x;
+      soa[size + index] = q.y;
+      soa[size * 2 + index] = q.z;
+      soa[size * 3 + index] = q.w;
+   }
+}
@@ -0,0 +1,131 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.benchmarks.vecmath;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.typhonrt.java6.math.FastRandom;
+import org.typhonrt.java6.vecmath.Vec3BufferCursor;
+import org.typhonrt.java6.vecmath.Vec3Cursor;
+import org.typhonrt.java6.vecmath.Vector3f;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * VecCursorBenchmark -- Integrates particles stored as interleaved position / velocity records (6 floats) and
+ * normalizes the velocities; compares copying each element through Vector3f with Vec3Cursor over a float[] and
+ * Vec3BufferCursor over a direct FloatBuffer. Scores are per pass over `size` particles.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VecCursorBenchmark
+{
+   private static final int s_STRIDE = 6;
+
+   private static final float s_DT = 1.0f / 60.0f;
+
+   @Param({"16384", "1048576"})
+   private int size;
+
+   private float[] particles;
+   private FloatBuffer particleBuffer;
+
+   private Vector3f position;
+   private Vector3f velocity;
+
+   private Vec3Cursor positions;
+   private Vec3Cursor velocities;
+
+   private Vec3BufferCursor bufferPositions;
+   private Vec3BufferCursor bufferVelocities;
+
+   @Setup
+   public void setup()
+   {
+      particles = new float[size * s_STRIDE];
+
+      new FastRandom(42).fill(particles, 0, particles.length, -1.0f, 1.0f);
+
+      particleBuffer = ByteBuffer.allocateDirect(particles.length * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+      particleBuffer.put(particles, 0, particles.length);
+      particleBuffer.clear();
+
+      position = new Vector3f();
+      velocity = new Vector3f();
+
+      positions = new Vec3Cursor(particles, 0, s_STRIDE, 0);
+      velocities = new Vec3Cursor(particles, 0, s_STRIDE, 3);
+
+      bufferPositions = new Vec3BufferCursor(particleBuffer, 0, s_STRIDE, 0);
+      bufferVelocities = new Vec3BufferCursor(particleBuffer, 0, s_STRIDE, 3);
+   }
+
+   @Benchmark
+   public float[] integrateVector3f()
+   {
+      final float[] p = particles;
+
+      for (int cntr = 0, index = 0; cntr < size; cntr++, index += s_STRIDE)
+      {
+         position.set(p, index);
+         velocity.set(p, index + 3);
+
+         velocity.normalize();
+         position.scaleAdd(s_DT, velocity, position);
+
+         position.get(p, index);
+         velocity.get(p, index + 3);
+      }
+
+      return p;
+   }
+
+   @Benchmark
+   public float[] integrateCursor()
+   {
+      final Vec3Cursor p = positions.moveTo(0);
+      final Vec3Cursor v = velocities.moveTo(0);
+
+      for (int cntr = 0; cntr < size; cntr++, p.next(), v.next())
+      {
+         p.addScaled(s_DT, v.normalize());
+      }
+
+      return particles;
+   }
+
+   @Benchmark
+   public FloatBuffer integrateBufferCursor()
+   {
+      final Vec3BufferCursor p = bufferPositions.moveTo(0);
+      final Vec3BufferCursor v = bufferVelocities.moveTo(0);
+
+      for (int cntr = 0; cntr < size; cntr++, p.next(), v.next())
+      {
+         p.addScaled(s_DT, v.normalize());
+      }
+
+      return particleBuffer;
+   }
+}
@@ -0,0 +1,444 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.benchmarks.vecmath;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.typhonrt.java6.vecmath.Vector3f;
+import org.typhonrt.java6.vecmath.Vector4f;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vector3fBenchmark -- Covers the public operations of Tuple3f / Vector3f.
+ *
+ * Operations that modify the tuple in place first copy a fixed source tuple into the result; the cost of that copy
+ * is measured by `set`.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Vector3fBenchmark
+{
+   private Vector3f v1;
+   private Vector3f v2;
+   private Vector3f result;
+
+   private Vector4f homogeneous;
+
+   private float[] array;
+
+   private float alpha;
+   private float scalar;
+
+   @Setup
+   public void setup()
+   {
+      v1 = new Vector3f(0.3f, -1.2f, 2.4f);
+      v2 = new Vector3f(-2.0f, 0.5f, 1.25f);
+      result = new Vector3f();
+
+      homogeneous = new Vector4f(2.0f, 4.0f, 6.0f, 2.0f);
+
+      array = new float[] { 1.0f, 2.0f, 3.0f, 4.0f, 5.0f, 6.0f };
+
+      alpha = 0.35f;
+      scalar = 1.5f;
+   }
+
+   // Copy / set ---------------------------------------------------------------------------------------------------
+
+   @Benchmark
+   public Vector3f set()
+   {
+      result.set(v1);
+      return result;
+   }
+
+   @Benchmark
+   public Vector3f setFloats()
+   {
+      result.set(alpha, scalar, alpha);
+      return result;
+   }
+
+   @Benchmark
+   public Vector3f setArray()
+   {
+      result.set(array);
+      return result;
+   }
+
+   @Benchmark
+   public Vector3f setArrayIndex()
+   {
+      result.set(array, 3);
+      return result;
+   }
+
+   @Benchmark
+   public float[] getArray()
+   {
+      v1.get(array);
+      return array;
+   }
+
+   @Benchmark
+   public float[] getArrayIndex()
+   {
+      v1.get(array, 3);
+      return array;
+   }
+
+   @Benchmark
+   public Vector3f getTuple()
+   {
+      v1.get(result);
+      return result;
+   }
+
+   // Arithmetic ---------------------------------------------------------------------------------------------------
+
+   @Benchmark
+   public Vector3f add()
+   {
+      result.add(v1, v2);
+      return result;
+   }
+
+   @Benchmark
+   public Vector3f addInPlace()
+   {
+      result.set(v1);
+      result.add(v2);
+      return result;
+   }
+
+   @Benchmark
+   public Vector3f sub()
+   {
+      result.sub(v1, v2);
+      return result;
+   }
+
+   @Benchmark
+   public Vector3f subInPlace()
+   {
+      result.set(v1);
+      result.sub(v2);
+      return result;
+   }
+
+   @Benchmark
+   public Vector3f mid()
+   {
+      result.set(v1);
+      result.mid(v2);
+      return result;
+   }
+
+   @Benchmark
+   public Vector3f negate()
+   {
+      result.set(v1);
+      result.negate();
+      return result;
+   }
+
+   @Benchmark
+   public Vector3f negateTuple()
+   {
+      result.negate(v1);
+      return result;
+   }
+
+   @Benchmark
+   public Vector3f project()
+   {
+      result.project(homogeneous);
+      return result;
+   }
+
+   @Benchmark
+   public Vector3f scale()
+   {
+      result.set(v1);
+      result.scale(scalar);
+      return result;
+   }
+
+   @Benchmark
+   public Vector3f scaleTuple()
+   {
+      result.scale(scalar, v1);
+      return result;
+   }
+
+   @Benchmark
+   public Vector3f scaleXYZ()
+   {
+      result.set(v1);
+      result.scale(scalar, alpha, scalar);
+      return result;
+   }
+
+   @Benchmark
+   public Vector3f scaleAdd()
+   {
+      result.scaleAdd(scalar, v1, v2);
+      return result;
+   }
+
+   @Benchmark
+   public Vector3f scaleAddInPlace()
+   {
+      result.set(v1);
+      result.scaleAdd(scalar, v2);
+      return result;
+   }
+
+   @Benchmark
+   public Vector3f clamp()
+   {
+      result.set(v1);
+      result.clamp(-1.0f, 1.0f);
+      return result;
+   }
+
+   @Benchmark
+   public Vector3f clampTuple()
+   {
+      result.clamp(-1.0f, 1.0f, v1);
+      return result;
+   }
+
+   @Benchmark
+   public Vector3f clampMin()
+   {
+      result.set(v1);
+      result.clampMin(-1.0f);
+      return result;
+   }
+
+   @Benchmark
+   public Vector3f clampMinTuple()
+   {
+      result.clampMin(-1.0f, v1);
+      return result;
+   }
+
+   @Benchmark
+   public Vector3f clampMax()
+   {
+      result.set(v1);
+      result.clampMax(1.0f);
+      return result;
+   }
+
+   @Benchmark
+   public Vector3f clampMaxTuple()
+   {
+      result.clampMax(1.0f, v1);
+      return result;
+   }
+
+   @Benchmark
+   public Vector3f absolute()
+   {
+      result.set(v1);
+      result.absolute();
+      return result;
+   }
+
+   @Benchmark
+   public Vector3f absoluteTuple()
+   {
+      result.absolute(v1);
+      return result;
+   }
+
+   @Benchmark
+   public Vector3f interpolate()
+   {
+      result.set(v1);
+      result.interpolate(v2, alpha);
+      return result;
+   }
+
+   @Benchmark
+   public Vector3f interpolateTuples()
+   {
+      result.interpolate(v1, v2, alpha);
+      return result;
+   }
+
+   // Vector operations --------------------------------------------------------------------------------------------
+
+   @Benchmark
+   public Vector3f cross()
+   {
+      result.cross(v1, v2);
+      return result;
+   }
+
+   @Benchmark
+   public Vector3f crossAliased()
+   {
+      result.set(v1);
+      result.cross(result, v2);
+      return result;
+   }
+
+   @Benchmark
+   public float dot()
+   {
+      return v1.dot(v2);
+   }
+
+   @Benchmark
+   public Vector3f normalize()
+   {
+      result.set(v1);
+      result.normalize();
+      return result;
+   }
+
+   @Benchmark
+   public Vector3f normalizeVector()
+   {
+      result.normalize(v1);
+      return result;
+   }
+
+   @Benchmark
+   public float angle()
+   {
+      return v1.angle(v2);
+   }
+
+   @Benchmark
+   public float length()
+   {
+      return v1.length();
+   }
+
+   @Benchmark
+   public float lengthSquared()
+   {
+      return v1.lengthSquared();
+   }
+
+   @Benchmark
+   public float distanceSquaredF()
+   {
+      return v1.distanceSquaredF(v2);
+   }
+
+   @Benchmark
+   public float distanceF()
+   {
+      return v1.distanceF(v2);
+   }
+
+   @Benchmark
+   public float distanceL1F()
+   {
+      return v1.distanceL1F(v2);
+   }
+
+   @Benchmark
+   public float distanceLinfF()
+   {
+      return v1.distanceLinfF(v2);
+   }
+
+   @Benchmark
+   public double distanceSquaredD()
+   {
+      return v1.distanceSquaredD(v2);
+   }
+
+   @Benchmark
+   public double distanceD()
+   {
+      return v1.distanceD(v2);
+   }
+
+   @Benchmark
+   public double distanceL1D()
+   {
+      return v1.distanceL1D(v2);
+   }
+
+   @Benchmark
+   public double distanceLinfD()
+   {
+      return v1.distanceLinfD(v2);
+   }
+
+   // Queries / comparison -----------------------------------------------------------------------------------------
+
+   @Benchmark
+   public boolean isNormal()
+   {
+      return v1.isNormal();
+   }
+
+   @Benchmark
+   public boolean isOne()
+   {
+      return v1.isOne();
+   }
+
+   @Benchmark
+   public boolean isUnity()
+   {
+      return v1.isUnity();
+   }
+
+   @Benchmark
+   public boolean isZero()
+   {
+      return v1.isZero();
+   }
+
+   @Benchmark
+   public boolean equalsTuple()
+   {
+      return v1.equals(v2);
+   }
+
+   @Benchmark
+   public boolean epsilonEquals()
+   {
+      return v1.epsilonEquals(v2, 1e-6f);
+   }
+
+   @Benchmark
+   public int hashCodeTuple()
+   {
+      return v1.hashCode();
+   }
+
+   @Benchmark
+   public String toStringTuple()
+   {
+      return v1.toString();
+   }
+}
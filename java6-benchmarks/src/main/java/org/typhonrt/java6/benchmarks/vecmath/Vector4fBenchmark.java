@@ -0,0 +1,398 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.benchmarks.vecmath;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.typhonrt.java6.vecmath.Tuple4f;
+import org.typhonrt.java6.vecmath.Vector3f;
+import org.typhonrt.java6.vecmath.Vector4f;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vector4fBenchmark -- Covers the public operations of Tuple4f / Vector4f.
+ *
+ * Operations that modify the tuple in place first copy a fixed source tuple into the result; the cost of that copy
+ * is measured by `set`.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Vector4fBenchmark
+{
+   private Vector4f v1;
+   private Vector4f v2;
+   private Vector4f result;
+
+   private Vector3f vec3;
+
+   private float[] array;
+
+   private float alpha;
+   private float scalar;
+
+   @Setup
+   public void setup()
+   {
+      v1 = new Vector4f(0.3f, -1.2f, 2.4f, 1.0f);
+      v2 = new Vector4f(-2.0f, 0.5f, 1.25f, 0.5f);
+      result = new Vector4f();
+
+      vec3 = new Vector3f(1.0f, 2.0f, 3.0f);
+
+      array = new float[] { 1.0f, 2.0f, 3.0f, 4.0f, 5.0f, 6.0f, 7.0f, 8.0f };
+
+      alpha = 0.35f;
+      scalar = 1.5f;
+   }
+
+   // Copy / set ---------------------------------------------------------------------------------------------------
+
+   @Benchmark
+   public Tuple4f set()
+   {
+      return result.set(v1);
+   }
+
+   @Benchmark
+   public Tuple4f setFloats()
+   {
+      return result.set(alpha, scalar, alpha, scalar);
+   }
+
+   @Benchmark
+   public Tuple4f setArray()
+   {
+      return result.set(array);
+   }
+
+   @Benchmark
+   public Tuple4f setArrayIndex()
+   {
+      return result.set(array, 4);
+   }
+
+   @Benchmark
+   public Tuple4f setTuple3f()
+   {
+      return result.set(vec3);
+   }
+
+   @Benchmark
+   public float[] getArray()
+   {
+      v1.get(array);
+      return array;
+   }
+
+   @Benchmark
+   public float[] getArrayIndex()
+   {
+      v1.get(array, 4);
+      return array;
+   }
+
+   @Benchmark
+   public Tuple4f getTuple()
+   {
+      v1.get(result);
+      return result;
+   }
+
+   // Arithmetic ---------------------------------------------------------------------------------------------------
+
+   @Benchmark
+   public Tuple4f add()
+   {
+      return result.add(v1, v2);
+   }
+
+   @Benchmark
+   public Tuple4f addInPlace()
+   {
+      return result.set(v1).add(v2);
+   }
+
+   @Benchmark
+   public Tuple4f sub()
+   {
+      return result.sub(v1, v2);
+   }
+
+   @Benchmark
+   public Tuple4f subInPlace()
+   {
+      return result.set(v1).sub(v2);
+   }
+
+   @Benchmark
+   public Tuple4f mid()
+   {
+      return result.set(v1).mid(v2);
+   }
+
+   @Benchmark
+   public Tuple4f negate()
+   {
+      return result.set(v1).negate();
+   }
+
+   @Benchmark
+   public Tuple4f negateTuple()
+   {
+      return result.negate(v1);
+   }
+
+   @Benchmark
+   public Tuple4f project()
+   {
+      result.project(v2);
+      return result;
+   }
+
+   @Benchmark
+   public Tuple4f scale()
+   {
+      return result.set(v1).scale(scalar);
+   }
+
+   @Benchmark
+   public Tuple4f scaleTuple()
+   {
+      return result.scale(scalar, v1);
+   }
+
+   @Benchmark
+   public Tuple4f scaleAdd()
+   {
+      return result.scaleAdd(scalar, v1, v2);
+   }
+
+   @Benchmark
+   public Tuple4f scaleAddInPlace()
+   {
+      return result.set(v1).scaleAdd(scalar, v2);
+   }
+
+   @Benchmark
+   public Tuple4f clamp()
+   {
+      return result.set(v1).clamp(-1.0f, 1.0f);
+   }
+
+   @Benchmark
+   public Tuple4f clampTuple()
+   {
+      return result.clamp(-1.0f, 1.0f, v1);
+   }
+
+   @Benchmark
+   public Tuple4f clampMin()
+   {
+      return result.set(v1).clampMin(-1.0f);
+   }
+
+   @Benchmark
+   public Tuple4f clampMinTuple()
+   {
+      return result.clampMin(-1.0f, v1);
+   }
+
+   @Benchmark
+   public Tuple4f clampMax()
+   {
+      return result.set(v1).clampMax(1.0f);
+   }
+
+   @Benchmark
+   public Tuple4f clampMaxTuple()
+   {
+      return result.clampMax(1.0f, v1);
+   }
+
+   @Benchmark
+   public Tuple4f absolute()
+   {
+      return result.set(v1).absolute();
+   }
+
+   @Benchmark
+   public Tuple4f absoluteTuple()
+   {
+      return result.absolute(v1);
+   }
+
+   @Benchmark
+   public Tuple4f interpolate()
+   {
+      return result.set(v1).interpolate(v2, alpha);
+   }
+
+   @Benchmark
+   public Tuple4f interpolateTuples()
+   {
+      return result.interpolate(v1, v2, alpha);
+   }
+
+   // Vector operations --------------------------------------------------------------------------------------------
+
+   @Benchmark
+   public float dot()
+   {
+      return v1.dot(v2);
+   }
+
+   @Benchmark
+   public float dotVector3f()
+   {
+      return v1.dot(vec3);
+   }
+
+   @Benchmark
+   public Vector4f normalize()
+   {
+      result.set(v1);
+      result.normalize();
+      return result;
+   }
+
+   @Benchmark
+   public Vector4f normalizeVector()
+   {
+      result.normalize(v1);
+      return result;
+   }
+
+   @Benchmark
+   public float angle()
+   {
+      return v1.angle(v2);
+   }
+
+   @Benchmark
+   public float length()
+   {
+      return v1.length();
+   }
+
+   @Benchmark
+   public float lengthSquared()
+   {
+      return v1.lengthSquared();
+   }
+
+   @Benchmark
+   public float distanceSquaredF()
+   {
+      return v1.distanceSquaredF(v2);
+   }
+
+   @Benchmark
+   public float distanceF()
+   {
+      return v1.distanceF(v2);
+   }
+
+   @Benchmark
+   public float distanceL1F()
+   {
+      return v1.distanceL1F(v2);
+   }
+
+   @Benchmark
+   public float distanceLinfF()
+   {
+      return v1.distanceLinfF(v2);
+   }
+
+   @Benchmark
+   public double distanceSquaredD()
+   {
+      return v1.distanceSquaredD(v2);
+   }
+
+   @Benchmark
+   public double distanceD()
+   {
+      return v1.distanceD(v2);
+   }
+
+   @Benchmark
+   public double distanceL1D()
+   {
+      return v1.distanceL1D(v2);
+   }
+
+   @Benchmark
+   public double distanceLinfD()
+   {
+      return v1.distanceLinfD(v2);
+   }
+
+   // Queries / comparison -----------------------------------------------------------------------------------------
+
+   @Benchmark
+   public boolean isNormal()
+   {
+      return v1.isNormal();
+   }
+
+   @Benchmark
+   public boolean isOne()
+   {
+      return v1.isOne();
+   }
+
+   @Benchmark
+   public boolean isUnity()
+   {
+      return v1.isUnity();
+   }
+
+   @Benchmark
+   public boolean isZero()
+   {
+      return v1.isZero();
+   }
+
+   @Benchmark
+   public boolean equalsTuple()
+   {
+      return v1.equals(v2);
+   }
+
+   @Benchmark
+   public boolean epsilonEquals()
+   {
+      return v1.epsilonEquals(v2, 1e-6f);
+   }
+
+   @Benchmark
+   public int hashCodeTuple()
+   {
+      return v1.hashCode();
+   }
+
+   @Benchmark
+   public String toStringTuple()
+   {
+      return v1.toString();
+   }
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.benchmarks.vertex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.typhonrt.java6.math.vertex.VertexCompressor;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * VertexCompressorBenchmark -- Measures encoding and decoding of an interleaved position, normal, tangent, UV stream
+ * (12 floats per vertex) into the 20 byte compressed layout; scores are per batch of `size` vertices.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VertexCompressorBenchmark
+{
+   private static final int s_STRIDE = 12;
+
+   @Param({"1024", "65536"})
+   private int size;
+
+   private float[] vertices;
+   private float[] decoded;
+
+   private VertexCompressor compressor;
+
+   private ByteBuffer encoded;
+
+   @Setup
+   public void setup()
+   {
+      Random random = new Random(42);
+
+      vertices = new float[size * s_STRIDE];
+      decoded = new float[size * s_STRIDE];
+
+      for (int cntr = 0; cntr < size; cntr++)
+      {
+         int o = cntr * s_STRIDE;
+
+         for (int axis = 0; axis < 3; axis++)
+         {
+            vertices[o + axis] = random.nextFloat() * 10.0f;
+            vertices[o + 3 + axis] = (float)random.nextGaussian();
+            vertices[o + 6 + axis] = (float)random.nextGaussian();
+         }
+
+         vertices[o + 9] = random.nextBoolean() ? 1.0f : -1.0f;
+         vertices[o + 10] = random.nextFloat();
+         vertices[o + 11] = random.nextFloat();
+      }
+
+      compressor = new VertexCompressor(s_STRIDE, 0, 3, 6, 10);
+
+      encoded = ByteBuffer.allocateDirect(size * compressor.getStride()).order(ByteOrder.nativeOrder());
+
+      compressor.encode(vertices, 0, size, encoded, 0);
+   }
+
+   @Benchmark
+   public ByteBuffer encode()
+   {
+      compressor.encode(vertices, 0, size, encoded, 0);
+      return encoded;
+   }
+
+   @Benchmark
+   public float[] decode()
+   {
+      compressor.decode(encoded, 0, size, decoded, 0);
+      return decoded;
+   }
+}
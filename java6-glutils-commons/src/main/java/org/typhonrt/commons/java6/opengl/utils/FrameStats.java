@@ -0,0 +1,366 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.commons.java6.opengl.utils;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * FrameStats -- Records frame timings on the render thread and provides percentiles over a sliding window of the
+ * most recent frames to any other thread.
+ *
+ * Three metrics are kept: the interval between the starts of consecutive frames, the CPU time spent rendering a frame
+ * (Renderer.onGLDrawFrame) and the time spent swapping buffers. Each metric has a LogHistogram of the last windowFrames
+ * frames; a recorded frame is added and the frame leaving the window removed, so the window slides by one frame at
+ * constant cost. A frame whose interval exceeds the target interval by more than half is counted as jank, that is it
+ * missed at least one refresh.
+ *
+ * As an IFrameListener installed with GLSurfaceView2.setFrameListener the stats are recorded by the GL thread.
+ * recordFrame must always be called from the same thread; it takes no locks and never allocates. The counts are
+ * published with ordered stores bracketed by a sequence number, so getHistogram on any other thread copies a
+ * consistent window without blocking the recording thread and retries in the rare case a frame was recorded during
+ * the copy.
+ *
+ * <pre>
+ * LogHistogram interval = frameStats.createHistogram();
+ *
+ * frameStats.getHistogram(FrameStats.s_METRIC_INTERVAL, interval);
+ *
+ * long p99 = interval.getValueAtPercentile(99.0);
+ * </pre>
+ *
+ * @author  Michael Leahy
+ */
+public class FrameStats implements IFrameListener
+{
+   /**
+    * Nanoseconds between the starts of consecutive frames.
+    */
+   public static final int s_METRIC_INTERVAL = 0;
+
+   /**
+    * Nanoseconds spent rendering a frame.
+    */
+   public static final int s_METRIC_RENDER = 1;
+
+   /**
+    * Nanoseconds spent swapping buffers.
+    */
+   public static final int s_METRIC_SWAP = 2;
+
+   /**
+    * The number of metrics.
+    */
+   public static final int s_METRIC_COUNT = 3;
+
+   /**
+    * Target interval of a 60 Hz display in nanoseconds.
+    */
+   public static final long s_TARGET_INTERVAL_60HZ = 16666667L;
+
+   /**
+    * Durations above 10 seconds are counted in the last bucket.
+    */
+   private static final long s_HIGHEST_TRACKABLE_VALUE = 10000000000L;
+
+   /**
+    * Resolves durations to within 1 / 64 of their value.
+    */
+   private static final int s_SUB_BUCKET_BITS = 7;
+
+   private static final long s_NO_FRAME = Long.MIN_VALUE;
+
+   /**
+    * The number of frames in the window.
+    */
+   public final int windowFrames;
+
+   /**
+    * Histogram used by the recording thread to map values to buckets; never holds counts.
+    */
+   private final LogHistogram layout;
+
+   private final int bucketCount;
+
+   /**
+    * Window counts of all metrics, bucketCount per metric; written by the recording thread only.
+    */
+   private final AtomicIntegerArray counts;
+
+   /**
+    * Bucket of each metric of each frame in the window, windowFrames per metric; -1 for no value.
+    */
+   private final int[] windowBuckets;
+
+   private final boolean[] windowJank;
+
+   private int slot;
+
+   private long lastFrameStart = s_NO_FRAME;
+
+   private volatile int sequence;
+
+   private volatile int windowCount;
+
+   private volatile int windowJankCount;
+
+   private volatile long totalFrameCount;
+
+   private volatile long totalJankCount;
+
+   private volatile long targetInterval;
+
+   /**
+    * Constructs empty stats.
+    *
+    * @param windowFrames   number of most recent frames covered by the histograms; at least 1
+    * @param targetInterval refresh interval of the display in nanoseconds against which jank is counted
+    */
+   public FrameStats(int windowFrames, long targetInterval)
+   {
+      if (windowFrames < 1)
+      {
+         throw new IllegalArgumentException("windowFrames must be at least 1 and is " + windowFrames);
+      }
+
+      this.windowFrames = windowFrames;
+      this.targetInterval = targetInterval;
+
+      layout = createHistogram();
+      bucketCount = layout.getBucketCount();
+
+      counts = new AtomicIntegerArray(bucketCount * s_METRIC_COUNT);
+
+      windowBuckets = new int[windowFrames * s_METRIC_COUNT];
+      windowJank = new boolean[windowFrames];
+
+      for (int cntr = 0; cntr < windowBuckets.length; cntr++)
+      {
+         windowBuckets[cntr] = -1;
+      }
+   }
+
+   /**
+    * @return a histogram with the bucket layout of these stats to pass to getHistogram
+    */
+   public final LogHistogram createHistogram()
+   {
+      return new LogHistogram(s_HIGHEST_TRACKABLE_VALUE, s_SUB_BUCKET_BITS);
+   }
+
+   /**
+    * @return refresh interval in nanoseconds against which jank is counted
+    */
+   public final long getTargetInterval()
+   {
+      return targetInterval;
+   }
+
+   /**
+    * Sets the refresh interval against which frames recorded from now on are counted as jank; may be called from any
+    * thread, for instance when the display mode changes.
+    *
+    * @param targetInterval refresh interval in nanoseconds
+    */
+   public final void setTargetInterval(long targetInterval)
+   {
+      this.targetInterval = targetInterval;
+   }
+
+   /**
+    * Records a frame; must be called from the recording thread.
+    *
+    * @param frameStartNanos System.nanoTime at the start of the frame
+    * @param renderNanos     nanoseconds spent rendering, or negative if not measured
+    * @param swapNanos       nanoseconds spent swapping buffers, or negative if not measured
+    */
+   public final void recordFrame(long frameStartNanos, long renderNanos, long swapNanos)
+   {
+      long interval = lastFrameStart == s_NO_FRAME ? -1 : frameStartNanos - lastFrameStart;
+
+      lastFrameStart = frameStartNanos;
+
+      long target = targetInterval;
+      boolean jank = interval > target + (target >> 1);
+
+      final int s = sequence;
+
+      sequence = s + 1;
+
+      replace(s_METRIC_INTERVAL, interval);
+      replace(s_METRIC_RENDER, renderNanos);
+      replace(s_METRIC_SWAP, swapNanos);
+
+      int jankCount = windowJankCount;
+
+      if (windowJank[slot])
+      {
+         jankCount--;
+      }
+
+      if (jank)
+      {
+         jankCount++;
+         totalJankCount++;
+      }
+
+      windowJank[slot] = jank;
+      windowJankCount = jankCount;
+
+      if (windowCount < windowFrames)
+      {
+         windowCount++;
+      }
+
+      totalFrameCount++;
+
+      slot = slot + 1 == windowFrames ? 0 : slot + 1;
+
+      sequence = s + 2;
+   }
+
+   /**
+    * Records a frame reported by a render thread. A frame preceded by a wait longer than the target interval, as
+    * when rendering only on request or resuming from pause, is recorded without an interval since the render thread
+    * was idle rather than late.
+    *
+    * @param frameStartNanos System.nanoTime when drawing of the frame started
+    * @param eventNanos      nanoseconds spent running queued events; not recorded
+    * @param surfaceNanos    nanoseconds spent creating the EGL surface and in its callbacks; not recorded
+    * @param waitNanos       nanoseconds spent waiting for the render thread to have work
+    * @param drawNanos       nanoseconds spent drawing the frame, recorded as s_METRIC_RENDER
+    * @param swapNanos       nanoseconds spent swapping buffers, recorded as s_METRIC_SWAP
+    */
+   @Override
+   public final void onFrame(long frameStartNanos, long eventNanos, long surfaceNanos, long waitNanos, long drawNanos,
+    long swapNanos)
+   {
+      if (waitNanos > targetInterval)
+      {
+         lastFrameStart = s_NO_FRAME;
+      }
+
+      recordFrame(frameStartNanos, drawNanos, swapNanos);
+   }
+
+   /**
+    * Makes the next recorded frame start without an interval, so a pause of rendering, for instance while the
+    * surface is hidden or rendering only on request, is not counted as jank; must be called from the recording thread.
+    */
+   public final void restartInterval()
+   {
+      lastFrameStart = s_NO_FRAME;
+   }
+
+   /**
+    * Copies the window of a metric into a histogram created by createHistogram; may be called from any thread. The
+    * copy is consistent, that is it holds exactly the frames of the window at one point in time.
+    *
+    * @param metric one of the s_METRIC constants
+    * @param dst    the histogram that receives the window
+    */
+   public final void getHistogram(int metric, LogHistogram dst)
+   {
+      if (metric < 0 || metric >= s_METRIC_COUNT)
+      {
+         throw new ArrayIndexOutOfBoundsException("metric must be 0 to " + (s_METRIC_COUNT - 1) + " and is " +
+          metric);
+      }
+
+      if (dst.getBucketCount() != bucketCount || dst.subBucketBits != s_SUB_BUCKET_BITS)
+      {
+         throw new IllegalArgumentException("histogram must be created by createHistogram");
+      }
+
+      final int[] c = dst.counts;
+      final int base = metric * bucketCount;
+
+      for (;;)
+      {
+         int s = sequence;
+
+         // An odd sequence number means a frame is being recorded.
+         if ((s & 1) == 0)
+         {
+            long total = 0;
+
+            for (int cntr = 0; cntr < bucketCount; cntr++)
+            {
+               int count = counts.get(base + cntr);
+
+               c[cntr] = count;
+               total += count;
+            }
+
+            if (sequence == s)
+            {
+               dst.setTotalCount(total);
+               return;
+            }
+         }
+
+         Thread.yield();
+      }
+   }
+
+   /**
+    * @return number of frames in the window, less than windowFrames until that many frames were recorded
+    */
+   public final int getWindowCount()
+   {
+      return windowCount;
+   }
+
+   /**
+    * @return number of jank frames in the window
+    */
+   public final int getWindowJankCount()
+   {
+      return windowJankCount;
+   }
+
+   /**
+    * @return number of frames recorded
+    */
+   public final long getTotalFrameCount()
+   {
+      return totalFrameCount;
+   }
+
+   /**
+    * @return number of jank frames recorded
+    */
+   public final long getTotalJankCount()
+   {
+      return totalJankCount;
+   }
+
+   /**
+    * Replaces the value of a metric of the frame leaving the window at the current slot.
+    */
+   private void replace(int metric, long value)
+   {
+      final int index = metric * windowFrames + slot;
+      final int base = metric * bucketCount;
+
+      int previous = windowBuckets[index];
+
+      if (previous >= 0)
+      {
+         counts.lazySet(base + previous, counts.get(base + previous) - 1);
+      }
+
+      int bucket = value < 0 ? -1 : layout.getBucketIndex(value);
+
+      if (bucket >= 0)
+      {
+         counts.lazySet(base + bucket, counts.get(base + bucket) + 1);
+      }
+
+      windowBuckets[index] = bucket;
+   }
+}
@@ -0,0 +1,29 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.commons.java6.opengl.utils;
+
+/**
+ * IFrameListener -- Receives the time a render thread spent in each phase of a frame.
+ *
+ * onFrame is called on the render thread after each buffer swap, so implementations must be quick and should not
+ * allocate; FrameStats is one. Event, surface and wait times accumulate everything since the previous frame, including
+ * iterations of the render loop that did not draw.
+ */
+public interface IFrameListener
+{
+   /**
+    * @param frameStartNanos System.nanoTime when drawing of the frame started
+    * @param eventNanos      nanoseconds spent running queued events
+    * @param surfaceNanos    nanoseconds spent creating the EGL surface and in the surface created / changed callbacks
+    * @param waitNanos       nanoseconds spent waiting for the render thread to have work
+    * @param drawNanos       nanoseconds spent drawing the frame
+    * @param swapNanos       nanoseconds spent swapping buffers
+    */
+   public void onFrame(long frameStartNanos, long eventNanos, long surfaceNanos, long waitNanos, long drawNanos,
+    long swapNanos);
+}
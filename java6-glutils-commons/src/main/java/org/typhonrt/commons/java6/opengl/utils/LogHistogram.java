@@ -0,0 +1,329 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.commons.java6.opengl.utils;
+
+/**
+ * LogHistogram -- Counts non negative long values, typically durations in nanoseconds, in log-linear buckets after
+ * HdrHistogram.
+ *
+ * Values below 2^subBucketBits have a bucket each; above that every power of two range is split into
+ * 2^(subBucketBits - 1) equal buckets, so a value is resolved to within a relative error of 2^(1 - subBucketBits)
+ * over the whole range with a fixed number of buckets. With 7 sub bucket bits durations up to 10 seconds in
+ * nanoseconds take 1803 buckets and a 16.6 ms frame is resolved to 0.13 ms. Values above the highest trackable value
+ * are counted in the last bucket.
+ *
+ * Queries report the highest value equivalent to the bucket a value falls into, so percentiles never understate a
+ * duration. Recording and removing are constant time and never allocate; a histogram is not thread safe, see
+ * FrameStats for sharing one between threads.
+ *
+ * @author  Michael Leahy
+ */
+public class LogHistogram
+{
+   /**
+    * Buckets of each power of two range as a power of two.
+    */
+   public final int subBucketBits;
+
+   /**
+    * Highest value resolved with full precision.
+    */
+   public final long highestTrackableValue;
+
+   final int[] counts;
+
+   private final int subBucketCount;
+   private final int subBucketHalfCount;
+
+   private long totalCount;
+
+   /**
+    * Constructs an empty histogram.
+    *
+    * @param highestTrackableValue highest value resolved with full precision; at least 2^subBucketBits
+    * @param subBucketBits         sets the relative precision to 2^(1 - subBucketBits); 1 to 24
+    */
+   public LogHistogram(long highestTrackableValue, int subBucketBits)
+   {
+      if (subBucketBits < 1 || subBucketBits > 24)
+      {
+         throw new IllegalArgumentException("subBucketBits must be 1 to 24 and is " + subBucketBits);
+      }
+
+      if (highestTrackableValue < (1L << subBucketBits))
+      {
+         throw new IllegalArgumentException("highestTrackableValue must be at least " + (1L << subBucketBits) +
+          " and is " + highestTrackableValue);
+      }
+
+      this.subBucketBits = subBucketBits;
+      this.highestTrackableValue = highestTrackableValue;
+
+      subBucketCount = 1 << subBucketBits;
+      subBucketHalfCount = subBucketCount >> 1;
+
+      counts = new int[computeBucketIndex(highestTrackableValue) + 1];
+   }
+
+   /**
+    * @return number of buckets
+    */
+   public final int getBucketCount()
+   {
+      return counts.length;
+   }
+
+   /**
+    * @return number of recorded values
+    */
+   public final long getTotalCount()
+   {
+      return totalCount;
+   }
+
+   /**
+    * Returns the bucket of a value; negative values count as 0 and values above the highest trackable value fall
+    * into the last bucket.
+    *
+    * @param value the value
+    * @return index of the bucket
+    */
+   public final int getBucketIndex(long value)
+   {
+      if (value <= 0)
+      {
+         return 0;
+      }
+
+      if (value >= highestTrackableValue)
+      {
+         return counts.length - 1;
+      }
+
+      return computeBucketIndex(value);
+   }
+
+   /**
+    * @param index index of a bucket
+    * @return lowest value counted in the bucket
+    */
+   public final long getLowestValue(int index)
+   {
+      if (index < subBucketCount)
+      {
+         return index;
+      }
+
+      int shift = (index - subBucketCount) / subBucketHalfCount + 1;
+      long top = subBucketHalfCount + (index - subBucketCount) % subBucketHalfCount;
+
+      return top << shift;
+   }
+
+   /**
+    * @param index index of a bucket
+    * @return highest value counted in the bucket; Long.MAX_VALUE for the last bucket
+    */
+   public final long getHighestValue(int index)
+   {
+      return index == counts.length - 1 ? Long.MAX_VALUE : getLowestValue(index + 1) - 1;
+   }
+
+   /**
+    * @param value the value to count
+    */
+   public final void record(long value)
+   {
+      counts[getBucketIndex(value)]++;
+      totalCount++;
+   }
+
+   /**
+    * Removes a value counted before, as a sliding window does for values leaving it.
+    *
+    * @param value the value to remove
+    */
+   public final void remove(long value)
+   {
+      counts[getBucketIndex(value)]--;
+      totalCount--;
+   }
+
+   /**
+    * Removes all values.
+    */
+   public final void reset()
+   {
+      for (int cntr = 0; cntr < counts.length; cntr++)
+      {
+         counts[cntr] = 0;
+      }
+
+      totalCount = 0;
+   }
+
+   /**
+    * Copies the counts of a histogram with the same bucket layout.
+    *
+    * @param h1 the histogram to copy
+    */
+   public final void set(LogHistogram h1)
+   {
+      checkLayout(h1);
+
+      System.arraycopy(h1.counts, 0, counts, 0, counts.length);
+      totalCount = h1.totalCount;
+   }
+
+   /**
+    * Adds the counts of a histogram with the same bucket layout, for instance to combine windows.
+    *
+    * @param h1 the histogram to add
+    */
+   public final void add(LogHistogram h1)
+   {
+      checkLayout(h1);
+
+      for (int cntr = 0; cntr < counts.length; cntr++)
+      {
+         counts[cntr] += h1.counts[cntr];
+      }
+
+      totalCount += h1.totalCount;
+   }
+
+   /**
+    * Returns the value below or at which the given percentage of the recorded values lies, reported as the highest
+    * value of its bucket.
+    *
+    * @param percentile the percentile in [0, 100]; 50 for the median
+    * @return the value, or 0 if the histogram is empty
+    */
+   public final long getValueAtPercentile(double percentile)
+   {
+      if (totalCount == 0)
+      {
+         return 0;
+      }
+
+      double fraction = Math.min(Math.max(percentile, 0.0), 100.0) / 100.0;
+
+      // The rank of the value, at least 1 so percentile 0 yields the minimum.
+      long rank = Math.max(1L, (long)Math.ceil(fraction * totalCount));
+      long sum = 0;
+
+      for (int cntr = 0; cntr < counts.length; cntr++)
+      {
+         sum += counts[cntr];
+
+         if (sum >= rank)
+         {
+            return Math.min(getHighestValue(cntr), highestTrackableValue);
+         }
+      }
+
+      return highestTrackableValue;
+   }
+
+   /**
+    * @return highest value of the bucket of the smallest recorded value, or 0 if the histogram is empty
+    */
+   public final long getMinValue()
+   {
+      return getValueAtPercentile(0.0);
+   }
+
+   /**
+    * @return highest value of the bucket of the largest recorded value, or 0 if the histogram is empty
+    */
+   public final long getMaxValue()
+   {
+      for (int cntr = counts.length - 1; cntr >= 0; cntr--)
+      {
+         if (counts[cntr] != 0)
+         {
+            return Math.min(getHighestValue(cntr), highestTrackableValue);
+         }
+      }
+
+      return 0;
+   }
+
+   /**
+    * @return mean of the recorded values taking each at the middle of its bucket, or 0 if the histogram is empty
+    */
+   public final double getMean()
+   {
+      if (totalCount == 0)
+      {
+         return 0.0;
+      }
+
+      double sum = 0.0;
+
+      for (int cntr = 0; cntr < counts.length; cntr++)
+      {
+         if (counts[cntr] != 0)
+         {
+            long low = getLowestValue(cntr);
+            long high = Math.min(getHighestValue(cntr), highestTrackableValue);
+
+            sum += counts[cntr] * (low + (high - low) * 0.5);
+         }
+      }
+
+      return sum / totalCount;
+   }
+
+   /**
+    * Returns the count of a bucket.
+    *
+    * @param index index of the bucket
+    * @return the count
+    */
+   public final int getCount(int index)
+   {
+      return counts[index];
+   }
+
+   @Override
+   public String toString()
+   {
+      return "[count=" + totalCount + " p50=" + getValueAtPercentile(50.0) + " p90=" + getValueAtPercentile(90.0) +
+       " p99=" + getValueAtPercentile(99.0) + " max=" + getMaxValue() + "]";
+   }
+
+   /**
+    * Sets the total count after the counts were written directly.
+    */
+   final void setTotalCount(long totalCount)
+   {
+      this.totalCount = totalCount;
+   }
+
+   private int computeBucketIndex(long value)
+   {
+      if (value < subBucketCount)
+      {
+         return (int)value;
+      }
+
+      // The number of low bits dropped so the remaining top bits lie in [subBucketHalfCount, subBucketCount).
+      int shift = 64 - Long.numberOfLeadingZeros(value) - subBucketBits;
+
+      return subBucketCount + (shift - 1) * subBucketHalfCount + (int)(value >>> shift) - subBucketHalfCount;
+   }
+
+   private void checkLayout(LogHistogram h1)
+   {
+      if (h1.subBucketBits != subBucketBits || h1.counts.length != counts.length)
+      {
+         throw new IllegalArgumentException("histograms have different bucket layouts");
+      }
+   }
+}
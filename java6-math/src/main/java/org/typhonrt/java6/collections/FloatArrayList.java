@@ -0,0 +1,266 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.collections;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * FloatArrayList -- A growable list of primitive float values without boxing.
+ *
+ * The backing array is exposed through getArray for direct reads and writes of the first size() elements. The list
+ * can be written into a ByteBuffer with a single bulk copy, for instance into a buffer returned by GLBuffer.map, or
+ * exported as a new direct buffer in native byte order.
+ *
+ * @author  Michael Leahy
+ */
+public class FloatArrayList
+{
+   private static final int s_DEFAULT_CAPACITY = 16;
+
+   private float[] elements;
+
+   private int size;
+
+   /**
+    * Creates an empty list with the default capacity.
+    */
+   public FloatArrayList()
+   {
+      this(s_DEFAULT_CAPACITY);
+   }
+
+   /**
+    * Creates an empty list.
+    *
+    * @param capacity initial capacity
+    */
+   public FloatArrayList(int capacity)
+   {
+      elements = new float[Math.max(capacity, 1)];
+   }
+
+   /**
+    * @return number of elements
+    */
+   public final int size()
+   {
+      return size;
+   }
+
+   /**
+    * @return true if the list has no elements
+    */
+   public final boolean isEmpty()
+   {
+      return size == 0;
+   }
+
+   /**
+    * Returns the backing array; only the first size() elements are part of the list. The array is replaced when the
+    * list grows.
+    *
+    * @return the backing array
+    */
+   public final float[] getArray()
+   {
+      return elements;
+   }
+
+   /**
+    * Removes all elements; the capacity is kept.
+    */
+   public final void clear()
+   {
+      size = 0;
+   }
+
+   /**
+    * Ensures that the list can hold the given number of elements without growing.
+    *
+    * @param capacity minimum capacity
+    */
+   public final void ensureCapacity(int capacity)
+   {
+      if (capacity > elements.length)
+      {
+         elements = Arrays.copyOf(elements, Math.max(capacity, elements.length + (elements.length >> 1) + 1));
+      }
+   }
+
+   /**
+    * Shrinks the backing array to the number of elements.
+    */
+   public final void trimToSize()
+   {
+      if (size < elements.length)
+      {
+         elements = Arrays.copyOf(elements, Math.max(size, 1));
+      }
+   }
+
+   /**
+    * Sets the number of elements, growing the list if necessary; new elements are zero.
+    *
+    * @param size new number of elements
+    */
+   public final void setSize(int size)
+   {
+      ensureCapacity(size);
+
+      if (size > this.size)
+      {
+         Arrays.fill(elements, this.size, size, (float)0);
+      }
+
+      this.size = size;
+   }
+
+   /**
+    * Appends a value.
+    *
+    * @param value value to append
+    */
+   public final void add(float value)
+   {
+      if (size == elements.length)
+      {
+         ensureCapacity(size + 1);
+      }
+
+      elements[size++] = value;
+   }
+
+   /**
+    * Appends two values, for instance a texture coordinate.
+    *
+    * @param v0 first value
+    * @param v1 second value
+    */
+   public final void add(float v0, float v1)
+   {
+      ensureCapacity(size + 2);
+
+      elements[size] = v0;
+      elements[size + 1] = v1;
+      size += 2;
+   }
+
+   /**
+    * Appends three values, for instance a position or normal.
+    *
+    * @param v0 first value
+    * @param v1 second value
+    * @param v2 third value
+    */
+   public final void add(float v0, float v1, float v2)
+   {
+      ensureCapacity(size + 3);
+
+      elements[size] = v0;
+      elements[size + 1] = v1;
+      elements[size + 2] = v2;
+      size += 3;
+   }
+
+   /**
+    * Appends values from an array.
+    *
+    * @param values source array
+    * @param offset index of the first value
+    * @param length number of values
+    */
+   public final void add(float[] values, int offset, int length)
+   {
+      ensureCapacity(size + length);
+
+      System.arraycopy(values, offset, elements, size, length);
+      size += length;
+   }
+
+   /**
+    * Appends all values of another list.
+    *
+    * @param list list to append
+    */
+   public final void add(FloatArrayList list)
+   {
+      add(list.elements, 0, list.size);
+   }
+
+   /**
+    * @param index index of the element
+    * @return the element at index
+    *
+    * @throws ArrayIndexOutOfBoundsException if index is not below size()
+    */
+   public final float get(int index)
+   {
+      if (index >= size)
+      {
+         throw new ArrayIndexOutOfBoundsException(index);
+      }
+
+      return elements[index];
+   }
+
+   /**
+    * Replaces the element at index.
+    *
+    * @param index index of the element
+    * @param value new value
+    *
+    * @throws ArrayIndexOutOfBoundsException if index is not below size()
+    */
+   public final void set(int index, float value)
+   {
+      if (index >= size)
+      {
+         throw new ArrayIndexOutOfBoundsException(index);
+      }
+
+      elements[index] = value;
+   }
+
+   /**
+    * Returns a copy of the elements.
+    *
+    * @return new array of size() elements
+    */
+   public final float[] toArray()
+   {
+      return Arrays.copyOf(elements, size);
+   }
+
+   /**
+    * Copies the elements into the buffer starting at the absolute byte offset with one bulk copy, using the byte order
+    * of the buffer; the position of the buffer is not modified.
+    *
+    * @param buffer the buffer that receives the elements
+    * @param offset byte offset of the first element
+    */
+   public final void get(ByteBuffer buffer, int offset)
+   {
+      ByteBuffer view = buffer.duplicate().order(buffer.order());
+      view.position(offset);
+      view.asFloatBuffer().put(elements, 0, size);
+   }
+
+   /**
+    * Copies the elements into a new direct buffer in native byte order, ready to be uploaded with glBufferData.
+    *
+    * @return the buffer, with position 0 and limit size() * 4
+    */
+   public final ByteBuffer toByteBuffer()
+   {
+      ByteBuffer buffer = ByteBuffer.allocateDirect(size * 4).order(ByteOrder.nativeOrder());
+      get(buffer, 0);
+      return buffer;
+   }
+}
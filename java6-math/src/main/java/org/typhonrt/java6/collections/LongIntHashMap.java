@@ -0,0 +1,326 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.collections;
+
+import java.util.Arrays;
+
+/**
+ * LongIntHashMap -- An open addressing hash map from long keys to int values without boxing or per-entry objects.
+ *
+ * Entries live in two parallel arrays probed linearly and kept at most half full; removal shifts following entries
+ * back instead of leaving tombstones, so lookups stay short under churn. get, put and remove report absent keys with a
+ * configurable missing value (-1 by default), which therefore should not be stored as a value. A typical use is
+ * welding vertices while building geometry:
+ *
+ * <pre>
+ * int index = map.putIfAbsent(vertexKey, vertexCount);
+ * if (index == map.getMissingValue())
+ * {
+ *    index = vertexCount++;
+ *    ...append the vertex...
+ * }
+ * indices.add(index);
+ * </pre>
+ *
+ * @author  Michael Leahy
+ */
+public class LongIntHashMap
+{
+   private static final int s_DEFAULT_EXPECTED_SIZE = 16;
+
+   private static final int s_MAX_CAPACITY = 1 << 30;
+
+   /**
+    * Key 0 marks empty slots, so its entry is kept outside of the arrays.
+    */
+   private boolean hasZeroKey;
+   private int zeroValue;
+
+   private long[] keys;
+   private int[] values;
+
+   private int mask;
+
+   private int size;
+
+   private final int missingValue;
+
+   /**
+    * Creates an empty map with room for 16 entries and -1 as the missing value.
+    */
+   public LongIntHashMap()
+   {
+      this(s_DEFAULT_EXPECTED_SIZE, -1);
+   }
+
+   /**
+    * Creates an empty map.
+    *
+    * @param expectedSize number of entries the map holds without growing
+    * @param missingValue value returned for absent keys
+    */
+   public LongIntHashMap(int expectedSize, int missingValue)
+   {
+      this.missingValue = missingValue;
+
+      allocate(capacityFor(expectedSize));
+   }
+
+   /**
+    * @return value returned for absent keys
+    */
+   public final int getMissingValue()
+   {
+      return missingValue;
+   }
+
+   /**
+    * @return number of entries
+    */
+   public final int size()
+   {
+      return size;
+   }
+
+   /**
+    * @return true if the map has no entries
+    */
+   public final boolean isEmpty()
+   {
+      return size == 0;
+   }
+
+   /**
+    * Removes all entries; the capacity is kept.
+    */
+   public final void clear()
+   {
+      Arrays.fill(keys, 0L);
+
+      hasZeroKey = false;
+      size = 0;
+   }
+
+   /**
+    * @param key key to look up
+    * @return true if the map contains key
+    */
+   public final boolean containsKey(long key)
+   {
+      if (key == 0L)
+      {
+         return hasZeroKey;
+      }
+
+      return keys[find(key)] == key;
+   }
+
+   /**
+    * @param key key to look up
+    * @return the value of key or the missing value
+    */
+   public final int get(long key)
+   {
+      if (key == 0L)
+      {
+         return hasZeroKey ? zeroValue : missingValue;
+      }
+
+      int slot = find(key);
+
+      return keys[slot] == key ? values[slot] : missingValue;
+   }
+
+   /**
+    * Associates value with key.
+    *
+    * @param key   key
+    * @param value value
+    * @return the previous value of key or the missing value
+    */
+   public final int put(long key, int value)
+   {
+      return put(key, value, true);
+   }
+
+   /**
+    * Associates value with key unless key is already present.
+    *
+    * @param key   key
+    * @param value value
+    * @return the present value of key, or the missing value if value was added
+    */
+   public final int putIfAbsent(long key, int value)
+   {
+      return put(key, value, false);
+   }
+
+   /**
+    * Removes key.
+    *
+    * @param key key to remove
+    * @return the removed value or the missing value
+    */
+   public final int remove(long key)
+   {
+      if (key == 0L)
+      {
+         if (!hasZeroKey)
+         {
+            return missingValue;
+         }
+
+         hasZeroKey = false;
+         size--;
+         return zeroValue;
+      }
+
+      int gap = find(key);
+
+      if (keys[gap] != key)
+      {
+         return missingValue;
+      }
+
+      int previous = values[gap];
+
+      // Shift back following entries of the probe run whose home slot does not lie between the gap and them.
+      for (int slot = (gap + 1) & mask; keys[slot] != 0L; slot = (slot + 1) & mask)
+      {
+         int home = hash(keys[slot]) & mask;
+
+         if (((slot - home) & mask) >= ((slot - gap) & mask))
+         {
+            keys[gap] = keys[slot];
+            values[gap] = values[slot];
+            gap = slot;
+         }
+      }
+
+      keys[gap] = 0L;
+      size--;
+
+      return previous;
+   }
+
+   private int put(long key, int value, boolean replace)
+   {
+      if (key == 0L)
+      {
+         if (hasZeroKey)
+         {
+            int previous = zeroValue;
+
+            if (replace)
+            {
+               zeroValue = value;
+            }
+
+            return previous;
+         }
+
+         hasZeroKey = true;
+         zeroValue = value;
+         size++;
+         return missingValue;
+      }
+
+      int slot = find(key);
+
+      if (keys[slot] == key)
+      {
+         int previous = values[slot];
+
+         if (replace)
+         {
+            values[slot] = value;
+         }
+
+         return previous;
+      }
+
+      keys[slot] = key;
+      values[slot] = value;
+
+      if (++size > (keys.length >> 1))
+      {
+         rehash(keys.length << 1);
+      }
+
+      return missingValue;
+   }
+
+   /**
+    * Returns the slot holding key or the empty slot where it would be inserted.
+    */
+   private int find(long key)
+   {
+      int slot = hash(key) & mask;
+
+      while (keys[slot] != 0L && keys[slot] != key)
+      {
+         slot = (slot + 1) & mask;
+      }
+
+      return slot;
+   }
+
+   private void rehash(int capacity)
+   {
+      if (capacity > s_MAX_CAPACITY)
+      {
+         throw new IllegalStateException("LongIntHashMap exceeds maximum capacity");
+      }
+
+      long[] oldKeys = keys;
+      int[] oldValues = values;
+
+      allocate(capacity);
+
+      for (int cntr = 0; cntr < oldKeys.length; cntr++)
+      {
+         long key = oldKeys[cntr];
+
+         if (key != 0L)
+         {
+            int slot = find(key);
+
+            keys[slot] = key;
+            values[slot] = oldValues[cntr];
+         }
+      }
+   }
+
+   private void allocate(int capacity)
+   {
+      keys = new long[capacity];
+      values = new int[capacity];
+      mask = capacity - 1;
+   }
+
+   private static int capacityFor(int expectedSize)
+   {
+      int capacity = 2;
+
+      while (capacity < s_MAX_CAPACITY && (capacity >> 1) < expectedSize)
+      {
+         capacity <<= 1;
+      }
+
+      return capacity;
+   }
+
+   /**
+    * Scrambles the key so that sequential and strided keys spread over the table.
+    */
+   private static int hash(long key)
+   {
+      long h = key * 0x9e3779b97f4a7c15L;
+      return (int)(h ^ (h >>> 32));
+   }
+}
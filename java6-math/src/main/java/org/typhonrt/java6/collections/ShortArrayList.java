@@ -0,0 +1,280 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.collections;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * ShortArrayList -- A growable list of primitive short values without boxing.
+ *
+ * The backing array is exposed through getArray for direct reads and writes of the first size() elements. The list
+ * can be written into a ByteBuffer with a single bulk copy, for instance into a buffer returned by GLBuffer.map, or
+ * exported as a new direct buffer in native byte order.
+ *
+ * Values are added as ints and truncated to 16 bits, so unsigned indices up to 65535 for GL_UNSIGNED_SHORT index
+ * buffers can be added directly; getUnsigned reads them back.
+ *
+ * @author  Michael Leahy
+ */
+public class ShortArrayList
+{
+   private static final int s_DEFAULT_CAPACITY = 16;
+
+   private short[] elements;
+
+   private int size;
+
+   /**
+    * Creates an empty list with the default capacity.
+    */
+   public ShortArrayList()
+   {
+      this(s_DEFAULT_CAPACITY);
+   }
+
+   /**
+    * Creates an empty list.
+    *
+    * @param capacity initial capacity
+    */
+   public ShortArrayList(int capacity)
+   {
+      elements = new short[Math.max(capacity, 1)];
+   }
+
+   /**
+    * @return number of elements
+    */
+   public final int size()
+   {
+      return size;
+   }
+
+   /**
+    * @return true if the list has no elements
+    */
+   public final boolean isEmpty()
+   {
+      return size == 0;
+   }
+
+   /**
+    * Returns the backing array; only the first size() elements are part of the list. The array is replaced when the
+    * list grows.
+    *
+    * @return the backing array
+    */
+   public final short[] getArray()
+   {
+      return elements;
+   }
+
+   /**
+    * Removes all elements; the capacity is kept.
+    */
+   public final void clear()
+   {
+      size = 0;
+   }
+
+   /**
+    * Ensures that the list can hold the given number of elements without growing.
+    *
+    * @param capacity minimum capacity
+    */
+   public final void ensureCapacity(int capacity)
+   {
+      if (capacity > elements.length)
+      {
+         elements = Arrays.copyOf(elements, Math.max(capacity, elements.length + (elements.length >> 1) + 1));
+      }
+   }
+
+   /**
+    * Shrinks the backing array to the number of elements.
+    */
+   public final void trimToSize()
+   {
+      if (size < elements.length)
+      {
+         elements = Arrays.copyOf(elements, Math.max(size, 1));
+      }
+   }
+
+   /**
+    * Sets the number of elements, growing the list if necessary; new elements are zero.
+    *
+    * @param size new number of elements
+    */
+   public final void setSize(int size)
+   {
+      ensureCapacity(size);
+
+      if (size > this.size)
+      {
+         Arrays.fill(elements, this.size, size, (short)0);
+      }
+
+      this.size = size;
+   }
+
+   /**
+    * Appends a value.
+    *
+    * @param value value to append
+    */
+   public final void add(int value)
+   {
+      if (size == elements.length)
+      {
+         ensureCapacity(size + 1);
+      }
+
+      elements[size++] = (short)value;
+   }
+
+   /**
+    * Appends two values, for instance a line segment.
+    *
+    * @param v0 first value
+    * @param v1 second value
+    */
+   public final void add(int v0, int v1)
+   {
+      ensureCapacity(size + 2);
+
+      elements[size] = (short)v0;
+      elements[size + 1] = (short)v1;
+      size += 2;
+   }
+
+   /**
+    * Appends three values, for instance a triangle.
+    *
+    * @param v0 first value
+    * @param v1 second value
+    * @param v2 third value
+    */
+   public final void add(int v0, int v1, int v2)
+   {
+      ensureCapacity(size + 3);
+
+      elements[size] = (short)v0;
+      elements[size + 1] = (short)v1;
+      elements[size + 2] = (short)v2;
+      size += 3;
+   }
+
+   /**
+    * Appends values from an array.
+    *
+    * @param values source array
+    * @param offset index of the first value
+    * @param length number of values
+    */
+   public final void add(short[] values, int offset, int length)
+   {
+      ensureCapacity(size + length);
+
+      System.arraycopy(values, offset, elements, size, length);
+      size += length;
+   }
+
+   /**
+    * Appends all values of another list.
+    *
+    * @param list list to append
+    */
+   public final void add(ShortArrayList list)
+   {
+      add(list.elements, 0, list.size);
+   }
+
+   /**
+    * @param index index of the element
+    * @return the element at index
+    *
+    * @throws ArrayIndexOutOfBoundsException if index is not below size()
+    */
+   public final short get(int index)
+   {
+      if (index >= size)
+      {
+         throw new ArrayIndexOutOfBoundsException(index);
+      }
+
+      return elements[index];
+   }
+
+   /**
+    * @param index index of the element
+    * @return the element at index as an unsigned value in [0, 65535]
+    *
+    * @throws ArrayIndexOutOfBoundsException if index is not below size()
+    */
+   public final int getUnsigned(int index)
+   {
+      return get(index) & 0xffff;
+   }
+
+   /**
+    * Replaces the element at index.
+    *
+    * @param index index of the element
+    * @param value new value
+    *
+    * @throws ArrayIndexOutOfBoundsException if index is not below size()
+    */
+   public final void set(int index, int value)
+   {
+      if (index >= size)
+      {
+         throw new ArrayIndexOutOfBoundsException(index);
+      }
+
+      elements[index] = (short)value;
+   }
+
+   /**
+    * Returns a copy of the elements.
+    *
+    * @return new array of size() elements
+    */
+   public final short[] toArray()
+   {
+      return Arrays.copyOf(elements, size);
+   }
+
+   /**
+    * Copies the elements into the buffer starting at the absolute byte offset with one bulk copy, using the byte order
+    * of the buffer; the position of the buffer is not modified.
+    *
+    * @param buffer the buffer that receives the elements
+    * @param offset byte offset of the first element
+    */
+   public final void get(ByteBuffer buffer, int offset)
+   {
+      ByteBuffer view = buffer.duplicate().order(buffer.order());
+      view.position(offset);
+      view.asShortBuffer().put(elements, 0, size);
+   }
+
+   /**
+    * Copies the elements into a new direct buffer in native byte order, ready to be uploaded with glBufferData.
+    *
+    * @return the buffer, with position 0 and limit size() * 2
+    */
+   public final ByteBuffer toByteBuffer()
+   {
+      ByteBuffer buffer = ByteBuffer.allocateDirect(size * 2).order(ByteOrder.nativeOrder());
+      get(buffer, 0);
+      return buffer;
+   }
+}
@@ -0,0 +1,304 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.math;
+
+import org.typhonrt.java6.vecmath.Quat4f;
+import org.typhonrt.java6.vecmath.Vector3f;
+
+import java.nio.FloatBuffer;
+
+/**
+ * FastRandom -- Seedable xorshift64* pseudo random number generator.
+ *
+ * The seed is scrambled with one SplitMix64 step, so any seed including zero and consecutive seeds give well mixed,
+ * independent sequences; the same seed always produces the same sequence. The period is 2^64 - 1. The lowest bits
+ * of nextLong are the weakest, so the int, float and byte methods use the high bits only.
+ *
+ * An instance is not thread safe and holds no locks. MathUtil.random() returns one instance per thread; parallel
+ * tasks that must be reproducible regardless of scheduling create their own instance per task seeded from a base seed
+ * and the task index.
+ *
+ * @author  Michael Leahy
+ */
+public final class FastRandom
+{
+   private static final long s_GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+   private static final float s_FLOAT_UNIT = 1.0f / (1 << 24);
+
+   private long state;
+
+   /**
+    * Creates a generator with the given seed.
+    *
+    * @param seed any value
+    */
+   public FastRandom(long seed)
+   {
+      setSeed(seed);
+   }
+
+   /**
+    * Restarts the sequence from the given seed.
+    *
+    * @param seed any value
+    */
+   public void setSeed(long seed)
+   {
+      long z = seed + s_GOLDEN_GAMMA;
+
+      z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+      z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+      z = z ^ (z >>> 31);
+
+      // xorshift has a fixed point at zero.
+      state = z != 0 ? z : s_GOLDEN_GAMMA;
+   }
+
+   /**
+    * @return uniformly distributed 64 bit value
+    */
+   public long nextLong()
+   {
+      long x = state;
+
+      x ^= x >>> 12;
+      x ^= x << 25;
+      x ^= x >>> 27;
+
+      state = x;
+
+      return x * 0x2545f4914f6cdd1dL;
+   }
+
+   /**
+    * @return uniformly distributed 32 bit value
+    */
+   public int nextInt()
+   {
+      return (int)(nextLong() >>> 32);
+   }
+
+   /**
+    * Returns a value in [0, bound) by scaling 32 random bits; the bias is below bound / 2^32.
+    *
+    * @param bound positive upper bound, exclusive
+    * @return value in [0, bound)
+    */
+   public int nextInt(int bound)
+   {
+      return (int)(((nextLong() >>> 32) * bound) >>> 32);
+   }
+
+   /**
+    * @return random byte
+    */
+   public byte nextByte()
+   {
+      return (byte)(nextLong() >>> 56);
+   }
+
+   /**
+    * @return value in [0, 1) with 24 random bits
+    */
+   public float nextFloat()
+   {
+      return (nextLong() >>> 40) * s_FLOAT_UNIT;
+   }
+
+   /**
+    * @param min lower bound, inclusive
+    * @param max upper bound, exclusive
+    * @return value in [min, max)
+    */
+   public float nextFloat(float min, float max)
+   {
+      return min + nextFloat() * (max - min);
+   }
+
+   /**
+    * @return value in [-1, 1)
+    */
+   public float nextSignedFloat()
+   {
+      return nextFloat() * 2.0f - 1.0f;
+   }
+
+   /**
+    * Fills part of an array with values in [min, max).
+    *
+    * @param array  array to fill
+    * @param offset index of the first value
+    * @param length number of values
+    * @param min    lower bound, inclusive
+    * @param max    upper bound, exclusive
+    */
+   public void fill(float[] array, int offset, int length, float min, float max)
+   {
+      if (offset < 0 || length < 0 || offset + length > array.length)
+      {
+         throw new ArrayIndexOutOfBoundsException("offset: " + offset + ", length: " + length + ", array length: " +
+          array.length);
+      }
+
+      float range = (max - min) * s_FLOAT_UNIT;
+      long x = state;
+
+      for (int cntr = offset, end = offset + length; cntr < end; cntr++)
+      {
+         x ^= x >>> 12;
+         x ^= x << 25;
+         x ^= x >>> 27;
+
+         array[cntr] = min + ((x * 0x2545f4914f6cdd1dL) >>> 40) * range;
+      }
+
+      state = x;
+   }
+
+   /**
+    * Fills part of a buffer with values in [min, max) using absolute puts; the position is not modified.
+    *
+    * @param buffer buffer to fill
+    * @param index  index of the first value
+    * @param length number of values
+    * @param min    lower bound, inclusive
+    * @param max    upper bound, exclusive
+    */
+   public void fill(FloatBuffer buffer, int index, int length, float min, float max)
+   {
+      if (index < 0 || length < 0 || index + length > buffer.limit())
+      {
+         throw new IndexOutOfBoundsException("index: " + index + ", length: " + length + ", limit: " +
+          buffer.limit());
+      }
+
+      if (buffer.hasArray())
+      {
+         fill(buffer.array(), buffer.arrayOffset() + index, length, min, max);
+         return;
+      }
+
+      float range = (max - min) * s_FLOAT_UNIT;
+      long x = state;
+
+      for (int cntr = index, end = index + length; cntr < end; cntr++)
+      {
+         x ^= x >>> 12;
+         x ^= x << 25;
+         x ^= x >>> 27;
+
+         buffer.put(cntr, min + ((x * 0x2545f4914f6cdd1dL) >>> 40) * range);
+      }
+
+      state = x;
+   }
+
+   /**
+    * Sets a vector to a point uniformly distributed on the unit sphere (Marsaglia 1972); no trigonometry.
+    *
+    * @param result receives the unit vector
+    */
+   public void nextUnitVector(Vector3f result)
+   {
+      float a;
+      float b;
+      float s;
+
+      do
+      {
+         a = nextSignedFloat();
+         b = nextSignedFloat();
+         s = a * a + b * b;
+      }
+      while (s >= 1.0f);
+
+      float r = 2.0f * (float)Math.sqrt(1.0f - s);
+
+      result.x = a * r;
+      result.y = b * r;
+      result.z = 1.0f - 2.0f * s;
+   }
+
+   /**
+    * Fills packed x, y, z triples with points uniformly distributed on the unit sphere.
+    *
+    * @param array  array to fill
+    * @param offset index of the first x
+    * @param count  number of vectors
+    */
+   public void fillUnitVectors(float[] array, int offset, int count)
+   {
+      if (offset < 0 || count < 0 || offset + count * 3 > array.length)
+      {
+         throw new ArrayIndexOutOfBoundsException("offset: " + offset + ", count: " + count + ", array length: " +
+          array.length);
+      }
+
+      for (int cntr = 0, index = offset; cntr < count; cntr++, index += 3)
+      {
+         float a;
+         float b;
+         float s;
+
+         do
+         {
+            a = nextSignedFloat();
+            b = nextSignedFloat();
+            s = a * a + b * b;
+         }
+         while (s >= 1.0f);
+
+         float r = 2.0f * (float)Math.sqrt(1.0f - s);
+
+         array[index] = a * r;
+         array[index + 1] = b * r;
+         array[index + 2] = 1.0f - 2.0f * s;
+      }
+   }
+
+   /**
+    * Sets a quaternion to a rotation uniformly distributed over SO(3), that is a point uniformly distributed on the
+    * unit 3 sphere (Marsaglia 1972); no trigonometry.
+    *
+    * @param result receives the unit quaternion
+    */
+   public void nextUnitQuat(Quat4f result)
+   {
+      float x;
+      float y;
+      float s1;
+
+      do
+      {
+         x = nextSignedFloat();
+         y = nextSignedFloat();
+         s1 = x * x + y * y;
+      }
+      while (s1 >= 1.0f);
+
+      float z;
+      float w;
+      float s2;
+
+      do
+      {
+         z = nextSignedFloat();
+         w = nextSignedFloat();
+         s2 = z * z + w * w;
+      }
+      while (s2 >= 1.0f || s2 == 0.0f);
+
+      float r = (float)Math.sqrt((1.0f - s1) / s2);
+
+      result.x = x;
+      result.y = y;
+      result.z = z * r;
+      result.w = w * r;
+   }
+}
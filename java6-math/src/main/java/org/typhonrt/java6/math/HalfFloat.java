@@ -0,0 +1,520 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.math;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * HalfFloat -- Converts between single precision floats and IEEE 754 binary16 half floats (GL_HALF_FLOAT) stored in
+ * shorts.
+ *
+ * Conversion to half float rounds to nearest even; values that round above 65504 become infinity, values below the
+ * smallest denormal (2^-24) round to signed zero and denormals are produced in between. NaN stays NaN: the upper 10
+ * bits of the payload are kept and the quiet bit is set so the result never turns into infinity. Conversion to float
+ * is exact.
+ *
+ * The bulk methods address buffers with absolute indices and never modify their position, so buffers may be shared
+ * between chunks. ByteBuffer variants use the byte order of the buffer; use ByteOrder.nativeOrder() for data passed to
+ * OpenGL. The variants taking an ExecutorService split large conversions across the executor; see ParallelRange.
+ */
+public final class HalfFloat
+{
+   public static final short s_POSITIVE_INFINITY = (short)0x7c00;
+   public static final short s_NEGATIVE_INFINITY = (short)0xfc00;
+   public static final short s_NaN = (short)0x7e00;
+
+   /**
+    * Largest finite half float value.
+    */
+   public static final float s_MAX_VALUE = 65504.0f;
+
+   /**
+    * Smallest positive normal half float value, 2^-14.
+    */
+   public static final float s_MIN_NORMAL = 6.1035156e-5f;
+
+   /**
+    * Smallest positive denormal half float value, 2^-24.
+    */
+   public static final float s_MIN_VALUE = 5.9604645e-8f;
+
+   /**
+    * Minimum number of elements per chunk of the parallel bulk conversions; converting an element takes only a few
+    * nanoseconds, so smaller chunks do not amortize the dispatch.
+    */
+   private static final int s_MIN_CHUNK_SIZE = 1 << 16;
+
+   private HalfFloat()
+   {
+   }
+
+   /**
+    * Converts a float to the nearest half float, rounding ties to even.
+    *
+    * @param value float value
+    * @return half float bits
+    */
+   public static short fromFloat(float value)
+   {
+      int bits = Float.floatToRawIntBits(value);
+      int sign = (bits >>> 16) & 0x8000;
+      int abs = bits & 0x7fffffff;
+
+      // 65536 and above: overflow, infinity or NaN.
+      if (abs >= 0x47800000)
+      {
+         if (abs > 0x7f800000)
+         {
+            return (short)(sign | 0x7e00 | ((abs >>> 13) & 0x3ff));
+         }
+
+         return (short)(sign | 0x7c00);
+      }
+
+      // Below 2^-14: denormal or zero. Adding 0.5 aligns the value so that the float unit rounds at the half float
+      // denormal precision of 2^-24 and the mantissa bits of the sum are the denormal bits.
+      if (abs < 0x38800000)
+      {
+         float aligned = Float.intBitsToFloat(abs) + 0.5f;
+
+         return (short)(sign | (Float.floatToRawIntBits(aligned) - 0x3f000000));
+      }
+
+      // Rebias the exponent and round to nearest even; a carry out of the mantissa correctly increments the exponent,
+      // up to infinity for values from 65520.
+      int odd = (abs >>> 13) & 1;
+      abs += ((15 - 127) << 23) + 0xfff + odd;
+
+      return (short)(sign | (abs >>> 13));
+   }
+
+   /**
+    * Converts a half float to a float; the conversion is exact.
+    *
+    * @param half half float bits
+    * @return float value
+    */
+   public static float toFloat(short half)
+   {
+      int h = half & 0xffff;
+      int sign = (h & 0x8000) << 16;
+      int exponent = h & 0x7c00;
+
+      if (exponent == 0x7c00)
+      {
+         return Float.intBitsToFloat(sign | 0x7f800000 | ((h & 0x3ff) << 13));
+      }
+
+      if (exponent != 0)
+      {
+         return Float.intBitsToFloat(sign | (((h & 0x7fff) << 13) + 0x38000000));
+      }
+
+      // Denormal or zero; the product is exact.
+      float denormal = (h & 0x3ff) * s_MIN_VALUE;
+
+      return sign == 0 ? denormal : -denormal;
+   }
+
+   /**
+    * Converts floats from an array to half floats in an array.
+    *
+    * @param src       source floats
+    * @param srcOffset index of the first source float
+    * @param dst       destination half floats
+    * @param dstOffset index of the first destination half float
+    * @param count     number of values
+    */
+   public static void fromFloat(float[] src, int srcOffset, short[] dst, int dstOffset, int count)
+   {
+      for (int cntr = 0; cntr < count; cntr++)
+      {
+         dst[dstOffset + cntr] = fromFloat(src[srcOffset + cntr]);
+      }
+   }
+
+   /**
+    * Converts floats from an array to half floats in a ShortBuffer.
+    *
+    * @param src       source floats
+    * @param srcOffset index of the first source float
+    * @param dst       destination buffer
+    * @param dstIndex  absolute index of the first destination half float
+    * @param count     number of values
+    */
+   public static void fromFloat(float[] src, int srcOffset, ShortBuffer dst, int dstIndex, int count)
+   {
+      for (int cntr = 0; cntr < count; cntr++)
+      {
+         dst.put(dstIndex + cntr, fromFloat(src[srcOffset + cntr]));
+      }
+   }
+
+   /**
+    * Converts floats from a FloatBuffer to half floats in a ShortBuffer.
+    *
+    * @param src       source buffer
+    * @param srcIndex  absolute index of the first source float
+    * @param dst       destination buffer
+    * @param dstIndex  absolute index of the first destination half float
+    * @param count     number of values
+    */
+   public static void fromFloat(FloatBuffer src, int srcIndex, ShortBuffer dst, int dstIndex, int count)
+   {
+      for (int cntr = 0; cntr < count; cntr++)
+      {
+         dst.put(dstIndex + cntr, fromFloat(src.get(srcIndex + cntr)));
+      }
+   }
+
+   /**
+    * Converts floats from an array to half floats in a ByteBuffer using the byte order of the buffer.
+    *
+    * @param src       source floats
+    * @param srcOffset index of the first source float
+    * @param dst       destination buffer
+    * @param dstOffset absolute byte offset of the first destination half float
+    * @param count     number of values
+    */
+   public static void fromFloat(float[] src, int srcOffset, ByteBuffer dst, int dstOffset, int count)
+   {
+      for (int cntr = 0; cntr < count; cntr++)
+      {
+         dst.putShort(dstOffset + (cntr << 1), fromFloat(src[srcOffset + cntr]));
+      }
+   }
+
+   /**
+    * Converts floats from a FloatBuffer to half floats in a ByteBuffer using the byte order of the destination.
+    *
+    * @param src       source buffer
+    * @param srcIndex  absolute index of the first source float
+    * @param dst       destination buffer
+    * @param dstOffset absolute byte offset of the first destination half float
+    * @param count     number of values
+    */
+   public static void fromFloat(FloatBuffer src, int srcIndex, ByteBuffer dst, int dstOffset, int count)
+   {
+      for (int cntr = 0; cntr < count; cntr++)
+      {
+         dst.putShort(dstOffset + (cntr << 1), fromFloat(src.get(srcIndex + cntr)));
+      }
+   }
+
+   /**
+    * Converts half floats from an array to floats in an array.
+    *
+    * @param src       source half floats
+    * @param srcOffset index of the first source half float
+    * @param dst       destination floats
+    * @param dstOffset index of the first destination float
+    * @param count     number of values
+    */
+   public static void toFloat(short[] src, int srcOffset, float[] dst, int dstOffset, int count)
+   {
+      for (int cntr = 0; cntr < count; cntr++)
+      {
+         dst[dstOffset + cntr] = toFloat(src[srcOffset + cntr]);
+      }
+   }
+
+   /**
+    * Converts half floats from a ShortBuffer to floats in an array.
+    *
+    * @param src       source buffer
+    * @param srcIndex  absolute index of the first source half float
+    * @param dst       destination floats
+    * @param dstOffset index of the first destination float
+    * @param count     number of values
+    */
+   public static void toFloat(ShortBuffer src, int srcIndex, float[] dst, int dstOffset, int count)
+   {
+      for (int cntr = 0; cntr < count; cntr++)
+      {
+         dst[dstOffset + cntr] = toFloat(src.get(srcIndex + cntr));
+      }
+   }
+
+   /**
+    * Converts half floats from a ShortBuffer to floats in a FloatBuffer.
+    *
+    * @param src       source buffer
+    * @param srcIndex  absolute index of the first source half float
+    * @param dst       destination buffer
+    * @param dstIndex  absolute index of the first destination float
+    * @param count     number of values
+    */
+   public static void toFloat(ShortBuffer src, int srcIndex, FloatBuffer dst, int dstIndex, int count)
+   {
+      for (int cntr = 0; cntr < count; cntr++)
+      {
+         dst.put(dstIndex + cntr, toFloat(src.get(srcIndex + cntr)));
+      }
+   }
+
+   /**
+    * Converts half floats from a ByteBuffer to floats in an array using the byte order of the buffer.
+    *
+    * @param src       source buffer
+    * @param srcOffset absolute byte offset of the first source half float
+    * @param dst       destination floats
+    * @param dstOffset index of the first destination float
+    * @param count     number of values
+    */
+   public static void toFloat(ByteBuffer src, int srcOffset, float[] dst, int dstOffset, int count)
+   {
+      for (int cntr = 0; cntr < count; cntr++)
+      {
+         dst[dstOffset + cntr] = toFloat(src.getShort(srcOffset + (cntr << 1)));
+      }
+   }
+
+   /**
+    * Converts half floats from a ByteBuffer to floats in a FloatBuffer using the byte order of the source.
+    *
+    * @param src       source buffer
+    * @param srcOffset absolute byte offset of the first source half float
+    * @param dst       destination buffer
+    * @param dstIndex  absolute index of the first destination float
+    * @param count     number of values
+    */
+   public static void toFloat(ByteBuffer src, int srcOffset, FloatBuffer dst, int dstIndex, int count)
+   {
+      for (int cntr = 0; cntr < count; cntr++)
+      {
+         dst.put(dstIndex + cntr, toFloat(src.getShort(srcOffset + (cntr << 1))));
+      }
+   }
+
+   /**
+    * Performs fromFloat(float[], int, short[], int, int) splitting the work across the executor for large counts.
+    *
+    * @param src       source floats
+    * @param srcOffset index of the first source float
+    * @param dst       destination half floats
+    * @param dstOffset index of the first destination half float
+    * @param count     number of values
+    * @param executor  executor for the additional chunks; may be null to run serially
+    */
+   public static void fromFloat(final float[] src, final int srcOffset, final short[] dst, final int dstOffset,
+    int count, ExecutorService executor)
+   {
+      ParallelRange.execute(executor, count, s_MIN_CHUNK_SIZE, new IRangeTask()
+      {
+         public void run(int start, int end)
+         {
+            fromFloat(src, srcOffset + start, dst, dstOffset + start, end - start);
+         }
+      });
+   }
+
+   /**
+    * Performs fromFloat(float[], int, ShortBuffer, int, int) splitting the work across the executor for large counts.
+    *
+    * @param src       source floats
+    * @param srcOffset index of the first source float
+    * @param dst       destination buffer
+    * @param dstIndex  absolute index of the first destination half float
+    * @param count     number of values
+    * @param executor  executor for the additional chunks; may be null to run serially
+    */
+   public static void fromFloat(final float[] src, final int srcOffset, final ShortBuffer dst, final int dstIndex,
+    int count, ExecutorService executor)
+   {
+      ParallelRange.execute(executor, count, s_MIN_CHUNK_SIZE, new IRangeTask()
+      {
+         public void run(int start, int end)
+         {
+            fromFloat(src, srcOffset + start, dst, dstIndex + start, end - start);
+         }
+      });
+   }
+
+   /**
+    * Performs fromFloat(FloatBuffer, int, ShortBuffer, int, int) splitting the work across the executor for large
+    * counts.
+    *
+    * @param src       source buffer
+    * @param srcIndex  absolute index of the first source float
+    * @param dst       destination buffer
+    * @param dstIndex  absolute index of the first destination half float
+    * @param count     number of values
+    * @param executor  executor for the additional chunks; may be null to run serially
+    */
+   public static void fromFloat(final FloatBuffer src, final int srcIndex, final ShortBuffer dst, final int dstIndex,
+    int count, ExecutorService executor)
+   {
+      ParallelRange.execute(executor, count, s_MIN_CHUNK_SIZE, new IRangeTask()
+      {
+         public void run(int start, int end)
+         {
+            fromFloat(src, srcIndex + start, dst, dstIndex + start, end - start);
+         }
+      });
+   }
+
+   /**
+    * Performs fromFloat(float[], int, ByteBuffer, int, int) splitting the work across the executor for large counts.
+    *
+    * @param src       source floats
+    * @param srcOffset index of the first source float
+    * @param dst       destination buffer
+    * @param dstOffset absolute byte offset of the first destination half float
+    * @param count     number of values
+    * @param executor  executor for the additional chunks; may be null to run serially
+    */
+   public static void fromFloat(final float[] src, final int srcOffset, final ByteBuffer dst, final int dstOffset,
+    int count, ExecutorService executor)
+   {
+      ParallelRange.execute(executor, count, s_MIN_CHUNK_SIZE, new IRangeTask()
+      {
+         public void run(int start, int end)
+         {
+            fromFloat(src, srcOffset + start, dst, dstOffset + (start << 1), end - start);
+         }
+      });
+   }
+
+   /**
+    * Performs fromFloat(FloatBuffer, int, ByteBuffer, int, int) splitting the work across the executor for large
+    * counts.
+    *
+    * @param src       source buffer
+    * @param srcIndex  absolute index of the first source float
+    * @param dst       destination buffer
+    * @param dstOffset absolute byte offset of the first destination half float
+    * @param count     number of values
+    * @param executor  executor for the additional chunks; may be null to run serially
+    */
+   public static void fromFloat(final FloatBuffer src, final int srcIndex, final ByteBuffer dst, final int dstOffset,
+    int count, ExecutorService executor)
+   {
+      ParallelRange.execute(executor, count, s_MIN_CHUNK_SIZE, new IRangeTask()
+      {
+         public void run(int start, int end)
+         {
+            fromFloat(src, srcIndex + start, dst, dstOffset + (start << 1), end - start);
+         }
+      });
+   }
+
+   /**
+    * Performs toFloat(short[], int, float[], int, int) splitting the work across the executor for large counts.
+    *
+    * @param src       source half floats
+    * @param srcOffset index of the first source half float
+    * @param dst       destination floats
+    * @param dstOffset index of the first destination float
+    * @param count     number of values
+    * @param executor  executor for the additional chunks; may be null to run serially
+    */
+   public static void toFloat(final short[] src, final int srcOffset, final float[] dst, final int dstOffset,
+    int count, ExecutorService executor)
+   {
+      ParallelRange.execute(executor, count, s_MIN_CHUNK_SIZE, new IRangeTask()
+      {
+         public void run(int start, int end)
+         {
+            toFloat(src, srcOffset + start, dst, dstOffset + start, end - start);
+         }
+      });
+   }
+
+   /**
+    * Performs toFloat(ShortBuffer, int, float[], int, int) splitting the work across the executor for large counts.
+    *
+    * @param src       source buffer
+    * @param srcIndex  absolute index of the first source half float
+    * @param dst       destination floats
+    * @param dstOffset index of the first destination float
+    * @param count     number of values
+    * @param executor  executor for the additional chunks; may be null to run serially
+    */
+   public static void toFloat(final ShortBuffer src, final int srcIndex, final float[] dst, final int dstOffset,
+    int count, ExecutorService executor)
+   {
+      ParallelRange.execute(executor, count, s_MIN_CHUNK_SIZE, new IRangeTask()
+      {
+         public void run(int start, int end)
+         {
+            toFloat(src, srcIndex + start, dst, dstOffset + start, end - start);
+         }
+      });
+   }
+
+   /**
+    * Performs toFloat(ShortBuffer, int, FloatBuffer, int, int) splitting the work across the executor for large
+    * counts.
+    *
+    * @param src       source buffer
+    * @param srcIndex  absolute index of the first source half float
+    * @param dst       destination buffer
+    * @param dstIndex  absolute index of the first destination float
+    * @param count     number of values
+    * @param executor  executor for the additional chunks; may be null to run serially
+    */
+   public static void toFloat(final ShortBuffer src, final int srcIndex, final FloatBuffer dst, final int dstIndex,
+    int count, ExecutorService executor)
+   {
+      ParallelRange.execute(executor, count, s_MIN_CHUNK_SIZE, new IRangeTask()
+      {
+         public void run(int start, int end)
+         {
+            toFloat(src, srcIndex + start, dst, dstIndex + start, end - start);
+         }
+      });
+   }
+
+   /**
+    * Performs toFloat(ByteBuffer, int, float[], int, int) splitting the work across the executor for large counts.
+    *
+    * @param src       source buffer
+    * @param srcOffset absolute byte offset of the first source half float
+    * @param dst       destination floats
+    * @param dstOffset index of the first destination float
+    * @param count     number of values
+    * @param executor  executor for the additional chunks; may be null to run serially
+    */
+   public static void toFloat(final ByteBuffer src, final int srcOffset, final float[] dst, final int dstOffset,
+    int count, ExecutorService executor)
+   {
+      ParallelRange.execute(executor, count, s_MIN_CHUNK_SIZE, new IRangeTask()
+      {
+         public void run(int start, int end)
+         {
+            toFloat(src, srcOffset + (start << 1), dst, dstOffset + start, end - start);
+         }
+      });
+   }
+
+   /**
+    * Performs toFloat(ByteBuffer, int, FloatBuffer, int, int) splitting the work across the executor for large
+    * counts.
+    *
+    * @param src       source buffer
+    * @param srcOffset absolute byte offset of the first source half float
+    * @param dst       destination buffer
+    * @param dstIndex  absolute index of the first destination float
+    * @param count     number of values
+    * @param executor  executor for the additional chunks; may be null to run serially
+    */
+   public static void toFloat(final ByteBuffer src, final int srcOffset, final FloatBuffer dst, final int dstIndex,
+    int count, ExecutorService executor)
+   {
+      ParallelRange.execute(executor, count, s_MIN_CHUNK_SIZE, new IRangeTask()
+      {
+         public void run(int start, int end)
+         {
+            toFloat(src, srcOffset + (start << 1), dst, dstIndex + start, end - start);
+         }
+      });
+   }
+}
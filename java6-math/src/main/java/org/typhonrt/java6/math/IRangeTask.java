@@ -0,0 +1,22 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.math;
+
+/**
+ * IRangeTask -- A unit of work over the index range [start, end) as dispatched by ParallelRange.
+ */
+public interface IRangeTask
+{
+   /**
+    * Processes the elements from start inclusive to end exclusive.
+    *
+    * @param start first index
+    * @param end   index after the last element
+    */
+   void run(int start, int end);
+}
@@ -7,6 +7,8 @@
  */
 package org.typhonrt.java6.math;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * MathUtil
  */
@@ -18,25 +20,67 @@ public final class MathUtil
 
    public static final int s_VEC4F_SIZE_BYTES = s_FLOAT_SIZE_BYTES * 4;
 
-   private static final int s_RAND_MAX = 64000;
+   /**
+    * Source of the default seeds of the per thread generators; each thread takes the next value.
+    */
+   private static final AtomicLong s_SEED_SEQUENCE = new AtomicLong(System.nanoTime());
+
+   private static final ThreadLocal<FastRandom> s_RANDOM = new ThreadLocal<FastRandom>()
+   {
+      @Override
+      protected FastRandom initialValue()
+      {
+         return new FastRandom(s_SEED_SEQUENCE.getAndIncrement());
+      }
+   };
+
+   public static final float s_PI = (float)Math.PI;
+   public static final float s_HALF_PI = (float)(Math.PI * 0.5);
+   public static final float s_TWO_PI = (float)(Math.PI * 2.0);
+
+   /**
+    * 2 * PI split into a float and the float remainder for range reduction with less cancellation.
+    */
+   private static final float s_TWO_PI_HI = 6.2831855f;
+   private static final float s_TWO_PI_LO = (float)(Math.PI * 2.0 - 6.2831855f);
+
+   private static final float s_INV_TWO_PI = (float)(0.5 / Math.PI);
+
+   /**
+    * Number of sine table segments per period; a power of two.
+    */
+   private static final int s_SIN_TABLE_SIZE = 4096;
+   private static final int s_SIN_TABLE_MASK = s_SIN_TABLE_SIZE - 1;
+   private static final float s_SIN_TABLE_SCALE = (float)(s_SIN_TABLE_SIZE / (Math.PI * 2.0));
 
    private MathUtil()
    {
    }
 
+   /**
+    * Returns the generator of the calling thread. It is created on first use with a distinct seed per thread; call
+    * setSeed on it for a reproducible sequence. Threads never share a generator, so there is no contention.
+    *
+    * @return generator of the calling thread
+    */
+   public static FastRandom random()
+   {
+      return s_RANDOM.get();
+   }
+
    public static byte randByte()
    {
-      return (byte) ((int) (Math.random() * s_RAND_MAX) & 0xff);
+      return s_RANDOM.get().nextByte();
    }
 
    public static float frand()
    {
-      return (float) Math.random();
+      return s_RANDOM.get().nextFloat();
    }
 
    public static float sfrand()
    {
-      return frand() * 2.0f - 1.0f;
+      return s_RANDOM.get().nextSignedFloat();
    }
 
    public static int nextPow2(int val)
@@ -48,4 +92,169 @@ public final class MathUtil
       }
       return val + 1;
    }
+
+   /**
+    * Approximates sin(x) with range reduction to [-PI / 2, PI / 2] and a degree 11 polynomial. The absolute error is
+    * below 4e-7 for |x| <= 2 * PI and grows with |x| as the float reduction loses precision, reaching about 7e-6 for
+    * |x| near 100 and 4e-5 for |x| near 1000.
+    *
+    * @param x angle in radians
+    * @return approximate sine
+    */
+   public static float sinFast(float x)
+   {
+      float k = (float)Math.floor(x * s_INV_TWO_PI + 0.5f);
+      float r = (x - k * s_TWO_PI_HI) - k * s_TWO_PI_LO;
+
+      // sin(PI - r) == sin(r) folds [-PI, PI] into [-PI / 2, PI / 2].
+      if (r > s_HALF_PI)
+      {
+         r = s_PI - r;
+      }
+      else if (r < -s_HALF_PI)
+      {
+         r = -s_PI - r;
+      }
+
+      float r2 = r * r;
+
+      return r * (1.0f + r2 * (-1.6666667e-1f + r2 * (8.3333333e-3f + r2 * (-1.9841270e-4f + r2 * (2.7557319e-6f +
+       r2 * -2.5052108e-8f)))));
+   }
+
+   /**
+    * Approximates cos(x) as sinFast(x + PI / 2); see sinFast for the error.
+    *
+    * @param x angle in radians
+    * @return approximate cosine
+    */
+   public static float cosFast(float x)
+   {
+      return sinFast(x + s_HALF_PI);
+   }
+
+   /**
+    * Approximates sin(x) by linear interpolation in a table of 4096 samples per period, which is created on first use
+    * (16 KiB). The absolute error is below 1e-6 for |x| <= 2 * PI and, like sinFast, grows with |x|, reaching about
+    * 1e-4 for |x| near 1000.
+    *
+    * @param x angle in radians
+    * @return approximate sine
+    */
+   public static float sinTable(float x)
+   {
+      return SinTable.lookup(x * s_SIN_TABLE_SCALE);
+   }
+
+   /**
+    * Approximates cos(x) with the table of sinTable shifted by a quarter period; see sinTable for the error.
+    *
+    * @param x angle in radians
+    * @return approximate cosine
+    */
+   public static float cosTable(float x)
+   {
+      return SinTable.lookup(x * s_SIN_TABLE_SCALE + (s_SIN_TABLE_SIZE >> 2));
+   }
+
+   /**
+    * Approximates atan2(y, x) with an octant reduction and the degree 17 polynomial of Abramowitz and Stegun 4.4.49;
+    * the absolute error is below 4e-7 radians. Returns 0 when both arguments are zero.
+    *
+    * @param y ordinate
+    * @param x abscissa
+    * @return approximate angle in [-PI, PI]
+    */
+   public static float atan2Fast(float y, float x)
+   {
+      float ax = Math.abs(x);
+      float ay = Math.abs(y);
+
+      float max = Math.max(ax, ay);
+
+      if (max == 0.0f)
+      {
+         return 0.0f;
+      }
+
+      float a = Math.min(ax, ay) / max;
+      float s = a * a;
+
+      float r = a * (1.0f + s * (-0.3333314528f + s * (0.1999355085f + s * (-0.1420889944f + s * (0.1065626393f +
+       s * (-0.0752896400f + s * (0.0429096138f + s * (-0.0161657367f + s * 0.0028662257f))))))));
+
+      if (ay > ax)
+      {
+         r = s_HALF_PI - r;
+      }
+
+      if (x < 0.0f)
+      {
+         r = s_PI - r;
+      }
+
+      // The sign bit of y rather than y < 0 so atan2Fast(-0, x) for negative x is -PI like Math.atan2.
+      return Math.copySign(r, y);
+   }
+
+   /**
+    * Approximates acos(x) with the polynomial of Abramowitz and Stegun 4.4.46; the absolute error is below 5e-7
+    * radians. Arguments outside [-1, 1] are clamped, so rounding errors of dot products do not produce NaN.
+    *
+    * @param x cosine
+    * @return approximate angle in [0, PI]
+    */
+   public static float acosFast(float x)
+   {
+      float a = Math.min(Math.abs(x), 1.0f);
+
+      float r = (float)Math.sqrt(1.0f - a) * (1.5707963050f + a * (-0.2145988016f + a * (0.0889789874f +
+       a * (-0.0501743046f + a * (0.0308918810f + a * (-0.0170881256f + a * (0.0066700901f +
+       a * -0.0012624911f)))))));
+
+      return x < 0.0f ? s_PI - r : r;
+   }
+
+   /**
+    * Approximates 1 / sqrt(x) for positive finite x with a bit level initial guess refined by two Newton steps; the
+    * relative error is below 5e-6. Measure before adopting it: where Math.sqrt compiles to a hardware instruction
+    * (HotSpot on x86) 1 / Math.sqrt is faster; it pays off on runtimes without an intrinsic sqrt.
+    *
+    * @param x positive value
+    * @return approximate inverse square root
+    */
+   public static float invSqrtFast(float x)
+   {
+      float half = 0.5f * x;
+      float y = Float.intBitsToFloat(0x5f375a86 - (Float.floatToRawIntBits(x) >> 1));
+
+      y = y * (1.5f - half * y * y);
+      return y * (1.5f - half * y * y);
+   }
+
+   /**
+    * Lazily created sine table; one extra sample avoids wrapping the upper index.
+    */
+   private static final class SinTable
+   {
+      private static final float[] s_TABLE = new float[s_SIN_TABLE_SIZE + 1];
+
+      static
+      {
+         for (int cntr = 0; cntr <= s_SIN_TABLE_SIZE; cntr++)
+         {
+            s_TABLE[cntr] = (float)Math.sin(cntr * Math.PI * 2.0 / s_SIN_TABLE_SIZE);
+         }
+      }
+
+      static float lookup(float position)
+      {
+         float floor = (float)Math.floor(position);
+         int index = (int)floor & s_SIN_TABLE_MASK;
+         float t = position - floor;
+
+         float a = s_TABLE[index];
+         return a + (s_TABLE[index + 1] - a) * t;
+      }
+   }
 }
@@ -0,0 +1,345 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.math;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * ParallelRange -- Splits an index range into contiguous chunks that are processed by an executor while the calling
+ * thread processes the first chunk, then waits for the rest.
+ *
+ * ForkJoinPool is not available before Android API 21, so any executor (for instance a fixed thread pool sized to the
+ * number of cores) is accepted instead. Small ranges and a null executor run serially on the calling thread without
+ * allocation.
+ *
+ * The static execute method allocates a Runnable and a Future per extra chunk. For work that is dispatched every
+ * frame create an instance instead; it reuses its chunk objects so that execute(int, int, IRangeTask) performs no
+ * allocation of its own. An instance may only run one range at a time.
+ */
+public final class ParallelRange
+{
+   /**
+    * Default minimum number of elements per chunk; below twice this amount work is not split.
+    */
+   public static final int s_DEFAULT_MIN_CHUNK_SIZE = 4096;
+
+   private static final int s_PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+   private final Executor executor;
+
+   private final Chunk[] chunks;
+
+   private final Object lock = new Object();
+
+   private int pending;
+
+   private Throwable failure;
+
+   private boolean running;
+
+   /**
+    * Creates a reusable splitter that dispatches to the given executor with one chunk per available processor.
+    *
+    * @param executor executor for the additional chunks; may be null to always run serially
+    */
+   public ParallelRange(Executor executor)
+   {
+      this.executor = executor;
+
+      chunks = new Chunk[executor == null ? 0 : s_PARALLELISM - 1];
+
+      for (int cntr = 0; cntr < chunks.length; cntr++)
+      {
+         chunks[cntr] = new Chunk();
+      }
+   }
+
+   /**
+    * Runs the task over [0, count) splitting the range into at most one chunk per available processor and no chunk
+    * smaller than minChunkSize. Exceptions thrown by any chunk are rethrown on the calling thread after all chunks have
+    * finished.
+    *
+    * @param count        number of elements
+    * @param minChunkSize minimum number of elements per chunk
+    * @param task         task to run
+    *
+    * @throws IllegalStateException if this instance is already running a range
+    */
+   public void execute(int count, int minChunkSize, IRangeTask task)
+   {
+      int chunkCount = Math.min(chunks.length + 1, count / Math.max(minChunkSize, 1));
+
+      if (chunkCount <= 1)
+      {
+         task.run(0, count);
+         return;
+      }
+
+      int chunkSize = (count + chunkCount - 1) / chunkCount;
+
+      // Rounding the chunk size up may leave fewer chunks than requested, e.g. 130 elements in 16 chunks of 9.
+      chunkCount = (count + chunkSize - 1) / chunkSize;
+
+      synchronized (lock)
+      {
+         if (running)
+         {
+            throw new IllegalStateException("ParallelRange is already running");
+         }
+         running = true;
+         pending = chunkCount - 1;
+         failure = null;
+      }
+
+      for (int cntr = 1; cntr < chunkCount; cntr++)
+      {
+         Chunk chunk = chunks[cntr - 1];
+         chunk.task = task;
+         chunk.start = cntr * chunkSize;
+         chunk.end = Math.min(chunk.start + chunkSize, count);
+
+         try
+         {
+            executor.execute(chunk);
+         }
+         catch (RejectedExecutionException e)
+         {
+            chunk.run();
+         }
+      }
+
+      Throwable error = null;
+
+      try
+      {
+         task.run(0, chunkSize);
+      }
+      catch (RuntimeException e)
+      {
+         error = e;
+      }
+      catch (Error e)
+      {
+         error = e;
+      }
+
+      boolean interrupted = false;
+
+      synchronized (lock)
+      {
+         // Chunks share the caller's arrays, so always wait for completion before returning.
+         while (pending > 0)
+         {
+            try
+            {
+               lock.wait();
+            }
+            catch (InterruptedException e)
+            {
+               interrupted = true;
+            }
+         }
+
+         if (error == null)
+         {
+            error = failure;
+         }
+
+         failure = null;
+         running = false;
+      }
+
+      for (int cntr = 1; cntr < chunkCount; cntr++)
+      {
+         chunks[cntr - 1].task = null;
+      }
+
+      if (interrupted)
+      {
+         Thread.currentThread().interrupt();
+      }
+
+      rethrow(error);
+   }
+
+   /**
+    * Runs the task over [0, count) splitting the range into at most one chunk per available processor and no chunk
+    * smaller than minChunkSize. Exceptions thrown by any chunk are rethrown on the calling thread after all chunks have
+    * finished.
+    *
+    * @param executor     executor for the additional chunks; may be null to run serially
+    * @param count        number of elements
+    * @param minChunkSize minimum number of elements per chunk
+    * @param task         task to run
+    */
+   public static void execute(ExecutorService executor, int count, int minChunkSize, final IRangeTask task)
+   {
+      int chunks = executor == null ? 1 : Math.min(s_PARALLELISM, count / Math.max(minChunkSize, 1));
+
+      if (chunks <= 1)
+      {
+         task.run(0, count);
+         return;
+      }
+
+      int chunkSize = (count + chunks - 1) / chunks;
+
+      // As in execute(int, int, IRangeTask) the rounded up chunk size may need fewer chunks.
+      chunks = (count + chunkSize - 1) / chunkSize;
+
+      Future<?>[] futures = new Future<?>[chunks - 1];
+
+      Throwable error = null;
+
+      for (int cntr = 1; cntr < chunks; cntr++)
+      {
+         final int start = cntr * chunkSize;
+         final int end = Math.min(start + chunkSize, count);
+
+         try
+         {
+            futures[cntr - 1] = executor.submit(new Runnable()
+            {
+               public void run()
+               {
+                  task.run(start, end);
+               }
+            });
+         }
+         catch (RejectedExecutionException e)
+         {
+            // Chunks submitted so far are still waited for below.
+            error = run(task, start, end, error);
+         }
+      }
+
+      error = run(task, 0, chunkSize, error);
+
+      boolean interrupted = false;
+
+      for (Future<?> future : futures)
+      {
+         // A rejected chunk has no future; it already ran on this thread.
+         if (future == null)
+         {
+            continue;
+         }
+
+         while (true)
+         {
+            try
+            {
+               future.get();
+               break;
+            }
+            catch (InterruptedException e)
+            {
+               // Chunks share the caller's arrays, so always wait for completion before returning.
+               interrupted = true;
+            }
+            catch (ExecutionException e)
+            {
+               if (error == null)
+               {
+                  error = e.getCause();
+               }
+               break;
+            }
+         }
+      }
+
+      if (interrupted)
+      {
+         Thread.currentThread().interrupt();
+      }
+
+      rethrow(error);
+   }
+
+   /**
+    * Runs a chunk on the calling thread.
+    *
+    * @return error if not null, otherwise the exception thrown by the chunk or null
+    */
+   private static Throwable run(IRangeTask task, int start, int end, Throwable error)
+   {
+      try
+      {
+         task.run(start, end);
+      }
+      catch (RuntimeException e)
+      {
+         return error != null ? error : e;
+      }
+      catch (Error e)
+      {
+         return error != null ? error : e;
+      }
+
+      return error;
+   }
+
+   private static void rethrow(Throwable error)
+   {
+      if (error instanceof RuntimeException)
+      {
+         throw (RuntimeException)error;
+      }
+
+      if (error instanceof Error)
+      {
+         throw (Error)error;
+      }
+
+      if (error != null)
+      {
+         throw new RuntimeException(error);
+      }
+   }
+
+   /**
+    * Reusable unit of work dispatched to the executor.
+    */
+   private final class Chunk implements Runnable
+   {
+      private IRangeTask task;
+      private int start;
+      private int end;
+
+      public void run()
+      {
+         Throwable error = null;
+
+         try
+         {
+            task.run(start, end);
+         }
+         catch (Throwable t)
+         {
+            error = t;
+         }
+
+         synchronized (lock)
+         {
+            if (error != null && failure == null)
+            {
+               failure = error;
+            }
+
+            if (--pending == 0)
+            {
+               lock.notifyAll();
+            }
+         }
+      }
+   }
+}
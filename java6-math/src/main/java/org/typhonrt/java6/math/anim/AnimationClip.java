@@ -0,0 +1,175 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.math.anim;
+
+import org.typhonrt.java6.vecmath.Quat4f;
+import org.typhonrt.java6.vecmath.Tuple3f;
+
+/**
+ * AnimationClip -- Keyframes for every bone of a skeleton sampled at a fixed frame rate.
+ *
+ * Each frame stores the local translation / rotation / scale of all bones in the structure of arrays layout of Pose,
+ * so sampling locates the two surrounding frames in constant time and interpolates all bones at once with the same
+ * weight. Rotations of neighboring frames are close, so they are interpolated with nlerp whose deviation from slerp is
+ * negligible at that distance.
+ *
+ * @author  Michael Leahy
+ */
+public class AnimationClip
+{
+   /**
+    * The number of bones per frame.
+    */
+   public final int boneCount;
+
+   /**
+    * The number of frames.
+    */
+   public final int frameCount;
+
+   /**
+    * Frames per second.
+    */
+   public final float frameRate;
+
+   private final float[][] translations;
+   private final float[][] rotations;
+   private final float[][] scales;
+
+   /**
+    * Constructs a clip with all frames set to identity transforms.
+    *
+    * @param boneCount  number of bones of the skeleton
+    * @param frameCount number of frames; at least 1
+    * @param frameRate  frames per second; greater than 0
+    */
+   public AnimationClip(int boneCount, int frameCount, float frameRate)
+   {
+      if (frameCount < 1)
+      {
+         throw new IllegalArgumentException("frameCount must be at least 1 and is " + frameCount);
+      }
+
+      if (!(frameRate > 0.0f))
+      {
+         throw new IllegalArgumentException("frameRate must be greater than 0 and is " + frameRate);
+      }
+
+      this.boneCount = boneCount;
+      this.frameCount = frameCount;
+      this.frameRate = frameRate;
+
+      translations = new float[frameCount][boneCount * 3];
+      rotations = new float[frameCount][boneCount * 4];
+      scales = new float[frameCount][boneCount * 3];
+
+      for (int frame = 0; frame < frameCount; frame++)
+      {
+         for (int cntr = 0; cntr < boneCount; cntr++)
+         {
+            rotations[frame][boneCount * 3 + cntr] = 1.0f;
+         }
+
+         for (int cntr = 0; cntr < boneCount * 3; cntr++)
+         {
+            scales[frame][cntr] = 1.0f;
+         }
+      }
+   }
+
+   /**
+    * @return length of the clip in seconds; (frameCount - 1) / frameRate
+    */
+   public final float getDuration()
+   {
+      return (frameCount - 1) / frameRate;
+   }
+
+   /**
+    * Sets the local transform of a bone in a frame.
+    *
+    * @param frame       index of the frame
+    * @param bone        index of the bone
+    * @param translation translation relative to the parent
+    * @param rotation    unit quaternion rotation relative to the parent
+    * @param scale       scale along each axis
+    */
+   public final void setKey(int frame, int bone, Tuple3f translation, Quat4f rotation, Tuple3f scale)
+   {
+      checkFrame(frame);
+
+      Pose.setLocal(translations[frame], rotations[frame], scales[frame], boneCount, bone, translation, rotation,
+       scale);
+   }
+
+   /**
+    * Samples the clip at a time into the local transforms of the pose.
+    *
+    * When looping the time wraps around the duration, so a looping clip should repeat its first frame as its last
+    * one; otherwise the time is clamped to the clip.
+    *
+    * @param time time in seconds
+    * @param loop whether the time wraps around
+    * @param pose the pose that receives the sample; must have boneCount bones
+    */
+   public final void sample(float time, boolean loop, Pose pose)
+   {
+      if (pose.boneCount != boneCount)
+      {
+         throw new IllegalArgumentException("pose has " + pose.boneCount + " bones and the clip " + boneCount);
+      }
+
+      float position = time * frameRate;
+      int last = frameCount - 1;
+
+      if (loop && last > 0)
+      {
+         position %= last;
+
+         if (position < 0.0f)
+         {
+            position += last;
+         }
+      }
+
+      if (!(position > 0.0f))
+      {
+         copyFrame(0, pose);
+         return;
+      }
+
+      if (position >= last)
+      {
+         copyFrame(last, pose);
+         return;
+      }
+
+      int frame = (int)position;
+      float weight = position - frame;
+
+      Pose.lerp(translations[frame], translations[frame + 1], weight, pose.translations);
+      Pose.lerp(scales[frame], scales[frame + 1], weight, pose.scales);
+
+      Quat4f.nlerp(rotations[frame], rotations[frame + 1], weight, pose.rotations, boneCount, 0, boneCount, true);
+   }
+
+   private void copyFrame(int frame, Pose pose)
+   {
+      System.arraycopy(translations[frame], 0, pose.translations, 0, boneCount * 3);
+      System.arraycopy(rotations[frame], 0, pose.rotations, 0, boneCount * 4);
+      System.arraycopy(scales[frame], 0, pose.scales, 0, boneCount * 3);
+   }
+
+   private void checkFrame(int frame)
+   {
+      if (frame < 0 || frame >= frameCount)
+      {
+         throw new ArrayIndexOutOfBoundsException("frame must be 0 to " + (frameCount - 1) + " and is " + frame);
+      }
+   }
+}
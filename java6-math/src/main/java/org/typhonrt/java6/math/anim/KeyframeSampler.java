@@ -0,0 +1,171 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.math.anim;
+
+import org.typhonrt.java6.vecmath.Tuple3f;
+import org.typhonrt.java6.vecmath.Tuple4f;
+
+/**
+ * KeyframeSampler -- Samples one KeyframeTrack and remembers the key of the last sample.
+ *
+ * The next sample first checks the remembered segment and the one after it, so playback at increasing times costs
+ * constant time per sample however many keys the track has; seeking backwards or skipping segments falls back to a
+ * binary search. Each playing instance of a track needs its own sampler while the track itself is shared.
+ *
+ * The batch sample method evaluates many samplers at one time value into a packed array and searches the key only
+ * once for each run of consecutive tracks sharing the same times array, as tracks baked at common key times do.
+ *
+ * A sampler is not thread safe; nothing is allocated after construction.
+ *
+ * @author  Michael Leahy
+ */
+public class KeyframeSampler
+{
+   /**
+    * The sampled track.
+    */
+   public final KeyframeTrack track;
+
+   private final float[] scratch = new float[4];
+
+   private int key;
+
+   /**
+    * Constructs a sampler positioned at the first key.
+    *
+    * @param track the track to sample
+    */
+   public KeyframeSampler(KeyframeTrack track)
+   {
+      this.track = track;
+   }
+
+   /**
+    * @return first key of the segment of the last sample
+    */
+   public final int getKey()
+   {
+      return key;
+   }
+
+   /**
+    * Positions the sampler at the first key, for instance when playback restarts.
+    */
+   public final void reset()
+   {
+      key = 0;
+   }
+
+   /**
+    * Samples the track into an array.
+    *
+    * @param time   time in seconds
+    * @param dst    array that receives track.components floats
+    * @param offset index of the first float
+    */
+   public final void sample(float time, float[] dst, int offset)
+   {
+      final KeyframeTrack t = track;
+
+      key = t.findKey(time, key);
+
+      t.evaluate(key, t.fraction(key, time), dst, offset);
+   }
+
+   /**
+    * Samples a track of one component.
+    *
+    * @param time time in seconds
+    * @return the value
+    */
+   public final float sample(float time)
+   {
+      checkComponents(1);
+
+      sample(time, scratch, 0);
+
+      return scratch[0];
+   }
+
+   /**
+    * Samples a track of three components.
+    *
+    * @param time   time in seconds
+    * @param result receives the value
+    */
+   public final void sample(float time, Tuple3f result)
+   {
+      checkComponents(3);
+
+      sample(time, scratch, 0);
+
+      result.set(scratch[0], scratch[1], scratch[2]);
+   }
+
+   /**
+    * Samples a track of four components such as a rotation track into a Quat4f.
+    *
+    * @param time   time in seconds
+    * @param result receives the value
+    */
+   public final void sample(float time, Tuple4f result)
+   {
+      checkComponents(4);
+
+      sample(time, scratch, 0);
+
+      result.set(scratch[0], scratch[1], scratch[2], scratch[3]);
+   }
+
+   /**
+    * Samples count samplers at one time value, writing the values of each one after the other starting at offset.
+    *
+    * @param samplers the samplers
+    * @param start    index of the first sampler
+    * @param count    number of samplers
+    * @param time     time in seconds
+    * @param dst      array that receives the values
+    * @param offset   index of the first float
+    * @return index after the last float written
+    */
+   public static int sample(KeyframeSampler[] samplers, int start, int count, float time, float[] dst, int offset)
+   {
+      float[] sharedTimes = null;
+      int sharedKey = 0;
+      float sharedFraction = 0.0f;
+
+      for (int cntr = start, end = start + count; cntr < end; cntr++)
+      {
+         final KeyframeSampler sampler = samplers[cntr];
+         final KeyframeTrack track = sampler.track;
+
+         if (track.getTimes() != sharedTimes)
+         {
+            sharedTimes = track.getTimes();
+            sharedKey = track.findKey(time, sampler.key);
+            sharedFraction = track.fraction(sharedKey, time);
+         }
+
+         sampler.key = sharedKey;
+
+         track.evaluate(sharedKey, sharedFraction, dst, offset);
+
+         offset += track.components;
+      }
+
+      return offset;
+   }
+
+   private void checkComponents(int components)
+   {
+      if (track.components != components)
+      {
+         throw new IllegalArgumentException("track has " + track.components + " components, not " + components);
+      }
+   }
+}
@@ -0,0 +1,432 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.math.anim;
+
+/**
+ * KeyframeTrack -- Keys of one animated float, Vector3f or Quat4f value at arbitrary, strictly increasing times.
+ *
+ * Values are stored packed with components floats per key, so key k starts at [k * components]. Before the first and
+ * after the last key the track holds the value of that key. The interpolation is one of
+ *
+ * <ul>
+ * <li>s_INTERPOLATION_STEP: the value of the last key at or before the time.</li>
+ * <li>s_INTERPOLATION_LINEAR: linear between the surrounding keys.</li>
+ * <li>s_INTERPOLATION_HERMITE: cubic Hermite between the surrounding keys with given tangents.</li>
+ * <li>s_INTERPOLATION_CATMULL_ROM: cubic Hermite with the tangent of each key derived from its neighbors, scaled
+ * for non uniform key spacing; the end keys use the slope towards their only neighbor.</li>
+ * </ul>
+ *
+ * Tangents are derivatives per second, so a Catmull-Rom track is a Hermite track whose tangents are computed once at
+ * construction and both evaluate with the same code. Rotation tracks hold unit quaternions; their keys are negated
+ * where needed at construction so neighboring keys lie in the same hemisphere, and every interpolated result is
+ * renormalized, which for linear interpolation is nlerp along the shortest path.
+ *
+ * A track is immutable and may be shared by any number of KeyframeSamplers on any number of threads. The key times
+ * are used as given, not copied, and may be shared among tracks; KeyframeSampler locates the key once for all
+ * consecutive tracks of a batch sharing the same times array.
+ *
+ * @author  Michael Leahy
+ */
+public class KeyframeTrack
+{
+   /**
+    * Holds the value of the previous key.
+    */
+   public static final int s_INTERPOLATION_STEP = 0;
+
+   /**
+    * Linear interpolation; nlerp for rotation tracks.
+    */
+   public static final int s_INTERPOLATION_LINEAR = 1;
+
+   /**
+    * Cubic Hermite interpolation with tangents given per key.
+    */
+   public static final int s_INTERPOLATION_HERMITE = 2;
+
+   /**
+    * Cubic Hermite interpolation with Catmull-Rom tangents.
+    */
+   public static final int s_INTERPOLATION_CATMULL_ROM = 3;
+
+   /**
+    * The number of keys.
+    */
+   public final int keyCount;
+
+   /**
+    * Floats per value; 1, 3 or 4.
+    */
+   public final int components;
+
+   /**
+    * One of the s_INTERPOLATION constants.
+    */
+   public final int interpolation;
+
+   /**
+    * Whether the values are unit quaternions.
+    */
+   public final boolean rotation;
+
+   private final float[] times;
+   private final float[] values;
+   private final float[] tangents;
+
+   /**
+    * Constructs a track with step, linear or Catmull-Rom interpolation.
+    *
+    * @param components    floats per value; 1, 3 or 4
+    * @param interpolation s_INTERPOLATION_STEP, s_INTERPOLATION_LINEAR or s_INTERPOLATION_CATMULL_ROM
+    * @param rotation      whether the values are unit quaternions; requires 4 components
+    * @param times         key times in seconds, strictly increasing; at least one
+    * @param values        keyCount * components values, copied
+    */
+   public KeyframeTrack(int components, int interpolation, boolean rotation, float[] times, float[] values)
+   {
+      this(components, interpolation, rotation, times, values, null);
+   }
+
+   /**
+    * Constructs a track.
+    *
+    * @param components    floats per value; 1, 3 or 4
+    * @param interpolation one of the s_INTERPOLATION constants
+    * @param rotation      whether the values are unit quaternions; requires 4 components
+    * @param times         key times in seconds, strictly increasing; at least one
+    * @param values        keyCount * components values, copied
+    * @param tangents      keyCount * components derivatives per second for s_INTERPOLATION_HERMITE, copied; ignored
+    *                      otherwise and may be null
+    */
+   public KeyframeTrack(int components, int interpolation, boolean rotation, float[] times, float[] values,
+    float[] tangents)
+   {
+      if (components != 1 && components != 3 && components != 4)
+      {
+         throw new IllegalArgumentException("components must be 1, 3 or 4 and is " + components);
+      }
+
+      if (interpolation < s_INTERPOLATION_STEP || interpolation > s_INTERPOLATION_CATMULL_ROM)
+      {
+         throw new IllegalArgumentException("unknown interpolation: " + interpolation);
+      }
+
+      if (rotation && components != 4)
+      {
+         throw new IllegalArgumentException("rotation tracks must have 4 components and have " + components);
+      }
+
+      if (times.length < 1)
+      {
+         throw new IllegalArgumentException("a track must have at least one key");
+      }
+
+      for (int cntr = 1; cntr < times.length; cntr++)
+      {
+         if (!(times[cntr] > times[cntr - 1]))
+         {
+            throw new IllegalArgumentException("key times must be strictly increasing; key " + cntr + " at " +
+             times[cntr] + " follows " + times[cntr - 1]);
+         }
+      }
+
+      if (values.length != times.length * components)
+      {
+         throw new IllegalArgumentException("expected " + times.length * components + " values and got " +
+          values.length);
+      }
+
+      this.keyCount = times.length;
+      this.components = components;
+      this.interpolation = interpolation;
+      this.rotation = rotation;
+      this.times = times;
+      this.values = values.clone();
+
+      if (interpolation == s_INTERPOLATION_HERMITE)
+      {
+         if (tangents == null || tangents.length != values.length)
+         {
+            throw new IllegalArgumentException("Hermite tracks need " + values.length + " tangents");
+         }
+
+         this.tangents = tangents.clone();
+      }
+      else if (interpolation == s_INTERPOLATION_CATMULL_ROM)
+      {
+         this.tangents = new float[values.length];
+      }
+      else
+      {
+         this.tangents = null;
+      }
+
+      if (rotation)
+      {
+         alignHemispheres();
+      }
+
+      if (interpolation == s_INTERPOLATION_CATMULL_ROM)
+      {
+         computeCatmullRomTangents();
+      }
+   }
+
+   /**
+    * @return time of the first key
+    */
+   public final float getStartTime()
+   {
+      return times[0];
+   }
+
+   /**
+    * @return time of the last key
+    */
+   public final float getEndTime()
+   {
+      return times[keyCount - 1];
+   }
+
+   /**
+    * @param key index of the key
+    * @return time of the key
+    */
+   public final float getTime(int key)
+   {
+      return times[key];
+   }
+
+   /**
+    * Samples the track at a time, locating the key with a binary search; see KeyframeSampler for repeated sampling.
+    *
+    * @param time   time in seconds
+    * @param dst    array that receives components floats
+    * @param offset index of the first float
+    */
+   public final void sample(float time, float[] dst, int offset)
+   {
+      int key = findKey(time, -1);
+
+      evaluate(key, fraction(key, time), dst, offset);
+   }
+
+   /**
+    * Returns the key starting the segment that contains the time: the last key at or before the time, clamped to the
+    * second to last key, or 0 if the track has a single key. The hint is tried first and then the key after it, so
+    * sampling at increasing times costs constant time per sample; anything else falls back to a binary search.
+    *
+    * @param time time in seconds
+    * @param hint key returned for the previous time, or -1 for none
+    * @return index of the key
+    */
+   final int findKey(float time, int hint)
+   {
+      final float[] t = times;
+      final int last = keyCount - 2;
+
+      if (last <= 0 || time < t[1])
+      {
+         return 0;
+      }
+
+      if (time >= t[last])
+      {
+         return last;
+      }
+
+      // Here the key is in [1, last), so checking hint + 2 stays within the times.
+      if (hint >= 0 && hint < last && time >= t[hint])
+      {
+         if (time < t[hint + 1])
+         {
+            return hint;
+         }
+
+         if (time < t[hint + 2])
+         {
+            return hint + 1;
+         }
+      }
+
+      int low = 1;
+      int high = last - 1;
+
+      while (low < high)
+      {
+         int middle = (low + high + 1) >>> 1;
+
+         if (t[middle] <= time)
+         {
+            low = middle;
+         }
+         else
+         {
+            high = middle - 1;
+         }
+      }
+
+      return low;
+   }
+
+   /**
+    * @return position of the time in the segment starting at the key, clamped to [0, 1]
+    */
+   final float fraction(int key, float time)
+   {
+      if (keyCount == 1)
+      {
+         return 0.0f;
+      }
+
+      float u = (time - times[key]) / (times[key + 1] - times[key]);
+
+      return u < 0.0f ? 0.0f : (u > 1.0f ? 1.0f : u);
+   }
+
+   /**
+    * @return the key times; shared, never modify
+    */
+   final float[] getTimes()
+   {
+      return times;
+   }
+
+   /**
+    * Evaluates the segment starting at the key.
+    *
+    * @param key    index of the first key of the segment
+    * @param u      position in the segment in [0, 1]
+    * @param dst    array that receives components floats
+    * @param offset index of the first float
+    */
+   final void evaluate(int key, float u, float[] dst, int offset)
+   {
+      final int n = components;
+      final float[] v = values;
+      final int a = key * n;
+
+      if (interpolation == s_INTERPOLATION_STEP || keyCount == 1)
+      {
+         int source = u >= 1.0f ? a + n : a;
+
+         for (int cntr = 0; cntr < n; cntr++)
+         {
+            dst[offset + cntr] = v[source + cntr];
+         }
+
+         return;
+      }
+
+      final int b = a + n;
+
+      if (interpolation == s_INTERPOLATION_LINEAR)
+      {
+         for (int cntr = 0; cntr < n; cntr++)
+         {
+            float start = v[a + cntr];
+
+            dst[offset + cntr] = start + (v[b + cntr] - start) * u;
+         }
+      }
+      else
+      {
+         final float[] m = tangents;
+         final float h = times[key + 1] - times[key];
+
+         final float u2 = u * u;
+         final float u3 = u2 * u;
+
+         final float h00 = 2.0f * u3 - 3.0f * u2 + 1.0f;
+         final float h01 = 1.0f - h00;
+         final float h10 = (u3 - 2.0f * u2 + u) * h;
+         final float h11 = (u3 - u2) * h;
+
+         for (int cntr = 0; cntr < n; cntr++)
+         {
+            dst[offset + cntr] = h00 * v[a + cntr] + h01 * v[b + cntr] + h10 * m[a + cntr] + h11 * m[b + cntr];
+         }
+      }
+
+      if (rotation)
+      {
+         float x = dst[offset], y = dst[offset + 1], z = dst[offset + 2], w = dst[offset + 3];
+
+         // Neighboring keys are in the same hemisphere, so the sum is not zero.
+         float s = 1.0f / (float)Math.sqrt(x * x + y * y + z * z + w * w);
+
+         dst[offset] = x * s;
+         dst[offset + 1] = y * s;
+         dst[offset + 2] = z * s;
+         dst[offset + 3] = w * s;
+      }
+   }
+
+   /**
+    * Negates keys whose dot product with the previous key is negative, together with their given Hermite tangents;
+    * both represent the same rotation.
+    */
+   private void alignHemispheres()
+   {
+      final float[] v = values;
+
+      // Given Hermite tangents are derivatives of the keys as given, so they flip with their key.
+      final float[] m = interpolation == s_INTERPOLATION_HERMITE ? tangents : null;
+
+      for (int cntr = 1; cntr < keyCount; cntr++)
+      {
+         int a = (cntr - 1) * 4;
+         int b = cntr * 4;
+
+         if (v[a] * v[b] + v[a + 1] * v[b + 1] + v[a + 2] * v[b + 2] + v[a + 3] * v[b + 3] < 0.0f)
+         {
+            v[b] = -v[b];
+            v[b + 1] = -v[b + 1];
+            v[b + 2] = -v[b + 2];
+            v[b + 3] = -v[b + 3];
+
+            if (m != null)
+            {
+               m[b] = -m[b];
+               m[b + 1] = -m[b + 1];
+               m[b + 2] = -m[b + 2];
+               m[b + 3] = -m[b + 3];
+            }
+         }
+      }
+   }
+
+   /**
+    * Sets the tangent of each key to (next - previous) / (next time - previous time), with the key itself taking the
+    * place of the missing neighbor at either end.
+    */
+   private void computeCatmullRomTangents()
+   {
+      final int n = components;
+      final float[] v = values;
+      final float[] t = times;
+
+      if (keyCount == 1)
+      {
+         return;
+      }
+
+      for (int key = 0; key < keyCount; key++)
+      {
+         int previous = key > 0 ? key - 1 : key;
+         int next = key < keyCount - 1 ? key + 1 : key;
+
+         float inverseSpan = 1.0f / (t[next] - t[previous]);
+
+         for (int cntr = 0; cntr < n; cntr++)
+         {
+            tangents[key * n + cntr] = (v[next * n + cntr] - v[previous * n + cntr]) * inverseSpan;
+         }
+      }
+   }
+}
@@ -0,0 +1,452 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.math.anim;
+
+import org.typhonrt.java6.vecmath.DualQuat4f;
+import org.typhonrt.java6.vecmath.Matrix4f;
+import org.typhonrt.java6.vecmath.Quat4f;
+import org.typhonrt.java6.vecmath.Tuple3f;
+
+/**
+ * Pose -- The local translation / rotation / scale of every bone of a skeleton stored as a structure of arrays, plus
+ * the world matrices derived from it.
+ *
+ * Each component is stored in its own block of boneCount floats, so for bone b translations holds x at [b], y at
+ * [boneCount + b] and z at [2 * boneCount + b]; rotations holds unit quaternions the same way in four blocks and
+ * scales three blocks like translations. This is the layout of the batched Quat4f interpolation, which sampling and
+ * blending use directly.
+ *
+ * computeMatrices walks the bones once in skeleton order, building the local matrix of each bone, concatenating it
+ * with the already computed world matrix of its parent and multiplying by the inverse bind matrix, and writes the
+ * skinning matrices packed for upload. The layout s_LAYOUT_MAT4 matches glUniformMatrix4fv without transpose and
+ * std140 arrays of mat4, while s_LAYOUT_MAT3X4 stores the upper three rows of each matrix, which saves a quarter of
+ * the uniform or texture space. s_LAYOUT_DUAL_QUAT stores each skinning transform as a DualQuat4f palette entry for
+ * dual quaternion skinning, half the space of mat4; it requires rigid bones.
+ *
+ * @author  Michael Leahy
+ */
+public class Pose
+{
+   /**
+    * Sixteen floats per bone; column-major 4 by 4 matrices.
+    */
+   public static final int s_LAYOUT_MAT4 = 16;
+
+   /**
+    * Twelve floats per bone; the upper three rows of each matrix in row-major order.
+    */
+   public static final int s_LAYOUT_MAT3X4 = 12;
+
+   /**
+    * Eight floats per bone; a unit dual quaternion as written by DualQuat4f.pack. Bone scales must be 1.
+    */
+   public static final int s_LAYOUT_DUAL_QUAT = 8;
+
+   /**
+    * The skeleton this pose belongs to.
+    */
+   public final Skeleton skeleton;
+
+   /**
+    * The number of bones.
+    */
+   public final int boneCount;
+
+   /**
+    * Local translations; three blocks of boneCount floats.
+    */
+   public final float[] translations;
+
+   /**
+    * Local rotations as unit quaternions; four blocks of boneCount floats.
+    */
+   public final float[] rotations;
+
+   /**
+    * Local scales; three blocks of boneCount floats.
+    */
+   public final float[] scales;
+
+   /**
+    * World matrices as of the last computeMatrices; twelve floats per bone holding the upper three rows.
+    */
+   private final float[] world;
+
+   /**
+    * Constructs a pose for the skeleton initialized to its bind pose.
+    *
+    * @param skeleton the skeleton
+    */
+   public Pose(Skeleton skeleton)
+   {
+      this.skeleton = skeleton;
+      this.boneCount = skeleton.boneCount;
+
+      translations = new float[boneCount * 3];
+      rotations = new float[boneCount * 4];
+      scales = new float[boneCount * 3];
+      world = new float[boneCount * 12];
+
+      setBindPose();
+   }
+
+   /**
+    * Sets the local transforms to the bind pose of the skeleton.
+    */
+   public final void setBindPose()
+   {
+      System.arraycopy(skeleton.bindTranslations, 0, translations, 0, translations.length);
+      System.arraycopy(skeleton.bindRotations, 0, rotations, 0, rotations.length);
+      System.arraycopy(skeleton.bindScales, 0, scales, 0, scales.length);
+   }
+
+   /**
+    * Copies the local transforms of a pose of the same skeleton.
+    *
+    * @param p1 the pose to copy
+    */
+   public final void set(Pose p1)
+   {
+      checkSkeleton(p1);
+
+      System.arraycopy(p1.translations, 0, translations, 0, translations.length);
+      System.arraycopy(p1.rotations, 0, rotations, 0, rotations.length);
+      System.arraycopy(p1.scales, 0, scales, 0, scales.length);
+   }
+
+   /**
+    * Sets the local transform of a bone.
+    *
+    * @param bone        index of the bone
+    * @param translation translation relative to the parent
+    * @param rotation    unit quaternion rotation relative to the parent
+    * @param scale       scale along each axis
+    */
+   public final void setLocal(int bone, Tuple3f translation, Quat4f rotation, Tuple3f scale)
+   {
+      setLocal(translations, rotations, scales, boneCount, bone, translation, rotation, scale);
+   }
+
+   /**
+    * Retrieves the local transform of a bone.
+    *
+    * @param bone        index of the bone
+    * @param translation receives the translation
+    * @param rotation    receives the rotation
+    * @param scale       receives the scale
+    */
+   public final void getLocal(int bone, Tuple3f translation, Quat4f rotation, Tuple3f scale)
+   {
+      checkBone(bone, boneCount);
+
+      final int n = boneCount;
+
+      translation.set(translations[bone], translations[n + bone], translations[n * 2 + bone]);
+      rotation.set(rotations[bone], rotations[n + bone], rotations[n * 2 + bone], rotations[n * 3 + bone]);
+      scale.set(scales[bone], scales[n + bone], scales[n * 2 + bone]);
+   }
+
+   /**
+    * Blends two poses of the same skeleton into this pose; translations and scales are interpolated linearly and
+    * rotations with Quat4f nlerp along the shortest path. Either pose may be this pose.
+    *
+    * @param p1     the first pose
+    * @param p2     the second pose
+    * @param weight weight of p2 in [0, 1]
+    */
+   public final void blend(Pose p1, Pose p2, float weight)
+   {
+      checkSkeleton(p1);
+      checkSkeleton(p2);
+
+      lerp(p1.translations, p2.translations, weight, translations);
+      lerp(p1.scales, p2.scales, weight, scales);
+
+      Quat4f.nlerp(p1.rotations, p2.rotations, weight, rotations, boneCount, 0, boneCount, true);
+   }
+
+   /**
+    * Blends two poses of the same skeleton into this pose with a weight per bone, for instance to layer an upper body
+    * animation over a locomotion cycle. Either pose may be this pose.
+    *
+    * @param p1      the first pose
+    * @param p2      the second pose
+    * @param weights weight of p2 in [0, 1] indexed by bone
+    */
+   public final void blend(Pose p1, Pose p2, float[] weights)
+   {
+      checkSkeleton(p1);
+      checkSkeleton(p2);
+
+      final int n = boneCount;
+
+      for (int block = 0; block < 3; block++)
+      {
+         int o = block * n;
+
+         for (int cntr = 0; cntr < n; cntr++)
+         {
+            float w = weights[cntr];
+            float t1 = p1.translations[o + cntr];
+            float s1 = p1.scales[o + cntr];
+
+            translations[o + cntr] = t1 + (p2.translations[o + cntr] - t1) * w;
+            scales[o + cntr] = s1 + (p2.scales[o + cntr] - s1) * w;
+         }
+      }
+
+      Quat4f.nlerp(p1.rotations, p2.rotations, weights, rotations, n, 0, n, true);
+   }
+
+   /**
+    * Computes the world matrices of all bones in one pass and, when skinning is not null, writes the skinning
+    * matrices (world * inverse bind) packed in the given layout.
+    *
+    * @param skinning receives boneCount * layout floats starting at offset; may be null to only update the world
+    *                 matrices
+    * @param offset   index of skinning receiving the first float
+    * @param layout   s_LAYOUT_MAT4, s_LAYOUT_MAT3X4 or s_LAYOUT_DUAL_QUAT
+    */
+   public final void computeMatrices(float[] skinning, int offset, int layout)
+   {
+      if (layout != s_LAYOUT_MAT4 && layout != s_LAYOUT_MAT3X4 && layout != s_LAYOUT_DUAL_QUAT)
+      {
+         throw new IllegalArgumentException("layout must be s_LAYOUT_MAT4, s_LAYOUT_MAT3X4 or s_LAYOUT_DUAL_QUAT " +
+          "and is " + layout);
+      }
+
+      if (skinning != null && (offset < 0 || offset + boneCount * layout > skinning.length))
+      {
+         throw new ArrayIndexOutOfBoundsException("skinning needs " + boneCount * layout + " floats past offset " +
+          offset + " and has length " + skinning.length);
+      }
+
+      final int n = boneCount;
+      final int[] parents = skeleton.parents;
+      final float[] inv = skeleton.inverseBind;
+      final float[] t = translations;
+      final float[] r = rotations;
+      final float[] s = scales;
+      final float[] w = world;
+
+      for (int bone = 0; bone < n; bone++)
+      {
+         // Local matrix T * R * S from a unit quaternion.
+         float qx = r[bone], qy = r[n + bone], qz = r[n * 2 + bone], qw = r[n * 3 + bone];
+
+         float xs = qx * 2.0f, ys = qy * 2.0f, zs = qz * 2.0f;
+         float wx = qw * xs, wy = qw * ys, wz = qw * zs;
+         float xx = qx * xs, xy = qx * ys, xz = qx * zs;
+         float yy = qy * ys, yz = qy * zs, zz = qz * zs;
+
+         float sx = s[bone], sy = s[n + bone], sz = s[n * 2 + bone];
+
+         float l00 = (1.0f - (yy + zz)) * sx, l01 = (xy - wz) * sy, l02 = (xz + wy) * sz, l03 = t[bone];
+         float l10 = (xy + wz) * sx, l11 = (1.0f - (xx + zz)) * sy, l12 = (yz - wx) * sz, l13 = t[n + bone];
+         float l20 = (xz - wy) * sx, l21 = (yz + wx) * sy, l22 = (1.0f - (xx + yy)) * sz, l23 = t[n * 2 + bone];
+
+         int parent = parents[bone];
+         int o = bone * 12;
+
+         // Roots concatenate with identity.
+         float p00 = 1.0f, p01 = 0.0f, p02 = 0.0f, p03 = 0.0f;
+         float p10 = 0.0f, p11 = 1.0f, p12 = 0.0f, p13 = 0.0f;
+         float p20 = 0.0f, p21 = 0.0f, p22 = 1.0f, p23 = 0.0f;
+
+         if (parent >= 0)
+         {
+            int p = parent * 12;
+
+            p00 = w[p];
+            p01 = w[p + 1];
+            p02 = w[p + 2];
+            p03 = w[p + 3];
+            p10 = w[p + 4];
+            p11 = w[p + 5];
+            p12 = w[p + 6];
+            p13 = w[p + 7];
+            p20 = w[p + 8];
+            p21 = w[p + 9];
+            p22 = w[p + 10];
+            p23 = w[p + 11];
+         }
+
+         float m00 = p00 * l00 + p01 * l10 + p02 * l20;
+         float m01 = p00 * l01 + p01 * l11 + p02 * l21;
+         float m02 = p00 * l02 + p01 * l12 + p02 * l22;
+         float m03 = p00 * l03 + p01 * l13 + p02 * l23 + p03;
+
+         float m10 = p10 * l00 + p11 * l10 + p12 * l20;
+         float m11 = p10 * l01 + p11 * l11 + p12 * l21;
+         float m12 = p10 * l02 + p11 * l12 + p12 * l22;
+         float m13 = p10 * l03 + p11 * l13 + p12 * l23 + p13;
+
+         float m20 = p20 * l00 + p21 * l10 + p22 * l20;
+         float m21 = p20 * l01 + p21 * l11 + p22 * l21;
+         float m22 = p20 * l02 + p21 * l12 + p22 * l22;
+         float m23 = p20 * l03 + p21 * l13 + p22 * l23 + p23;
+
+         w[o] = m00;
+         w[o + 1] = m01;
+         w[o + 2] = m02;
+         w[o + 3] = m03;
+         w[o + 4] = m10;
+         w[o + 5] = m11;
+         w[o + 6] = m12;
+         w[o + 7] = m13;
+         w[o + 8] = m20;
+         w[o + 9] = m21;
+         w[o + 10] = m22;
+         w[o + 11] = m23;
+
+         if (skinning == null)
+         {
+            continue;
+         }
+
+         float i00 = inv[o], i01 = inv[o + 1], i02 = inv[o + 2], i03 = inv[o + 3];
+         float i10 = inv[o + 4], i11 = inv[o + 5], i12 = inv[o + 6], i13 = inv[o + 7];
+         float i20 = inv[o + 8], i21 = inv[o + 9], i22 = inv[o + 10], i23 = inv[o + 11];
+
+         float k00 = m00 * i00 + m01 * i10 + m02 * i20;
+         float k01 = m00 * i01 + m01 * i11 + m02 * i21;
+         float k02 = m00 * i02 + m01 * i12 + m02 * i22;
+         float k03 = m00 * i03 + m01 * i13 + m02 * i23 + m03;
+
+         float k10 = m10 * i00 + m11 * i10 + m12 * i20;
+         float k11 = m10 * i01 + m11 * i11 + m12 * i21;
+         float k12 = m10 * i02 + m11 * i12 + m12 * i22;
+         float k13 = m10 * i03 + m11 * i13 + m12 * i23 + m13;
+
+         float k20 = m20 * i00 + m21 * i10 + m22 * i20;
+         float k21 = m20 * i01 + m21 * i11 + m22 * i21;
+         float k22 = m20 * i02 + m21 * i12 + m22 * i22;
+         float k23 = m20 * i03 + m21 * i13 + m22 * i23 + m23;
+
+         int d = offset + bone * layout;
+
+         if (layout == s_LAYOUT_MAT4)
+         {
+            skinning[d] = k00;
+            skinning[d + 1] = k10;
+            skinning[d + 2] = k20;
+            skinning[d + 3] = 0.0f;
+            skinning[d + 4] = k01;
+            skinning[d + 5] = k11;
+            skinning[d + 6] = k21;
+            skinning[d + 7] = 0.0f;
+            skinning[d + 8] = k02;
+            skinning[d + 9] = k12;
+            skinning[d + 10] = k22;
+            skinning[d + 11] = 0.0f;
+            skinning[d + 12] = k03;
+            skinning[d + 13] = k13;
+            skinning[d + 14] = k23;
+            skinning[d + 15] = 1.0f;
+         }
+         else if (layout == s_LAYOUT_DUAL_QUAT)
+         {
+            DualQuat4f.pack(k00, k01, k02, k03, k10, k11, k12, k13, k20, k21, k22, k23, skinning, d);
+         }
+         else
+         {
+            skinning[d] = k00;
+            skinning[d + 1] = k01;
+            skinning[d + 2] = k02;
+            skinning[d + 3] = k03;
+            skinning[d + 4] = k10;
+            skinning[d + 5] = k11;
+            skinning[d + 6] = k12;
+            skinning[d + 7] = k13;
+            skinning[d + 8] = k20;
+            skinning[d + 9] = k21;
+            skinning[d + 10] = k22;
+            skinning[d + 11] = k23;
+         }
+      }
+   }
+
+   /**
+    * Retrieves the world matrix of a bone as of the last computeMatrices.
+    *
+    * @param bone index of the bone
+    * @param m1   the matrix that receives the values
+    */
+   public final void getWorldMatrix(int bone, Matrix4f m1)
+   {
+      checkBone(bone, boneCount);
+
+      final float[] w = world;
+      int o = bone * 12;
+
+      m1.m00 = w[o];
+      m1.m01 = w[o + 1];
+      m1.m02 = w[o + 2];
+      m1.m03 = w[o + 3];
+      m1.m10 = w[o + 4];
+      m1.m11 = w[o + 5];
+      m1.m12 = w[o + 6];
+      m1.m13 = w[o + 7];
+      m1.m20 = w[o + 8];
+      m1.m21 = w[o + 9];
+      m1.m22 = w[o + 10];
+      m1.m23 = w[o + 11];
+      m1.m30 = 0.0f;
+      m1.m31 = 0.0f;
+      m1.m32 = 0.0f;
+      m1.m33 = 1.0f;
+
+      m1.markDirty();
+   }
+
+   // helper shared with Skeleton for the bind pose
+   static void setLocal(float[] translations, float[] rotations, float[] scales, int n, int bone,
+    Tuple3f translation, Quat4f rotation, Tuple3f scale)
+   {
+      checkBone(bone, n);
+
+      translations[bone] = translation.x;
+      translations[n + bone] = translation.y;
+      translations[n * 2 + bone] = translation.z;
+
+      rotations[bone] = rotation.x;
+      rotations[n + bone] = rotation.y;
+      rotations[n * 2 + bone] = rotation.z;
+      rotations[n * 3 + bone] = rotation.w;
+
+      scales[bone] = scale.x;
+      scales[n + bone] = scale.y;
+      scales[n * 2 + bone] = scale.z;
+   }
+
+   // dst = a + (b - a) * t over whole arrays; alias-safe.
+   static void lerp(float[] a, float[] b, float t, float[] dst)
+   {
+      for (int cntr = 0; cntr < dst.length; cntr++)
+      {
+         float v = a[cntr];
+         dst[cntr] = v + (b[cntr] - v) * t;
+      }
+   }
+
+   private static void checkBone(int bone, int n)
+   {
+      if (bone < 0 || bone >= n)
+      {
+         throw new ArrayIndexOutOfBoundsException("bone must be 0 to " + (n - 1) + " and is " + bone);
+      }
+   }
+
+   private void checkSkeleton(Pose p1)
+   {
+      if (p1.skeleton != skeleton)
+      {
+         throw new IllegalArgumentException("pose belongs to a different skeleton");
+      }
+   }
+}
@@ -0,0 +1,245 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.math.anim;
+
+import org.typhonrt.java6.math.IRangeTask;
+import org.typhonrt.java6.math.ParallelRange;
+
+/**
+ * PoseBatch -- Evaluates the poses of many characters per frame, optionally in parallel across characters.
+ *
+ * Each character has a pose, an optional primary clip, an optional secondary clip blended over the primary one with
+ * a weight, and a destination for its packed skinning matrices. update samples the clips, blends and computes the
+ * skinning matrices for every character; characters are independent so chunks of them run on different threads of a
+ * ParallelRange. Apart from adding characters and the first setBlend of a character nothing allocates.
+ *
+ * @author  Michael Leahy
+ */
+public class PoseBatch
+{
+   /**
+    * Minimum number of characters per parallel chunk.
+    */
+   public static final int s_MIN_CHUNK_SIZE = 8;
+
+   private final Pose[] poses;
+   private final Pose[] blendPoses;
+
+   private final float[][] skinning;
+   private final int[] skinningOffsets;
+   private final int[] layouts;
+
+   private final AnimationClip[] clips;
+   private final float[] times;
+   private final boolean[] loops;
+
+   private final AnimationClip[] blendClips;
+   private final float[] blendTimes;
+   private final boolean[] blendLoops;
+   private final float[] blendWeights;
+
+   private final UpdateTask updateTask = new UpdateTask();
+
+   private int count;
+
+   /**
+    * Constructs an empty batch.
+    *
+    * @param capacity maximum number of characters
+    */
+   public PoseBatch(int capacity)
+   {
+      poses = new Pose[capacity];
+      blendPoses = new Pose[capacity];
+
+      skinning = new float[capacity][];
+      skinningOffsets = new int[capacity];
+      layouts = new int[capacity];
+
+      clips = new AnimationClip[capacity];
+      times = new float[capacity];
+      loops = new boolean[capacity];
+
+      blendClips = new AnimationClip[capacity];
+      blendTimes = new float[capacity];
+      blendLoops = new boolean[capacity];
+      blendWeights = new float[capacity];
+   }
+
+   /**
+    * @return number of characters
+    */
+   public final int getCount()
+   {
+      return count;
+   }
+
+   /**
+    * Returns the pose of a character; its local transforms may be edited directly when the character has no clip.
+    *
+    * @param character index of the character
+    * @return the pose
+    */
+   public final Pose getPose(int character)
+   {
+      checkCharacter(character);
+      return poses[character];
+   }
+
+   /**
+    * Adds a character.
+    *
+    * @param pose     pose of the character; must not be shared with another character
+    * @param skinning receives the packed skinning matrices of the character
+    * @param offset   index of skinning receiving the first float
+    * @param layout   Pose.s_LAYOUT_MAT4, Pose.s_LAYOUT_MAT3X4 or Pose.s_LAYOUT_DUAL_QUAT
+    * @return index of the character
+    */
+   public final int add(Pose pose, float[] skinning, int offset, int layout)
+   {
+      if (count == poses.length)
+      {
+         throw new IllegalStateException("batch is full with " + count + " characters");
+      }
+
+      if (layout != Pose.s_LAYOUT_MAT4 && layout != Pose.s_LAYOUT_MAT3X4 && layout != Pose.s_LAYOUT_DUAL_QUAT)
+      {
+         throw new IllegalArgumentException("layout must be Pose.s_LAYOUT_MAT4, Pose.s_LAYOUT_MAT3X4 or " +
+          "Pose.s_LAYOUT_DUAL_QUAT and is " + layout);
+      }
+
+      int character = count++;
+
+      poses[character] = pose;
+      this.skinning[character] = skinning;
+      skinningOffsets[character] = offset;
+      layouts[character] = layout;
+
+      return character;
+   }
+
+   /**
+    * Sets the primary clip of a character, replacing its pose on every update.
+    *
+    * @param character index of the character
+    * @param clip      the clip or null to keep the pose as is
+    * @param time      time in seconds to sample at
+    * @param loop      whether the time wraps around the clip
+    */
+   public final void setClip(int character, AnimationClip clip, float time, boolean loop)
+   {
+      checkCharacter(character);
+
+      clips[character] = clip;
+      times[character] = time;
+      loops[character] = loop;
+   }
+
+   /**
+    * Sets the secondary clip of a character, blended over the primary clip or pose on every update.
+    *
+    * @param character index of the character
+    * @param clip      the clip or null to disable blending
+    * @param time      time in seconds to sample at
+    * @param loop      whether the time wraps around the clip
+    * @param weight    weight of the secondary clip in [0, 1]
+    */
+   public final void setBlend(int character, AnimationClip clip, float time, boolean loop, float weight)
+   {
+      checkCharacter(character);
+
+      if (clip != null && blendPoses[character] == null)
+      {
+         blendPoses[character] = new Pose(poses[character].skeleton);
+      }
+
+      blendClips[character] = clip;
+      blendTimes[character] = time;
+      blendLoops[character] = loop;
+      blendWeights[character] = weight;
+   }
+
+   /**
+    * Sets the sampling time of both clips of a character, typically advanced once per frame.
+    *
+    * @param character index of the character
+    * @param time      time of the primary clip in seconds
+    * @param blendTime time of the secondary clip in seconds
+    */
+   public final void setTime(int character, float time, float blendTime)
+   {
+      checkCharacter(character);
+
+      times[character] = time;
+      blendTimes[character] = blendTime;
+   }
+
+   /**
+    * Evaluates all characters on the calling thread.
+    */
+   public final void update()
+   {
+      update(0, count);
+   }
+
+   /**
+    * Evaluates all characters with chunks of at least s_MIN_CHUNK_SIZE characters spread over the parallel range.
+    *
+    * @param parallel the parallel range; may be null to run on the calling thread
+    */
+   public final void update(ParallelRange parallel)
+   {
+      if (parallel == null)
+      {
+         update(0, count);
+      }
+      else
+      {
+         parallel.execute(count, s_MIN_CHUNK_SIZE, updateTask);
+      }
+   }
+
+   private void update(int start, int end)
+   {
+      for (int cntr = start; cntr < end; cntr++)
+      {
+         Pose pose = poses[cntr];
+
+         if (clips[cntr] != null)
+         {
+            clips[cntr].sample(times[cntr], loops[cntr], pose);
+         }
+
+         if (blendClips[cntr] != null)
+         {
+            Pose blendPose = blendPoses[cntr];
+
+            blendClips[cntr].sample(blendTimes[cntr], blendLoops[cntr], blendPose);
+            pose.blend(pose, blendPose, blendWeights[cntr]);
+         }
+
+         pose.computeMatrices(skinning[cntr], skinningOffsets[cntr], layouts[cntr]);
+      }
+   }
+
+   private void checkCharacter(int character)
+   {
+      if (character < 0 || character >= count)
+      {
+         throw new ArrayIndexOutOfBoundsException("character must be 0 to " + (count - 1) + " and is " + character);
+      }
+   }
+
+   private final class UpdateTask implements IRangeTask
+   {
+      public void run(int start, int end)
+      {
+         update(start, end);
+      }
+   }
+}
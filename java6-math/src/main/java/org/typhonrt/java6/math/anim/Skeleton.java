@@ -0,0 +1,198 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.math.anim;
+
+import org.typhonrt.java6.vecmath.Matrix4f;
+import org.typhonrt.java6.vecmath.Quat4f;
+import org.typhonrt.java6.vecmath.Tuple3f;
+
+/**
+ * Skeleton -- The bone hierarchy shared by all poses of a character type, stored as a parent index array in
+ * topological order so that every bone comes after its parent and world matrices can be computed in one linear pass.
+ *
+ * Besides the hierarchy a skeleton holds the bind pose as local translation / rotation / scale and the inverse bind
+ * matrices that take mesh space vertices into the space of each bone. Poses created for the skeleton start out in
+ * the bind pose.
+ *
+ * @author  Michael Leahy
+ */
+public class Skeleton
+{
+   /**
+    * The number of bones.
+    */
+   public final int boneCount;
+
+   final int[] parents;
+
+   /**
+    * Bind pose; same structure of arrays layout as Pose.
+    */
+   final float[] bindTranslations;
+   final float[] bindRotations;
+   final float[] bindScales;
+
+   /**
+    * Inverse bind matrices; twelve floats per bone holding the upper three rows in row-major order.
+    */
+   final float[] inverseBind;
+
+   /**
+    * Constructs a skeleton from the parent index of each bone; roots have a parent of -1. The bind pose and the
+    * inverse bind matrices are initialized to identity.
+    *
+    * @param parents parent index per bone; every parent index must be smaller than the index of its bone
+    *
+    * @throws IllegalArgumentException if the bones are not in topological order
+    */
+   public Skeleton(int[] parents)
+   {
+      boneCount = parents.length;
+
+      for (int cntr = 0; cntr < boneCount; cntr++)
+      {
+         if (parents[cntr] < -1 || parents[cntr] >= cntr)
+         {
+            throw new IllegalArgumentException("parent of bone " + cntr + " must be -1 to " + (cntr - 1) + " and is " +
+             parents[cntr]);
+         }
+      }
+
+      this.parents = parents.clone();
+
+      bindTranslations = new float[boneCount * 3];
+      bindRotations = new float[boneCount * 4];
+      bindScales = new float[boneCount * 3];
+      inverseBind = new float[boneCount * 12];
+
+      for (int cntr = 0; cntr < boneCount; cntr++)
+      {
+         bindRotations[boneCount * 3 + cntr] = 1.0f;
+
+         bindScales[cntr] = 1.0f;
+         bindScales[boneCount + cntr] = 1.0f;
+         bindScales[boneCount * 2 + cntr] = 1.0f;
+
+         int o = cntr * 12;
+         inverseBind[o] = 1.0f;
+         inverseBind[o + 5] = 1.0f;
+         inverseBind[o + 10] = 1.0f;
+      }
+   }
+
+   /**
+    * Returns the parent index of a bone.
+    *
+    * @param bone index of the bone
+    * @return index of the parent or -1 for a root
+    */
+   public final int getParent(int bone)
+   {
+      return parents[bone];
+   }
+
+   /**
+    * Sets the local bind transform of a bone. Call computeInverseBindMatrices once all bones are set, unless the
+    * inverse bind matrices are provided separately.
+    *
+    * @param bone        index of the bone
+    * @param translation translation relative to the parent
+    * @param rotation    unit quaternion rotation relative to the parent
+    * @param scale       scale along each axis
+    */
+   public final void setBindPose(int bone, Tuple3f translation, Quat4f rotation, Tuple3f scale)
+   {
+      Pose.setLocal(bindTranslations, bindRotations, bindScales, boneCount, bone, translation, rotation, scale);
+   }
+
+   /**
+    * Sets the inverse bind matrix of a bone from an affine matrix.
+    *
+    * @param bone index of the bone
+    * @param m1   affine matrix taking mesh space into the space of the bone
+    */
+   public final void setInverseBindMatrix(int bone, Matrix4f m1)
+   {
+      checkBone(bone);
+
+      final float[] d = inverseBind;
+      int o = bone * 12;
+
+      d[o] = m1.m00;
+      d[o + 1] = m1.m01;
+      d[o + 2] = m1.m02;
+      d[o + 3] = m1.m03;
+      d[o + 4] = m1.m10;
+      d[o + 5] = m1.m11;
+      d[o + 6] = m1.m12;
+      d[o + 7] = m1.m13;
+      d[o + 8] = m1.m20;
+      d[o + 9] = m1.m21;
+      d[o + 10] = m1.m22;
+      d[o + 11] = m1.m23;
+   }
+
+   /**
+    * Retrieves the inverse bind matrix of a bone.
+    *
+    * @param bone index of the bone
+    * @param m1   the matrix that receives the values
+    */
+   public final void getInverseBindMatrix(int bone, Matrix4f m1)
+   {
+      checkBone(bone);
+
+      final float[] d = inverseBind;
+      int o = bone * 12;
+
+      m1.m00 = d[o];
+      m1.m01 = d[o + 1];
+      m1.m02 = d[o + 2];
+      m1.m03 = d[o + 3];
+      m1.m10 = d[o + 4];
+      m1.m11 = d[o + 5];
+      m1.m12 = d[o + 6];
+      m1.m13 = d[o + 7];
+      m1.m20 = d[o + 8];
+      m1.m21 = d[o + 9];
+      m1.m22 = d[o + 10];
+      m1.m23 = d[o + 11];
+      m1.m30 = 0.0f;
+      m1.m31 = 0.0f;
+      m1.m32 = 0.0f;
+      m1.m33 = 1.0f;
+
+      m1.markDirty();
+   }
+
+   /**
+    * Computes the inverse bind matrices by inverting the world matrices of the bind pose.
+    */
+   public final void computeInverseBindMatrices()
+   {
+      Pose pose = new Pose(this);
+      pose.computeMatrices(null, 0, Pose.s_LAYOUT_MAT3X4);
+
+      Matrix4f m = new Matrix4f();
+
+      for (int cntr = 0; cntr < boneCount; cntr++)
+      {
+         pose.getWorldMatrix(cntr, m);
+         m.invert();
+         setInverseBindMatrix(cntr, m);
+      }
+   }
+
+   private void checkBone(int bone)
+   {
+      if (bone < 0 || bone >= boneCount)
+      {
+         throw new ArrayIndexOutOfBoundsException("bone must be 0 to " + (boneCount - 1) + " and is " + bone);
+      }
+   }
+}
@@ -0,0 +1,641 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.math.scene;
+
+import org.typhonrt.java6.vecmath.Matrix4f;
+import org.typhonrt.java6.vecmath.Quat4f;
+import org.typhonrt.java6.vecmath.Tuple3f;
+
+import java.util.Arrays;
+
+/**
+ * TransformHierarchy -- A flat, array-backed transform hierarchy that recomputes world matrices only for nodes whose
+ * local transform changed and their descendants.
+ *
+ * Nodes are identified by index and every node has a smaller index than its children, which create and setParent
+ * enforce. Local transforms are stored as translation / rotation / scale and world matrices as the upper three rows
+ * of an affine matrix, twelve floats per node, in plain arrays without per-node objects.
+ *
+ * Setting a local transform marks the node dirty. update() sorts the dirty nodes, then walks the subtree below each of
+ * them in parent-before-child order and recomputes the world matrices, skipping nodes already reached through a dirty
+ * ancestor. Each update increments the version of the hierarchy; a node records the version in which its world matrix
+ * last changed, and the indices of all nodes changed by the last update are available in the order they were
+ * recomputed, so that bounds, culling data or GPU instance buffers can be updated incrementally as well.
+ *
+ * A TransformHierarchy is not thread safe.
+ *
+ * @author  Michael Leahy
+ */
+public class TransformHierarchy
+{
+   private static final int s_DEFAULT_CAPACITY = 64;
+
+   private int capacity;
+   private int count;
+
+   private int[] parents;
+   private int[] firstChild;
+   private int[] nextSibling;
+
+   /**
+    * Local transforms; translation x, y, z, rotation x, y, z, w and scale x, y, z, ten floats per node.
+    */
+   private float[] locals;
+
+   /**
+    * World matrices; twelve floats per node holding the upper three rows in row-major order.
+    */
+   private float[] worlds;
+
+   private int[] worldVersions;
+
+   private boolean[] dirty;
+   private int[] dirtyNodes;
+   private int dirtyCount;
+
+   private int[] changed;
+   private int changedCount;
+
+   private int[] stack;
+
+   private int version;
+
+   /**
+    * Constructs an empty hierarchy with a default initial capacity.
+    */
+   public TransformHierarchy()
+   {
+      this(s_DEFAULT_CAPACITY);
+   }
+
+   /**
+    * Constructs an empty hierarchy; the capacity grows on demand.
+    *
+    * @param capacity initial number of nodes
+    */
+   public TransformHierarchy(int capacity)
+   {
+      if (capacity < 0)
+      {
+         throw new IllegalArgumentException("capacity must be non-negative and is " + capacity);
+      }
+
+      this.capacity = capacity;
+
+      parents = new int[capacity];
+      firstChild = new int[capacity];
+      nextSibling = new int[capacity];
+      locals = new float[capacity * 10];
+      worlds = new float[capacity * 12];
+      worldVersions = new int[capacity];
+      dirty = new boolean[capacity];
+      dirtyNodes = new int[capacity];
+      changed = new int[capacity];
+      stack = new int[capacity];
+   }
+
+   /**
+    * @return number of nodes
+    */
+   public final int getCount()
+   {
+      return count;
+   }
+
+   /**
+    * @return number of completed updates
+    */
+   public final int getVersion()
+   {
+      return version;
+   }
+
+   /**
+    * Creates a node with an identity local transform; it is dirty until the next update.
+    *
+    * @param parent index of the parent or -1 for a root
+    * @return index of the new node
+    */
+   public final int create(int parent)
+   {
+      if (parent < -1 || parent >= count)
+      {
+         throw new ArrayIndexOutOfBoundsException("parent must be -1 to " + (count - 1) + " and is " + parent);
+      }
+
+      if (count == capacity)
+      {
+         grow(Math.max(s_DEFAULT_CAPACITY, capacity * 2));
+      }
+
+      int node = count++;
+
+      firstChild[node] = -1;
+      nextSibling[node] = -1;
+      parents[node] = -1;
+      link(node, parent);
+
+      int o = node * 10;
+      Arrays.fill(locals, o, o + 10, 0.0f);
+      locals[o + 6] = 1.0f;
+      locals[o + 7] = 1.0f;
+      locals[o + 8] = 1.0f;
+      locals[o + 9] = 1.0f;
+
+      worldVersions[node] = version;
+      markDirty(node);
+
+      return node;
+   }
+
+   /**
+    * Removes all nodes; versions keep counting.
+    */
+   public final void clear()
+   {
+      for (int cntr = 0; cntr < dirtyCount; cntr++)
+      {
+         dirty[dirtyNodes[cntr]] = false;
+      }
+
+      count = 0;
+      dirtyCount = 0;
+      changedCount = 0;
+   }
+
+   /**
+    * Returns the parent of a node.
+    *
+    * @param node index of the node
+    * @return index of the parent or -1 for a root
+    */
+   public final int getParent(int node)
+   {
+      checkNode(node);
+      return parents[node];
+   }
+
+   /**
+    * Moves a node with its subtree under another parent. The parent must have a smaller index than the node so that
+    * parents keep preceding their children.
+    *
+    * @param node   index of the node
+    * @param parent index of the new parent or -1 to make the node a root
+    */
+   public final void setParent(int node, int parent)
+   {
+      checkNode(node);
+
+      if (parent < -1 || parent >= node)
+      {
+         throw new IllegalArgumentException("parent of node " + node + " must be -1 to " + (node - 1) + " and is " +
+          parent);
+      }
+
+      if (parents[node] == parent)
+      {
+         return;
+      }
+
+      unlink(node);
+      link(node, parent);
+      markDirty(node);
+   }
+
+   /**
+    * Sets the local translation of a node.
+    *
+    * @param node index of the node
+    * @param x    x translation
+    * @param y    y translation
+    * @param z    z translation
+    */
+   public final void setTranslation(int node, float x, float y, float z)
+   {
+      checkNode(node);
+
+      int o = node * 10;
+      locals[o] = x;
+      locals[o + 1] = y;
+      locals[o + 2] = z;
+
+      markDirty(node);
+   }
+
+   /**
+    * Sets the local translation of a node.
+    *
+    * @param node        index of the node
+    * @param translation the translation
+    */
+   public final void setTranslation(int node, Tuple3f translation)
+   {
+      setTranslation(node, translation.x, translation.y, translation.z);
+   }
+
+   /**
+    * Sets the local rotation of a node.
+    *
+    * @param node     index of the node
+    * @param rotation unit quaternion rotation
+    */
+   public final void setRotation(int node, Quat4f rotation)
+   {
+      checkNode(node);
+
+      int o = node * 10;
+      locals[o + 3] = rotation.x;
+      locals[o + 4] = rotation.y;
+      locals[o + 5] = rotation.z;
+      locals[o + 6] = rotation.w;
+
+      markDirty(node);
+   }
+
+   /**
+    * Sets the local scale of a node.
+    *
+    * @param node index of the node
+    * @param x    x scale
+    * @param y    y scale
+    * @param z    z scale
+    */
+   public final void setScale(int node, float x, float y, float z)
+   {
+      checkNode(node);
+
+      int o = node * 10;
+      locals[o + 7] = x;
+      locals[o + 8] = y;
+      locals[o + 9] = z;
+
+      markDirty(node);
+   }
+
+   /**
+    * Sets the local transform of a node.
+    *
+    * @param node        index of the node
+    * @param translation the translation
+    * @param rotation    unit quaternion rotation
+    * @param scale       the scale along each axis
+    */
+   public final void setLocal(int node, Tuple3f translation, Quat4f rotation, Tuple3f scale)
+   {
+      checkNode(node);
+
+      final float[] l = locals;
+      int o = node * 10;
+
+      l[o] = translation.x;
+      l[o + 1] = translation.y;
+      l[o + 2] = translation.z;
+      l[o + 3] = rotation.x;
+      l[o + 4] = rotation.y;
+      l[o + 5] = rotation.z;
+      l[o + 6] = rotation.w;
+      l[o + 7] = scale.x;
+      l[o + 8] = scale.y;
+      l[o + 9] = scale.z;
+
+      markDirty(node);
+   }
+
+   /**
+    * Retrieves the local transform of a node.
+    *
+    * @param node        index of the node
+    * @param translation receives the translation
+    * @param rotation    receives the rotation
+    * @param scale       receives the scale
+    */
+   public final void getLocal(int node, Tuple3f translation, Quat4f rotation, Tuple3f scale)
+   {
+      checkNode(node);
+
+      final float[] l = locals;
+      int o = node * 10;
+
+      translation.set(l[o], l[o + 1], l[o + 2]);
+      rotation.set(l[o + 3], l[o + 4], l[o + 5], l[o + 6]);
+      scale.set(l[o + 7], l[o + 8], l[o + 9]);
+   }
+
+   /**
+    * Returns true if the local transform or parent of the node changed since the last update.
+    *
+    * @param node index of the node
+    * @return true if dirty
+    */
+   public final boolean isDirty(int node)
+   {
+      checkNode(node);
+      return dirty[node];
+   }
+
+   /**
+    * Returns the version of the update that last recomputed the world matrix of a node.
+    *
+    * @param node index of the node
+    * @return the version
+    */
+   public final int getWorldVersion(int node)
+   {
+      checkNode(node);
+      return worldVersions[node];
+   }
+
+   /**
+    * Recomputes the world matrices of all dirty nodes and their descendants and records them as changed.
+    *
+    * @return number of nodes whose world matrix was recomputed
+    */
+   public final int update()
+   {
+      version++;
+      changedCount = 0;
+
+      if (dirtyCount == 0)
+      {
+         return 0;
+      }
+
+      final int[] d = dirtyNodes;
+      final int v = version;
+
+      // Ancestors have smaller indices, so ascending order reaches a dirty ancestor before its dirty descendants.
+      Arrays.sort(d, 0, dirtyCount);
+
+      for (int cntr = 0; cntr < dirtyCount; cntr++)
+      {
+         int root = d[cntr];
+
+         dirty[root] = false;
+
+         if (worldVersions[root] == v)
+         {
+            continue;
+         }
+
+         int top = 0;
+         stack[top++] = root;
+
+         while (top > 0)
+         {
+            int node = stack[--top];
+
+            computeWorld(node);
+
+            worldVersions[node] = v;
+            changed[changedCount++] = node;
+
+            for (int child = firstChild[node]; child >= 0; child = nextSibling[child])
+            {
+               stack[top++] = child;
+            }
+         }
+      }
+
+      dirtyCount = 0;
+
+      return changedCount;
+   }
+
+   /**
+    * @return number of nodes recomputed by the last update
+    */
+   public final int getChangedCount()
+   {
+      return changedCount;
+   }
+
+   /**
+    * Returns the internal list of nodes recomputed by the last update in the order they were recomputed, so every
+    * node appears after its parent when both changed. Entries past getChangedCount() are undefined and the array is
+    * reused by the next update.
+    *
+    * @return the changed node indices
+    */
+   public final int[] getChangedIndices()
+   {
+      return changed;
+   }
+
+   /**
+    * Copies the nodes recomputed by the last update.
+    *
+    * @param dst    receives the node indices
+    * @param offset index of dst receiving the first node
+    * @return number of nodes copied
+    */
+   public final int getChangedIndices(int[] dst, int offset)
+   {
+      System.arraycopy(changed, 0, dst, offset, changedCount);
+      return changedCount;
+   }
+
+   /**
+    * Retrieves the world matrix of a node as of the last update.
+    *
+    * @param node index of the node
+    * @param m1   the matrix that receives the values
+    */
+   public final void getWorldMatrix(int node, Matrix4f m1)
+   {
+      checkNode(node);
+
+      final float[] w = worlds;
+      int o = node * 12;
+
+      m1.m00 = w[o];
+      m1.m01 = w[o + 1];
+      m1.m02 = w[o + 2];
+      m1.m03 = w[o + 3];
+      m1.m10 = w[o + 4];
+      m1.m11 = w[o + 5];
+      m1.m12 = w[o + 6];
+      m1.m13 = w[o + 7];
+      m1.m20 = w[o + 8];
+      m1.m21 = w[o + 9];
+      m1.m22 = w[o + 10];
+      m1.m23 = w[o + 11];
+      m1.m30 = 0.0f;
+      m1.m31 = 0.0f;
+      m1.m32 = 0.0f;
+      m1.m33 = 1.0f;
+
+      m1.markDirty();
+   }
+
+   /**
+    * Stores the world matrix of a node as of the last update in column-major order, sixteen floats as expected by
+    * glUniformMatrix4fv and instance attribute buffers.
+    *
+    * @param node   index of the node
+    * @param dst    receives the matrix
+    * @param offset index of dst receiving the first float
+    */
+   public final void getWorldMatrix(int node, float[] dst, int offset)
+   {
+      checkNode(node);
+
+      final float[] w = worlds;
+      int o = node * 12;
+
+      dst[offset] = w[o];
+      dst[offset + 1] = w[o + 4];
+      dst[offset + 2] = w[o + 8];
+      dst[offset + 3] = 0.0f;
+      dst[offset + 4] = w[o + 1];
+      dst[offset + 5] = w[o + 5];
+      dst[offset + 6] = w[o + 9];
+      dst[offset + 7] = 0.0f;
+      dst[offset + 8] = w[o + 2];
+      dst[offset + 9] = w[o + 6];
+      dst[offset + 10] = w[o + 10];
+      dst[offset + 11] = 0.0f;
+      dst[offset + 12] = w[o + 3];
+      dst[offset + 13] = w[o + 7];
+      dst[offset + 14] = w[o + 11];
+      dst[offset + 15] = 1.0f;
+   }
+
+   /**
+    * Computes world = parent world * T * R * S for one node.
+    */
+   private void computeWorld(int node)
+   {
+      final float[] l = locals;
+      final float[] w = worlds;
+
+      int lo = node * 10;
+
+      float qx = l[lo + 3], qy = l[lo + 4], qz = l[lo + 5], qw = l[lo + 6];
+
+      float xs = qx * 2.0f, ys = qy * 2.0f, zs = qz * 2.0f;
+      float wx = qw * xs, wy = qw * ys, wz = qw * zs;
+      float xx = qx * xs, xy = qx * ys, xz = qx * zs;
+      float yy = qy * ys, yz = qy * zs, zz = qz * zs;
+
+      float sx = l[lo + 7], sy = l[lo + 8], sz = l[lo + 9];
+
+      float l00 = (1.0f - (yy + zz)) * sx, l01 = (xy - wz) * sy, l02 = (xz + wy) * sz, l03 = l[lo];
+      float l10 = (xy + wz) * sx, l11 = (1.0f - (xx + zz)) * sy, l12 = (yz - wx) * sz, l13 = l[lo + 1];
+      float l20 = (xz - wy) * sx, l21 = (yz + wx) * sy, l22 = (1.0f - (xx + yy)) * sz, l23 = l[lo + 2];
+
+      int o = node * 12;
+      int parent = parents[node];
+
+      if (parent < 0)
+      {
+         w[o] = l00;
+         w[o + 1] = l01;
+         w[o + 2] = l02;
+         w[o + 3] = l03;
+         w[o + 4] = l10;
+         w[o + 5] = l11;
+         w[o + 6] = l12;
+         w[o + 7] = l13;
+         w[o + 8] = l20;
+         w[o + 9] = l21;
+         w[o + 10] = l22;
+         w[o + 11] = l23;
+         return;
+      }
+
+      int p = parent * 12;
+
+      float p00 = w[p], p01 = w[p + 1], p02 = w[p + 2], p03 = w[p + 3];
+      float p10 = w[p + 4], p11 = w[p + 5], p12 = w[p + 6], p13 = w[p + 7];
+      float p20 = w[p + 8], p21 = w[p + 9], p22 = w[p + 10], p23 = w[p + 11];
+
+      w[o] = p00 * l00 + p01 * l10 + p02 * l20;
+      w[o + 1] = p00 * l01 + p01 * l11 + p02 * l21;
+      w[o + 2] = p00 * l02 + p01 * l12 + p02 * l22;
+      w[o + 3] = p00 * l03 + p01 * l13 + p02 * l23 + p03;
+      w[o + 4] = p10 * l00 + p11 * l10 + p12 * l20;
+      w[o + 5] = p10 * l01 + p11 * l11 + p12 * l21;
+      w[o + 6] = p10 * l02 + p11 * l12 + p12 * l22;
+      w[o + 7] = p10 * l03 + p11 * l13 + p12 * l23 + p13;
+      w[o + 8] = p20 * l00 + p21 * l10 + p22 * l20;
+      w[o + 9] = p20 * l01 + p21 * l11 + p22 * l21;
+      w[o + 10] = p20 * l02 + p21 * l12 + p22 * l22;
+      w[o + 11] = p20 * l03 + p21 * l13 + p22 * l23 + p23;
+   }
+
+   private void markDirty(int node)
+   {
+      if (!dirty[node])
+      {
+         dirty[node] = true;
+         dirtyNodes[dirtyCount++] = node;
+      }
+   }
+
+   private void link(int node, int parent)
+   {
+      parents[node] = parent;
+
+      if (parent >= 0)
+      {
+         nextSibling[node] = firstChild[parent];
+         firstChild[parent] = node;
+      }
+   }
+
+   private void unlink(int node)
+   {
+      int parent = parents[node];
+
+      if (parent >= 0)
+      {
+         if (firstChild[parent] == node)
+         {
+            firstChild[parent] = nextSibling[node];
+         }
+         else
+         {
+            int sibling = firstChild[parent];
+
+            while (nextSibling[sibling] != node)
+            {
+               sibling = nextSibling[sibling];
+            }
+
+            nextSibling[sibling] = nextSibling[node];
+         }
+      }
+
+      parents[node] = -1;
+      nextSibling[node] = -1;
+   }
+
+   private void grow(int newCapacity)
+   {
+      capacity = newCapacity;
+
+      parents = Arrays.copyOf(parents, newCapacity);
+      firstChild = Arrays.copyOf(firstChild, newCapacity);
+      nextSibling = Arrays.copyOf(nextSibling, newCapacity);
+      locals = Arrays.copyOf(locals, newCapacity * 10);
+      worlds = Arrays.copyOf(worlds, newCapacity * 12);
+      worldVersions = Arrays.copyOf(worldVersions, newCapacity);
+      dirty = Arrays.copyOf(dirty, newCapacity);
+      dirtyNodes = Arrays.copyOf(dirtyNodes, newCapacity);
+      changed = Arrays.copyOf(changed, newCapacity);
+      stack = Arrays.copyOf(stack, newCapacity);
+   }
+
+   private void checkNode(int node)
+   {
+      if (node < 0 || node >= count)
+      {
+         throw new ArrayIndexOutOfBoundsException("node must be 0 to " + (count - 1) + " and is " + node);
+      }
+   }
+}
@@ -0,0 +1,1241 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.math.spatial;
+
+import org.typhonrt.java6.vecmath.Frustum;
+import org.typhonrt.java6.vecmath.Matrix4f;
+import org.typhonrt.java6.vecmath.Tuple3f;
+import org.typhonrt.java6.vecmath.Vector4f;
+
+/**
+ * BVH -- A bounding volume hierarchy of axis aligned boxes for frustum culling, box queries and ray picking.
+ *
+ * Primitives are identified by their index in [0, capacity) and only their bounds are stored. The tree is built with
+ * a binned surface area heuristic and kept as flat node arrays in breadth first order, so children always come after
+ * their parent and there are no per-node objects. Each node covers a contiguous range of the primitive order, which
+ * lets a query report a fully contained subtree without visiting its children.
+ *
+ * Moving primitives are handled by updating their bounds with setBounds followed by either refit(), which recomputes
+ * all node bounds in one reverse pass, or refit(int) which only walks the ancestors of one primitive. Refitting keeps
+ * the topology, so a full build is worthwhile again once objects have moved far from where the tree was built.
+ *
+ * Queries report primitives through an int[] or an IPrimitiveVisitor and do not allocate. They share a traversal
+ * stack, so a BVH instance must not be queried from several threads at once.
+ *
+ * @author  Michael Leahy
+ */
+public class BVH
+{
+   /**
+    * Default maximum number of primitives in a leaf.
+    */
+   public static final int s_DEFAULT_MAX_LEAF_SIZE = 4;
+
+   /**
+    * Maximum capacity; frustum traversal packs node indices with a 6 bit plane mask into one int.
+    */
+   public static final int s_MAX_CAPACITY = 1 << 24;
+
+   private static final int s_BIN_COUNT = 16;
+
+   /**
+    * Cost of visiting an inner node relative to testing one primitive.
+    */
+   private static final float s_TRAVERSAL_COST = 1.0f;
+
+   private final int capacity;
+   private final int maxLeafSize;
+
+   /**
+    * Primitive bounds; six floats (minX, minY, minZ, maxX, maxY, maxZ) per primitive.
+    */
+   private final float[] primitiveBounds;
+
+   /**
+    * Primitive indices in tree order; node n covers primitiveOrder[nodeBegin[n], nodeEnd[n]).
+    */
+   private final int[] primitiveOrder;
+
+   /**
+    * Leaf node holding each primitive or -1 when the primitive is not part of the tree.
+    */
+   private final int[] primitiveLeaf;
+
+   /**
+    * Node bounds; six floats per node laid out like primitiveBounds.
+    */
+   private final float[] nodeBounds;
+
+   /**
+    * Index of the left child, the right child is nodeLeft + 1; -1 for leaves.
+    */
+   private final int[] nodeLeft;
+   private final int[] nodeParent;
+   private final int[] nodeBegin;
+   private final int[] nodeEnd;
+
+   private int primitiveCount;
+   private int nodeCount;
+   private int depth;
+
+   private int[] stack;
+
+   // Build scratch, reused across builds.
+   private final float[] centroids;
+   private final int[] nodeDepth;
+   private final int[] binCounts = new int[s_BIN_COUNT];
+   private final float[] binBounds = new float[s_BIN_COUNT * 6];
+   private final float[] rightAreas = new float[s_BIN_COUNT];
+
+   // Query scratch.
+   private final float[] planes = new float[Frustum.s_PLANE_COUNT * 4];
+   private final Vector4f plane = new Vector4f();
+
+   private float hitDistance;
+
+   /**
+    * Constructs a BVH for up to capacity primitives with the default leaf size.
+    *
+    * @param capacity maximum number of primitives
+    */
+   public BVH(int capacity)
+   {
+      this(capacity, s_DEFAULT_MAX_LEAF_SIZE);
+   }
+
+   /**
+    * Constructs a BVH for up to capacity primitives.
+    *
+    * @param capacity    maximum number of primitives
+    * @param maxLeafSize maximum number of primitives in a leaf; at least 1
+    */
+   public BVH(int capacity, int maxLeafSize)
+   {
+      if (capacity < 0 || capacity > s_MAX_CAPACITY)
+      {
+         throw new IllegalArgumentException("capacity must be 0 to " + s_MAX_CAPACITY + " and is " + capacity);
+      }
+
+      if (maxLeafSize < 1)
+      {
+         throw new IllegalArgumentException("maxLeafSize must be at least 1: " + maxLeafSize);
+      }
+
+      this.capacity = capacity;
+      this.maxLeafSize = maxLeafSize;
+
+      int maxNodes = Math.max(1, 2 * capacity - 1);
+
+      primitiveBounds = new float[capacity * 6];
+      primitiveOrder = new int[capacity];
+      primitiveLeaf = new int[capacity];
+
+      nodeBounds = new float[maxNodes * 6];
+      nodeLeft = new int[maxNodes];
+      nodeParent = new int[maxNodes];
+      nodeBegin = new int[maxNodes];
+      nodeEnd = new int[maxNodes];
+
+      centroids = new float[capacity * 3];
+      nodeDepth = new int[maxNodes];
+
+      stack = new int[2];
+
+      for (int cntr = 0; cntr < capacity; cntr++)
+      {
+         primitiveLeaf[cntr] = -1;
+      }
+   }
+
+   /**
+    * @return maximum number of primitives
+    */
+   public final int getCapacity()
+   {
+      return capacity;
+   }
+
+   /**
+    * @return number of primitives in the tree as of the last build
+    */
+   public final int getPrimitiveCount()
+   {
+      return primitiveCount;
+   }
+
+   /**
+    * @return number of nodes in the tree
+    */
+   public final int getNodeCount()
+   {
+      return nodeCount;
+   }
+
+   /**
+    * @return number of levels below the root; 0 for a tree made of a single leaf
+    */
+   public final int getDepth()
+   {
+      return depth;
+   }
+
+   /**
+    * @return distance along the ray of the hit found by the last raycast or Float.POSITIVE_INFINITY for no hit
+    */
+   public final float getHitDistance()
+   {
+      return hitDistance;
+   }
+
+   /**
+    * Sets the bounds of a primitive. Changes are picked up by the next build or refit.
+    *
+    * @param primitive index of the primitive
+    * @param minX      minimum x
+    * @param minY      minimum y
+    * @param minZ      minimum z
+    * @param maxX      maximum x
+    * @param maxY      maximum y
+    * @param maxZ      maximum z
+    */
+   public final void setBounds(int primitive, float minX, float minY, float minZ, float maxX, float maxY, float maxZ)
+   {
+      checkPrimitive(primitive);
+
+      final float[] b = primitiveBounds;
+      int o = primitive * 6;
+
+      b[o] = minX;
+      b[o + 1] = minY;
+      b[o + 2] = minZ;
+      b[o + 3] = maxX;
+      b[o + 4] = maxY;
+      b[o + 5] = maxZ;
+   }
+
+   /**
+    * Sets the bounds of a primitive from its minimum and maximum corners.
+    *
+    * @param primitive index of the primitive
+    * @param min       minimum corner
+    * @param max       maximum corner
+    */
+   public final void setBounds(int primitive, Tuple3f min, Tuple3f max)
+   {
+      setBounds(primitive, min.x, min.y, min.z, max.x, max.y, max.z);
+   }
+
+   /**
+    * Sets the bounds of a primitive to the box enclosing a sphere.
+    *
+    * @param primitive index of the primitive
+    * @param center    center of the sphere
+    * @param radius    radius of the sphere
+    */
+   public final void setBounds(int primitive, Tuple3f center, float radius)
+   {
+      setBounds(primitive, center.x - radius, center.y - radius, center.z - radius, center.x + radius,
+       center.y + radius, center.z + radius);
+   }
+
+   /**
+    * Sets the bounds of a primitive to the world space box enclosing a local space box transformed by an affine
+    * matrix.
+    *
+    * @param primitive index of the primitive
+    * @param min       minimum corner in local space
+    * @param max       maximum corner in local space
+    * @param transform affine local to world transform
+    */
+   public final void setBounds(int primitive, Tuple3f min, Tuple3f max, Matrix4f transform)
+   {
+      float cx = (min.x + max.x) * 0.5f;
+      float cy = (min.y + max.y) * 0.5f;
+      float cz = (min.z + max.z) * 0.5f;
+
+      float ex = (max.x - min.x) * 0.5f;
+      float ey = (max.y - min.y) * 0.5f;
+      float ez = (max.z - min.z) * 0.5f;
+
+      final Matrix4f m = transform;
+
+      float wcx = m.m00 * cx + m.m01 * cy + m.m02 * cz + m.m03;
+      float wcy = m.m10 * cx + m.m11 * cy + m.m12 * cz + m.m13;
+      float wcz = m.m20 * cx + m.m21 * cy + m.m22 * cz + m.m23;
+
+      float wex = Math.abs(m.m00) * ex + Math.abs(m.m01) * ey + Math.abs(m.m02) * ez;
+      float wey = Math.abs(m.m10) * ex + Math.abs(m.m11) * ey + Math.abs(m.m12) * ez;
+      float wez = Math.abs(m.m20) * ex + Math.abs(m.m21) * ey + Math.abs(m.m22) * ez;
+
+      setBounds(primitive, wcx - wex, wcy - wey, wcz - wez, wcx + wex, wcy + wey, wcz + wez);
+   }
+
+   /**
+    * Retrieves the bounds of a primitive.
+    *
+    * @param primitive index of the primitive
+    * @param min       receives the minimum corner
+    * @param max       receives the maximum corner
+    */
+   public final void getBounds(int primitive, Tuple3f min, Tuple3f max)
+   {
+      checkPrimitive(primitive);
+
+      int o = primitive * 6;
+      min.set(primitiveBounds[o], primitiveBounds[o + 1], primitiveBounds[o + 2]);
+      max.set(primitiveBounds[o + 3], primitiveBounds[o + 4], primitiveBounds[o + 5]);
+   }
+
+   /**
+    * Retrieves the bounds of the whole tree.
+    *
+    * @param min receives the minimum corner
+    * @param max receives the maximum corner
+    */
+   public final void getRootBounds(Tuple3f min, Tuple3f max)
+   {
+      min.set(nodeBounds[0], nodeBounds[1], nodeBounds[2]);
+      max.set(nodeBounds[3], nodeBounds[4], nodeBounds[5]);
+   }
+
+   /**
+    * Builds the tree over primitives [0, count) from their current bounds.
+    *
+    * @param count number of primitives
+    */
+   public final void build(int count)
+   {
+      if (count < 0 || count > capacity)
+      {
+         throw new ArrayIndexOutOfBoundsException("count must be 0 to " + capacity + " and is " + count);
+      }
+
+      final float[] b = primitiveBounds;
+      final float[] c = centroids;
+
+      for (int cntr = 0; cntr < count; cntr++)
+      {
+         int o = cntr * 6;
+         int co = cntr * 3;
+
+         c[co] = (b[o] + b[o + 3]) * 0.5f;
+         c[co + 1] = (b[o + 1] + b[o + 4]) * 0.5f;
+         c[co + 2] = (b[o + 2] + b[o + 5]) * 0.5f;
+
+         primitiveOrder[cntr] = cntr;
+      }
+
+      for (int cntr = count; cntr < capacity; cntr++)
+      {
+         primitiveLeaf[cntr] = -1;
+      }
+
+      primitiveCount = count;
+      nodeCount = 1;
+      depth = 0;
+
+      nodeParent[0] = -1;
+      nodeBegin[0] = 0;
+      nodeEnd[0] = count;
+      nodeDepth[0] = 0;
+
+      // Nodes are split in creation order, so the node array doubles as the work queue.
+      for (int node = 0; node < nodeCount; node++)
+      {
+         computeNodeBounds(node);
+
+         int mid = split(node);
+
+         if (mid < 0)
+         {
+            nodeLeft[node] = -1;
+
+            for (int cntr = nodeBegin[node], end = nodeEnd[node]; cntr < end; cntr++)
+            {
+               primitiveLeaf[primitiveOrder[cntr]] = node;
+            }
+         }
+         else
+         {
+            int left = nodeCount;
+            int childDepth = nodeDepth[node] + 1;
+
+            nodeLeft[node] = left;
+            nodeCount += 2;
+
+            nodeParent[left] = node;
+            nodeBegin[left] = nodeBegin[node];
+            nodeEnd[left] = mid;
+            nodeDepth[left] = childDepth;
+
+            nodeParent[left + 1] = node;
+            nodeBegin[left + 1] = mid;
+            nodeEnd[left + 1] = nodeEnd[node];
+            nodeDepth[left + 1] = childDepth;
+
+            if (childDepth > depth)
+            {
+               depth = childDepth;
+            }
+         }
+      }
+
+      if (stack.length < depth + 2)
+      {
+         stack = new int[depth + 2];
+      }
+   }
+
+   /**
+    * Recomputes the bounds of all nodes from the current primitive bounds without changing the tree topology.
+    */
+   public final void refit()
+   {
+      final float[] nb = nodeBounds;
+
+      for (int node = nodeCount; --node >= 0;)
+      {
+         int left = nodeLeft[node];
+
+         if (left < 0)
+         {
+            computeNodeBounds(node);
+         }
+         else
+         {
+            int o = node * 6;
+            int lo = left * 6;
+            int ro = lo + 6;
+
+            nb[o] = Math.min(nb[lo], nb[ro]);
+            nb[o + 1] = Math.min(nb[lo + 1], nb[ro + 1]);
+            nb[o + 2] = Math.min(nb[lo + 2], nb[ro + 2]);
+            nb[o + 3] = Math.max(nb[lo + 3], nb[ro + 3]);
+            nb[o + 4] = Math.max(nb[lo + 4], nb[ro + 4]);
+            nb[o + 5] = Math.max(nb[lo + 5], nb[ro + 5]);
+         }
+      }
+   }
+
+   /**
+    * Recomputes the bounds of the leaf holding a primitive and of its ancestors, stopping as soon as a node does not
+    * change. Cheaper than refit() when only a few primitives moved.
+    *
+    * @param primitive index of the primitive whose bounds changed
+    */
+   public final void refit(int primitive)
+   {
+      checkPrimitive(primitive);
+
+      int node = primitiveLeaf[primitive];
+
+      if (node < 0)
+      {
+         return;
+      }
+
+      final float[] nb = nodeBounds;
+
+      computeNodeBounds(node);
+
+      for (node = nodeParent[node]; node >= 0; node = nodeParent[node])
+      {
+         int o = node * 6;
+         int lo = nodeLeft[node] * 6;
+         int ro = lo + 6;
+
+         float minX = Math.min(nb[lo], nb[ro]);
+         float minY = Math.min(nb[lo + 1], nb[ro + 1]);
+         float minZ = Math.min(nb[lo + 2], nb[ro + 2]);
+         float maxX = Math.max(nb[lo + 3], nb[ro + 3]);
+         float maxY = Math.max(nb[lo + 4], nb[ro + 4]);
+         float maxZ = Math.max(nb[lo + 5], nb[ro + 5]);
+
+         if (minX == nb[o] && minY == nb[o + 1] && minZ == nb[o + 2] && maxX == nb[o + 3] && maxY == nb[o + 4] &&
+          maxZ == nb[o + 5])
+         {
+            return;
+         }
+
+         nb[o] = minX;
+         nb[o + 1] = minY;
+         nb[o + 2] = minZ;
+         nb[o + 3] = maxX;
+         nb[o + 4] = maxY;
+         nb[o + 5] = maxZ;
+      }
+   }
+
+   /**
+    * Collects the primitives whose bounds are at least partially inside the frustum. Boxes near a frustum corner may
+    * be reported although they are outside, which is conservative for culling.
+    *
+    * @param frustum the frustum
+    * @param results receives the primitive indices; needs room for getPrimitiveCount() entries past offset
+    * @param offset  index of results receiving the first primitive
+    * @return number of primitives written
+    */
+   public final int queryFrustum(Frustum frustum, int[] results, int offset)
+   {
+      return queryFrustum(frustum, results, offset, null);
+   }
+
+   /**
+    * Reports the primitives whose bounds are at least partially inside the frustum to the visitor.
+    *
+    * @param frustum the frustum
+    * @param visitor receives the primitive indices
+    * @return number of primitives reported
+    */
+   public final int queryFrustum(Frustum frustum, IPrimitiveVisitor visitor)
+   {
+      return queryFrustum(frustum, null, 0, visitor);
+   }
+
+   /**
+    * Collects the primitives whose bounds overlap the box.
+    *
+    * @param minX    minimum x
+    * @param minY    minimum y
+    * @param minZ    minimum z
+    * @param maxX    maximum x
+    * @param maxY    maximum y
+    * @param maxZ    maximum z
+    * @param results receives the primitive indices; needs room for getPrimitiveCount() entries past offset
+    * @param offset  index of results receiving the first primitive
+    * @return number of primitives written
+    */
+   public final int queryBox(float minX, float minY, float minZ, float maxX, float maxY, float maxZ, int[] results,
+    int offset)
+   {
+      return queryBox(minX, minY, minZ, maxX, maxY, maxZ, results, offset, null);
+   }
+
+   /**
+    * Reports the primitives whose bounds overlap the box to the visitor.
+    *
+    * @param minX    minimum x
+    * @param minY    minimum y
+    * @param minZ    minimum z
+    * @param maxX    maximum x
+    * @param maxY    maximum y
+    * @param maxZ    maximum z
+    * @param visitor receives the primitive indices
+    * @return number of primitives reported
+    */
+   public final int queryBox(float minX, float minY, float minZ, float maxX, float maxY, float maxZ,
+    IPrimitiveVisitor visitor)
+   {
+      return queryBox(minX, minY, minZ, maxX, maxY, maxZ, null, 0, visitor);
+   }
+
+   /**
+    * Collects the primitives whose bounds are hit by the ray within maxDistance, in no particular order.
+    *
+    * @param originX     x coordinate of the ray origin
+    * @param originY     y coordinate of the ray origin
+    * @param originZ     z coordinate of the ray origin
+    * @param directionX  x component of the ray direction
+    * @param directionY  y component of the ray direction
+    * @param directionZ  z component of the ray direction
+    * @param maxDistance end of the ray in multiples of the direction
+    * @param results     receives the primitive indices; needs room for getPrimitiveCount() entries past offset
+    * @param offset      index of results receiving the first primitive
+    * @return number of primitives written
+    */
+   public final int queryRay(float originX, float originY, float originZ, float directionX, float directionY,
+    float directionZ, float maxDistance, int[] results, int offset)
+   {
+      if (primitiveCount == 0)
+      {
+         return 0;
+      }
+
+      final float[] nb = nodeBounds;
+      final int[] s = stack;
+
+      float invX = 1.0f / directionX;
+      float invY = 1.0f / directionY;
+      float invZ = 1.0f / directionZ;
+
+      int found = 0;
+      int top = 0;
+
+      s[top++] = 0;
+
+      while (top > 0)
+      {
+         int node = s[--top];
+
+         if (rayBox(nb, node * 6, originX, originY, originZ, invX, invY, invZ, maxDistance) > maxDistance)
+         {
+            continue;
+         }
+
+         int left = nodeLeft[node];
+
+         if (left >= 0)
+         {
+            s[top++] = left + 1;
+            s[top++] = left;
+            continue;
+         }
+
+         for (int cntr = nodeBegin[node], end = nodeEnd[node]; cntr < end; cntr++)
+         {
+            int primitive = primitiveOrder[cntr];
+
+            if (rayBox(primitiveBounds, primitive * 6, originX, originY, originZ, invX, invY, invZ, maxDistance) <=
+             maxDistance)
+            {
+               results[offset + found++] = primitive;
+            }
+         }
+      }
+
+      return found;
+   }
+
+   /**
+    * Finds the closest primitive hit by the ray for picking. Children are visited front to back and subtrees beyond
+    * the closest hit so far are skipped. The distance of the hit is available from getHitDistance().
+    *
+    * @param origin      ray origin
+    * @param direction   ray direction; distances are in multiples of its length
+    * @param maxDistance end of the ray
+    * @param test        exact intersection test for primitives reached by the ray; when null the primitive bounds
+    *                    are used as the hit shape
+    * @return index of the closest primitive hit or -1 for no hit
+    */
+   public final int raycast(Tuple3f origin, Tuple3f direction, float maxDistance, IRayTest test)
+   {
+      return raycast(origin.x, origin.y, origin.z, direction.x, direction.y, direction.z, maxDistance, test);
+   }
+
+   /**
+    * Finds the closest primitive hit by the ray for picking. Children are visited front to back and subtrees beyond
+    * the closest hit so far are skipped. The distance of the hit is available from getHitDistance().
+    *
+    * @param originX     x coordinate of the ray origin
+    * @param originY     y coordinate of the ray origin
+    * @param originZ     z coordinate of the ray origin
+    * @param directionX  x component of the ray direction
+    * @param directionY  y component of the ray direction
+    * @param directionZ  z component of the ray direction
+    * @param maxDistance end of the ray in multiples of the direction
+    * @param test        exact intersection test for primitives reached by the ray; when null the primitive bounds
+    *                    are used as the hit shape
+    * @return index of the closest primitive hit or -1 for no hit
+    */
+   public final int raycast(float originX, float originY, float originZ, float directionX, float directionY,
+    float directionZ, float maxDistance, IRayTest test)
+   {
+      hitDistance = Float.POSITIVE_INFINITY;
+
+      if (primitiveCount == 0)
+      {
+         return -1;
+      }
+
+      final float[] nb = nodeBounds;
+      final float[] pb = primitiveBounds;
+      final int[] s = stack;
+
+      float invX = 1.0f / directionX;
+      float invY = 1.0f / directionY;
+      float invZ = 1.0f / directionZ;
+
+      float closest = maxDistance;
+      int hit = -1;
+      int top = 0;
+
+      if (rayBox(nb, 0, originX, originY, originZ, invX, invY, invZ, closest) <= closest)
+      {
+         s[top++] = 0;
+      }
+
+      while (top > 0)
+      {
+         int node = s[--top];
+         int left = nodeLeft[node];
+
+         if (left >= 0)
+         {
+            float leftDistance = rayBox(nb, left * 6, originX, originY, originZ, invX, invY, invZ, closest);
+            float rightDistance = rayBox(nb, left * 6 + 6, originX, originY, originZ, invX, invY, invZ, closest);
+
+            // Push the farther child first so the nearer one is popped next.
+            int near = left;
+            int far = left + 1;
+
+            if (rightDistance < leftDistance)
+            {
+               near = left + 1;
+               far = left;
+
+               float distance = leftDistance;
+               leftDistance = rightDistance;
+               rightDistance = distance;
+            }
+
+            if (rightDistance <= closest)
+            {
+               s[top++] = far;
+            }
+
+            if (leftDistance <= closest)
+            {
+               s[top++] = near;
+            }
+            continue;
+         }
+
+         for (int cntr = nodeBegin[node], end = nodeEnd[node]; cntr < end; cntr++)
+         {
+            int primitive = primitiveOrder[cntr];
+
+            float distance = rayBox(pb, primitive * 6, originX, originY, originZ, invX, invY, invZ, closest);
+
+            if (distance > closest)
+            {
+               continue;
+            }
+
+            if (test != null)
+            {
+               distance = test.intersect(primitive, closest);
+
+               if (distance >= closest || distance < 0.0f)
+               {
+                  continue;
+               }
+            }
+            else if (distance == closest && hit >= 0)
+            {
+               continue;
+            }
+
+            closest = distance;
+            hit = primitive;
+         }
+      }
+
+      if (hit >= 0)
+      {
+         hitDistance = closest;
+      }
+
+      return hit;
+   }
+
+   @Override
+   public String toString()
+   {
+      return "BVH[primitives: " + primitiveCount + ", nodes: " + nodeCount + ", depth: " + depth + "]";
+   }
+
+   private void checkPrimitive(int primitive)
+   {
+      if (primitive < 0 || primitive >= capacity)
+      {
+         throw new ArrayIndexOutOfBoundsException("primitive must be 0 to " + (capacity - 1) + " and is " +
+          primitive);
+      }
+   }
+
+   /**
+    * Sets the bounds of a node to the union of the bounds of its primitives.
+    */
+   private void computeNodeBounds(int node)
+   {
+      final float[] b = primitiveBounds;
+      final int[] order = primitiveOrder;
+
+      float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY, minZ = Float.POSITIVE_INFINITY;
+      float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY, maxZ = Float.NEGATIVE_INFINITY;
+
+      for (int cntr = nodeBegin[node], end = nodeEnd[node]; cntr < end; cntr++)
+      {
+         int o = order[cntr] * 6;
+
+         minX = Math.min(minX, b[o]);
+         minY = Math.min(minY, b[o + 1]);
+         minZ = Math.min(minZ, b[o + 2]);
+         maxX = Math.max(maxX, b[o + 3]);
+         maxY = Math.max(maxY, b[o + 4]);
+         maxZ = Math.max(maxZ, b[o + 5]);
+      }
+
+      final float[] nb = nodeBounds;
+      int o = node * 6;
+
+      nb[o] = minX;
+      nb[o + 1] = minY;
+      nb[o + 2] = minZ;
+      nb[o + 3] = maxX;
+      nb[o + 4] = maxY;
+      nb[o + 5] = maxZ;
+   }
+
+   /**
+    * Chooses a split for the node with the binned surface area heuristic along the axis of largest centroid extent
+    * and partitions its primitive range accordingly.
+    *
+    * @return start of the right half in primitiveOrder or -1 when the node stays a leaf
+    */
+   private int split(int node)
+   {
+      final int[] order = primitiveOrder;
+      final float[] c = centroids;
+
+      int begin = nodeBegin[node];
+      int end = nodeEnd[node];
+      int count = end - begin;
+
+      if (count <= 1)
+      {
+         return -1;
+      }
+
+      float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY, minZ = Float.POSITIVE_INFINITY;
+      float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY, maxZ = Float.NEGATIVE_INFINITY;
+
+      for (int cntr = begin; cntr < end; cntr++)
+      {
+         int co = order[cntr] * 3;
+
+         minX = Math.min(minX, c[co]);
+         maxX = Math.max(maxX, c[co]);
+         minY = Math.min(minY, c[co + 1]);
+         maxY = Math.max(maxY, c[co + 1]);
+         minZ = Math.min(minZ, c[co + 2]);
+         maxZ = Math.max(maxZ, c[co + 2]);
+      }
+
+      int axis = 0;
+      float axisMin = minX;
+      float extent = maxX - minX;
+
+      if (maxY - minY > extent)
+      {
+         axis = 1;
+         axisMin = minY;
+         extent = maxY - minY;
+      }
+
+      if (maxZ - minZ > extent)
+      {
+         axis = 2;
+         axisMin = minZ;
+         extent = maxZ - minZ;
+      }
+
+      if (!(extent > 0.0f))
+      {
+         // All centroids coincide; binning cannot separate them so halve oversized leaves by order.
+         return count > maxLeafSize ? begin + (count >> 1) : -1;
+      }
+
+      final int[] counts = binCounts;
+      final float[] bb = binBounds;
+      final float[] b = primitiveBounds;
+
+      for (int cntr = 0; cntr < s_BIN_COUNT; cntr++)
+      {
+         int o = cntr * 6;
+
+         counts[cntr] = 0;
+         bb[o] = bb[o + 1] = bb[o + 2] = Float.POSITIVE_INFINITY;
+         bb[o + 3] = bb[o + 4] = bb[o + 5] = Float.NEGATIVE_INFINITY;
+      }
+
+      float scale = s_BIN_COUNT * (1.0f - 1e-6f) / extent;
+
+      for (int cntr = begin; cntr < end; cntr++)
+      {
+         int primitive = order[cntr];
+         int bin = binIndex(c[primitive * 3 + axis], axisMin, scale);
+
+         int o = bin * 6;
+         int po = primitive * 6;
+
+         counts[bin]++;
+
+         bb[o] = Math.min(bb[o], b[po]);
+         bb[o + 1] = Math.min(bb[o + 1], b[po + 1]);
+         bb[o + 2] = Math.min(bb[o + 2], b[po + 2]);
+         bb[o + 3] = Math.max(bb[o + 3], b[po + 3]);
+         bb[o + 4] = Math.max(bb[o + 4], b[po + 4]);
+         bb[o + 5] = Math.max(bb[o + 5], b[po + 5]);
+      }
+
+      // Sweep from the right recording the area of bins (k, BIN_COUNT) for each split plane k.
+      final float[] areas = rightAreas;
+
+      float rMinX = Float.POSITIVE_INFINITY, rMinY = Float.POSITIVE_INFINITY, rMinZ = Float.POSITIVE_INFINITY;
+      float rMaxX = Float.NEGATIVE_INFINITY, rMaxY = Float.NEGATIVE_INFINITY, rMaxZ = Float.NEGATIVE_INFINITY;
+
+      for (int cntr = s_BIN_COUNT - 1; cntr > 0; cntr--)
+      {
+         int o = cntr * 6;
+
+         if (counts[cntr] > 0)
+         {
+            rMinX = Math.min(rMinX, bb[o]);
+            rMinY = Math.min(rMinY, bb[o + 1]);
+            rMinZ = Math.min(rMinZ, bb[o + 2]);
+            rMaxX = Math.max(rMaxX, bb[o + 3]);
+            rMaxY = Math.max(rMaxY, bb[o + 4]);
+            rMaxZ = Math.max(rMaxZ, bb[o + 5]);
+         }
+
+         areas[cntr - 1] = halfArea(rMinX, rMinY, rMinZ, rMaxX, rMaxY, rMaxZ);
+      }
+
+      float lMinX = Float.POSITIVE_INFINITY, lMinY = Float.POSITIVE_INFINITY, lMinZ = Float.POSITIVE_INFINITY;
+      float lMaxX = Float.NEGATIVE_INFINITY, lMaxY = Float.NEGATIVE_INFINITY, lMaxZ = Float.NEGATIVE_INFINITY;
+
+      float bestCost = Float.POSITIVE_INFINITY;
+      int bestBin = -1;
+      int leftCount = 0;
+
+      for (int cntr = 0; cntr < s_BIN_COUNT - 1; cntr++)
+      {
+         int o = cntr * 6;
+
+         if (counts[cntr] > 0)
+         {
+            lMinX = Math.min(lMinX, bb[o]);
+            lMinY = Math.min(lMinY, bb[o + 1]);
+            lMinZ = Math.min(lMinZ, bb[o + 2]);
+            lMaxX = Math.max(lMaxX, bb[o + 3]);
+            lMaxY = Math.max(lMaxY, bb[o + 4]);
+            lMaxZ = Math.max(lMaxZ, bb[o + 5]);
+
+            leftCount += counts[cntr];
+         }
+
+         if (leftCount == 0 || leftCount == count)
+         {
+            continue;
+         }
+
+         float cost = halfArea(lMinX, lMinY, lMinZ, lMaxX, lMaxY, lMaxZ) * leftCount + areas[cntr] *
+          (count - leftCount);
+
+         if (cost < bestCost)
+         {
+            bestCost = cost;
+            bestBin = cntr;
+         }
+      }
+
+      final float[] nb = nodeBounds;
+      int no = node * 6;
+
+      float area = halfArea(nb[no], nb[no + 1], nb[no + 2], nb[no + 3], nb[no + 4], nb[no + 5]);
+
+      // Costs are in units of one primitive test scaled by surface area.
+      if (bestBin < 0 || (count <= maxLeafSize && s_TRAVERSAL_COST * area + bestCost >= area * count))
+      {
+         return count > maxLeafSize ? begin + (count >> 1) : -1;
+      }
+
+      // Partition the range so primitives in bins [0, bestBin] come first.
+      int lo = begin;
+      int hi = end - 1;
+
+      while (lo <= hi)
+      {
+         int primitive = order[lo];
+
+         if (binIndex(c[primitive * 3 + axis], axisMin, scale) <= bestBin)
+         {
+            lo++;
+         }
+         else
+         {
+            order[lo] = order[hi];
+            order[hi--] = primitive;
+         }
+      }
+
+      return lo;
+   }
+
+   private static int binIndex(float centroid, float axisMin, float scale)
+   {
+      int bin = (int)((centroid - axisMin) * scale);
+      return bin < s_BIN_COUNT ? bin : s_BIN_COUNT - 1;
+   }
+
+   private static float halfArea(float minX, float minY, float minZ, float maxX, float maxY, float maxZ)
+   {
+      float dx = maxX - minX;
+      float dy = maxY - minY;
+      float dz = maxZ - minZ;
+
+      return dx * dy + dy * dz + dz * dx;
+   }
+
+   /**
+    * Slab test of a ray against the box at offset o of bounds. A zero direction component makes the inverse infinite;
+    * the ray is then parallel to that slab and the axis is skipped when the origin lies within it, bounds included,
+    * since (bound - origin) * inverse would be NaN for an origin on a bound.
+    *
+    * @return entry distance of the ray clamped to 0 or Float.POSITIVE_INFINITY when the box is missed within
+    *         maxDistance
+    */
+   private static float rayBox(float[] bounds, int o, float originX, float originY, float originZ, float invX,
+    float invY, float invZ, float maxDistance)
+   {
+      float near = 0.0f;
+      float far = maxDistance;
+
+      if (Float.isInfinite(invX))
+      {
+         if (originX < bounds[o] || originX > bounds[o + 3])
+         {
+            return Float.POSITIVE_INFINITY;
+         }
+      }
+      else
+      {
+         float t0 = (bounds[o] - originX) * invX;
+         float t1 = (bounds[o + 3] - originX) * invX;
+
+         near = Math.max(near, Math.min(t0, t1));
+         far = Math.min(far, Math.max(t0, t1));
+      }
+
+      if (Float.isInfinite(invY))
+      {
+         if (originY < bounds[o + 1] || originY > bounds[o + 4])
+         {
+            return Float.POSITIVE_INFINITY;
+         }
+      }
+      else
+      {
+         float t0 = (bounds[o + 1] - originY) * invY;
+         float t1 = (bounds[o + 4] - originY) * invY;
+
+         near = Math.max(near, Math.min(t0, t1));
+         far = Math.min(far, Math.max(t0, t1));
+      }
+
+      if (Float.isInfinite(invZ))
+      {
+         if (originZ < bounds[o + 2] || originZ > bounds[o + 5])
+         {
+            return Float.POSITIVE_INFINITY;
+         }
+      }
+      else
+      {
+         float t0 = (bounds[o + 2] - originZ) * invZ;
+         float t1 = (bounds[o + 5] - originZ) * invZ;
+
+         near = Math.max(near, Math.min(t0, t1));
+         far = Math.min(far, Math.max(t0, t1));
+      }
+
+      return near <= far ? near : Float.POSITIVE_INFINITY;
+   }
+
+   private int queryFrustum(Frustum frustum, int[] results, int offset, IPrimitiveVisitor visitor)
+   {
+      if (primitiveCount == 0)
+      {
+         return 0;
+      }
+
+      final float[] p = planes;
+
+      for (int cntr = 0; cntr < Frustum.s_PLANE_COUNT; cntr++)
+      {
+         frustum.getPlane(cntr, plane);
+
+         int o = cntr << 2;
+         p[o] = plane.x;
+         p[o + 1] = plane.y;
+         p[o + 2] = plane.z;
+         p[o + 3] = plane.w;
+      }
+
+      final float[] nb = nodeBounds;
+      final float[] pb = primitiveBounds;
+      final int[] s = stack;
+
+      // Stack entries pack the node index with the mask of planes still straddled by its parent in the low 6 bits.
+      final int allPlanes = (1 << Frustum.s_PLANE_COUNT) - 1;
+
+      int found = 0;
+      int top = 0;
+
+      s[top++] = allPlanes;
+
+      while (top > 0)
+      {
+         int entry = s[--top];
+         int node = entry >>> 6;
+         int mask = classifyBox(p, nb, node * 6, entry & allPlanes);
+
+         if (mask < 0)
+         {
+            continue;
+         }
+
+         int left = nodeLeft[node];
+
+         if (mask != 0 && left >= 0)
+         {
+            s[top++] = ((left + 1) << 6) | mask;
+            s[top++] = (left << 6) | mask;
+            continue;
+         }
+
+         // Leaf or fully inside; a straddling leaf still tests its primitives individually.
+         for (int cntr = nodeBegin[node], end = nodeEnd[node]; cntr < end; cntr++)
+         {
+            int primitive = primitiveOrder[cntr];
+
+            if (mask != 0 && classifyBox(p, pb, primitive * 6, mask) < 0)
+            {
+               continue;
+            }
+
+            if (visitor != null)
+            {
+               visitor.visit(primitive);
+            }
+            else
+            {
+               results[offset + found] = primitive;
+            }
+
+            found++;
+         }
+      }
+
+      return found;
+   }
+
+   private int queryBox(float minX, float minY, float minZ, float maxX, float maxY, float maxZ, int[] results,
+    int offset, IPrimitiveVisitor visitor)
+   {
+      if (primitiveCount == 0)
+      {
+         return 0;
+      }
+
+      final float[] nb = nodeBounds;
+      final float[] pb = primitiveBounds;
+      final int[] s = stack;
+
+      int found = 0;
+      int top = 0;
+
+      s[top++] = 0;
+
+      while (top > 0)
+      {
+         int node = s[--top];
+         int o = node * 6;
+
+         if (nb[o] > maxX || nb[o + 1] > maxY || nb[o + 2] > maxZ || nb[o + 3] < minX || nb[o + 4] < minY ||
+          nb[o + 5] < minZ)
+         {
+            continue;
+         }
+
+         int left = nodeLeft[node];
+
+         if (left >= 0)
+         {
+            s[top++] = left + 1;
+            s[top++] = left;
+            continue;
+         }
+
+         for (int cntr = nodeBegin[node], end = nodeEnd[node]; cntr < end; cntr++)
+         {
+            int primitive = primitiveOrder[cntr];
+            int po = primitive * 6;
+
+            if (pb[po] > maxX || pb[po + 1] > maxY || pb[po + 2] > maxZ || pb[po + 3] < minX || pb[po + 4] < minY ||
+             pb[po + 5] < minZ)
+            {
+               continue;
+            }
+
+            if (visitor != null)
+            {
+               visitor.visit(primitive);
+            }
+            else
+            {
+               results[offset + found] = primitive;
+            }
+
+            found++;
+         }
+      }
+
+      return found;
+   }
+
+   /**
+    * Classifies the box at offset o of bounds against the planes selected by mask.
+    *
+    * @return -1 if the box is outside one of the planes, otherwise the subset of mask the box straddles
+    */
+   private static int classifyBox(float[] p, float[] bounds, int o, int mask)
+   {
+      float cx = (bounds[o] + bounds[o + 3]) * 0.5f;
+      float cy = (bounds[o + 1] + bounds[o + 4]) * 0.5f;
+      float cz = (bounds[o + 2] + bounds[o + 5]) * 0.5f;
+
+      float ex = (bounds[o + 3] - bounds[o]) * 0.5f;
+      float ey = (bounds[o + 4] - bounds[o + 1]) * 0.5f;
+      float ez = (bounds[o + 5] - bounds[o + 2]) * 0.5f;
+
+      int straddled = 0;
+
+      for (int cntr = 0; cntr < Frustum.s_PLANE_COUNT; cntr++)
+      {
+         int bit = 1 << cntr;
+
+         if ((mask & bit) == 0)
+         {
+            continue;
+         }
+
+         int po = cntr << 2;
+
+         float a = p[po];
+         float b = p[po + 1];
+         float c = p[po + 2];
+
+         float distance = a * cx + b * cy + c * cz + p[po + 3];
+         float radius = Math.abs(a) * ex + Math.abs(b) * ey + Math.abs(c) * ez;
+
+         if (distance < -radius)
+         {
+            return -1;
+         }
+
+         if (distance < radius)
+         {
+            straddled |= bit;
+         }
+      }
+
+      return straddled;
+   }
+}
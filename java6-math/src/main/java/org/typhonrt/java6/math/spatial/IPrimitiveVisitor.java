@@ -0,0 +1,21 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.math.spatial;
+
+/**
+ * IPrimitiveVisitor -- Receives the primitive indices reported by a BVH query.
+ */
+public interface IPrimitiveVisitor
+{
+   /**
+    * Invoked once for each primitive that passes the query.
+    *
+    * @param primitive index of the primitive as passed to BVH.setBounds
+    */
+   void visit(int primitive);
+}
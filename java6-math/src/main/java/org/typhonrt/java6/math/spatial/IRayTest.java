@@ -0,0 +1,23 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.math.spatial;
+
+/**
+ * IRayTest -- Exact ray / primitive intersection used by BVH.raycast once the ray reaches the bounds of a primitive.
+ */
+public interface IRayTest
+{
+   /**
+    * Intersects the ray of the current raycast with the primitive.
+    *
+    * @param primitive   index of the primitive as passed to BVH.setBounds
+    * @param maxDistance distance of the closest hit found so far; hits beyond it can be ignored
+    * @return distance along the ray of the hit or a value greater than or equal to maxDistance for no hit
+    */
+   float intersect(int primitive, float maxDistance);
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.math.vertex;
+
+/**
+ * CompressionReport -- Per attribute error of a vertex stream encoded by VertexCompressor, measured by comparing the
+ * decoded stream with the source. Attributes that are not part of the layout report zero.
+ *
+ * @author  Michael Leahy
+ */
+public class CompressionReport
+{
+   /**
+    * Number of vertices measured.
+    */
+   public int vertexCount;
+
+   /**
+    * Largest absolute error of any position component, in model units.
+    */
+   public float positionMaxError;
+
+   /**
+    * Root mean square distance between source and decoded positions, in model units.
+    */
+   public float positionRMSError;
+
+   /**
+    * Largest angle between a normalized source normal and its decoded normal, in radians.
+    */
+   public float normalMaxAngle;
+
+   /**
+    * Mean angle between normalized source normals and their decoded normals, in radians.
+    */
+   public float normalMeanAngle;
+
+   /**
+    * Largest angle between a normalized source tangent and its decoded tangent, in radians.
+    */
+   public float tangentMaxAngle;
+
+   /**
+    * Mean angle between normalized source tangents and their decoded tangents, in radians.
+    */
+   public float tangentMeanAngle;
+
+   /**
+    * Number of tangents whose decoded bitangent sign differs from the source.
+    */
+   public int tangentSignErrors;
+
+   /**
+    * Largest absolute error of any UV component.
+    */
+   public float uvMaxError;
+
+   /**
+    * Root mean square distance between source and decoded UVs.
+    */
+   public float uvRMSError;
+
+   /**
+    * Resets all values to zero.
+    */
+   public final void reset()
+   {
+      vertexCount = 0;
+      positionMaxError = 0.0f;
+      positionRMSError = 0.0f;
+      normalMaxAngle = 0.0f;
+      normalMeanAngle = 0.0f;
+      tangentMaxAngle = 0.0f;
+      tangentMeanAngle = 0.0f;
+      tangentSignErrors = 0;
+      uvMaxError = 0.0f;
+      uvRMSError = 0.0f;
+   }
+
+   public String toString()
+   {
+      return "CompressionReport[vertices: " + vertexCount +
+       ", position max: " + positionMaxError + ", position rms: " + positionRMSError +
+       ", normal max deg: " + Math.toDegrees(normalMaxAngle) + ", normal mean deg: " + Math.toDegrees(normalMeanAngle) +
+       ", tangent max deg: " + Math.toDegrees(tangentMaxAngle) + ", tangent mean deg: " +
+       Math.toDegrees(tangentMeanAngle) + ", tangent sign errors: " + tangentSignErrors +
+       ", uv max: " + uvMaxError + ", uv rms: " + uvRMSError + "]";
+   }
+}
@@ -0,0 +1,430 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.math.vertex;
+
+import org.typhonrt.java6.vecmath.Matrix4f;
+import org.typhonrt.java6.vecmath.Tuple3f;
+import org.typhonrt.java6.vecmath.Tuple4f;
+
+import java.nio.ByteBuffer;
+
+/**
+ * VertexCompression -- Encoders and decoders for compressed vertex attributes.
+ *
+ * Positions are quantized to three normalized unsigned shorts over their bounding box (GL_UNSIGNED_SHORT, normalized)
+ * and restored by a dequantization matrix that maps the unit cube back onto the bounds; multiply it into the model
+ * matrix. Normals are octahedral encoded into two normalized shorts (GL_SHORT, normalized). Tangents with the
+ * bitangent sign in w are packed into GL_INT_2_10_10_10_REV (normalized). UVs are quantized to two normalized unsigned
+ * shorts over their bounds and restored with a scale / offset pair passed to the shader.
+ *
+ * Bulk methods read float arrays with an offset and stride in floats and address ByteBuffers with absolute byte
+ * offsets and strides using the byte order of the buffer, which must be ByteOrder.nativeOrder() for data passed to
+ * OpenGL. The decoders reproduce what the GPU computes and exist to measure the error of an encoding.
+ */
+public final class VertexCompression
+{
+   /**
+    * Bytes per encoded position; three shorts padded with a fourth to keep following attributes 4 byte aligned.
+    */
+   public static final int s_POSITION_SIZE_BYTES = 8;
+
+   /**
+    * Bytes per encoded normal.
+    */
+   public static final int s_NORMAL_SIZE_BYTES = 4;
+
+   /**
+    * Bytes per encoded tangent.
+    */
+   public static final int s_TANGENT_SIZE_BYTES = 4;
+
+   /**
+    * Bytes per encoded UV.
+    */
+   public static final int s_UV_SIZE_BYTES = 4;
+
+   private static final float s_UNORM16_MAX = 65535.0f;
+   private static final float s_SNORM16_MAX = 32767.0f;
+   private static final float s_SNORM10_MAX = 511.0f;
+
+   private VertexCompression()
+   {
+   }
+
+   /**
+    * Quantizes positions to normalized unsigned shorts over their bounding box and stores the matrix that maps the
+    * normalized values back to the original positions. Axes along which all positions are equal keep their value
+    * exactly. The fourth short is 65535, so a position bound as four normalized components has w = 1 and
+    * dequantize * position keeps the translation of the matrix.
+    *
+    * @param src        source floats
+    * @param srcOffset  index of the x component of the first position
+    * @param srcStride  distance in floats between consecutive positions
+    * @param dst        destination buffer
+    * @param dstOffset  byte offset of the first encoded position
+    * @param dstStride  distance in bytes between consecutive encoded positions
+    * @param count      number of positions
+    * @param dequantize receives the dequantization matrix
+    */
+   public static void encodePositions(float[] src, int srcOffset, int srcStride, ByteBuffer dst, int dstOffset,
+    int dstStride, int count, Matrix4f dequantize)
+   {
+      float minX = Float.POSITIVE_INFINITY;
+      float minY = Float.POSITIVE_INFINITY;
+      float minZ = Float.POSITIVE_INFINITY;
+      float maxX = Float.NEGATIVE_INFINITY;
+      float maxY = Float.NEGATIVE_INFINITY;
+      float maxZ = Float.NEGATIVE_INFINITY;
+
+      for (int cntr = 0, s = srcOffset; cntr < count; cntr++, s += srcStride)
+      {
+         minX = Math.min(minX, src[s]);
+         minY = Math.min(minY, src[s + 1]);
+         minZ = Math.min(minZ, src[s + 2]);
+         maxX = Math.max(maxX, src[s]);
+         maxY = Math.max(maxY, src[s + 1]);
+         maxZ = Math.max(maxZ, src[s + 2]);
+      }
+
+      if (count == 0)
+      {
+         minX = minY = minZ = maxX = maxY = maxZ = 0.0f;
+      }
+
+      float extentX = maxX - minX;
+      float extentY = maxY - minY;
+      float extentZ = maxZ - minZ;
+
+      float scaleX = extentX > 0.0f ? s_UNORM16_MAX / extentX : 0.0f;
+      float scaleY = extentY > 0.0f ? s_UNORM16_MAX / extentY : 0.0f;
+      float scaleZ = extentZ > 0.0f ? s_UNORM16_MAX / extentZ : 0.0f;
+
+      for (int cntr = 0, s = srcOffset, d = dstOffset; cntr < count; cntr++, s += srcStride, d += dstStride)
+      {
+         dst.putShort(d, quantize((src[s] - minX) * scaleX));
+         dst.putShort(d + 2, quantize((src[s + 1] - minY) * scaleY));
+         dst.putShort(d + 4, quantize((src[s + 2] - minZ) * scaleZ));
+         dst.putShort(d + 6, (short)0xffff);
+      }
+
+      dequantize.setIdentity();
+      dequantize.m00 = extentX;
+      dequantize.m11 = extentY;
+      dequantize.m22 = extentZ;
+      dequantize.m03 = minX;
+      dequantize.m13 = minY;
+      dequantize.m23 = minZ;
+      dequantize.markDirty();
+   }
+
+   /**
+    * Decodes positions written by encodePositions the way the GPU does.
+    *
+    * @param src        source buffer
+    * @param srcOffset  byte offset of the first encoded position
+    * @param srcStride  distance in bytes between consecutive encoded positions
+    * @param dequantize dequantization matrix returned by encodePositions
+    * @param dst        destination floats
+    * @param dstOffset  index of the x component of the first position
+    * @param dstStride  distance in floats between consecutive positions
+    * @param count      number of positions
+    */
+   public static void decodePositions(ByteBuffer src, int srcOffset, int srcStride, Matrix4f dequantize, float[] dst,
+    int dstOffset, int dstStride, int count)
+   {
+      for (int cntr = 0, s = srcOffset, d = dstOffset; cntr < count; cntr++, s += srcStride, d += dstStride)
+      {
+         float x = (src.getShort(s) & 0xffff) / s_UNORM16_MAX;
+         float y = (src.getShort(s + 2) & 0xffff) / s_UNORM16_MAX;
+         float z = (src.getShort(s + 4) & 0xffff) / s_UNORM16_MAX;
+
+         dst[d] = dequantize.m00 * x + dequantize.m01 * y + dequantize.m02 * z + dequantize.m03;
+         dst[d + 1] = dequantize.m10 * x + dequantize.m11 * y + dequantize.m12 * z + dequantize.m13;
+         dst[d + 2] = dequantize.m20 * x + dequantize.m21 * y + dequantize.m22 * z + dequantize.m23;
+      }
+   }
+
+   /**
+    * Octahedral encodes a unit vector into two normalized shorts; a zero vector encodes as +z.
+    *
+    * @param x x component
+    * @param y y component
+    * @param z z component
+    * @return the first short in the low and the second short in the high 16 bits
+    */
+   public static int encodeOctahedral(float x, float y, float z)
+   {
+      float sum = Math.abs(x) + Math.abs(y) + Math.abs(z);
+
+      if (sum == 0.0f)
+      {
+         return 0;
+      }
+
+      float u = x / sum;
+      float v = y / sum;
+
+      // Fold the lower hemisphere over the diagonals of the octahedron.
+      if (z < 0.0f)
+      {
+         float fu = (1.0f - Math.abs(v)) * (u >= 0.0f ? 1.0f : -1.0f);
+         float fv = (1.0f - Math.abs(u)) * (v >= 0.0f ? 1.0f : -1.0f);
+
+         u = fu;
+         v = fv;
+      }
+
+      int su = Math.round(u * s_SNORM16_MAX);
+      int sv = Math.round(v * s_SNORM16_MAX);
+
+      return (su & 0xffff) | (sv << 16);
+   }
+
+   /**
+    * Decodes a unit vector encoded by encodeOctahedral.
+    *
+    * @param packed the encoded vector
+    * @param result receives the unit vector
+    */
+   public static void decodeOctahedral(int packed, Tuple3f result)
+   {
+      float u = Math.max((short)packed / s_SNORM16_MAX, -1.0f);
+      float v = Math.max((packed >> 16) / s_SNORM16_MAX, -1.0f);
+      float z = 1.0f - Math.abs(u) - Math.abs(v);
+
+      if (z < 0.0f)
+      {
+         float fu = (1.0f - Math.abs(v)) * (u >= 0.0f ? 1.0f : -1.0f);
+         float fv = (1.0f - Math.abs(u)) * (v >= 0.0f ? 1.0f : -1.0f);
+
+         u = fu;
+         v = fv;
+      }
+
+      float n = 1.0f / (float)Math.sqrt(u * u + v * v + z * z);
+
+      result.x = u * n;
+      result.y = v * n;
+      result.z = z * n;
+   }
+
+   /**
+    * Octahedral encodes normals into two normalized shorts each.
+    *
+    * @param src       source floats
+    * @param srcOffset index of the x component of the first normal
+    * @param srcStride distance in floats between consecutive normals
+    * @param dst       destination buffer
+    * @param dstOffset byte offset of the first encoded normal
+    * @param dstStride distance in bytes between consecutive encoded normals
+    * @param count     number of normals
+    */
+   public static void encodeNormals(float[] src, int srcOffset, int srcStride, ByteBuffer dst, int dstOffset,
+    int dstStride, int count)
+   {
+      for (int cntr = 0, s = srcOffset, d = dstOffset; cntr < count; cntr++, s += srcStride, d += dstStride)
+      {
+         int packed = encodeOctahedral(src[s], src[s + 1], src[s + 2]);
+
+         dst.putShort(d, (short)packed);
+         dst.putShort(d + 2, (short)(packed >> 16));
+      }
+   }
+
+   /**
+    * Decodes normals written by encodeNormals.
+    *
+    * @param src       source buffer
+    * @param srcOffset byte offset of the first encoded normal
+    * @param srcStride distance in bytes between consecutive encoded normals
+    * @param dst       destination floats
+    * @param dstOffset index of the x component of the first normal
+    * @param dstStride distance in floats between consecutive normals
+    * @param count     number of normals
+    * @param temp      temporary used for decoding
+    */
+   public static void decodeNormals(ByteBuffer src, int srcOffset, int srcStride, float[] dst, int dstOffset,
+    int dstStride, int count, Tuple3f temp)
+   {
+      for (int cntr = 0, s = srcOffset, d = dstOffset; cntr < count; cntr++, s += srcStride, d += dstStride)
+      {
+         decodeOctahedral((src.getShort(s) & 0xffff) | (src.getShort(s + 2) << 16), temp);
+
+         dst[d] = temp.x;
+         dst[d + 1] = temp.y;
+         dst[d + 2] = temp.z;
+      }
+   }
+
+   /**
+    * Packs a vector into GL_INT_2_10_10_10_REV with x, y and z as normalized 10 bit and w as normalized 2 bit signed
+    * integers; components are clamped to [-1, 1].
+    *
+    * @param x x component, in bits 0 - 9
+    * @param y y component, in bits 10 - 19
+    * @param z z component, in bits 20 - 29
+    * @param w w component, in bits 30 - 31; only -1, 0 and 1 are representable
+    * @return the packed value
+    */
+   public static int packInt2101010Rev(float x, float y, float z, float w)
+   {
+      int ix = Math.round(Math.max(-1.0f, Math.min(1.0f, x)) * s_SNORM10_MAX);
+      int iy = Math.round(Math.max(-1.0f, Math.min(1.0f, y)) * s_SNORM10_MAX);
+      int iz = Math.round(Math.max(-1.0f, Math.min(1.0f, z)) * s_SNORM10_MAX);
+      int iw = Math.round(Math.max(-1.0f, Math.min(1.0f, w)));
+
+      return (ix & 0x3ff) | ((iy & 0x3ff) << 10) | ((iz & 0x3ff) << 20) | (iw << 30);
+   }
+
+   /**
+    * Unpacks a normalized GL_INT_2_10_10_10_REV value the way the GPU does.
+    *
+    * @param packed the packed value
+    * @param result receives the components
+    */
+   public static void unpackInt2101010Rev(int packed, Tuple4f result)
+   {
+      result.x = Math.max(((packed << 22) >> 22) / s_SNORM10_MAX, -1.0f);
+      result.y = Math.max(((packed << 12) >> 22) / s_SNORM10_MAX, -1.0f);
+      result.z = Math.max(((packed << 2) >> 22) / s_SNORM10_MAX, -1.0f);
+      result.w = Math.max(packed >> 30, -1);
+   }
+
+   /**
+    * Packs tangents given as x, y, z and the bitangent sign w into GL_INT_2_10_10_10_REV; the sign is stored as -1 for
+    * negative w and 1 otherwise.
+    *
+    * @param src       source floats
+    * @param srcOffset index of the x component of the first tangent
+    * @param srcStride distance in floats between consecutive tangents
+    * @param dst       destination buffer
+    * @param dstOffset byte offset of the first encoded tangent
+    * @param dstStride distance in bytes between consecutive encoded tangents
+    * @param count     number of tangents
+    */
+   public static void encodeTangents(float[] src, int srcOffset, int srcStride, ByteBuffer dst, int dstOffset,
+    int dstStride, int count)
+   {
+      for (int cntr = 0, s = srcOffset, d = dstOffset; cntr < count; cntr++, s += srcStride, d += dstStride)
+      {
+         dst.putInt(d, packInt2101010Rev(src[s], src[s + 1], src[s + 2], src[s + 3] < 0.0f ? -1.0f : 1.0f));
+      }
+   }
+
+   /**
+    * Decodes tangents written by encodeTangents.
+    *
+    * @param src       source buffer
+    * @param srcOffset byte offset of the first encoded tangent
+    * @param srcStride distance in bytes between consecutive encoded tangents
+    * @param dst       destination floats
+    * @param dstOffset index of the x component of the first tangent
+    * @param dstStride distance in floats between consecutive tangents
+    * @param count     number of tangents
+    * @param temp      temporary used for decoding
+    */
+   public static void decodeTangents(ByteBuffer src, int srcOffset, int srcStride, float[] dst, int dstOffset,
+    int dstStride, int count, Tuple4f temp)
+   {
+      for (int cntr = 0, s = srcOffset, d = dstOffset; cntr < count; cntr++, s += srcStride, d += dstStride)
+      {
+         unpackInt2101010Rev(src.getInt(s), temp);
+
+         dst[d] = temp.x;
+         dst[d + 1] = temp.y;
+         dst[d + 2] = temp.z;
+         dst[d + 3] = temp.w;
+      }
+   }
+
+   /**
+    * Quantizes UVs to normalized unsigned shorts over their bounds and stores the scale and offset that restore them,
+    * uv = encoded * scale + offset, as scaleU, scaleV, offsetU, offsetV.
+    *
+    * @param src             source floats
+    * @param srcOffset       index of the u component of the first UV
+    * @param srcStride       distance in floats between consecutive UVs
+    * @param dst             destination buffer
+    * @param dstOffset       byte offset of the first encoded UV
+    * @param dstStride       distance in bytes between consecutive encoded UVs
+    * @param count           number of UVs
+    * @param transform       receives the scale and offset
+    * @param transformOffset index of scaleU in transform
+    */
+   public static void encodeUVs(float[] src, int srcOffset, int srcStride, ByteBuffer dst, int dstOffset,
+    int dstStride, int count, float[] transform, int transformOffset)
+   {
+      float minU = Float.POSITIVE_INFINITY;
+      float minV = Float.POSITIVE_INFINITY;
+      float maxU = Float.NEGATIVE_INFINITY;
+      float maxV = Float.NEGATIVE_INFINITY;
+
+      for (int cntr = 0, s = srcOffset; cntr < count; cntr++, s += srcStride)
+      {
+         minU = Math.min(minU, src[s]);
+         minV = Math.min(minV, src[s + 1]);
+         maxU = Math.max(maxU, src[s]);
+         maxV = Math.max(maxV, src[s + 1]);
+      }
+
+      if (count == 0)
+      {
+         minU = minV = maxU = maxV = 0.0f;
+      }
+
+      float extentU = maxU - minU;
+      float extentV = maxV - minV;
+
+      float scaleU = extentU > 0.0f ? s_UNORM16_MAX / extentU : 0.0f;
+      float scaleV = extentV > 0.0f ? s_UNORM16_MAX / extentV : 0.0f;
+
+      for (int cntr = 0, s = srcOffset, d = dstOffset; cntr < count; cntr++, s += srcStride, d += dstStride)
+      {
+         dst.putShort(d, quantize((src[s] - minU) * scaleU));
+         dst.putShort(d + 2, quantize((src[s + 1] - minV) * scaleV));
+      }
+
+      transform[transformOffset] = extentU;
+      transform[transformOffset + 1] = extentV;
+      transform[transformOffset + 2] = minU;
+      transform[transformOffset + 3] = minV;
+   }
+
+   /**
+    * Decodes UVs written by encodeUVs.
+    *
+    * @param src             source buffer
+    * @param srcOffset       byte offset of the first encoded UV
+    * @param srcStride       distance in bytes between consecutive encoded UVs
+    * @param transform       scale and offset returned by encodeUVs
+    * @param transformOffset index of scaleU in transform
+    * @param dst             destination floats
+    * @param dstOffset       index of the u component of the first UV
+    * @param dstStride       distance in floats between consecutive UVs
+    * @param count           number of UVs
+    */
+   public static void decodeUVs(ByteBuffer src, int srcOffset, int srcStride, float[] transform, int transformOffset,
+    float[] dst, int dstOffset, int dstStride, int count)
+   {
+      float scaleU = transform[transformOffset];
+      float scaleV = transform[transformOffset + 1];
+      float offsetU = transform[transformOffset + 2];
+      float offsetV = transform[transformOffset + 3];
+
+      for (int cntr = 0, s = srcOffset, d = dstOffset; cntr < count; cntr++, s += srcStride, d += dstStride)
+      {
+         dst[d] = (src.getShort(s) & 0xffff) / s_UNORM16_MAX * scaleU + offsetU;
+         dst[d + 1] = (src.getShort(s + 2) & 0xffff) / s_UNORM16_MAX * scaleV + offsetV;
+      }
+   }
+
+   private static short quantize(float value)
+   {
+      return (short)Math.max(0, Math.min(65535, Math.round(value)));
+   }
+}
@@ -0,0 +1,336 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.math.vertex;
+
+import org.typhonrt.java6.vecmath.Matrix4f;
+import org.typhonrt.java6.vecmath.Vector3f;
+import org.typhonrt.java6.vecmath.Vector4f;
+
+import java.nio.ByteBuffer;
+
+/**
+ * VertexCompressor -- Converts an interleaved float vertex stream into an interleaved compressed stream.
+ *
+ * The source layout is given by its stride and the float offsets of the position (x, y, z), normal (x, y, z), tangent
+ * (x, y, z, bitangent sign) and UV (u, v) within a vertex, where -1 marks an absent attribute; for instance the x, y,
+ * z, u, v layout of GLBufferUtil.createQuadVertexUVBuffer is (5, 0, -1, -1, 3). The compressed vertex stores the
+ * present attributes in that order using the encodings of VertexCompression, each at a 4 byte aligned offset:
+ *
+ * <pre>
+ * position  GL_UNSIGNED_SHORT x 3, normalized   8 bytes (padded with w = 1)
+ * normal    GL_SHORT x 2, normalized            4 bytes (octahedral, decode in the vertex shader)
+ * tangent   GL_INT_2_10_10_10_REV, normalized   4 bytes
+ * uv        GL_UNSIGNED_SHORT x 2, normalized   4 bytes
+ * </pre>
+ *
+ * so a vertex with all four attributes shrinks from 48 to 20 bytes. After encode the dequantization matrix for the
+ * positions and the scale / offset for the UVs of the last encoded stream are available. decode and measure restore
+ * the source layout and report the error introduced per attribute.
+ *
+ * @author  Michael Leahy
+ */
+public class VertexCompressor
+{
+   private final int srcStride;
+
+   private final int srcPositionOffset;
+   private final int srcNormalOffset;
+   private final int srcTangentOffset;
+   private final int srcUVOffset;
+
+   private final int stride;
+
+   private final int positionOffset;
+   private final int normalOffset;
+   private final int tangentOffset;
+   private final int uvOffset;
+
+   private final Matrix4f dequantize = new Matrix4f();
+   private final float[] uvTransform = new float[4];
+
+   private final Vector3f tempNormal = new Vector3f();
+   private final Vector4f tempTangent = new Vector4f();
+
+   /**
+    * Creates a compressor for the given source layout.
+    *
+    * @param srcStride         floats per source vertex
+    * @param srcPositionOffset float offset of the position or -1
+    * @param srcNormalOffset   float offset of the normal or -1
+    * @param srcTangentOffset  float offset of the tangent or -1
+    * @param srcUVOffset       float offset of the UV or -1
+    */
+   public VertexCompressor(int srcStride, int srcPositionOffset, int srcNormalOffset, int srcTangentOffset,
+    int srcUVOffset)
+   {
+      this.srcStride = srcStride;
+      this.srcPositionOffset = srcPositionOffset;
+      this.srcNormalOffset = srcNormalOffset;
+      this.srcTangentOffset = srcTangentOffset;
+      this.srcUVOffset = srcUVOffset;
+
+      int offset = 0;
+
+      positionOffset = srcPositionOffset >= 0 ? offset : -1;
+      offset += srcPositionOffset >= 0 ? VertexCompression.s_POSITION_SIZE_BYTES : 0;
+
+      normalOffset = srcNormalOffset >= 0 ? offset : -1;
+      offset += srcNormalOffset >= 0 ? VertexCompression.s_NORMAL_SIZE_BYTES : 0;
+
+      tangentOffset = srcTangentOffset >= 0 ? offset : -1;
+      offset += srcTangentOffset >= 0 ? VertexCompression.s_TANGENT_SIZE_BYTES : 0;
+
+      uvOffset = srcUVOffset >= 0 ? offset : -1;
+      offset += srcUVOffset >= 0 ? VertexCompression.s_UV_SIZE_BYTES : 0;
+
+      stride = offset;
+
+      dequantize.setIdentity();
+   }
+
+   /**
+    * @return bytes per compressed vertex
+    */
+   public final int getStride()
+   {
+      return stride;
+   }
+
+   /**
+    * @return byte offset of the position in a compressed vertex or -1
+    */
+   public final int getPositionOffset()
+   {
+      return positionOffset;
+   }
+
+   /**
+    * @return byte offset of the normal in a compressed vertex or -1
+    */
+   public final int getNormalOffset()
+   {
+      return normalOffset;
+   }
+
+   /**
+    * @return byte offset of the tangent in a compressed vertex or -1
+    */
+   public final int getTangentOffset()
+   {
+      return tangentOffset;
+   }
+
+   /**
+    * @return byte offset of the UV in a compressed vertex or -1
+    */
+   public final int getUVOffset()
+   {
+      return uvOffset;
+   }
+
+   /**
+    * Gets the dequantization matrix of the positions of the last encoded stream; multiply it into the model matrix.
+    *
+    * @param result receives the matrix
+    */
+   public final void getDequantizeMatrix(Matrix4f result)
+   {
+      result.set(dequantize);
+   }
+
+   /**
+    * Gets the UV scale and offset of the last encoded stream as scaleU, scaleV, offsetU, offsetV; the shader computes
+    * uv = encoded * scale + offset.
+    *
+    * @param result receives the four values
+    * @param offset index of scaleU in result
+    */
+   public final void getUVTransform(float[] result, int offset)
+   {
+      System.arraycopy(uvTransform, 0, result, offset, 4);
+   }
+
+   /**
+    * Encodes vertices from the source layout into the compressed layout.
+    *
+    * @param src       source floats
+    * @param srcOffset index of the first float of the first vertex
+    * @param count     number of vertices
+    * @param dst       destination buffer in ByteOrder.nativeOrder()
+    * @param dstOffset byte offset of the first compressed vertex
+    */
+   public final void encode(float[] src, int srcOffset, int count, ByteBuffer dst, int dstOffset)
+   {
+      if (positionOffset >= 0)
+      {
+         VertexCompression.encodePositions(src, srcOffset + srcPositionOffset, srcStride, dst,
+          dstOffset + positionOffset, stride, count, dequantize);
+      }
+
+      if (normalOffset >= 0)
+      {
+         VertexCompression.encodeNormals(src, srcOffset + srcNormalOffset, srcStride, dst, dstOffset + normalOffset,
+          stride, count);
+      }
+
+      if (tangentOffset >= 0)
+      {
+         VertexCompression.encodeTangents(src, srcOffset + srcTangentOffset, srcStride, dst,
+          dstOffset + tangentOffset, stride, count);
+      }
+
+      if (uvOffset >= 0)
+      {
+         VertexCompression.encodeUVs(src, srcOffset + srcUVOffset, srcStride, dst, dstOffset + uvOffset, stride,
+          count, uvTransform, 0);
+      }
+   }
+
+   /**
+    * Decodes compressed vertices of the last encoded stream back into the source layout; floats of the source layout
+    * that belong to no attribute are not written.
+    *
+    * @param src       source buffer
+    * @param srcOffset byte offset of the first compressed vertex
+    * @param count     number of vertices
+    * @param dst       destination floats
+    * @param dstOffset index of the first float of the first vertex
+    */
+   public final void decode(ByteBuffer src, int srcOffset, int count, float[] dst, int dstOffset)
+   {
+      if (positionOffset >= 0)
+      {
+         VertexCompression.decodePositions(src, srcOffset + positionOffset, stride, dequantize, dst,
+          dstOffset + srcPositionOffset, srcStride, count);
+      }
+
+      if (normalOffset >= 0)
+      {
+         VertexCompression.decodeNormals(src, srcOffset + normalOffset, stride, dst, dstOffset + srcNormalOffset,
+          srcStride, count, tempNormal);
+      }
+
+      if (tangentOffset >= 0)
+      {
+         VertexCompression.decodeTangents(src, srcOffset + tangentOffset, stride, dst, dstOffset + srcTangentOffset,
+          srcStride, count, tempTangent);
+      }
+
+      if (uvOffset >= 0)
+      {
+         VertexCompression.decodeUVs(src, srcOffset + uvOffset, stride, uvTransform, 0, dst, dstOffset + srcUVOffset,
+          srcStride, count);
+      }
+   }
+
+   /**
+    * Decodes the compressed vertices of the last encoded stream and compares them with the source vertices. Allocates
+    * a temporary array for the decoded vertices; meant for tools and tests.
+    *
+    * @param src           source floats that were encoded
+    * @param srcOffset     index of the first float of the first source vertex
+    * @param count         number of vertices
+    * @param encoded       buffer holding the compressed vertices
+    * @param encodedOffset byte offset of the first compressed vertex
+    * @param report        receives the error per attribute
+    */
+   public final void measure(float[] src, int srcOffset, int count, ByteBuffer encoded, int encodedOffset,
+    CompressionReport report)
+   {
+      float[] decoded = new float[count * srcStride];
+
+      decode(encoded, encodedOffset, count, decoded, 0);
+
+      report.reset();
+      report.vertexCount = count;
+
+      if (count == 0)
+      {
+         return;
+      }
+
+      double positionSum = 0.0;
+      double normalSum = 0.0;
+      double tangentSum = 0.0;
+      double uvSum = 0.0;
+
+      for (int cntr = 0; cntr < count; cntr++)
+      {
+         int s = srcOffset + cntr * srcStride;
+         int d = cntr * srcStride;
+
+         if (positionOffset >= 0)
+         {
+            float dx = decoded[d + srcPositionOffset] - src[s + srcPositionOffset];
+            float dy = decoded[d + srcPositionOffset + 1] - src[s + srcPositionOffset + 1];
+            float dz = decoded[d + srcPositionOffset + 2] - src[s + srcPositionOffset + 2];
+
+            report.positionMaxError = Math.max(report.positionMaxError,
+             Math.max(Math.abs(dx), Math.max(Math.abs(dy), Math.abs(dz))));
+
+            positionSum += dx * dx + dy * dy + dz * dz;
+         }
+
+         if (normalOffset >= 0)
+         {
+            float angle = angle(src, s + srcNormalOffset, decoded, d + srcNormalOffset);
+
+            report.normalMaxAngle = Math.max(report.normalMaxAngle, angle);
+            normalSum += angle;
+         }
+
+         if (tangentOffset >= 0)
+         {
+            float angle = angle(src, s + srcTangentOffset, decoded, d + srcTangentOffset);
+
+            report.tangentMaxAngle = Math.max(report.tangentMaxAngle, angle);
+            tangentSum += angle;
+
+            if ((src[s + srcTangentOffset + 3] < 0.0f) != (decoded[d + srcTangentOffset + 3] < 0.0f))
+            {
+               report.tangentSignErrors++;
+            }
+         }
+
+         if (uvOffset >= 0)
+         {
+            float du = decoded[d + srcUVOffset] - src[s + srcUVOffset];
+            float dv = decoded[d + srcUVOffset + 1] - src[s + srcUVOffset + 1];
+
+            report.uvMaxError = Math.max(report.uvMaxError, Math.max(Math.abs(du), Math.abs(dv)));
+
+            uvSum += du * du + dv * dv;
+         }
+      }
+
+      report.positionRMSError = (float)Math.sqrt(positionSum / count);
+      report.normalMeanAngle = (float)(normalSum / count);
+      report.tangentMeanAngle = (float)(tangentSum / count);
+      report.uvRMSError = (float)Math.sqrt(uvSum / count);
+   }
+
+   /**
+    * Angle between two 3 component vectors, in radians; atan2 of the cross and dot products stays accurate for
+    * nearly parallel vectors where acos does not.
+    */
+   private static float angle(float[] a, int aOffset, float[] b, int bOffset)
+   {
+      double ax = a[aOffset];
+      double ay = a[aOffset + 1];
+      double az = a[aOffset + 2];
+      double bx = b[bOffset];
+      double by = b[bOffset + 1];
+      double bz = b[bOffset + 2];
+
+      double cx = ay * bz - az * by;
+      double cy = az * bx - ax * bz;
+      double cz = ax * by - ay * bx;
+
+      return (float)Math.atan2(Math.sqrt(cx * cx + cy * cy + cz * cz), ax * bx + ay * by + az * bz);
+   }
+}
@@ -0,0 +1,483 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.vecmath;
+
+/**
+ * A unit dual quaternion representing a rigid transform, a rotation followed by a translation, as a real and a dual
+ * Quat4f part.
+ *
+ * Dual quaternions hold a rigid transform in 8 floats instead of the 12 or 16 of a matrix and blend without the volume
+ * loss of linear blend skinning. The static pack and toPalette methods convert bone matrices into palettes of 8 floats
+ * per bone, real x, y, z, w followed by dual x, y, z, w, which fit twice as many bones per uniform block as mat4.
+ * Matrices must be rigid: scale and shear cannot be represented and produce a wrong rotation.
+ *
+ * When blending palette entries in a shader, negate the entries whose real part has a negative dot product with the
+ * real part of the first influence so that all of them lie in the same hemisphere.
+ *
+ * @author  Michael Leahy
+ */
+public class DualQuat4f
+{
+   /**
+    * The rotation.
+    */
+   public final Quat4f real;
+
+   /**
+    * Half the translation multiplied by the rotation.
+    */
+   public final Quat4f dual;
+
+   /**
+    * Constructs and initializes a DualQuat4f to the identity transform.
+    */
+   public DualQuat4f()
+   {
+      real = new Quat4f(0.0f, 0.0f, 0.0f, 1.0f);
+      dual = new Quat4f(0.0f, 0.0f, 0.0f, 0.0f);
+   }
+
+   /**
+    * Constructs and initializes a DualQuat4f from the specified DualQuat4f.
+    *
+    * @param dq1 the DualQuat4f containing the initialization data
+    */
+   public DualQuat4f(DualQuat4f dq1)
+   {
+      real = new Quat4f(dq1.real);
+      dual = new Quat4f(dq1.dual);
+   }
+
+   /**
+    * Constructs and initializes a DualQuat4f from a rotation and a translation.
+    *
+    * @param rotation    a unit quaternion
+    * @param translation the translation applied after the rotation
+    */
+   public DualQuat4f(Quat4f rotation, Vector3f translation)
+   {
+      this();
+      set(rotation, translation);
+   }
+
+   /**
+    * Sets this dual quaternion to the identity transform.
+    */
+   public final void setIdentity()
+   {
+      real.set(0.0f, 0.0f, 0.0f, 1.0f);
+      dual.set(0.0f, 0.0f, 0.0f, 0.0f);
+   }
+
+   /**
+    * Sets the value of this dual quaternion to the value of dq1.
+    *
+    * @param dq1 the source dual quaternion
+    */
+   public final void set(DualQuat4f dq1)
+   {
+      real.set(dq1.real);
+      dual.set(dq1.dual);
+   }
+
+   /**
+    * Sets the value of this dual quaternion to a rotation followed by a translation.
+    *
+    * @param rotation    a unit quaternion
+    * @param translation the translation
+    */
+   public final void set(Quat4f rotation, Vector3f translation)
+   {
+      real.set(rotation);
+      setTranslation(translation.x, translation.y, translation.z);
+   }
+
+   /**
+    * Sets the value of this dual quaternion to the rigid transform of the passed matrix; the rotation is normalized.
+    *
+    * @param m1 a rigid transform
+    */
+   public final void set(Matrix4f m1)
+   {
+      real.set(m1);
+      real.normalize();
+
+      setTranslation(m1.m03, m1.m13, m1.m23);
+   }
+
+   /**
+    * Sets the value of this dual quaternion from 8 packed floats, real x, y, z, w followed by dual x, y, z, w.
+    *
+    * @param src    the source array
+    * @param offset index of the real x component
+    */
+   public final void set(float[] src, int offset)
+   {
+      real.set(src[offset], src[offset + 1], src[offset + 2], src[offset + 3]);
+      dual.set(src[offset + 4], src[offset + 5], src[offset + 6], src[offset + 7]);
+   }
+
+   /**
+    * Stores the value of this dual quaternion as 8 packed floats, real x, y, z, w followed by dual x, y, z, w.
+    *
+    * @param dst    the destination array
+    * @param offset index receiving the real x component
+    */
+   public final void get(float[] dst, int offset)
+   {
+      dst[offset] = real.x;
+      dst[offset + 1] = real.y;
+      dst[offset + 2] = real.z;
+      dst[offset + 3] = real.w;
+      dst[offset + 4] = dual.x;
+      dst[offset + 5] = dual.y;
+      dst[offset + 6] = dual.z;
+      dst[offset + 7] = dual.w;
+   }
+
+   /**
+    * Sets the passed matrix to the rigid transform of this unit dual quaternion.
+    *
+    * @param m1 the matrix that receives the transform
+    */
+   public final void get(Matrix4f m1)
+   {
+      m1.set(real);
+
+      m1.m03 = getTranslationX();
+      m1.m13 = getTranslationY();
+      m1.m23 = getTranslationZ();
+      m1.markDirty();
+   }
+
+   /**
+    * Retrieves the rotation of this unit dual quaternion.
+    *
+    * @param rotation the quaternion that receives the rotation
+    */
+   public final void getRotation(Quat4f rotation)
+   {
+      rotation.set(real);
+   }
+
+   /**
+    * Retrieves the translation of this unit dual quaternion.
+    *
+    * @param translation the vector that receives the translation
+    */
+   public final void getTranslation(Tuple3f translation)
+   {
+      translation.x = getTranslationX();
+      translation.y = getTranslationY();
+      translation.z = getTranslationZ();
+   }
+
+   /**
+    * Sets the value of this dual quaternion to the product of dq1 and dq2, the transform that applies dq2 first and
+    * dq1 second (this = dq1 * dq2). Note that this is safe for aliasing (e.g. this can be dq1 or dq2).
+    *
+    * @param dq1 the first dual quaternion
+    * @param dq2 the second dual quaternion
+    */
+   public final void mul(DualQuat4f dq1, DualQuat4f dq2)
+   {
+      Quat4f r1 = dq1.real;
+      Quat4f d1 = dq1.dual;
+      Quat4f r2 = dq2.real;
+      Quat4f d2 = dq2.dual;
+
+      // dual = r1 * d2 + d1 * r2, computed before real is overwritten.
+      float dx = r1.x * d2.w + r1.w * d2.x + r1.y * d2.z - r1.z * d2.y +
+       d1.x * r2.w + d1.w * r2.x + d1.y * r2.z - d1.z * r2.y;
+      float dy = r1.y * d2.w + r1.w * d2.y + r1.z * d2.x - r1.x * d2.z +
+       d1.y * r2.w + d1.w * r2.y + d1.z * r2.x - d1.x * r2.z;
+      float dz = r1.z * d2.w + r1.w * d2.z + r1.x * d2.y - r1.y * d2.x +
+       d1.z * r2.w + d1.w * r2.z + d1.x * r2.y - d1.y * r2.x;
+      float dw = r1.w * d2.w - r1.x * d2.x - r1.y * d2.y - r1.z * d2.z +
+       d1.w * r2.w - d1.x * r2.x - d1.y * r2.y - d1.z * r2.z;
+
+      real.mul(r1, r2);
+      dual.set(dx, dy, dz, dw);
+   }
+
+   /**
+    * Sets the value of this dual quaternion to the product of itself and dq1 (this = this * dq1).
+    *
+    * @param dq1 the other dual quaternion
+    */
+   public final void mul(DualQuat4f dq1)
+   {
+      mul(this, dq1);
+   }
+
+   /**
+    * Sets the value of this dual quaternion to the conjugate of dq1, which is the inverse transform when dq1 is a unit
+    * dual quaternion.
+    *
+    * @param dq1 the source dual quaternion
+    */
+   public final void conjugate(DualQuat4f dq1)
+   {
+      real.conjugate(dq1.real);
+      dual.conjugate(dq1.dual);
+   }
+
+   /**
+    * Conjugates this dual quaternion in place, which inverts a unit dual quaternion.
+    */
+   public final void conjugate()
+   {
+      real.conjugate();
+      dual.conjugate();
+   }
+
+   /**
+    * Normalizes this dual quaternion in place: the real part is scaled to unit length and the dual part is made
+    * orthogonal to it, which restores a rigid transform after blending or accumulated products.
+    */
+   public final void normalize()
+   {
+      float n = (float)Math.sqrt(real.x * real.x + real.y * real.y + real.z * real.z + real.w * real.w);
+
+      // zero-div may occur.
+      n = 1.0f / n;
+
+      real.scale(n);
+      dual.scale(n);
+
+      float d = real.x * dual.x + real.y * dual.y + real.z * dual.z + real.w * dual.w;
+
+      dual.x -= real.x * d;
+      dual.y -= real.y * d;
+      dual.z -= real.z * d;
+      dual.w -= real.w * d;
+   }
+
+   /**
+    * Transforms the point by this unit dual quaternion, rotating then translating it, and places the result back into
+    * point.
+    *
+    * @param point the point to transform
+    */
+   public final void transform(Tuple3f point)
+   {
+      transform(point, point);
+   }
+
+   /**
+    * Transforms the point by this unit dual quaternion, rotating then translating it, and places the result into
+    * result.
+    *
+    * @param point  the point to transform
+    * @param result the point that receives the result; may be point
+    */
+   public final void transform(Tuple3f point, Tuple3f result)
+   {
+      float qx = real.x;
+      float qy = real.y;
+      float qz = real.z;
+      float qw = real.w;
+
+      // v' = v + 2 * q.xyz x (q.xyz x v + w * v)
+      float cx = qy * point.z - qz * point.y + qw * point.x;
+      float cy = qz * point.x - qx * point.z + qw * point.y;
+      float cz = qx * point.y - qy * point.x + qw * point.z;
+
+      float x = point.x + 2.0f * (qy * cz - qz * cy) + getTranslationX();
+      float y = point.y + 2.0f * (qz * cx - qx * cz) + getTranslationY();
+      float z = point.z + 2.0f * (qx * cy - qy * cx) + getTranslationZ();
+
+      result.x = x;
+      result.y = y;
+      result.z = z;
+   }
+
+   /**
+    * Converts a rigid transform given by the upper three rows of a matrix into 8 packed floats, real x, y, z, w
+    * followed by dual x, y, z, w; the rotation is normalized.
+    *
+    * @param m00    row 0, column 0
+    * @param m01    row 0, column 1
+    * @param m02    row 0, column 2
+    * @param m03    row 0, column 3; the x translation
+    * @param m10    row 1, column 0
+    * @param m11    row 1, column 1
+    * @param m12    row 1, column 2
+    * @param m13    row 1, column 3; the y translation
+    * @param m20    row 2, column 0
+    * @param m21    row 2, column 1
+    * @param m22    row 2, column 2
+    * @param m23    row 2, column 3; the z translation
+    * @param dst    the destination array
+    * @param offset index receiving the real x component
+    */
+   public static void pack(float m00, float m01, float m02, float m03, float m10, float m11, float m12, float m13,
+    float m20, float m21, float m22, float m23, float[] dst, int offset)
+   {
+      float x, y, z, w;
+
+      // From Ken Shoemake, like Quat4f.set(Matrix4f).
+      float tr = m00 + m11 + m22;
+
+      if (tr >= 0.0f)
+      {
+         float s = (float)Math.sqrt(tr + 1.0f);
+         w = s * 0.5f;
+         s = 0.5f / s;
+         x = (m21 - m12) * s;
+         y = (m02 - m20) * s;
+         z = (m10 - m01) * s;
+      }
+      else if (m00 >= m11 && m00 >= m22)
+      {
+         float s = (float)Math.sqrt(m00 - (m11 + m22) + 1.0f);
+         x = s * 0.5f;
+         s = 0.5f / s;
+         y = (m01 + m10) * s;
+         z = (m20 + m02) * s;
+         w = (m21 - m12) * s;
+      }
+      else if (m11 >= m22)
+      {
+         float s = (float)Math.sqrt(m11 - (m22 + m00) + 1.0f);
+         y = s * 0.5f;
+         s = 0.5f / s;
+         z = (m12 + m21) * s;
+         x = (m01 + m10) * s;
+         w = (m02 - m20) * s;
+      }
+      else
+      {
+         float s = (float)Math.sqrt(m22 - (m00 + m11) + 1.0f);
+         z = s * 0.5f;
+         s = 0.5f / s;
+         x = (m20 + m02) * s;
+         y = (m12 + m21) * s;
+         w = (m10 - m01) * s;
+      }
+
+      float n = 1.0f / (float)Math.sqrt(x * x + y * y + z * z + w * w);
+
+      x *= n;
+      y *= n;
+      z *= n;
+      w *= n;
+
+      dst[offset] = x;
+      dst[offset + 1] = y;
+      dst[offset + 2] = z;
+      dst[offset + 3] = w;
+
+      // dual = 0.5 * (t, 0) * real
+      dst[offset + 4] = 0.5f * (m03 * w + m13 * z - m23 * y);
+      dst[offset + 5] = 0.5f * (-m03 * z + m13 * w + m23 * x);
+      dst[offset + 6] = 0.5f * (m03 * y - m13 * x + m23 * w);
+      dst[offset + 7] = -0.5f * (m03 * x + m13 * y + m23 * z);
+   }
+
+   /**
+    * Converts rigid bone matrices into a palette of 8 floats per bone.
+    *
+    * @param matrices the bone matrices
+    * @param start    index of the first matrix
+    * @param count    number of matrices
+    * @param palette  the destination array
+    * @param offset   index receiving the first float of the first bone
+    */
+   public static void toPalette(Matrix4f[] matrices, int start, int count, float[] palette, int offset)
+   {
+      for (int cntr = 0; cntr < count; cntr++)
+      {
+         Matrix4f m = matrices[start + cntr];
+
+         pack(m.m00, m.m01, m.m02, m.m03, m.m10, m.m11, m.m12, m.m13, m.m20, m.m21, m.m22, m.m23, palette,
+          offset + cntr * 8);
+      }
+   }
+
+   /**
+    * Converts packed rigid bone matrices into a palette of 8 floats per bone. A stride of 16 reads column-major 4 by 4
+    * matrices and a stride of 12 reads the upper three rows in row-major order, the layouts Pose.computeMatrices
+    * writes.
+    *
+    * @param matrices  the packed matrices
+    * @param srcOffset index of the first float of the first matrix
+    * @param srcStride 16 or 12
+    * @param count     number of matrices
+    * @param palette   the destination array; must not overlap matrices
+    * @param offset    index receiving the first float of the first bone
+    *
+    * @throws IllegalArgumentException if srcStride is neither 16 nor 12
+    */
+   public static void toPalette(float[] matrices, int srcOffset, int srcStride, int count, float[] palette,
+    int offset)
+   {
+      if (srcStride != 16 && srcStride != 12)
+      {
+         throw new IllegalArgumentException("srcStride must be 16 or 12 and is " + srcStride);
+      }
+
+      for (int cntr = 0, s = srcOffset; cntr < count; cntr++, s += srcStride)
+      {
+         if (srcStride == 16)
+         {
+            pack(matrices[s], matrices[s + 4], matrices[s + 8], matrices[s + 12],
+             matrices[s + 1], matrices[s + 5], matrices[s + 9], matrices[s + 13],
+             matrices[s + 2], matrices[s + 6], matrices[s + 10], matrices[s + 14], palette, offset + cntr * 8);
+         }
+         else
+         {
+            pack(matrices[s], matrices[s + 1], matrices[s + 2], matrices[s + 3],
+             matrices[s + 4], matrices[s + 5], matrices[s + 6], matrices[s + 7],
+             matrices[s + 8], matrices[s + 9], matrices[s + 10], matrices[s + 11], palette, offset + cntr * 8);
+         }
+      }
+   }
+
+   /**
+    * Returns a string that contains the values of this DualQuat4f. The form is ((x,y,z,w), (x,y,z,w)).
+    *
+    * @return the String representation
+    */
+   @Override
+   public String toString()
+   {
+      StringBuilder sb = new StringBuilder(VecmathStrings.s_STR_OPEN);
+      sb.append(real).append(", ").append(dual).append(VecmathStrings.s_STR_CLOSE);
+      return sb.toString();
+   }
+
+   private void setTranslation(float tx, float ty, float tz)
+   {
+      float x = real.x;
+      float y = real.y;
+      float z = real.z;
+      float w = real.w;
+
+      dual.x = 0.5f * (tx * w + ty * z - tz * y);
+      dual.y = 0.5f * (-tx * z + ty * w + tz * x);
+      dual.z = 0.5f * (tx * y - ty * x + tz * w);
+      dual.w = -0.5f * (tx * x + ty * y + tz * z);
+   }
+
+   // translation = 2 * dual * conjugate(real)
+   private float getTranslationX()
+   {
+      return 2.0f * (-dual.w * real.x + dual.x * real.w - dual.y * real.z + dual.z * real.y);
+   }
+
+   private float getTranslationY()
+   {
+      return 2.0f * (-dual.w * real.y + dual.x * real.z + dual.y * real.w - dual.z * real.x);
+   }
+
+   private float getTranslationZ()
+   {
+      return 2.0f * (-dual.w * real.z - dual.x * real.y + dual.y * real.x + dual.z * real.w);
+   }
+}
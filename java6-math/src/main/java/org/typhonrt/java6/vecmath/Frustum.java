@@ -0,0 +1,650 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.vecmath;
+
+import org.typhonrt.java6.math.IRangeTask;
+import org.typhonrt.java6.math.ParallelRange;
+
+/**
+ * A view frustum represented by six normalized planes extracted from a view-projection matrix.
+ *
+ * Each plane is stored as (a, b, c, d) with the normal (a, b, c) pointing into the frustum, so a point is inside a
+ * plane when a * x + b * y + c * z + d >= 0 and the value is its distance to the plane.
+ *
+ * Besides single object tests the frustum culls batches of bounds stored as structure of arrays. Results are written
+ * either to a visibility bitset where bit k (word k >> 5, bit k & 31) holds the result for element start + k, or to a
+ * compacted list of the visible element indices. None of the batched methods allocate; the parallel variants dispatch
+ * through a reusable ParallelRange. A Frustum instance must not run batched culls from several threads at once.
+ *
+ * @author  Michael Leahy
+ */
+public class Frustum
+{
+   public static final int s_PLANE_LEFT = 0;
+   public static final int s_PLANE_RIGHT = 1;
+   public static final int s_PLANE_BOTTOM = 2;
+   public static final int s_PLANE_TOP = 3;
+   public static final int s_PLANE_NEAR = 4;
+   public static final int s_PLANE_FAR = 5;
+
+   public static final int s_PLANE_COUNT = 6;
+
+   /**
+    * Minimum number of bitset words per parallel chunk.
+    */
+   private static final int s_MIN_CHUNK_WORDS = ParallelRange.s_DEFAULT_MIN_CHUNK_SIZE >> 5;
+
+   /**
+    * Plane coefficients; four floats (a, b, c, d) per plane in s_PLANE_* order.
+    */
+   private final float[] planes = new float[s_PLANE_COUNT * 4];
+
+   private final SphereTask sphereTask = new SphereTask();
+
+   private final BoxTask boxTask = new BoxTask();
+
+   /**
+    * Constructs a frustum that contains everything until set is invoked.
+    */
+   public Frustum()
+   {
+   }
+
+   /**
+    * Constructs a frustum from the planes of the view-projection matrix.
+    *
+    * @param viewProjection the combined projection * view matrix
+    */
+   public Frustum(Matrix4f viewProjection)
+   {
+      set(viewProjection);
+   }
+
+   /**
+    * Extracts the normalized planes of the view-projection matrix, which maps world space to OpenGL clip space; a
+    * projection matrix alone yields the planes in eye space.
+    *
+    * @param m1 the combined projection * view matrix
+    */
+   public final void set(Matrix4f m1)
+   {
+      setPlane(s_PLANE_LEFT, m1.m30 + m1.m00, m1.m31 + m1.m01, m1.m32 + m1.m02, m1.m33 + m1.m03);
+      setPlane(s_PLANE_RIGHT, m1.m30 - m1.m00, m1.m31 - m1.m01, m1.m32 - m1.m02, m1.m33 - m1.m03);
+      setPlane(s_PLANE_BOTTOM, m1.m30 + m1.m10, m1.m31 + m1.m11, m1.m32 + m1.m12, m1.m33 + m1.m13);
+      setPlane(s_PLANE_TOP, m1.m30 - m1.m10, m1.m31 - m1.m11, m1.m32 - m1.m12, m1.m33 - m1.m13);
+      setPlane(s_PLANE_NEAR, m1.m30 + m1.m20, m1.m31 + m1.m21, m1.m32 + m1.m22, m1.m33 + m1.m23);
+      setPlane(s_PLANE_FAR, m1.m30 - m1.m20, m1.m31 - m1.m21, m1.m32 - m1.m22, m1.m33 - m1.m23);
+   }
+
+   /**
+    * Copies the planes of the frustum f1 into this frustum.
+    *
+    * @param f1 the frustum to be copied
+    */
+   public final void set(Frustum f1)
+   {
+      System.arraycopy(f1.planes, 0, planes, 0, planes.length);
+   }
+
+   /**
+    * Retrieves the coefficients of a plane; x, y, z hold the inward normal and w the distance term.
+    *
+    * @param index one of the s_PLANE_* indices
+    * @param plane the tuple that receives the plane
+    */
+   public final void getPlane(int index, Tuple4f plane)
+   {
+      if (index < 0 || index >= s_PLANE_COUNT)
+      {
+         throw new ArrayIndexOutOfBoundsException("plane index must be 0 to 5 and is " + index);
+      }
+
+      int o = index << 2;
+      plane.set(planes[o], planes[o + 1], planes[o + 2], planes[o + 3]);
+   }
+
+   /**
+    * Returns true if the point is inside or on the boundary of the frustum.
+    *
+    * @param x x coordinate
+    * @param y y coordinate
+    * @param z z coordinate
+    * @return true if inside
+    */
+   public final boolean containsPoint(float x, float y, float z)
+   {
+      return intersectsSphere(x, y, z, 0.0f);
+   }
+
+   /**
+    * Returns true if the sphere is at least partially inside the frustum. Spheres near a frustum corner may be
+    * reported as visible although they are outside, which is conservative for culling.
+    *
+    * @param x      x coordinate of the center
+    * @param y      y coordinate of the center
+    * @param z      z coordinate of the center
+    * @param radius radius of the sphere
+    * @return true if potentially visible
+    */
+   public final boolean intersectsSphere(float x, float y, float z, float radius)
+   {
+      final float[] p = planes;
+
+      for (int o = 0; o < p.length; o += 4)
+      {
+         if (p[o] * x + p[o + 1] * y + p[o + 2] * z + p[o + 3] < -radius)
+         {
+            return false;
+         }
+      }
+
+      return true;
+   }
+
+   /**
+    * Returns true if the axis aligned box given by its center and half extents is at least partially inside the
+    * frustum. Boxes near a frustum corner may be reported as visible although they are outside, which is
+    * conservative for culling.
+    *
+    * @param centerX x coordinate of the center
+    * @param centerY y coordinate of the center
+    * @param centerZ z coordinate of the center
+    * @param extentX half size along x
+    * @param extentY half size along y
+    * @param extentZ half size along z
+    * @return true if potentially visible
+    */
+   public final boolean intersectsBox(float centerX, float centerY, float centerZ, float extentX, float extentY,
+    float extentZ)
+   {
+      final float[] p = planes;
+
+      for (int o = 0; o < p.length; o += 4)
+      {
+         float a = p[o];
+         float b = p[o + 1];
+         float c = p[o + 2];
+
+         if (a * centerX + b * centerY + c * centerZ + p[o + 3] <
+          -(Math.abs(a) * extentX + Math.abs(b) * extentY + Math.abs(c) * extentZ))
+         {
+            return false;
+         }
+      }
+
+      return true;
+   }
+
+   /**
+    * Tests count spheres starting at start and writes the results to the visibility bitset; ceil(count / 32) words
+    * are written completely, so the bitset does not have to be cleared beforehand.
+    *
+    * @param centerX    x coordinates of the centers
+    * @param centerY    y coordinates of the centers
+    * @param centerZ    z coordinates of the centers
+    * @param radius     radii
+    * @param start      index of the first sphere
+    * @param count      number of spheres
+    * @param visibility bitset receiving the results
+    * @return number of visible spheres
+    */
+   public final int cullSpheres(float[] centerX, float[] centerY, float[] centerZ, float[] radius, int start, int count,
+    int[] visibility)
+   {
+      return cullSpheres(centerX, centerY, centerZ, radius, start, count, visibility, 0, (count + 31) >> 5);
+   }
+
+   /**
+    * Performs cullSpheres splitting the bitset words across the ParallelRange; chunks never share a word.
+    *
+    * @param centerX    x coordinates of the centers
+    * @param centerY    y coordinates of the centers
+    * @param centerZ    z coordinates of the centers
+    * @param radius     radii
+    * @param start      index of the first sphere
+    * @param count      number of spheres
+    * @param visibility bitset receiving the results
+    * @param parallel   splitter used to dispatch the work
+    * @return number of visible spheres
+    */
+   public final int cullSpheres(float[] centerX, float[] centerY, float[] centerZ, float[] radius, int start, int count,
+    int[] visibility, ParallelRange parallel)
+   {
+      SphereTask task = sphereTask;
+      task.set(centerX, centerY, centerZ, radius, start, count, visibility);
+
+      try
+      {
+         parallel.execute((count + 31) >> 5, s_MIN_CHUNK_WORDS, task);
+      }
+      finally
+      {
+         task.clear();
+      }
+
+      return countBits(visibility, count);
+   }
+
+   /**
+    * Tests count spheres starting at start and writes the indices of the visible ones in ascending order to
+    * indices starting at indexOffset; indices must have room for count entries.
+    *
+    * @param centerX     x coordinates of the centers
+    * @param centerY     y coordinates of the centers
+    * @param centerZ     z coordinates of the centers
+    * @param radius      radii
+    * @param start       index of the first sphere
+    * @param count       number of spheres
+    * @param indices     array receiving the indices of the visible spheres
+    * @param indexOffset position in indices of the first entry
+    * @return number of visible spheres / indices written
+    */
+   public final int cullSpheresToIndices(float[] centerX, float[] centerY, float[] centerZ, float[] radius, int start,
+    int count, int[] indices, int indexOffset)
+   {
+      final float[] p = planes;
+
+      float a0 = p[0], b0 = p[1], c0 = p[2], d0 = p[3];
+      float a1 = p[4], b1 = p[5], c1 = p[6], d1 = p[7];
+      float a2 = p[8], b2 = p[9], c2 = p[10], d2 = p[11];
+      float a3 = p[12], b3 = p[13], c3 = p[14], d3 = p[15];
+      float a4 = p[16], b4 = p[17], c4 = p[18], d4 = p[19];
+      float a5 = p[20], b5 = p[21], c5 = p[22], d5 = p[23];
+
+      int written = indexOffset;
+      int end = start + count;
+
+      for (int i = start; i < end; i++)
+      {
+         float x = centerX[i];
+         float y = centerY[i];
+         float z = centerZ[i];
+         float r = -radius[i];
+
+         // non short-circuit & keeps the loop free of per-plane branches.
+         if ((a0 * x + b0 * y + c0 * z + d0 >= r) & (a1 * x + b1 * y + c1 * z + d1 >= r) &
+          (a2 * x + b2 * y + c2 * z + d2 >= r) & (a3 * x + b3 * y + c3 * z + d3 >= r) &
+          (a4 * x + b4 * y + c4 * z + d4 >= r) & (a5 * x + b5 * y + c5 * z + d5 >= r))
+         {
+            indices[written++] = i;
+         }
+      }
+
+      return written - indexOffset;
+   }
+
+   /**
+    * Tests count axis aligned boxes, given by center and half extents, starting at start and writes the results to
+    * the visibility bitset; ceil(count / 32) words are written completely, so the bitset does not have to be cleared
+    * beforehand.
+    *
+    * @param centerX    x coordinates of the centers
+    * @param centerY    y coordinates of the centers
+    * @param centerZ    z coordinates of the centers
+    * @param extentX    half sizes along x
+    * @param extentY    half sizes along y
+    * @param extentZ    half sizes along z
+    * @param start      index of the first box
+    * @param count      number of boxes
+    * @param visibility bitset receiving the results
+    * @return number of visible boxes
+    */
+   public final int cullBoxes(float[] centerX, float[] centerY, float[] centerZ, float[] extentX, float[] extentY,
+    float[] extentZ, int start, int count, int[] visibility)
+   {
+      return cullBoxes(centerX, centerY, centerZ, extentX, extentY, extentZ, start, count, visibility, 0,
+       (count + 31) >> 5);
+   }
+
+   /**
+    * Performs cullBoxes splitting the bitset words across the ParallelRange; chunks never share a word.
+    *
+    * @param centerX    x coordinates of the centers
+    * @param centerY    y coordinates of the centers
+    * @param centerZ    z coordinates of the centers
+    * @param extentX    half sizes along x
+    * @param extentY    half sizes along y
+    * @param extentZ    half sizes along z
+    * @param start      index of the first box
+    * @param count      number of boxes
+    * @param visibility bitset receiving the results
+    * @param parallel   splitter used to dispatch the work
+    * @return number of visible boxes
+    */
+   public final int cullBoxes(float[] centerX, float[] centerY, float[] centerZ, float[] extentX, float[] extentY,
+    float[] extentZ, int start, int count, int[] visibility, ParallelRange parallel)
+   {
+      BoxTask task = boxTask;
+      task.set(centerX, centerY, centerZ, extentX, extentY, extentZ, start, count, visibility);
+
+      try
+      {
+         parallel.execute((count + 31) >> 5, s_MIN_CHUNK_WORDS, task);
+      }
+      finally
+      {
+         task.clear();
+      }
+
+      return countBits(visibility, count);
+   }
+
+   /**
+    * Tests count axis aligned boxes, given by center and half extents, starting at start and writes the indices of
+    * the visible ones in ascending order to indices starting at indexOffset; indices must have room for count
+    * entries.
+    *
+    * @param centerX     x coordinates of the centers
+    * @param centerY     y coordinates of the centers
+    * @param centerZ     z coordinates of the centers
+    * @param extentX     half sizes along x
+    * @param extentY     half sizes along y
+    * @param extentZ     half sizes along z
+    * @param start       index of the first box
+    * @param count       number of boxes
+    * @param indices     array receiving the indices of the visible boxes
+    * @param indexOffset position in indices of the first entry
+    * @return number of visible boxes / indices written
+    */
+   public final int cullBoxesToIndices(float[] centerX, float[] centerY, float[] centerZ, float[] extentX,
+    float[] extentY, float[] extentZ, int start, int count, int[] indices, int indexOffset)
+   {
+      final float[] p = planes;
+
+      float a0 = p[0], b0 = p[1], c0 = p[2], d0 = p[3];
+      float a1 = p[4], b1 = p[5], c1 = p[6], d1 = p[7];
+      float a2 = p[8], b2 = p[9], c2 = p[10], d2 = p[11];
+      float a3 = p[12], b3 = p[13], c3 = p[14], d3 = p[15];
+      float a4 = p[16], b4 = p[17], c4 = p[18], d4 = p[19];
+      float a5 = p[20], b5 = p[21], c5 = p[22], d5 = p[23];
+
+      float aa0 = -Math.abs(a0), ab0 = -Math.abs(b0), ac0 = -Math.abs(c0);
+      float aa1 = -Math.abs(a1), ab1 = -Math.abs(b1), ac1 = -Math.abs(c1);
+      float aa2 = -Math.abs(a2), ab2 = -Math.abs(b2), ac2 = -Math.abs(c2);
+      float aa3 = -Math.abs(a3), ab3 = -Math.abs(b3), ac3 = -Math.abs(c3);
+      float aa4 = -Math.abs(a4), ab4 = -Math.abs(b4), ac4 = -Math.abs(c4);
+      float aa5 = -Math.abs(a5), ab5 = -Math.abs(b5), ac5 = -Math.abs(c5);
+
+      int written = indexOffset;
+      int end = start + count;
+
+      for (int i = start; i < end; i++)
+      {
+         float x = centerX[i];
+         float y = centerY[i];
+         float z = centerZ[i];
+         float ex = extentX[i];
+         float ey = extentY[i];
+         float ez = extentZ[i];
+
+         // non short-circuit & keeps the loop free of per-plane branches.
+         if ((a0 * x + b0 * y + c0 * z + d0 >= aa0 * ex + ab0 * ey + ac0 * ez) &
+          (a1 * x + b1 * y + c1 * z + d1 >= aa1 * ex + ab1 * ey + ac1 * ez) &
+          (a2 * x + b2 * y + c2 * z + d2 >= aa2 * ex + ab2 * ey + ac2 * ez) &
+          (a3 * x + b3 * y + c3 * z + d3 >= aa3 * ex + ab3 * ey + ac3 * ez) &
+          (a4 * x + b4 * y + c4 * z + d4 >= aa4 * ex + ab4 * ey + ac4 * ez) &
+          (a5 * x + b5 * y + c5 * z + d5 >= aa5 * ex + ab5 * ey + ac5 * ez))
+         {
+            indices[written++] = i;
+         }
+      }
+
+      return written - indexOffset;
+   }
+
+   /**
+    * Converts a visibility bitset as written by cullSpheres / cullBoxes into the ascending list of visible element
+    * indices, start + k for every set bit k below count.
+    *
+    * @param visibility  bitset holding the results
+    * @param start       index of the first element
+    * @param count       number of elements covered by the bitset
+    * @param indices     array receiving the indices of the visible elements
+    * @param indexOffset position in indices of the first entry
+    * @return number of indices written
+    */
+   public static int bitsToIndices(int[] visibility, int start, int count, int[] indices, int indexOffset)
+   {
+      int written = indexOffset;
+      int words = (count + 31) >> 5;
+
+      for (int word = 0; word < words; word++)
+      {
+         int bits = visibility[word];
+
+         if (word == words - 1 && (count & 31) != 0)
+         {
+            bits &= (1 << (count & 31)) - 1;
+         }
+
+         int base = start + (word << 5);
+
+         while (bits != 0)
+         {
+            indices[written++] = base + Integer.numberOfTrailingZeros(bits);
+            bits &= bits - 1;
+         }
+      }
+
+      return written - indexOffset;
+   }
+
+   /**
+    * Returns a string that contains the planes of this Frustum.
+    *
+    * @return the String representation
+    */
+   @Override
+   public String toString()
+   {
+      StringBuilder sb = new StringBuilder();
+
+      for (int o = 0; o < planes.length; o += 4)
+      {
+         sb.append(VecmathStrings.s_STR_OPEN).append(planes[o]).append(", ").append(planes[o + 1]).append(", ").append(
+          planes[o + 2]).append(", ").append(planes[o + 3]).append(VecmathStrings.s_STR_CLOSE);
+      }
+
+      return sb.toString();
+   }
+
+   /**
+    * Writes the sphere results for the bitset words [wordStart, wordEnd).
+    */
+   private int cullSpheres(float[] centerX, float[] centerY, float[] centerZ, float[] radius, int start, int count,
+    int[] visibility, int wordStart, int wordEnd)
+   {
+      final float[] p = planes;
+
+      float a0 = p[0], b0 = p[1], c0 = p[2], d0 = p[3];
+      float a1 = p[4], b1 = p[5], c1 = p[6], d1 = p[7];
+      float a2 = p[8], b2 = p[9], c2 = p[10], d2 = p[11];
+      float a3 = p[12], b3 = p[13], c3 = p[14], d3 = p[15];
+      float a4 = p[16], b4 = p[17], c4 = p[18], d4 = p[19];
+      float a5 = p[20], b5 = p[21], c5 = p[22], d5 = p[23];
+
+      int visible = 0;
+      int end = start + count;
+
+      for (int word = wordStart; word < wordEnd; word++)
+      {
+         int i = start + (word << 5);
+         int wordEnd32 = Math.min(i + 32, end);
+         int bits = 0;
+
+         for (int bit = 1; i < wordEnd32; i++, bit <<= 1)
+         {
+            float x = centerX[i];
+            float y = centerY[i];
+            float z = centerZ[i];
+            float r = -radius[i];
+
+            if ((a0 * x + b0 * y + c0 * z + d0 >= r) & (a1 * x + b1 * y + c1 * z + d1 >= r) &
+             (a2 * x + b2 * y + c2 * z + d2 >= r) & (a3 * x + b3 * y + c3 * z + d3 >= r) &
+             (a4 * x + b4 * y + c4 * z + d4 >= r) & (a5 * x + b5 * y + c5 * z + d5 >= r))
+            {
+               bits |= bit;
+            }
+         }
+
+         visibility[word] = bits;
+         visible += Integer.bitCount(bits);
+      }
+
+      return visible;
+   }
+
+   /**
+    * Writes the box results for the bitset words [wordStart, wordEnd).
+    */
+   private int cullBoxes(float[] centerX, float[] centerY, float[] centerZ, float[] extentX, float[] extentY,
+    float[] extentZ, int start, int count, int[] visibility, int wordStart, int wordEnd)
+   {
+      final float[] p = planes;
+
+      float a0 = p[0], b0 = p[1], c0 = p[2], d0 = p[3];
+      float a1 = p[4], b1 = p[5], c1 = p[6], d1 = p[7];
+      float a2 = p[8], b2 = p[9], c2 = p[10], d2 = p[11];
+      float a3 = p[12], b3 = p[13], c3 = p[14], d3 = p[15];
+      float a4 = p[16], b4 = p[17], c4 = p[18], d4 = p[19];
+      float a5 = p[20], b5 = p[21], c5 = p[22], d5 = p[23];
+
+      float aa0 = -Math.abs(a0), ab0 = -Math.abs(b0), ac0 = -Math.abs(c0);
+      float aa1 = -Math.abs(a1), ab1 = -Math.abs(b1), ac1 = -Math.abs(c1);
+      float aa2 = -Math.abs(a2), ab2 = -Math.abs(b2), ac2 = -Math.abs(c2);
+      float aa3 = -Math.abs(a3), ab3 = -Math.abs(b3), ac3 = -Math.abs(c3);
+      float aa4 = -Math.abs(a4), ab4 = -Math.abs(b4), ac4 = -Math.abs(c4);
+      float aa5 = -Math.abs(a5), ab5 = -Math.abs(b5), ac5 = -Math.abs(c5);
+
+      int visible = 0;
+      int end = start + count;
+
+      for (int word = wordStart; word < wordEnd; word++)
+      {
+         int i = start + (word << 5);
+         int wordEnd32 = Math.min(i + 32, end);
+         int bits = 0;
+
+         for (int bit = 1; i < wordEnd32; i++, bit <<= 1)
+         {
+            float x = centerX[i];
+            float y = centerY[i];
+            float z = centerZ[i];
+            float ex = extentX[i];
+            float ey = extentY[i];
+            float ez = extentZ[i];
+
+            if ((a0 * x + b0 * y + c0 * z + d0 >= aa0 * ex + ab0 * ey + ac0 * ez) &
+             (a1 * x + b1 * y + c1 * z + d1 >= aa1 * ex + ab1 * ey + ac1 * ez) &
+             (a2 * x + b2 * y + c2 * z + d2 >= aa2 * ex + ab2 * ey + ac2 * ez) &
+             (a3 * x + b3 * y + c3 * z + d3 >= aa3 * ex + ab3 * ey + ac3 * ez) &
+             (a4 * x + b4 * y + c4 * z + d4 >= aa4 * ex + ab4 * ey + ac4 * ez) &
+             (a5 * x + b5 * y + c5 * z + d5 >= aa5 * ex + ab5 * ey + ac5 * ez))
+            {
+               bits |= bit;
+            }
+         }
+
+         visibility[word] = bits;
+         visible += Integer.bitCount(bits);
+      }
+
+      return visible;
+   }
+
+   private static int countBits(int[] visibility, int count)
+   {
+      int visible = 0;
+      int words = (count + 31) >> 5;
+
+      for (int word = 0; word < words; word++)
+      {
+         visible += Integer.bitCount(visibility[word]);
+      }
+
+      return visible;
+   }
+
+   private void setPlane(int index, float a, float b, float c, float d)
+   {
+      float length = (float)Math.sqrt(a * a + b * b + c * c);
+      float scale = length == 0.0f ? 0.0f : 1.0f / length;
+
+      int o = index << 2;
+      planes[o] = a * scale;
+      planes[o + 1] = b * scale;
+      planes[o + 2] = c * scale;
+      planes[o + 3] = d * scale;
+   }
+
+   /**
+    * Parallel sphere culling over a range of bitset words; fields are set for the duration of one dispatch.
+    */
+   private final class SphereTask implements IRangeTask
+   {
+      private float[] centerX, centerY, centerZ, radius;
+      private int start, count;
+      private int[] visibility;
+
+      void set(float[] centerX, float[] centerY, float[] centerZ, float[] radius, int start, int count,
+       int[] visibility)
+      {
+         this.centerX = centerX;
+         this.centerY = centerY;
+         this.centerZ = centerZ;
+         this.radius = radius;
+         this.start = start;
+         this.count = count;
+         this.visibility = visibility;
+      }
+
+      void clear()
+      {
+         set(null, null, null, null, 0, 0, null);
+      }
+
+      public void run(int wordStart, int wordEnd)
+      {
+         cullSpheres(centerX, centerY, centerZ, radius, start, count, visibility, wordStart, wordEnd);
+      }
+   }
+
+   /**
+    * Parallel box culling over a range of bitset words; fields are set for the duration of one dispatch.
+    */
+   private final class BoxTask implements IRangeTask
+   {
+      private float[] centerX, centerY, centerZ, extentX, extentY, extentZ;
+      private int start, count;
+      private int[] visibility;
+
+      void set(float[] centerX, float[] centerY, float[] centerZ, float[] extentX, float[] extentY, float[] extentZ,
+       int start, int count, int[] visibility)
+      {
+         this.centerX = centerX;
+         this.centerY = centerY;
+         this.centerZ = centerZ;
+         this.extentX = extentX;
+         this.extentY = extentY;
+         this.extentZ = extentZ;
+         this.start = start;
+         this.count = count;
+         this.visibility = visibility;
+      }
+
+      void clear()
+      {
+         set(null, null, null, null, null, null, 0, 0, null);
+      }
+
+      public void run(int wordStart, int wordEnd)
+      {
+         cullBoxes(centerX, centerY, centerZ, extentX, extentY, extentZ, start, count, visibility, wordStart, wordEnd);
+      }
+   }
+}
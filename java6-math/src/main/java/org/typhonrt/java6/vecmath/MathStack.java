@@ -0,0 +1,422 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.vecmath;
+
+import java.util.Arrays;
+
+/**
+ * A per-thread stack of reusable Vector3f, Vector4f, Quat4f, Matrix3f and Matrix4f temporaries.
+ *
+ * Code that needs temporaries opens a frame with push, takes instances from the stack and closes the frame with pop,
+ * which returns every instance taken since the matching push:
+ *
+ * <pre>
+ * MathStack stack = MathStack.get();
+ * int frame = stack.push();
+ * try
+ * {
+ *    Vector3f axis = stack.vector3f();
+ *    Matrix4f m = stack.matrix4f();
+ *    ...
+ * }
+ * finally
+ * {
+ *    stack.pop(frame);
+ * }
+ * </pre>
+ *
+ * Instances are created on demand and kept, so once a thread has reached its deepest use nothing is allocated. The
+ * contents of an instance handed out are unspecified; callers set every value they read. Instances must not be kept
+ * past the pop of their frame.
+ *
+ * pop(int) checks that frames are closed in order and taking an instance outside a frame fails. In debug mode the
+ * stack additionally records where every frame was pushed so verifyEmpty can report leaked frames, rejects use from
+ * other threads, and fills released instances with NaN so that use after pop shows up in the results. Debug mode
+ * allocates and is meant for development builds.
+ *
+ * @author  Michael Leahy
+ */
+public final class MathStack
+{
+   private static final int s_FRAME_SIZE = 5;
+
+   private static volatile boolean s_debugDefault;
+
+   private static final ThreadLocal<MathStack> s_STACKS = new ThreadLocal<MathStack>()
+   {
+      protected MathStack initialValue()
+      {
+         return new MathStack(s_debugDefault);
+      }
+   };
+
+   private Vector3f[] vector3fs = new Vector3f[0];
+   private Vector4f[] vector4fs = new Vector4f[0];
+   private Quat4f[] quat4fs = new Quat4f[0];
+   private Matrix3f[] matrix3fs = new Matrix3f[0];
+   private Matrix4f[] matrix4fs = new Matrix4f[0];
+
+   private int vector3fTop;
+   private int vector4fTop;
+   private int quat4fTop;
+   private int matrix3fTop;
+   private int matrix4fTop;
+
+   /**
+    * Saved tops of the five pools per open frame.
+    */
+   private int[] frames = new int[s_FRAME_SIZE * 8];
+   private int depth;
+
+   private int growCount;
+
+   private final boolean debug;
+   private final Thread owner;
+   private Throwable[] pushSites;
+
+   /**
+    * Returns the stack of the calling thread, creating it on first use.
+    *
+    * @return the stack of the calling thread
+    */
+   public static MathStack get()
+   {
+      return s_STACKS.get();
+   }
+
+   /**
+    * Sets whether stacks created from now on by get run in debug mode; stacks that already exist are not affected.
+    *
+    * @param debug true to enable debug mode
+    */
+   public static void setDebugDefault(boolean debug)
+   {
+      s_debugDefault = debug;
+   }
+
+   /**
+    * Constructs a stack for use by a single thread outside of get.
+    *
+    * @param debug true to enable debug mode
+    */
+   public MathStack(boolean debug)
+   {
+      this.debug = debug;
+      this.owner = debug ? Thread.currentThread() : null;
+      this.pushSites = debug ? new Throwable[8] : null;
+   }
+
+   /**
+    * @return true if this stack runs in debug mode
+    */
+   public boolean isDebug()
+   {
+      return debug;
+   }
+
+   /**
+    * @return number of open frames
+    */
+   public int getDepth()
+   {
+      return depth;
+   }
+
+   /**
+    * Returns how often the stack had to allocate, which stops increasing once the deepest use has been reached.
+    *
+    * @return number of pool or frame array growths
+    */
+   public int getGrowCount()
+   {
+      return growCount;
+   }
+
+   /**
+    * Opens a frame.
+    *
+    * @return the depth of the new frame, to be passed to pop(int)
+    */
+   public int push()
+   {
+      if (debug)
+      {
+         checkOwner();
+
+         if (depth == pushSites.length)
+         {
+            pushSites = Arrays.copyOf(pushSites, depth * 2);
+         }
+
+         pushSites[depth] = new Throwable("MathStack frame " + (depth + 1) + " pushed here");
+      }
+
+      int o = depth * s_FRAME_SIZE;
+
+      if (o == frames.length)
+      {
+         frames = Arrays.copyOf(frames, frames.length * 2);
+         growCount++;
+      }
+
+      frames[o] = vector3fTop;
+      frames[o + 1] = vector4fTop;
+      frames[o + 2] = quat4fTop;
+      frames[o + 3] = matrix3fTop;
+      frames[o + 4] = matrix4fTop;
+
+      return ++depth;
+   }
+
+   /**
+    * Closes the innermost frame, returning all instances taken since the matching push.
+    *
+    * @throws IllegalStateException if no frame is open
+    */
+   public void pop()
+   {
+      if (depth == 0)
+      {
+         throw new IllegalStateException("MathStack pop without matching push");
+      }
+
+      if (debug)
+      {
+         checkOwner();
+      }
+
+      int o = --depth * s_FRAME_SIZE;
+
+      int v3 = frames[o];
+      int v4 = frames[o + 1];
+      int q4 = frames[o + 2];
+      int m3 = frames[o + 3];
+      int m4 = frames[o + 4];
+
+      if (debug)
+      {
+         poison(v3, v4, q4, m3, m4);
+         pushSites[depth] = null;
+      }
+
+      vector3fTop = v3;
+      vector4fTop = v4;
+      quat4fTop = q4;
+      matrix3fTop = m3;
+      matrix4fTop = m4;
+   }
+
+   /**
+    * Closes the frame opened by the push that returned frame, which must be the innermost open frame.
+    *
+    * @param frame value returned by push
+    *
+    * @throws IllegalStateException if frame is not the innermost open frame, which means a nested frame was not
+    *                               popped or this frame was already popped
+    */
+   public void pop(int frame)
+   {
+      if (frame != depth)
+      {
+         IllegalStateException e = new IllegalStateException("MathStack unbalanced: popping frame " + frame +
+          " at depth " + depth);
+
+         if (debug && depth > frame && frame > 0)
+         {
+            e.initCause(pushSites[depth - 1]);
+         }
+
+         throw e;
+      }
+
+      pop();
+   }
+
+   /**
+    * Checks that all frames have been popped, for instance at the end of a rendered frame. In debug mode the
+    * exception is caused by the stack trace of the push of the outermost leaked frame.
+    *
+    * @throws IllegalStateException if frames are still open
+    */
+   public void verifyEmpty()
+   {
+      if (depth != 0)
+      {
+         IllegalStateException e = new IllegalStateException("MathStack leaked " + depth + " frame(s)");
+
+         if (debug)
+         {
+            e.initCause(pushSites[0]);
+         }
+
+         throw e;
+      }
+   }
+
+   /**
+    * @return a Vector3f valid until the current frame is popped
+    */
+   public Vector3f vector3f()
+   {
+      checkFrame();
+
+      if (vector3fTop == vector3fs.length)
+      {
+         vector3fs = Arrays.copyOf(vector3fs, grownLength(vector3fTop));
+
+         for (int cntr = vector3fTop; cntr < vector3fs.length; cntr++)
+         {
+            vector3fs[cntr] = new Vector3f();
+         }
+      }
+
+      return vector3fs[vector3fTop++];
+   }
+
+   /**
+    * @return a Vector4f valid until the current frame is popped
+    */
+   public Vector4f vector4f()
+   {
+      checkFrame();
+
+      if (vector4fTop == vector4fs.length)
+      {
+         vector4fs = Arrays.copyOf(vector4fs, grownLength(vector4fTop));
+
+         for (int cntr = vector4fTop; cntr < vector4fs.length; cntr++)
+         {
+            vector4fs[cntr] = new Vector4f();
+         }
+      }
+
+      return vector4fs[vector4fTop++];
+   }
+
+   /**
+    * @return a Quat4f valid until the current frame is popped
+    */
+   public Quat4f quat4f()
+   {
+      checkFrame();
+
+      if (quat4fTop == quat4fs.length)
+      {
+         quat4fs = Arrays.copyOf(quat4fs, grownLength(quat4fTop));
+
+         for (int cntr = quat4fTop; cntr < quat4fs.length; cntr++)
+         {
+            quat4fs[cntr] = new Quat4f();
+         }
+      }
+
+      return quat4fs[quat4fTop++];
+   }
+
+   /**
+    * @return a Matrix3f valid until the current frame is popped
+    */
+   public Matrix3f matrix3f()
+   {
+      checkFrame();
+
+      if (matrix3fTop == matrix3fs.length)
+      {
+         matrix3fs = Arrays.copyOf(matrix3fs, grownLength(matrix3fTop));
+
+         for (int cntr = matrix3fTop; cntr < matrix3fs.length; cntr++)
+         {
+            matrix3fs[cntr] = new Matrix3f();
+         }
+      }
+
+      return matrix3fs[matrix3fTop++];
+   }
+
+   /**
+    * @return a Matrix4f valid until the current frame is popped
+    */
+   public Matrix4f matrix4f()
+   {
+      checkFrame();
+
+      if (matrix4fTop == matrix4fs.length)
+      {
+         matrix4fs = Arrays.copyOf(matrix4fs, grownLength(matrix4fTop));
+
+         for (int cntr = matrix4fTop; cntr < matrix4fs.length; cntr++)
+         {
+            matrix4fs[cntr] = new Matrix4f();
+         }
+      }
+
+      return matrix4fs[matrix4fTop++];
+   }
+
+   private void checkFrame()
+   {
+      if (depth == 0)
+      {
+         throw new IllegalStateException("MathStack instance requested outside of a push / pop frame");
+      }
+
+      if (debug)
+      {
+         checkOwner();
+      }
+   }
+
+   private void checkOwner()
+   {
+      if (Thread.currentThread() != owner)
+      {
+         throw new IllegalStateException("MathStack of thread " + owner.getName() + " used from thread " +
+          Thread.currentThread().getName());
+      }
+   }
+
+   private int grownLength(int length)
+   {
+      growCount++;
+      return Math.max(8, length * 2);
+   }
+
+   private void poison(int v3, int v4, int q4, int m3, int m4)
+   {
+      final float nan = Float.NaN;
+
+      for (int cntr = v3; cntr < vector3fTop; cntr++)
+      {
+         vector3fs[cntr].set(nan, nan, nan);
+      }
+
+      for (int cntr = v4; cntr < vector4fTop; cntr++)
+      {
+         vector4fs[cntr].set(nan, nan, nan, nan);
+      }
+
+      for (int cntr = q4; cntr < quat4fTop; cntr++)
+      {
+         quat4fs[cntr].set(nan, nan, nan, nan);
+      }
+
+      for (int cntr = m3; cntr < matrix3fTop; cntr++)
+      {
+         Matrix3f m = matrix3fs[cntr];
+         m.m00 = m.m01 = m.m02 = m.m10 = m.m11 = m.m12 = m.m20 = m.m21 = m.m22 = nan;
+      }
+
+      for (int cntr = m4; cntr < matrix4fTop; cntr++)
+      {
+         Matrix4f m = matrix4fs[cntr];
+         m.m00 = m.m01 = m.m02 = m.m03 = m.m10 = m.m11 = m.m12 = m.m13 = nan;
+         m.m20 = m.m21 = m.m22 = m.m23 = m.m30 = m.m31 = m.m32 = m.m33 = nan;
+         m.markDirty();
+      }
+   }
+}
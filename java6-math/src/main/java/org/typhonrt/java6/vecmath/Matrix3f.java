@@ -7,6 +7,11 @@
  */
 package org.typhonrt.java6.vecmath;
 
+import org.typhonrt.java6.math.MathUtil;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
 /**
  * A single precision floating point 3 by 3 matrix.
  *
@@ -824,6 +829,293 @@ public class Matrix3f
       m22 = m[8];
    }
 
+   /**
+    * Stores this matrix into the buffer at its current position in column-major order as expected by OpenGL; the
+    * position is advanced by 9.
+    *
+    * @param buffer the buffer that receives the values
+    */
+   public final void get(FloatBuffer buffer)
+   {
+      buffer.put(m00).put(m10).put(m20);
+      buffer.put(m01).put(m11).put(m21);
+      buffer.put(m02).put(m12).put(m22);
+   }
+
+   /**
+    * Stores this matrix into the buffer starting at the absolute index in column-major order; the position of the
+    * buffer is not modified.
+    *
+    * @param buffer the buffer that receives the values
+    * @param index  index of the first element
+    */
+   public final void get(FloatBuffer buffer, int index)
+   {
+      buffer.put(index, m00);
+      buffer.put(index + 1, m10);
+      buffer.put(index + 2, m20);
+      buffer.put(index + 3, m01);
+      buffer.put(index + 4, m11);
+      buffer.put(index + 5, m21);
+      buffer.put(index + 6, m02);
+      buffer.put(index + 7, m12);
+      buffer.put(index + 8, m22);
+   }
+
+   /**
+    * Stores this matrix as floats into the buffer at its current position in column-major order using the byte order
+    * of the buffer; the position is advanced by 36.
+    *
+    * @param buffer the buffer that receives the values
+    */
+   public final void get(ByteBuffer buffer)
+   {
+      buffer.putFloat(m00).putFloat(m10).putFloat(m20);
+      buffer.putFloat(m01).putFloat(m11).putFloat(m21);
+      buffer.putFloat(m02).putFloat(m12).putFloat(m22);
+   }
+
+   /**
+    * Stores this matrix as floats into the buffer starting at the absolute byte offset in column-major order using the
+    * byte order of the buffer; the position of the buffer is not modified.
+    *
+    * @param buffer the buffer that receives the values
+    * @param offset byte offset of the first element
+    */
+   public final void get(ByteBuffer buffer, int offset)
+   {
+      buffer.putFloat(offset, m00);
+      buffer.putFloat(offset + 4, m10);
+      buffer.putFloat(offset + 8, m20);
+      buffer.putFloat(offset + 12, m01);
+      buffer.putFloat(offset + 16, m11);
+      buffer.putFloat(offset + 20, m21);
+      buffer.putFloat(offset + 24, m02);
+      buffer.putFloat(offset + 28, m12);
+      buffer.putFloat(offset + 32, m22);
+   }
+
+   /**
+    * Sets this matrix from 9 column-major values read from the buffer at its current position; the position is
+    * advanced by 9.
+    *
+    * @param buffer the buffer that provides the values
+    */
+   public final void set(FloatBuffer buffer)
+   {
+      m00 = buffer.get();
+      m10 = buffer.get();
+      m20 = buffer.get();
+      m01 = buffer.get();
+      m11 = buffer.get();
+      m21 = buffer.get();
+      m02 = buffer.get();
+      m12 = buffer.get();
+      m22 = buffer.get();
+   }
+
+   /**
+    * Sets this matrix from 9 column-major values read from the buffer starting at the absolute index; the position of
+    * the buffer is not modified.
+    *
+    * @param buffer the buffer that provides the values
+    * @param index  index of the first element
+    */
+   public final void set(FloatBuffer buffer, int index)
+   {
+      m00 = buffer.get(index);
+      m10 = buffer.get(index + 1);
+      m20 = buffer.get(index + 2);
+      m01 = buffer.get(index + 3);
+      m11 = buffer.get(index + 4);
+      m21 = buffer.get(index + 5);
+      m02 = buffer.get(index + 6);
+      m12 = buffer.get(index + 7);
+      m22 = buffer.get(index + 8);
+   }
+
+   /**
+    * Sets this matrix from 9 column-major floats read from the buffer at its current position using the byte order of
+    * the buffer; the position is advanced by 36.
+    *
+    * @param buffer the buffer that provides the values
+    */
+   public final void set(ByteBuffer buffer)
+   {
+      m00 = buffer.getFloat();
+      m10 = buffer.getFloat();
+      m20 = buffer.getFloat();
+      m01 = buffer.getFloat();
+      m11 = buffer.getFloat();
+      m21 = buffer.getFloat();
+      m02 = buffer.getFloat();
+      m12 = buffer.getFloat();
+      m22 = buffer.getFloat();
+   }
+
+   /**
+    * Sets this matrix from 9 column-major floats read from the buffer starting at the absolute byte offset using the
+    * byte order of the buffer; the position of the buffer is not modified.
+    *
+    * @param buffer the buffer that provides the values
+    * @param offset byte offset of the first element
+    */
+   public final void set(ByteBuffer buffer, int offset)
+   {
+      m00 = buffer.getFloat(offset);
+      m10 = buffer.getFloat(offset + 4);
+      m20 = buffer.getFloat(offset + 8);
+      m01 = buffer.getFloat(offset + 12);
+      m11 = buffer.getFloat(offset + 16);
+      m21 = buffer.getFloat(offset + 20);
+      m02 = buffer.getFloat(offset + 24);
+      m12 = buffer.getFloat(offset + 28);
+      m22 = buffer.getFloat(offset + 32);
+   }
+
+   /**
+    * Stores this matrix into the buffer at its current position in row-major order; the position is advanced by 9.
+    *
+    * @param buffer the buffer that receives the values
+    */
+   public final void getRowMajor(FloatBuffer buffer)
+   {
+      buffer.put(m00).put(m01).put(m02);
+      buffer.put(m10).put(m11).put(m12);
+      buffer.put(m20).put(m21).put(m22);
+   }
+
+   /**
+    * Stores this matrix into the buffer starting at the absolute index in row-major order; the position of the buffer
+    * is not modified.
+    *
+    * @param buffer the buffer that receives the values
+    * @param index  index of the first element
+    */
+   public final void getRowMajor(FloatBuffer buffer, int index)
+   {
+      buffer.put(index, m00);
+      buffer.put(index + 1, m01);
+      buffer.put(index + 2, m02);
+      buffer.put(index + 3, m10);
+      buffer.put(index + 4, m11);
+      buffer.put(index + 5, m12);
+      buffer.put(index + 6, m20);
+      buffer.put(index + 7, m21);
+      buffer.put(index + 8, m22);
+   }
+
+   /**
+    * Stores this matrix as floats into the buffer at its current position in row-major order using the byte order of
+    * the buffer; the position is advanced by 36.
+    *
+    * @param buffer the buffer that receives the values
+    */
+   public final void getRowMajor(ByteBuffer buffer)
+   {
+      buffer.putFloat(m00).putFloat(m01).putFloat(m02);
+      buffer.putFloat(m10).putFloat(m11).putFloat(m12);
+      buffer.putFloat(m20).putFloat(m21).putFloat(m22);
+   }
+
+   /**
+    * Stores this matrix as floats into the buffer starting at the absolute byte offset in row-major order using the
+    * byte order of the buffer; the position of the buffer is not modified.
+    *
+    * @param buffer the buffer that receives the values
+    * @param offset byte offset of the first element
+    */
+   public final void getRowMajor(ByteBuffer buffer, int offset)
+   {
+      buffer.putFloat(offset, m00);
+      buffer.putFloat(offset + 4, m01);
+      buffer.putFloat(offset + 8, m02);
+      buffer.putFloat(offset + 12, m10);
+      buffer.putFloat(offset + 16, m11);
+      buffer.putFloat(offset + 20, m12);
+      buffer.putFloat(offset + 24, m20);
+      buffer.putFloat(offset + 28, m21);
+      buffer.putFloat(offset + 32, m22);
+   }
+
+   /**
+    * Sets this matrix from 9 row-major values read from the buffer at its current position; the position is advanced
+    * by 9.
+    *
+    * @param buffer the buffer that provides the values
+    */
+   public final void setRowMajor(FloatBuffer buffer)
+   {
+      m00 = buffer.get();
+      m01 = buffer.get();
+      m02 = buffer.get();
+      m10 = buffer.get();
+      m11 = buffer.get();
+      m12 = buffer.get();
+      m20 = buffer.get();
+      m21 = buffer.get();
+      m22 = buffer.get();
+   }
+
+   /**
+    * Sets this matrix from 9 row-major values read from the buffer starting at the absolute index; the position of the
+    * buffer is not modified.
+    *
+    * @param buffer the buffer that provides the values
+    * @param index  index of the first element
+    */
+   public final void setRowMajor(FloatBuffer buffer, int index)
+   {
+      m00 = buffer.get(index);
+      m01 = buffer.get(index + 1);
+      m02 = buffer.get(index + 2);
+      m10 = buffer.get(index + 3);
+      m11 = buffer.get(index + 4);
+      m12 = buffer.get(index + 5);
+      m20 = buffer.get(index + 6);
+      m21 = buffer.get(index + 7);
+      m22 = buffer.get(index + 8);
+   }
+
+   /**
+    * Sets this matrix from 9 row-major floats read from the buffer at its current position using the byte order of the
+    * buffer; the position is advanced by 36.
+    *
+    * @param buffer the buffer that provides the values
+    */
+   public final void setRowMajor(ByteBuffer buffer)
+   {
+      m00 = buffer.getFloat();
+      m01 = buffer.getFloat();
+      m02 = buffer.getFloat();
+      m10 = buffer.getFloat();
+      m11 = buffer.getFloat();
+      m12 = buffer.getFloat();
+      m20 = buffer.getFloat();
+      m21 = buffer.getFloat();
+      m22 = buffer.getFloat();
+   }
+
+   /**
+    * Sets this matrix from 9 row-major floats read from the buffer starting at the absolute byte offset using the byte
+    * order of the buffer; the position of the buffer is not modified.
+    *
+    * @param buffer the buffer that provides the values
+    * @param offset byte offset of the first element
+    */
+   public final void setRowMajor(ByteBuffer buffer, int offset)
+   {
+      m00 = buffer.getFloat(offset);
+      m01 = buffer.getFloat(offset + 4);
+      m02 = buffer.getFloat(offset + 8);
+      m10 = buffer.getFloat(offset + 12);
+      m11 = buffer.getFloat(offset + 16);
+      m12 = buffer.getFloat(offset + 20);
+      m20 = buffer.getFloat(offset + 24);
+      m21 = buffer.getFloat(offset + 28);
+      m22 = buffer.getFloat(offset + 32);
+   }
+
    /**
     * Sets the value of this matrix to the matrix inverse
     * of the passed matrix m1.
@@ -950,6 +1242,98 @@ public class Matrix3f
       m22 = 1.0f;
    }
 
+   /**
+    * Sets the value of this matrix to a rotation matrix about the x axis by the passed angle like rotX, using
+    * MathUtil.sinFast / cosFast; the elements differ from rotX by less than 4e-7 for |angle| <= 2 * PI.
+    *
+    * @param angle the angle to rotate about the X axis in radians
+    */
+   public final void rotXFast(float angle)
+   {
+      float c = MathUtil.cosFast(angle);
+      float s = MathUtil.sinFast(angle);
+      m00 = 1.0f;
+      m01 = 0.0f;
+      m02 = 0.0f;
+      m10 = 0.0f;
+      m11 = c;
+      m12 = -s;
+      m20 = 0.0f;
+      m21 = s;
+      m22 = c;
+   }
+
+   /**
+    * Sets the value of this matrix to a rotation matrix about the y axis by the passed angle like rotY, using
+    * MathUtil.sinFast / cosFast; the elements differ from rotY by less than 4e-7 for |angle| <= 2 * PI.
+    *
+    * @param angle the angle to rotate about the Y axis in radians
+    */
+   public final void rotYFast(float angle)
+   {
+      float c = MathUtil.cosFast(angle);
+      float s = MathUtil.sinFast(angle);
+      m00 = c;
+      m01 = 0.0f;
+      m02 = s;
+      m10 = 0.0f;
+      m11 = 1.0f;
+      m12 = 0.0f;
+      m20 = -s;
+      m21 = 0.0f;
+      m22 = c;
+   }
+
+   /**
+    * Sets the value of this matrix to a rotation matrix about the z axis by the passed angle like rotZ, using
+    * MathUtil.sinFast / cosFast; the elements differ from rotZ by less than 4e-7 for |angle| <= 2 * PI.
+    *
+    * @param angle the angle to rotate about the Z axis in radians
+    */
+   public final void rotZFast(float angle)
+   {
+      float c = MathUtil.cosFast(angle);
+      float s = MathUtil.sinFast(angle);
+      m00 = c;
+      m01 = -s;
+      m02 = 0.0f;
+      m10 = s;
+      m11 = c;
+      m12 = 0.0f;
+      m20 = 0.0f;
+      m21 = 0.0f;
+      m22 = 1.0f;
+   }
+
+   /**
+    * Sets the value of this matrix to a rotation matrix about the axis (x, y, z) by the passed angle. The axis is
+    * normalized here and must not be zero.
+    *
+    * @param x     the x component of the rotation axis
+    * @param y     the y component of the rotation axis
+    * @param z     the z component of the rotation axis
+    * @param angle the angle to rotate about the axis in radians
+    */
+   public final void setFromAxisAngle(float x, float y, float z, float angle)
+   {
+      setFromAxisAngle(x, y, z, (float)Math.cos(angle), (float)Math.sin(angle));
+   }
+
+   /**
+    * Sets the value of this matrix to a rotation matrix about the axis (x, y, z) by the passed angle like
+    * setFromAxisAngle, using MathUtil.sinFast / cosFast; the elements differ from setFromAxisAngle by less than 4e-7
+    * for |angle| <= 2 * PI.
+    *
+    * @param x     the x component of the rotation axis
+    * @param y     the y component of the rotation axis
+    * @param z     the z component of the rotation axis
+    * @param angle the angle to rotate about the axis in radians
+    */
+   public final void setFromAxisAngleFast(float x, float y, float z, float angle)
+   {
+      setFromAxisAngle(x, y, z, MathUtil.cosFast(angle), MathUtil.sinFast(angle));
+   }
+
    /**
     * Multiplies each element of this matrix by a scalar.
     *
@@ -1149,6 +1533,52 @@ public class Matrix3f
       normalizeCP();
    }
 
+   /**
+    * Re-orthonormalizes this matrix in place with Gram-Schmidt, a cheap alternative to the SVD of normalize for
+    * rotations that drifted through accumulated products. The first column is normalized, the second is made
+    * orthogonal to it and normalized, and the third is replaced by their cross product, so the result is always a
+    * rotation; the first column keeps its direction exactly.
+    */
+   public final void orthonormalize()
+   {
+      // zero-div may occur.
+      float n = 1.0f / (float)Math.sqrt(m00 * m00 + m10 * m10 + m20 * m20);
+      float x0 = m00 * n;
+      float y0 = m10 * n;
+      float z0 = m20 * n;
+
+      float d = x0 * m01 + y0 * m11 + z0 * m21;
+      float x1 = m01 - x0 * d;
+      float y1 = m11 - y0 * d;
+      float z1 = m21 - z0 * d;
+
+      n = 1.0f / (float)Math.sqrt(x1 * x1 + y1 * y1 + z1 * z1);
+      x1 *= n;
+      y1 *= n;
+      z1 *= n;
+
+      m00 = x0;
+      m10 = y0;
+      m20 = z0;
+      m01 = x1;
+      m11 = y1;
+      m21 = z1;
+      m02 = y0 * z1 - z0 * y1;
+      m12 = z0 * x1 - x0 * z1;
+      m22 = x0 * y1 - y0 * x1;
+   }
+
+   /**
+    * Re-orthonormalizes matrix m1 with Gram-Schmidt and places the result into this; see orthonormalize().
+    *
+    * @param m1 Provides the matrix values to be orthonormalized
+    */
+   public final void orthonormalize(Matrix3f m1)
+   {
+      set(m1);
+      orthonormalize();
+   }
+
 
    /**
     * Returns true if all of the data members of Matrix3f m1 are
@@ -1303,6 +1733,190 @@ public class Matrix3f
       output.z = m20 * input.x + m21 * input.y + m22 * input.z;
    }
 
+   /**
+    * Transforms count vectors (x, y, z) read from src with this matrix and writes the results to dst.
+    *
+    * @param src       source array
+    * @param srcOffset index of the x component of the first source element
+    * @param srcStride distance in floats between consecutive source elements; must be positive
+    * @param dst       destination array; may be src when the offsets and strides are equal
+    * @param dstOffset index of the x component of the first destination element
+    * @param dstStride distance in floats between consecutive destination elements
+    * @param count     number of elements to transform
+    */
+   public final void transformVectors(float[] src, int srcOffset, int srcStride, float[] dst, int dstOffset,
+    int dstStride, int count)
+   {
+      float a00 = m00;
+      float a01 = m01;
+      float a02 = m02;
+      float a10 = m10;
+      float a11 = m11;
+      float a12 = m12;
+      float a20 = m20;
+      float a21 = m21;
+      float a22 = m22;
+
+      int srcEnd = srcOffset + count * srcStride;
+
+      for (; srcOffset < srcEnd; srcOffset += srcStride, dstOffset += dstStride)
+      {
+         float x = src[srcOffset];
+         float y = src[srcOffset + 1];
+         float z = src[srcOffset + 2];
+
+         dst[dstOffset] = a00 * x + a01 * y + a02 * z;
+         dst[dstOffset + 1] = a10 * x + a11 * y + a12 * z;
+         dst[dstOffset + 2] = a20 * x + a21 * y + a22 * z;
+      }
+   }
+
+   /**
+    * Transforms count normals (x, y, z) read from src with the inverse transpose of this matrix and writes the unit
+    * length results to dst.
+    *
+    * @param src       source array
+    * @param srcOffset index of the x component of the first source element
+    * @param srcStride distance in floats between consecutive source elements; must be positive
+    * @param dst       destination array; may be src when the offsets and strides are equal
+    * @param dstOffset index of the x component of the first destination element
+    * @param dstStride distance in floats between consecutive destination elements
+    * @param count     number of elements to transform
+    */
+   public final void transformNormals(float[] src, int srcOffset, int srcStride, float[] dst, int dstOffset,
+    int dstStride, int count)
+   {
+      // cofactor matrix; equals the inverse transpose scaled by the determinant which normalization removes.
+      float c00 = m11 * m22 - m12 * m21;
+      float c01 = m12 * m20 - m10 * m22;
+      float c02 = m10 * m21 - m11 * m20;
+      float c10 = m02 * m21 - m01 * m22;
+      float c11 = m00 * m22 - m02 * m20;
+      float c12 = m01 * m20 - m00 * m21;
+      float c20 = m01 * m12 - m02 * m11;
+      float c21 = m02 * m10 - m00 * m12;
+      float c22 = m00 * m11 - m01 * m10;
+
+      // keep the orientation of the normals when the matrix mirrors.
+      float sign = m00 * c00 + m01 * c01 + m02 * c02 < 0.0f ? -1.0f : 1.0f;
+
+      int srcEnd = srcOffset + count * srcStride;
+
+      for (; srcOffset < srcEnd; srcOffset += srcStride, dstOffset += dstStride)
+      {
+         float x = src[srcOffset];
+         float y = src[srcOffset + 1];
+         float z = src[srcOffset + 2];
+
+         float nx = c00 * x + c01 * y + c02 * z;
+         float ny = c10 * x + c11 * y + c12 * z;
+         float nz = c20 * x + c21 * y + c22 * z;
+
+         float length = nx * nx + ny * ny + nz * nz;
+         float scale = length > 0.0f ? sign / (float)Math.sqrt(length) : 0.0f;
+
+         dst[dstOffset] = nx * scale;
+         dst[dstOffset + 1] = ny * scale;
+         dst[dstOffset + 2] = nz * scale;
+      }
+   }
+
+   /**
+    * Transforms count vectors (x, y, z) read from src with this matrix and writes the results to dst.
+    *
+    * Interleaved vertex data with a byte stride, such as GLBufferUtil.s_QUAD_BUFFER_STRIDE, is addressed through
+    * asFloatBuffer() with the stride divided by MathUtil.s_FLOAT_SIZE_BYTES. Absolute indexing is used so the buffer
+    * positions are not modified.
+    *
+    * @param src       source buffer
+    * @param srcOffset absolute index of the x component of the first source element
+    * @param srcStride distance in floats between consecutive source elements; must be positive
+    * @param dst       destination buffer; may be src when the offsets and strides are equal
+    * @param dstOffset absolute index of the x component of the first destination element
+    * @param dstStride distance in floats between consecutive destination elements
+    * @param count     number of elements to transform
+    */
+   public final void transformVectors(FloatBuffer src, int srcOffset, int srcStride, FloatBuffer dst, int dstOffset,
+    int dstStride, int count)
+   {
+      float a00 = m00;
+      float a01 = m01;
+      float a02 = m02;
+      float a10 = m10;
+      float a11 = m11;
+      float a12 = m12;
+      float a20 = m20;
+      float a21 = m21;
+      float a22 = m22;
+
+      int srcEnd = srcOffset + count * srcStride;
+
+      for (; srcOffset < srcEnd; srcOffset += srcStride, dstOffset += dstStride)
+      {
+         float x = src.get(srcOffset);
+         float y = src.get(srcOffset + 1);
+         float z = src.get(srcOffset + 2);
+
+         dst.put(dstOffset, a00 * x + a01 * y + a02 * z);
+         dst.put(dstOffset + 1, a10 * x + a11 * y + a12 * z);
+         dst.put(dstOffset + 2, a20 * x + a21 * y + a22 * z);
+      }
+   }
+
+   /**
+    * Transforms count normals (x, y, z) read from src with the inverse transpose of this matrix and writes the unit
+    * length results to dst.
+    *
+    * Interleaved vertex data with a byte stride, such as GLBufferUtil.s_QUAD_BUFFER_STRIDE, is addressed through
+    * asFloatBuffer() with the stride divided by MathUtil.s_FLOAT_SIZE_BYTES. Absolute indexing is used so the buffer
+    * positions are not modified.
+    *
+    * @param src       source buffer
+    * @param srcOffset absolute index of the x component of the first source element
+    * @param srcStride distance in floats between consecutive source elements; must be positive
+    * @param dst       destination buffer; may be src when the offsets and strides are equal
+    * @param dstOffset absolute index of the x component of the first destination element
+    * @param dstStride distance in floats between consecutive destination elements
+    * @param count     number of elements to transform
+    */
+   public final void transformNormals(FloatBuffer src, int srcOffset, int srcStride, FloatBuffer dst, int dstOffset,
+    int dstStride, int count)
+   {
+      // cofactor matrix; equals the inverse transpose scaled by the determinant which normalization removes.
+      float c00 = m11 * m22 - m12 * m21;
+      float c01 = m12 * m20 - m10 * m22;
+      float c02 = m10 * m21 - m11 * m20;
+      float c10 = m02 * m21 - m01 * m22;
+      float c11 = m00 * m22 - m02 * m20;
+      float c12 = m01 * m20 - m00 * m21;
+      float c20 = m01 * m12 - m02 * m11;
+      float c21 = m02 * m10 - m00 * m12;
+      float c22 = m00 * m11 - m01 * m10;
+
+      // keep the orientation of the normals when the matrix mirrors.
+      float sign = m00 * c00 + m01 * c01 + m02 * c02 < 0.0f ? -1.0f : 1.0f;
+
+      int srcEnd = srcOffset + count * srcStride;
+
+      for (; srcOffset < srcEnd; srcOffset += srcStride, dstOffset += dstStride)
+      {
+         float x = src.get(srcOffset);
+         float y = src.get(srcOffset + 1);
+         float z = src.get(srcOffset + 2);
+
+         float nx = c00 * x + c01 * y + c02 * z;
+         float ny = c10 * x + c11 * y + c12 * z;
+         float nz = c20 * x + c21 * y + c22 * z;
+
+         float length = nx * nx + ny * ny + nz * nz;
+         float scale = length > 0.0f ? sign / (float)Math.sqrt(length) : 0.0f;
+
+         dst.put(dstOffset, nx * scale);
+         dst.put(dstOffset + 1, ny * scale);
+         dst.put(dstOffset + 2, nz * scale);
+      }
+   }
+
    /**
     * Sets 9 values
     */
@@ -1394,7 +2008,7 @@ public class Matrix3f
       m22 = 1.0f - (xx + yy);
    }
 
-   private void setFromAxisAngle(float x, float y, float z, float angle)
+   private void setFromAxisAngle(float x, float y, float z, float c, float s)
    {
       // Taken from Rick's which is taken from Wertz. pg. 412
       // Bug Fixed and changed into right-handed by hiranabe
@@ -1404,8 +2018,6 @@ public class Matrix3f
       x *= n;
       y *= n;
       z *= n;
-      float c = (float)Math.cos(angle);
-      float s = (float)Math.sin(angle);
       float omc = 1.0f - c;
       m00 = c + x * x * omc;
       m11 = c + y * y * omc;
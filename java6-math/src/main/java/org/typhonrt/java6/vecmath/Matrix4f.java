@@ -7,13 +7,70 @@
  */
 package org.typhonrt.java6.vecmath;
 
+import org.typhonrt.java6.math.IRangeTask;
+import org.typhonrt.java6.math.MathUtil;
+import org.typhonrt.java6.math.ParallelRange;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * A single precision floating point 4 by 4 matrix.
  *
+ * Each matrix keeps a conservative classification of its contents (see the s_PROPERTY_* flags) that is updated by
+ * the setters and used by mul, invert and transform to skip work for identity, translation, orthonormal and affine
+ * matrices. Writing the public fields directly bypasses this bookkeeping; afterward either call markDirty() to drop
+ * back to the general path or classify() to recompute the flags from the current values.
+ *
  * @author  Michael Leahy
  */
 public class Matrix4f
 {
+   /**
+    * Property value for a matrix with no known structure; all operations take the general 4x4 path.
+    */
+   public static final int s_PROPERTY_GENERAL = 0;
+
+   /**
+    * Property flag set when the fourth row is (0, 0, 0, 1).
+    */
+   public static final int s_PROPERTY_AFFINE = 1;
+
+   /**
+    * Property flag set when the upper 3x3 is orthonormal (a pure rotation or reflection); always combined with
+    * s_PROPERTY_AFFINE.
+    */
+   public static final int s_PROPERTY_ORTHONORMAL = 2;
+
+   /**
+    * Property flag set when the upper 3x3 is identity, so the matrix is at most a translation; always combined with
+    * s_PROPERTY_AFFINE and s_PROPERTY_ORTHONORMAL.
+    */
+   public static final int s_PROPERTY_TRANSLATION = 4;
+
+   /**
+    * Property flag set when the matrix is identity; always combined with all other flags.
+    */
+   public static final int s_PROPERTY_IDENTITY = 8;
+
+   /**
+    * Property flag set when the matrix has the sparse form produced by setFrustum / setPerspective; the fourth row is
+    * (0, 0, -1, 0) and only m00, m02, m11, m12, m22 and m23 are non-zero in the first three rows. Never combined with
+    * the other flags.
+    */
+   public static final int s_PROPERTY_PERSPECTIVE = 16;
+
+   /**
+    * Tolerance used by classify() when testing the upper 3x3 for orthonormality.
+    */
+   public static final float s_ORTHONORMAL_EPSILON = 1.0e-5f;
+
+   private static final int s_PROPERTIES_ORTHONORMAL = s_PROPERTY_AFFINE | s_PROPERTY_ORTHONORMAL;
+   private static final int s_PROPERTIES_TRANSLATION = s_PROPERTIES_ORTHONORMAL | s_PROPERTY_TRANSLATION;
+   private static final int s_PROPERTIES_IDENTITY = s_PROPERTIES_TRANSLATION | s_PROPERTY_IDENTITY;
+
    /**
     * The first element of the first row.
     */
@@ -94,6 +151,11 @@ public class Matrix4f
     */
    public float m33;
 
+   /**
+    * Known structure of this matrix as a combination of the s_PROPERTY_* flags.
+    */
+   private int properties;
+
    /**
     * Constructs a new matrix with the same values as the Matrix4f parameter.
     *
@@ -137,6 +199,70 @@ public class Matrix4f
       return sb.toString();
    }
 
+   /**
+    * Returns the currently known structure of this matrix as a combination of the s_PROPERTY_* flags. The value is
+    * conservative; a matrix may be more specialized than its flags state until classify() is invoked.
+    *
+    * @return the property flags
+    */
+   public final int getProperties()
+   {
+      return properties;
+   }
+
+   /**
+    * Clears the property flags so that all following operations take the general path. Must be invoked after the
+    * public fields have been modified directly unless classify() is invoked instead.
+    */
+   public final void markDirty()
+   {
+      properties = s_PROPERTY_GENERAL;
+   }
+
+   /**
+    * Recomputes the property flags from the current values of this matrix. Identity, translation and affine tests
+    * are exact; the orthonormal test accepts rows that are unit length and mutually perpendicular within
+    * s_ORTHONORMAL_EPSILON.
+    *
+    * @return the property flags
+    */
+   public final int classify()
+   {
+      int result = s_PROPERTY_GENERAL;
+
+      if (m30 == 0.0f && m31 == 0.0f && m32 == 0.0f && m33 == 1.0f)
+      {
+         if (m00 == 1.0f && m01 == 0.0f && m02 == 0.0f &&
+          m10 == 0.0f && m11 == 1.0f && m12 == 0.0f &&
+          m20 == 0.0f && m21 == 0.0f && m22 == 1.0f)
+         {
+            result = m03 == 0.0f && m13 == 0.0f && m23 == 0.0f ? s_PROPERTIES_IDENTITY : s_PROPERTIES_TRANSLATION;
+         }
+         else if (Math.abs(m00 * m00 + m01 * m01 + m02 * m02 - 1.0f) <= s_ORTHONORMAL_EPSILON &&
+          Math.abs(m10 * m10 + m11 * m11 + m12 * m12 - 1.0f) <= s_ORTHONORMAL_EPSILON &&
+          Math.abs(m20 * m20 + m21 * m21 + m22 * m22 - 1.0f) <= s_ORTHONORMAL_EPSILON &&
+          Math.abs(m00 * m10 + m01 * m11 + m02 * m12) <= s_ORTHONORMAL_EPSILON &&
+          Math.abs(m00 * m20 + m01 * m21 + m02 * m22) <= s_ORTHONORMAL_EPSILON &&
+          Math.abs(m10 * m20 + m11 * m21 + m12 * m22) <= s_ORTHONORMAL_EPSILON)
+         {
+            result = s_PROPERTIES_ORTHONORMAL;
+         }
+         else
+         {
+            result = s_PROPERTY_AFFINE;
+         }
+      }
+      else if (m30 == 0.0f && m31 == 0.0f && m32 == -1.0f && m33 == 0.0f &&
+       m01 == 0.0f && m03 == 0.0f && m10 == 0.0f && m13 == 0.0f && m20 == 0.0f && m21 == 0.0f)
+      {
+         result = s_PROPERTY_PERSPECTIVE;
+      }
+
+      properties = result;
+
+      return result;
+   }
+
    /**
     * Sets this Matrix4f to identity.
     */
@@ -158,6 +284,8 @@ public class Matrix4f
       m31 = 0.0f;
       m32 = 0.0f;
       m33 = 1.0f;
+
+      properties = s_PROPERTIES_IDENTITY;
    }
 
    /**
@@ -265,6 +393,8 @@ public class Matrix4f
       {
          throw new ArrayIndexOutOfBoundsException("row must be 0 to 2 and is " + row);
       }
+
+      properties = s_PROPERTY_GENERAL;
    }
 
    /**
@@ -385,6 +515,8 @@ public class Matrix4f
    {
       SVD(null, this);
       mulRotationScale(scale);
+
+      properties &= s_PROPERTY_AFFINE;
    }
 
    /**
@@ -455,6 +587,68 @@ public class Matrix4f
       m1.m22 = m22;
    }
 
+   /**
+    * Gets the normal matrix of this matrix, the inverse transpose of the upper 3x3, which transforms surface normals
+    * without skewing them under non-uniform scale. Orthonormal matrices (per the property flags) copy the upper 3x3,
+    * upper 3x3 blocks with orthogonal columns of equal length (uniform scale s) divide it by s^2, and all other
+    * matrices take the cofactor matrix divided by the determinant. A singular upper 3x3 yields its cofactor matrix,
+    * which still maps normals of the remaining directions correctly up to length.
+    *
+    * @param m1 The matrix that will hold the normal matrix
+    */
+   public final void getNormalMatrix(Matrix3f m1)
+   {
+      if ((properties & s_PROPERTY_ORTHONORMAL) != 0)
+      {
+         getRotationScale(m1);
+         return;
+      }
+
+      float l0 = m00 * m00 + m10 * m10 + m20 * m20;
+      float l1 = m01 * m01 + m11 * m11 + m21 * m21;
+      float l2 = m02 * m02 + m12 * m12 + m22 * m22;
+
+      float tolerance = l0 * s_ORTHONORMAL_EPSILON;
+
+      if (l0 > 0.0f && Math.abs(l1 - l0) <= tolerance && Math.abs(l2 - l0) <= tolerance &&
+       Math.abs(m00 * m01 + m10 * m11 + m20 * m21) <= tolerance &&
+       Math.abs(m00 * m02 + m10 * m12 + m20 * m22) <= tolerance &&
+       Math.abs(m01 * m02 + m11 * m12 + m21 * m22) <= tolerance)
+      {
+         // (s * R)^-T == R / s == M / s^2
+         float inv = 1.0f / l0;
+
+         m1.m00 = m00 * inv;
+         m1.m01 = m01 * inv;
+         m1.m02 = m02 * inv;
+         m1.m10 = m10 * inv;
+         m1.m11 = m11 * inv;
+         m1.m12 = m12 * inv;
+         m1.m20 = m20 * inv;
+         m1.m21 = m21 * inv;
+         m1.m22 = m22 * inv;
+         return;
+      }
+
+      // The inverse transpose is the cofactor matrix divided by the determinant.
+      float c00 = m11 * m22 - m12 * m21;
+      float c01 = m12 * m20 - m10 * m22;
+      float c02 = m10 * m21 - m11 * m20;
+
+      float det = m00 * c00 + m01 * c01 + m02 * c02;
+      float inv = det != 0.0f ? 1.0f / det : 1.0f;
+
+      m1.m00 = c00 * inv;
+      m1.m01 = c01 * inv;
+      m1.m02 = c02 * inv;
+      m1.m10 = (m02 * m21 - m01 * m22) * inv;
+      m1.m11 = (m00 * m22 - m02 * m20) * inv;
+      m1.m12 = (m01 * m20 - m00 * m21) * inv;
+      m1.m20 = (m01 * m12 - m02 * m11) * inv;
+      m1.m21 = (m02 * m10 - m00 * m12) * inv;
+      m1.m22 = (m00 * m11 - m01 * m10) * inv;
+   }
+
    /**
     * Performs an SVD normalization of this matrix to calculate and return the
     * uniform scale factor. This matrix is not modified.
@@ -482,6 +676,8 @@ public class Matrix4f
       m20 = m1.m20;
       m21 = m1.m21;
       m22 = m1.m22;
+
+      properties &= s_PROPERTY_AFFINE;
    }
 
    /**
@@ -527,6 +723,8 @@ public class Matrix4f
       {
          throw new ArrayIndexOutOfBoundsException("row must be 0 to 3 and is " + row);
       }
+
+      properties = s_PROPERTY_GENERAL;
    }
 
    /**
@@ -569,6 +767,8 @@ public class Matrix4f
       {
          throw new ArrayIndexOutOfBoundsException("row must be 0 to 3 and is " + row);
       }
+
+      properties = s_PROPERTY_GENERAL;
    }
 
    /**
@@ -611,6 +811,8 @@ public class Matrix4f
       {
          throw new ArrayIndexOutOfBoundsException("row must be 0 to 3 and is " + row);
       }
+
+      properties = s_PROPERTY_GENERAL;
    }
 
    /**
@@ -745,6 +947,8 @@ public class Matrix4f
          default:
             throw new ArrayIndexOutOfBoundsException("column must be 0 to 3 and is " + column);
       }
+
+      properties = s_PROPERTY_GENERAL;
    }
 
    /**
@@ -788,6 +992,8 @@ public class Matrix4f
          default:
             throw new ArrayIndexOutOfBoundsException("column must be 0 to 3 and is " + column);
       }
+
+      properties = s_PROPERTY_GENERAL;
    }
 
    /**
@@ -831,6 +1037,8 @@ public class Matrix4f
          default:
             throw new ArrayIndexOutOfBoundsException("column must be 0 to 3 and is " + column);
       }
+
+      properties = s_PROPERTY_GENERAL;
    }
 
    /**
@@ -944,6 +1152,8 @@ public class Matrix4f
       m31 += scalar;
       m32 += scalar;
       m33 += scalar;
+
+      properties = s_PROPERTY_GENERAL;
    }
 
    /**
@@ -995,6 +1205,8 @@ public class Matrix4f
       m31 += m1.m31;
       m32 += m1.m32;
       m33 += m1.m33;
+
+      properties = s_PROPERTY_GENERAL;
    }
 
    /**
@@ -1051,6 +1263,8 @@ public class Matrix4f
       m31 -= m1.m31;
       m32 -= m1.m32;
       m33 -= m1.m33;
+
+      properties = s_PROPERTY_GENERAL;
    }
 
    /**
@@ -1081,6 +1295,11 @@ public class Matrix4f
       tmp = m23;
       m23 = m32;
       m32 = tmp;
+
+      if ((properties & s_PROPERTY_IDENTITY) == 0)
+      {
+         properties = s_PROPERTY_GENERAL;
+      }
    }
 
    /**
@@ -1121,6 +1340,11 @@ public class Matrix4f
       m03 = t1.x;
       m13 = t1.y;
       m23 = t1.z;
+
+      if (s != 1.0f)
+      {
+         properties = s_PROPERTY_AFFINE;
+      }
    }
 
    /**
@@ -1147,6 +1371,8 @@ public class Matrix4f
       m31 = m1.m31;
       m32 = m1.m32;
       m33 = m1.m33;
+
+      properties = m1.properties;
    }
 
 
@@ -1155,47 +1381,302 @@ public class Matrix4f
     * of the passed matrix m1.
     *
     * @param m1 the matrix to be inverted
+    * @return false if m1 is singular, in which case this matrix is set to m1
     */
-   public final void invert(Matrix4f m1)
+   public final boolean invert(Matrix4f m1)
    {
       set(m1);
-      invert();
+      return invert();
    }
 
    /**
-    * Sets the value of this matrix to its inverse.
+    * Sets the value of this matrix to its inverse. Identity and translation matrices are inverted by negating the
+    * translation, orthonormal matrices by a 3x3 transpose and affine matrices by a 3x3 inverse; in each case the
+    * translation becomes the negated translation transformed by the inverted upper 3x3. Perspective matrices use
+    * invertPerspective. Other matrices take the cofactor expansion, which shares the twelve 2x2 minors of the upper
+    * and lower row pairs between the determinant and the adjugate.
+    *
+    * @return false if this matrix is singular, in which case it is left unchanged
     */
-   public final void invert()
+   public final boolean invert()
    {
-      float s = determinant();
-      if (s == 0.0)
-         return;
-      s = 1 / s;
-      // alias-safe way.
-      // less *,+,- calculation than expanded expression.
-      set(
-       m11 * (m22 * m33 - m23 * m32) + m12 * (m23 * m31 - m21 * m33) + m13 * (m21 * m32 - m22 * m31),
-       m21 * (m02 * m33 - m03 * m32) + m22 * (m03 * m31 - m01 * m33) + m23 * (m01 * m32 - m02 * m31),
-       m31 * (m02 * m13 - m03 * m12) + m32 * (m03 * m11 - m01 * m13) + m33 * (m01 * m12 - m02 * m11),
-       m01 * (m13 * m22 - m12 * m23) + m02 * (m11 * m23 - m13 * m21) + m03 * (m12 * m21 - m11 * m22),
-
-       m12 * (m20 * m33 - m23 * m30) + m13 * (m22 * m30 - m20 * m32) + m10 * (m23 * m32 - m22 * m33),
-       m22 * (m00 * m33 - m03 * m30) + m23 * (m02 * m30 - m00 * m32) + m20 * (m03 * m32 - m02 * m33),
-       m32 * (m00 * m13 - m03 * m10) + m33 * (m02 * m10 - m00 * m12) + m30 * (m03 * m12 - m02 * m13),
-       m02 * (m13 * m20 - m10 * m23) + m03 * (m10 * m22 - m12 * m20) + m00 * (m12 * m23 - m13 * m22),
-
-       m13 * (m20 * m31 - m21 * m30) + m10 * (m21 * m33 - m23 * m31) + m11 * (m23 * m30 - m20 * m33),
-       m23 * (m00 * m31 - m01 * m30) + m20 * (m01 * m33 - m03 * m31) + m21 * (m03 * m30 - m00 * m33),
-       m33 * (m00 * m11 - m01 * m10) + m30 * (m01 * m13 - m03 * m11) + m31 * (m03 * m10 - m00 * m13),
-       m03 * (m11 * m20 - m10 * m21) + m00 * (m13 * m21 - m11 * m23) + m01 * (m10 * m23 - m13 * m20),
-
-       m10 * (m22 * m31 - m21 * m32) + m11 * (m20 * m32 - m22 * m30) + m12 * (m21 * m30 - m20 * m31),
-       m20 * (m02 * m31 - m01 * m32) + m21 * (m00 * m32 - m02 * m30) + m22 * (m01 * m30 - m00 * m31),
-       m30 * (m02 * m11 - m01 * m12) + m31 * (m00 * m12 - m02 * m10) + m32 * (m01 * m10 - m00 * m11),
-       m00 * (m11 * m22 - m12 * m21) + m01 * (m12 * m20 - m10 * m22) + m02 * (m10 * m21 - m11 * m20)
-      );
+      int p = properties;
+
+      if ((p & s_PROPERTY_IDENTITY) != 0)
+      {
+         return true;
+      }
+
+      if ((p & s_PROPERTY_PERSPECTIVE) != 0)
+      {
+         // The determinant of a perspective matrix is m00 * m11 * m23 * m32 with m32 == -1. The depth terms are
+         // infinite for a zero depth range; the negated comparisons also reject NaN.
+         if (m00 == 0.0f || m11 == 0.0f || m23 == 0.0f || !(Math.abs(m22) <= Float.MAX_VALUE) ||
+          !(Math.abs(m23) <= Float.MAX_VALUE))
+         {
+            return false;
+         }
+
+         invertPerspective(this);
+         return true;
+      }
+
+      if ((p & s_PROPERTY_TRANSLATION) != 0)
+      {
+         m03 = -m03;
+         m13 = -m13;
+         m23 = -m23;
+         return true;
+      }
+
+      if ((p & s_PROPERTY_ORTHONORMAL) != 0)
+      {
+         invertOrthonormal();
+         return true;
+      }
+
+      if ((p & s_PROPERTY_AFFINE) != 0)
+      {
+         return invertAffine();
+      }
+
+      // minors of rows 0 and 1
+      float s0 = m00 * m11 - m01 * m10;
+      float s1 = m00 * m12 - m02 * m10;
+      float s2 = m00 * m13 - m03 * m10;
+      float s3 = m01 * m12 - m02 * m11;
+      float s4 = m01 * m13 - m03 * m11;
+      float s5 = m02 * m13 - m03 * m12;
+
+      // minors of rows 2 and 3
+      float c0 = m20 * m31 - m21 * m30;
+      float c1 = m20 * m32 - m22 * m30;
+      float c2 = m20 * m33 - m23 * m30;
+      float c3 = m21 * m32 - m22 * m31;
+      float c4 = m21 * m33 - m23 * m31;
+      float c5 = m22 * m33 - m23 * m32;
+
+      float det = s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0;
+
+      if (det == 0.0f)
+      {
+         return false;
+      }
+
+      float s = 1.0f / det;
+
+      float i00 = (m11 * c5 - m12 * c4 + m13 * c3) * s;
+      float i01 = (m02 * c4 - m01 * c5 - m03 * c3) * s;
+      float i02 = (m31 * s5 - m32 * s4 + m33 * s3) * s;
+      float i03 = (m22 * s4 - m21 * s5 - m23 * s3) * s;
+      float i10 = (m12 * c2 - m10 * c5 - m13 * c1) * s;
+      float i11 = (m00 * c5 - m02 * c2 + m03 * c1) * s;
+      float i12 = (m32 * s2 - m30 * s5 - m33 * s1) * s;
+      float i13 = (m20 * s5 - m22 * s2 + m23 * s1) * s;
+      float i20 = (m10 * c4 - m11 * c2 + m13 * c0) * s;
+      float i21 = (m01 * c2 - m00 * c4 - m03 * c0) * s;
+      float i22 = (m30 * s4 - m31 * s2 + m33 * s0) * s;
+      float i23 = (m21 * s2 - m20 * s4 - m23 * s0) * s;
+      float i30 = (m11 * c1 - m10 * c3 - m12 * c0) * s;
+      float i31 = (m00 * c3 - m01 * c1 + m02 * c0) * s;
+      float i32 = (m31 * s1 - m30 * s3 - m32 * s0) * s;
+      float i33 = (m20 * s3 - m21 * s1 + m22 * s0) * s;
+
+      m00 = i00;
+      m01 = i01;
+      m02 = i02;
+      m03 = i03;
+      m10 = i10;
+      m11 = i11;
+      m12 = i12;
+      m13 = i13;
+      m20 = i20;
+      m21 = i21;
+      m22 = i22;
+      m23 = i23;
+      m30 = i30;
+      m31 = i31;
+      m32 = i32;
+      m33 = i33;
+
+      return true;
+   }
+
+   /**
+    * Sets the value of this matrix to the inverse of m1 treating it as affine; see invertAffine().
+    *
+    * @param m1 the matrix to be inverted
+    * @return false if the upper 3x3 of m1 is singular, in which case this matrix is set to m1
+    */
+   public final boolean invertAffine(Matrix4f m1)
+   {
+      set(m1);
+      return invertAffine();
+   }
+
+   /**
+    * Sets the value of this matrix to its inverse treating it as affine: the fourth row is not read and is written as
+    * (0, 0, 0, 1), the upper 3x3 is inverted by its cofactors and the translation becomes the negated translation
+    * transformed by the inverted upper 3x3. Cheaper than invert() when the caller knows the matrix is affine but its
+    * property flags do not say so.
+    *
+    * @return false if the upper 3x3 is singular, in which case the matrix is left unchanged
+    */
+   public final boolean invertAffine()
+   {
+      float c00 = m11 * m22 - m12 * m21;
+      float c01 = m12 * m20 - m10 * m22;
+      float c02 = m10 * m21 - m11 * m20;
+
+      float s = m00 * c00 + m01 * c01 + m02 * c02;
+
+      if (s == 0.0f)
+      {
+         return false;
+      }
+
+      s = 1.0f / s;
+
+      float i00 = c00 * s;
+      float i01 = (m02 * m21 - m01 * m22) * s;
+      float i02 = (m01 * m12 - m02 * m11) * s;
+      float i10 = c01 * s;
+      float i11 = (m00 * m22 - m02 * m20) * s;
+      float i12 = (m02 * m10 - m00 * m12) * s;
+      float i20 = c02 * s;
+      float i21 = (m01 * m20 - m00 * m21) * s;
+      float i22 = (m00 * m11 - m01 * m10) * s;
+
+      float tx = m03;
+      float ty = m13;
+      float tz = m23;
+
+      m00 = i00;
+      m01 = i01;
+      m02 = i02;
+      m03 = -(i00 * tx + i01 * ty + i02 * tz);
+      m10 = i10;
+      m11 = i11;
+      m12 = i12;
+      m13 = -(i10 * tx + i11 * ty + i12 * tz);
+      m20 = i20;
+      m21 = i21;
+      m22 = i22;
+      m23 = -(i20 * tx + i21 * ty + i22 * tz);
+      m30 = 0.0f;
+      m31 = 0.0f;
+      m32 = 0.0f;
+      m33 = 1.0f;
+
+      // the inverse keeps the orthonormal / translation / identity structure.
+      properties = (properties & s_PROPERTY_PERSPECTIVE) != 0 ? s_PROPERTY_AFFINE : properties | s_PROPERTY_AFFINE;
+
+      return true;
+   }
+
+   /**
+    * Inverts count matrices stored as 16 consecutive floats each with the general cofactor expansion of invert().
+    * Since the inverse of a transpose is the transpose of the inverse, the matrices may be stored in row-major or
+    * column-major order; the results are written in the same order. A singular matrix is copied unchanged.
+    *
+    * @param src       source matrices
+    * @param srcOffset index of the first float of the first source matrix
+    * @param dst       destination matrices; may be src when the offsets are equal
+    * @param dstOffset index of the first float of the first destination matrix
+    * @param count     number of matrices to invert
+    * @return number of singular matrices
+    */
+   public static int invert(float[] src, int srcOffset, float[] dst, int dstOffset, int count)
+   {
+      int singular = 0;
+
+      for (int end = srcOffset + count * 16; srcOffset < end; srcOffset += 16, dstOffset += 16)
+      {
+         final int o = srcOffset;
+
+         float a00 = src[o], a01 = src[o + 1], a02 = src[o + 2], a03 = src[o + 3];
+         float a10 = src[o + 4], a11 = src[o + 5], a12 = src[o + 6], a13 = src[o + 7];
+         float a20 = src[o + 8], a21 = src[o + 9], a22 = src[o + 10], a23 = src[o + 11];
+         float a30 = src[o + 12], a31 = src[o + 13], a32 = src[o + 14], a33 = src[o + 15];
+
+         float s0 = a00 * a11 - a01 * a10;
+         float s1 = a00 * a12 - a02 * a10;
+         float s2 = a00 * a13 - a03 * a10;
+         float s3 = a01 * a12 - a02 * a11;
+         float s4 = a01 * a13 - a03 * a11;
+         float s5 = a02 * a13 - a03 * a12;
+
+         float c0 = a20 * a31 - a21 * a30;
+         float c1 = a20 * a32 - a22 * a30;
+         float c2 = a20 * a33 - a23 * a30;
+         float c3 = a21 * a32 - a22 * a31;
+         float c4 = a21 * a33 - a23 * a31;
+         float c5 = a22 * a33 - a23 * a32;
+
+         float det = s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0;
+
+         final int d = dstOffset;
+
+         if (det == 0.0f)
+         {
+            singular++;
+
+            if (src != dst || o != d)
+            {
+               System.arraycopy(src, o, dst, d, 16);
+            }
+            continue;
+         }
+
+         float s = 1.0f / det;
+
+         dst[d] = (a11 * c5 - a12 * c4 + a13 * c3) * s;
+         dst[d + 1] = (a02 * c4 - a01 * c5 - a03 * c3) * s;
+         dst[d + 2] = (a31 * s5 - a32 * s4 + a33 * s3) * s;
+         dst[d + 3] = (a22 * s4 - a21 * s5 - a23 * s3) * s;
+         dst[d + 4] = (a12 * c2 - a10 * c5 - a13 * c1) * s;
+         dst[d + 5] = (a00 * c5 - a02 * c2 + a03 * c1) * s;
+         dst[d + 6] = (a32 * s2 - a30 * s5 - a33 * s1) * s;
+         dst[d + 7] = (a20 * s5 - a22 * s2 + a23 * s1) * s;
+         dst[d + 8] = (a10 * c4 - a11 * c2 + a13 * c0) * s;
+         dst[d + 9] = (a01 * c2 - a00 * c4 - a03 * c0) * s;
+         dst[d + 10] = (a30 * s4 - a31 * s2 + a33 * s0) * s;
+         dst[d + 11] = (a21 * s2 - a20 * s4 - a23 * s0) * s;
+         dst[d + 12] = (a11 * c1 - a10 * c3 - a12 * c0) * s;
+         dst[d + 13] = (a00 * c3 - a01 * c1 + a02 * c0) * s;
+         dst[d + 14] = (a31 * s1 - a30 * s3 - a32 * s0) * s;
+         dst[d + 15] = (a20 * s3 - a21 * s1 + a22 * s0) * s;
+      }
+
+      return singular;
+   }
+
+   /**
+    * Performs invert(float[], int, float[], int, int) splitting the work across the executor when count is large; see
+    * ParallelRange. Source and destination ranges of different chunks must not overlap.
+    *
+    * @param src       source matrices
+    * @param srcOffset index of the first float of the first source matrix
+    * @param dst       destination matrices; may be src when the offsets are equal
+    * @param dstOffset index of the first float of the first destination matrix
+    * @param count     number of matrices to invert
+    * @param executor  executor for the additional chunks; may be null to run serially
+    * @return number of singular matrices
+    */
+   public static int invert(final float[] src, final int srcOffset, final float[] dst, final int dstOffset, int count,
+    ExecutorService executor)
+   {
+      final AtomicInteger singular = new AtomicInteger();
+
+      ParallelRange.execute(executor, count, ParallelRange.s_DEFAULT_MIN_CHUNK_SIZE / 16, new IRangeTask()
+      {
+         public void run(int start, int end)
+         {
+            singular.addAndGet(invert(src, srcOffset + start * 16, dst, dstOffset + start * 16, end - start));
+         }
+      });
 
-      mul(s);
+      return singular.get();
    }
 
    /**
@@ -1243,6 +1724,8 @@ public class Matrix4f
       m31 = 0.0f;
       m32 = 0.0f;
       m33 = 1.0f;
+
+      properties = s_PROPERTY_AFFINE;
    }
 
    /**
@@ -1269,6 +1752,8 @@ public class Matrix4f
       m31 = 0.0f;
       m32 = 0.0f;
       m33 = 1.0f;
+
+      properties = scale == 1.0f ? s_PROPERTIES_IDENTITY : s_PROPERTY_AFFINE;
    }
 
 
@@ -1295,106 +1780,593 @@ public class Matrix4f
       m31 = m[13];
       m32 = m[14];
       m33 = m[15];
+
+      properties = s_PROPERTY_GENERAL;
    }
 
    /**
-    * Sets the value of this matrix to a translate matrix by the
-    * passed translation value.
+    * Stores this matrix into the buffer at its current position in column-major order as expected by OpenGL; the
+    * position is advanced by 16.
     *
-    * @param v1 the translation amount
+    * @param buffer the buffer that receives the values
     */
-   public final void set(Vector3f v1)
+   public final void get(FloatBuffer buffer)
    {
-      setIdentity();
-      setTranslation(v1);
+      buffer.put(m00).put(m10).put(m20).put(m30);
+      buffer.put(m01).put(m11).put(m21).put(m31);
+      buffer.put(m02).put(m12).put(m22).put(m32);
+      buffer.put(m03).put(m13).put(m23).put(m33);
    }
 
    /**
-    * Sets the value of this matrix to a scale and translation matrix;
-    * scale is not applied to the translation and all of the matrix
-    * values are modified.
+    * Stores this matrix into the buffer starting at the absolute index in column-major order; the position of the
+    * buffer is not modified.
     *
-    * @param scale the scale factor for the matrix
-    * @param v1    the translation amount
+    * @param buffer the buffer that receives the values
+    * @param index  index of the first element
     */
-   public final void set(float scale, Vector3f v1)
+   public final void get(FloatBuffer buffer, int index)
    {
-      set(scale);
-      setTranslation(v1);
+      buffer.put(index, m00);
+      buffer.put(index + 1, m10);
+      buffer.put(index + 2, m20);
+      buffer.put(index + 3, m30);
+      buffer.put(index + 4, m01);
+      buffer.put(index + 5, m11);
+      buffer.put(index + 6, m21);
+      buffer.put(index + 7, m31);
+      buffer.put(index + 8, m02);
+      buffer.put(index + 9, m12);
+      buffer.put(index + 10, m22);
+      buffer.put(index + 11, m32);
+      buffer.put(index + 12, m03);
+      buffer.put(index + 13, m13);
+      buffer.put(index + 14, m23);
+      buffer.put(index + 15, m33);
    }
 
    /**
-    * Sets the value of this matrix to a scale and translation matrix;
-    * the translation is scaled by the scale factor and all of the
-    * matrix values are modified.
+    * Stores this matrix as floats into the buffer at its current position in column-major order using the byte order
+    * of the buffer; the position is advanced by 64.
     *
-    * @param v1    the translation amount
-    * @param scale the scale factor for the matrix
+    * @param buffer the buffer that receives the values
     */
-   public final void set(Vector3f v1, float scale)
+   public final void get(ByteBuffer buffer)
    {
-      m00 = scale;
-      m01 = 0.0f;
-      m02 = 0.0f;
-      m03 = scale * v1.x;
-      m10 = 0.0f;
-      m11 = scale;
-      m12 = 0.0f;
-      m13 = scale * v1.y;
-      m20 = 0.0f;
-      m21 = 0.0f;
-      m22 = scale;
-      m23 = scale * v1.z;
-      m30 = 0.0f;
-      m31 = 0.0f;
-      m32 = 0.0f;
-      m33 = 1.0f;
+      buffer.putFloat(m00).putFloat(m10).putFloat(m20).putFloat(m30);
+      buffer.putFloat(m01).putFloat(m11).putFloat(m21).putFloat(m31);
+      buffer.putFloat(m02).putFloat(m12).putFloat(m22).putFloat(m32);
+      buffer.putFloat(m03).putFloat(m13).putFloat(m23).putFloat(m33);
    }
 
+   /**
+    * Stores this matrix as floats into the buffer starting at the absolute byte offset in column-major order using the
+    * byte order of the buffer; the position of the buffer is not modified.
+    *
+    * @param buffer the buffer that receives the values
+    * @param offset byte offset of the first element
+    */
+   public final void get(ByteBuffer buffer, int offset)
+   {
+      buffer.putFloat(offset, m00);
+      buffer.putFloat(offset + 4, m10);
+      buffer.putFloat(offset + 8, m20);
+      buffer.putFloat(offset + 12, m30);
+      buffer.putFloat(offset + 16, m01);
+      buffer.putFloat(offset + 20, m11);
+      buffer.putFloat(offset + 24, m21);
+      buffer.putFloat(offset + 28, m31);
+      buffer.putFloat(offset + 32, m02);
+      buffer.putFloat(offset + 36, m12);
+      buffer.putFloat(offset + 40, m22);
+      buffer.putFloat(offset + 44, m32);
+      buffer.putFloat(offset + 48, m03);
+      buffer.putFloat(offset + 52, m13);
+      buffer.putFloat(offset + 56, m23);
+      buffer.putFloat(offset + 60, m33);
+   }
 
    /**
-    * Sets the value of this matrix from the rotation expressed by the
-    * rotation matrix m1, the translation t1, and the scale s. The translation
-    * is not modified by the scale.
+    * Sets this matrix from 16 column-major values read from the buffer at its current position; the position is
+    * advanced by 16.
     *
-    * @param m1    The rotation component
-    * @param t1    The translation component
-    * @param scale The scale component
+    * @param buffer the buffer that provides the values
     */
-   public final void set(Matrix3f m1, Vector3f t1, float scale)
+   public final void set(FloatBuffer buffer)
    {
-      setRotationScale(m1);
-      mulRotationScale(scale);
-      setTranslation(t1);
-      m33 = 1.0f;
+      m00 = buffer.get();
+      m10 = buffer.get();
+      m20 = buffer.get();
+      m30 = buffer.get();
+      m01 = buffer.get();
+      m11 = buffer.get();
+      m21 = buffer.get();
+      m31 = buffer.get();
+      m02 = buffer.get();
+      m12 = buffer.get();
+      m22 = buffer.get();
+      m32 = buffer.get();
+      m03 = buffer.get();
+      m13 = buffer.get();
+      m23 = buffer.get();
+      m33 = buffer.get();
+
+      properties = s_PROPERTY_GENERAL;
    }
 
    /**
-    * Modifies the translational components of this matrix to the values of
-    * the Vector3f argument; the other values of this matrix are not modified.
+    * Sets this matrix from 16 column-major values read from the buffer starting at the absolute index; the position of
+    * the buffer is not modified.
     *
-    * @param trans the translational component
+    * @param buffer the buffer that provides the values
+    * @param index  index of the first element
     */
-   public void setTranslation(Vector3f trans)
+   public final void set(FloatBuffer buffer, int index)
    {
-      m03 = trans.x;
-      m13 = trans.y;
-      m23 = trans.z;
+      m00 = buffer.get(index);
+      m10 = buffer.get(index + 1);
+      m20 = buffer.get(index + 2);
+      m30 = buffer.get(index + 3);
+      m01 = buffer.get(index + 4);
+      m11 = buffer.get(index + 5);
+      m21 = buffer.get(index + 6);
+      m31 = buffer.get(index + 7);
+      m02 = buffer.get(index + 8);
+      m12 = buffer.get(index + 9);
+      m22 = buffer.get(index + 10);
+      m32 = buffer.get(index + 11);
+      m03 = buffer.get(index + 12);
+      m13 = buffer.get(index + 13);
+      m23 = buffer.get(index + 14);
+      m33 = buffer.get(index + 15);
+
+      properties = s_PROPERTY_GENERAL;
    }
 
    /**
-    * Sets the value of this matrix to a rotation matrix about the x axis
-    * by the passed angle.
+    * Sets this matrix from 16 column-major floats read from the buffer at its current position using the byte order of
+    * the buffer; the position is advanced by 64.
     *
-    * @param angle the angle to rotate about the X axis in radians
+    * @param buffer the buffer that provides the values
     */
-   public final void rotX(float angle)
+   public final void set(ByteBuffer buffer)
    {
-      float c = (float) Math.cos(angle);
-      float s = (float) Math.sin(angle);
-      m00 = 1.0f;
-      m01 = 0.0f;
-      m02 = 0.0f;
+      m00 = buffer.getFloat();
+      m10 = buffer.getFloat();
+      m20 = buffer.getFloat();
+      m30 = buffer.getFloat();
+      m01 = buffer.getFloat();
+      m11 = buffer.getFloat();
+      m21 = buffer.getFloat();
+      m31 = buffer.getFloat();
+      m02 = buffer.getFloat();
+      m12 = buffer.getFloat();
+      m22 = buffer.getFloat();
+      m32 = buffer.getFloat();
+      m03 = buffer.getFloat();
+      m13 = buffer.getFloat();
+      m23 = buffer.getFloat();
+      m33 = buffer.getFloat();
+
+      properties = s_PROPERTY_GENERAL;
+   }
+
+   /**
+    * Sets this matrix from 16 column-major floats read from the buffer starting at the absolute byte offset using the
+    * byte order of the buffer; the position of the buffer is not modified.
+    *
+    * @param buffer the buffer that provides the values
+    * @param offset byte offset of the first element
+    */
+   public final void set(ByteBuffer buffer, int offset)
+   {
+      m00 = buffer.getFloat(offset);
+      m10 = buffer.getFloat(offset + 4);
+      m20 = buffer.getFloat(offset + 8);
+      m30 = buffer.getFloat(offset + 12);
+      m01 = buffer.getFloat(offset + 16);
+      m11 = buffer.getFloat(offset + 20);
+      m21 = buffer.getFloat(offset + 24);
+      m31 = buffer.getFloat(offset + 28);
+      m02 = buffer.getFloat(offset + 32);
+      m12 = buffer.getFloat(offset + 36);
+      m22 = buffer.getFloat(offset + 40);
+      m32 = buffer.getFloat(offset + 44);
+      m03 = buffer.getFloat(offset + 48);
+      m13 = buffer.getFloat(offset + 52);
+      m23 = buffer.getFloat(offset + 56);
+      m33 = buffer.getFloat(offset + 60);
+
+      properties = s_PROPERTY_GENERAL;
+   }
+
+   /**
+    * Stores this matrix into the buffer at its current position in row-major order; the position is advanced by 16.
+    *
+    * @param buffer the buffer that receives the values
+    */
+   public final void getRowMajor(FloatBuffer buffer)
+   {
+      buffer.put(m00).put(m01).put(m02).put(m03);
+      buffer.put(m10).put(m11).put(m12).put(m13);
+      buffer.put(m20).put(m21).put(m22).put(m23);
+      buffer.put(m30).put(m31).put(m32).put(m33);
+   }
+
+   /**
+    * Stores this matrix into the buffer starting at the absolute index in row-major order; the position of the buffer
+    * is not modified.
+    *
+    * @param buffer the buffer that receives the values
+    * @param index  index of the first element
+    */
+   public final void getRowMajor(FloatBuffer buffer, int index)
+   {
+      buffer.put(index, m00);
+      buffer.put(index + 1, m01);
+      buffer.put(index + 2, m02);
+      buffer.put(index + 3, m03);
+      buffer.put(index + 4, m10);
+      buffer.put(index + 5, m11);
+      buffer.put(index + 6, m12);
+      buffer.put(index + 7, m13);
+      buffer.put(index + 8, m20);
+      buffer.put(index + 9, m21);
+      buffer.put(index + 10, m22);
+      buffer.put(index + 11, m23);
+      buffer.put(index + 12, m30);
+      buffer.put(index + 13, m31);
+      buffer.put(index + 14, m32);
+      buffer.put(index + 15, m33);
+   }
+
+   /**
+    * Stores this matrix as floats into the buffer at its current position in row-major order using the byte order of
+    * the buffer; the position is advanced by 64.
+    *
+    * @param buffer the buffer that receives the values
+    */
+   public final void getRowMajor(ByteBuffer buffer)
+   {
+      buffer.putFloat(m00).putFloat(m01).putFloat(m02).putFloat(m03);
+      buffer.putFloat(m10).putFloat(m11).putFloat(m12).putFloat(m13);
+      buffer.putFloat(m20).putFloat(m21).putFloat(m22).putFloat(m23);
+      buffer.putFloat(m30).putFloat(m31).putFloat(m32).putFloat(m33);
+   }
+
+   /**
+    * Stores this matrix as floats into the buffer starting at the absolute byte offset in row-major order using the
+    * byte order of the buffer; the position of the buffer is not modified.
+    *
+    * @param buffer the buffer that receives the values
+    * @param offset byte offset of the first element
+    */
+   public final void getRowMajor(ByteBuffer buffer, int offset)
+   {
+      buffer.putFloat(offset, m00);
+      buffer.putFloat(offset + 4, m01);
+      buffer.putFloat(offset + 8, m02);
+      buffer.putFloat(offset + 12, m03);
+      buffer.putFloat(offset + 16, m10);
+      buffer.putFloat(offset + 20, m11);
+      buffer.putFloat(offset + 24, m12);
+      buffer.putFloat(offset + 28, m13);
+      buffer.putFloat(offset + 32, m20);
+      buffer.putFloat(offset + 36, m21);
+      buffer.putFloat(offset + 40, m22);
+      buffer.putFloat(offset + 44, m23);
+      buffer.putFloat(offset + 48, m30);
+      buffer.putFloat(offset + 52, m31);
+      buffer.putFloat(offset + 56, m32);
+      buffer.putFloat(offset + 60, m33);
+   }
+
+   /**
+    * Sets this matrix from 16 row-major values read from the buffer at its current position; the position is advanced
+    * by 16.
+    *
+    * @param buffer the buffer that provides the values
+    */
+   public final void setRowMajor(FloatBuffer buffer)
+   {
+      m00 = buffer.get();
+      m01 = buffer.get();
+      m02 = buffer.get();
+      m03 = buffer.get();
+      m10 = buffer.get();
+      m11 = buffer.get();
+      m12 = buffer.get();
+      m13 = buffer.get();
+      m20 = buffer.get();
+      m21 = buffer.get();
+      m22 = buffer.get();
+      m23 = buffer.get();
+      m30 = buffer.get();
+      m31 = buffer.get();
+      m32 = buffer.get();
+      m33 = buffer.get();
+
+      properties = s_PROPERTY_GENERAL;
+   }
+
+   /**
+    * Sets this matrix from 16 row-major values read from the buffer starting at the absolute index; the position of
+    * the buffer is not modified.
+    *
+    * @param buffer the buffer that provides the values
+    * @param index  index of the first element
+    */
+   public final void setRowMajor(FloatBuffer buffer, int index)
+   {
+      m00 = buffer.get(index);
+      m01 = buffer.get(index + 1);
+      m02 = buffer.get(index + 2);
+      m03 = buffer.get(index + 3);
+      m10 = buffer.get(index + 4);
+      m11 = buffer.get(index + 5);
+      m12 = buffer.get(index + 6);
+      m13 = buffer.get(index + 7);
+      m20 = buffer.get(index + 8);
+      m21 = buffer.get(index + 9);
+      m22 = buffer.get(index + 10);
+      m23 = buffer.get(index + 11);
+      m30 = buffer.get(index + 12);
+      m31 = buffer.get(index + 13);
+      m32 = buffer.get(index + 14);
+      m33 = buffer.get(index + 15);
+
+      properties = s_PROPERTY_GENERAL;
+   }
+
+   /**
+    * Sets this matrix from 16 row-major floats read from the buffer at its current position using the byte order of
+    * the buffer; the position is advanced by 64.
+    *
+    * @param buffer the buffer that provides the values
+    */
+   public final void setRowMajor(ByteBuffer buffer)
+   {
+      m00 = buffer.getFloat();
+      m01 = buffer.getFloat();
+      m02 = buffer.getFloat();
+      m03 = buffer.getFloat();
+      m10 = buffer.getFloat();
+      m11 = buffer.getFloat();
+      m12 = buffer.getFloat();
+      m13 = buffer.getFloat();
+      m20 = buffer.getFloat();
+      m21 = buffer.getFloat();
+      m22 = buffer.getFloat();
+      m23 = buffer.getFloat();
+      m30 = buffer.getFloat();
+      m31 = buffer.getFloat();
+      m32 = buffer.getFloat();
+      m33 = buffer.getFloat();
+
+      properties = s_PROPERTY_GENERAL;
+   }
+
+   /**
+    * Sets this matrix from 16 row-major floats read from the buffer starting at the absolute byte offset using the
+    * byte order of the buffer; the position of the buffer is not modified.
+    *
+    * @param buffer the buffer that provides the values
+    * @param offset byte offset of the first element
+    */
+   public final void setRowMajor(ByteBuffer buffer, int offset)
+   {
+      m00 = buffer.getFloat(offset);
+      m01 = buffer.getFloat(offset + 4);
+      m02 = buffer.getFloat(offset + 8);
+      m03 = buffer.getFloat(offset + 12);
+      m10 = buffer.getFloat(offset + 16);
+      m11 = buffer.getFloat(offset + 20);
+      m12 = buffer.getFloat(offset + 24);
+      m13 = buffer.getFloat(offset + 28);
+      m20 = buffer.getFloat(offset + 32);
+      m21 = buffer.getFloat(offset + 36);
+      m22 = buffer.getFloat(offset + 40);
+      m23 = buffer.getFloat(offset + 44);
+      m30 = buffer.getFloat(offset + 48);
+      m31 = buffer.getFloat(offset + 52);
+      m32 = buffer.getFloat(offset + 56);
+      m33 = buffer.getFloat(offset + 60);
+
+      properties = s_PROPERTY_GENERAL;
+   }
+
+   /**
+    * Sets the value of this matrix to a translate matrix by the
+    * passed translation value.
+    *
+    * @param v1 the translation amount
+    */
+   public final void set(Vector3f v1)
+   {
+      setIdentity();
+      setTranslation(v1);
+   }
+
+   /**
+    * Sets the value of this matrix to a scale and translation matrix;
+    * scale is not applied to the translation and all of the matrix
+    * values are modified.
+    *
+    * @param scale the scale factor for the matrix
+    * @param v1    the translation amount
+    */
+   public final void set(float scale, Vector3f v1)
+   {
+      set(scale);
+      setTranslation(v1);
+   }
+
+   /**
+    * Sets the value of this matrix to a scale and translation matrix;
+    * the translation is scaled by the scale factor and all of the
+    * matrix values are modified.
+    *
+    * @param v1    the translation amount
+    * @param scale the scale factor for the matrix
+    */
+   public final void set(Vector3f v1, float scale)
+   {
+      m00 = scale;
+      m01 = 0.0f;
+      m02 = 0.0f;
+      m03 = scale * v1.x;
+      m10 = 0.0f;
+      m11 = scale;
+      m12 = 0.0f;
+      m13 = scale * v1.y;
+      m20 = 0.0f;
+      m21 = 0.0f;
+      m22 = scale;
+      m23 = scale * v1.z;
+      m30 = 0.0f;
+      m31 = 0.0f;
+      m32 = 0.0f;
+      m33 = 1.0f;
+
+      properties = scale == 1.0f ? s_PROPERTIES_TRANSLATION : s_PROPERTY_AFFINE;
+   }
+
+
+   /**
+    * Sets the value of this matrix from the rotation expressed by the
+    * rotation matrix m1, the translation t1, and the scale s. The translation
+    * is not modified by the scale.
+    *
+    * @param m1    The rotation component
+    * @param t1    The translation component
+    * @param scale The scale component
+    */
+   public final void set(Matrix3f m1, Vector3f t1, float scale)
+   {
+      setRotationScale(m1);
+      mulRotationScale(scale);
+      setTranslation(t1);
+      m33 = 1.0f;
+   }
+
+   /**
+    * Modifies the translational components of this matrix to the values of
+    * the Vector3f argument; the other values of this matrix are not modified.
+    *
+    * @param trans the translational component
+    */
+   public void setTranslation(Vector3f trans)
+   {
+      m03 = trans.x;
+      m13 = trans.y;
+      m23 = trans.z;
+
+      properties &= ~(s_PROPERTY_IDENTITY | s_PROPERTY_PERSPECTIVE);
+   }
+
+   /**
+    * Sets the value of this matrix to a rotation matrix about the x axis
+    * by the passed angle.
+    *
+    * @param angle the angle to rotate about the X axis in radians
+    */
+   public final void rotX(float angle)
+   {
+      float c = (float) Math.cos(angle);
+      float s = (float) Math.sin(angle);
+      m00 = 1.0f;
+      m01 = 0.0f;
+      m02 = 0.0f;
+      m03 = 0.0f;
+      m10 = 0.0f;
+      m11 = c;
+      m12 = -s;
+      m13 = 0.0f;
+      m20 = 0.0f;
+      m21 = s;
+      m22 = c;
+      m23 = 0.0f;
+      m30 = 0.0f;
+      m31 = 0.0f;
+      m32 = 0.0f;
+      m33 = 1.0f;
+
+      properties = s_PROPERTIES_ORTHONORMAL;
+   }
+
+   /**
+    * Sets the value of this matrix to a rotation matrix about the y axis
+    * by the passed angle.
+    *
+    * @param angle the angle to rotate about the Y axis in radians
+    */
+   public final void rotY(float angle)
+   {
+      float c = (float) Math.cos(angle);
+      float s = (float) Math.sin(angle);
+      m00 = c;
+      m01 = 0.0f;
+      m02 = s;
+      m03 = 0.0f;
+      m10 = 0.0f;
+      m11 = 1.0f;
+      m12 = 0.0f;
+      m13 = 0.0f;
+      m20 = -s;
+      m21 = 0.0f;
+      m22 = c;
+      m23 = 0.0f;
+      m30 = 0.0f;
+      m31 = 0.0f;
+      m32 = 0.0f;
+      m33 = 1.0f;
+
+      properties = s_PROPERTIES_ORTHONORMAL;
+   }
+
+   /**
+    * Sets the value of this matrix to a rotation matrix about the z axis
+    * by the passed angle.
+    *
+    * @param angle the angle to rotate about the Z axis in radians
+    */
+   public final void rotZ(float angle)
+   {
+      float c = (float) Math.cos(angle);
+      float s = (float) Math.sin(angle);
+      m00 = c;
+      m01 = -s;
+      m02 = 0.0f;
+      m03 = 0.0f;
+      m10 = s;
+      m11 = c;
+      m12 = 0.0f;
+      m13 = 0.0f;
+      m20 = 0.0f;
+      m21 = 0.0f;
+      m22 = 1.0f;
+      m23 = 0.0f;
+      m30 = 0.0f;
+      m31 = 0.0f;
+      m32 = 0.0f;
+      m33 = 1.0f;
+
+      properties = s_PROPERTIES_ORTHONORMAL;
+   }
+
+   /**
+    * Sets the value of this matrix to a rotation matrix about the x axis by the passed angle like rotX, using
+    * MathUtil.sinFast / cosFast; the elements differ from rotX by less than 4e-7 for |angle| <= 2 * PI.
+    *
+    * @param angle the angle to rotate about the X axis in radians
+    */
+   public final void rotXFast(float angle)
+   {
+      float c = MathUtil.cosFast(angle);
+      float s = MathUtil.sinFast(angle);
+      m00 = 1.0f;
+      m01 = 0.0f;
+      m02 = 0.0f;
       m03 = 0.0f;
       m10 = 0.0f;
       m11 = c;
@@ -1408,62 +2380,449 @@ public class Matrix4f
       m31 = 0.0f;
       m32 = 0.0f;
       m33 = 1.0f;
+
+      properties = s_PROPERTIES_ORTHONORMAL;
+   }
+
+   /**
+    * Sets the value of this matrix to a rotation matrix about the y axis by the passed angle like rotY, using
+    * MathUtil.sinFast / cosFast; the elements differ from rotY by less than 4e-7 for |angle| <= 2 * PI.
+    *
+    * @param angle the angle to rotate about the Y axis in radians
+    */
+   public final void rotYFast(float angle)
+   {
+      float c = MathUtil.cosFast(angle);
+      float s = MathUtil.sinFast(angle);
+      m00 = c;
+      m01 = 0.0f;
+      m02 = s;
+      m03 = 0.0f;
+      m10 = 0.0f;
+      m11 = 1.0f;
+      m12 = 0.0f;
+      m13 = 0.0f;
+      m20 = -s;
+      m21 = 0.0f;
+      m22 = c;
+      m23 = 0.0f;
+      m30 = 0.0f;
+      m31 = 0.0f;
+      m32 = 0.0f;
+      m33 = 1.0f;
+
+      properties = s_PROPERTIES_ORTHONORMAL;
+   }
+
+   /**
+    * Sets the value of this matrix to a rotation matrix about the z axis by the passed angle like rotZ, using
+    * MathUtil.sinFast / cosFast; the elements differ from rotZ by less than 4e-7 for |angle| <= 2 * PI.
+    *
+    * @param angle the angle to rotate about the Z axis in radians
+    */
+   public final void rotZFast(float angle)
+   {
+      float c = MathUtil.cosFast(angle);
+      float s = MathUtil.sinFast(angle);
+      m00 = c;
+      m01 = -s;
+      m02 = 0.0f;
+      m03 = 0.0f;
+      m10 = s;
+      m11 = c;
+      m12 = 0.0f;
+      m13 = 0.0f;
+      m20 = 0.0f;
+      m21 = 0.0f;
+      m22 = 1.0f;
+      m23 = 0.0f;
+      m30 = 0.0f;
+      m31 = 0.0f;
+      m32 = 0.0f;
+      m33 = 1.0f;
+
+      properties = s_PROPERTIES_ORTHONORMAL;
+   }
+
+   /**
+    * Sets the value of this matrix to a rotation matrix about the axis (x, y, z) by the passed angle. The axis is
+    * normalized here and must not be zero.
+    *
+    * @param x     the x component of the rotation axis
+    * @param y     the y component of the rotation axis
+    * @param z     the z component of the rotation axis
+    * @param angle the angle to rotate about the axis in radians
+    */
+   public final void setFromAxisAngle(float x, float y, float z, float angle)
+   {
+      setFromAxisAngle(x, y, z, (float)Math.cos(angle), (float)Math.sin(angle));
+      m03 = 0.0f;
+      m13 = 0.0f;
+      m23 = 0.0f;
+      m30 = 0.0f;
+      m31 = 0.0f;
+      m32 = 0.0f;
+      m33 = 1.0f;
+
+      properties = s_PROPERTIES_ORTHONORMAL;
+   }
+
+   /**
+    * Sets the value of this matrix to a rotation matrix about the axis (x, y, z) by the passed angle like
+    * setFromAxisAngle, using MathUtil.sinFast / cosFast; the elements differ from setFromAxisAngle by less than 4e-7
+    * for |angle| <= 2 * PI.
+    *
+    * @param x     the x component of the rotation axis
+    * @param y     the y component of the rotation axis
+    * @param z     the z component of the rotation axis
+    * @param angle the angle to rotate about the axis in radians
+    */
+   public final void setFromAxisAngleFast(float x, float y, float z, float angle)
+   {
+      setFromAxisAngle(x, y, z, MathUtil.cosFast(angle), MathUtil.sinFast(angle));
+      m03 = 0.0f;
+      m13 = 0.0f;
+      m23 = 0.0f;
+      m30 = 0.0f;
+      m31 = 0.0f;
+      m32 = 0.0f;
+      m33 = 1.0f;
+
+      properties = s_PROPERTIES_ORTHONORMAL;
+   }
+
+   /**
+    * Sets the value of this matrix to a perspective projection matrix equivalent to gluPerspective; the result maps
+    * eye space to OpenGL clip space. No allocation is performed.
+    *
+    * @param fovy   the vertical field of view in radians
+    * @param aspect the aspect ratio (width / height) of the viewport
+    * @param zNear  the distance to the near clipping plane; must be positive
+    * @param zFar   the distance to the far clipping plane; must differ from zNear
+    *
+    * @throws IllegalArgumentException if zNear equals zFar
+    */
+   public final void setPerspective(float fovy, float aspect, float zNear, float zFar)
+   {
+      checkDepthRange(zNear, zFar);
+
+      float f = 1.0f / (float)Math.tan(fovy * 0.5f);
+      float rangeReciprocal = 1.0f / (zNear - zFar);
+
+      m00 = f / aspect;
+      m01 = 0.0f;
+      m02 = 0.0f;
+      m03 = 0.0f;
+      m10 = 0.0f;
+      m11 = f;
+      m12 = 0.0f;
+      m13 = 0.0f;
+      m20 = 0.0f;
+      m21 = 0.0f;
+      m22 = (zFar + zNear) * rangeReciprocal;
+      m23 = 2.0f * zFar * zNear * rangeReciprocal;
+      m30 = 0.0f;
+      m31 = 0.0f;
+      m32 = -1.0f;
+      m33 = 0.0f;
+
+      properties = s_PROPERTY_PERSPECTIVE;
+   }
+
+   /**
+    * Sets the value of this matrix to a perspective projection matrix defined by the clipping planes, equivalent to
+    * glFrustum. No allocation is performed.
+    *
+    * @param left   the left clipping plane at the near distance
+    * @param right  the right clipping plane at the near distance
+    * @param bottom the bottom clipping plane at the near distance
+    * @param top    the top clipping plane at the near distance
+    * @param zNear  the distance to the near clipping plane; must be positive
+    * @param zFar   the distance to the far clipping plane; must differ from zNear
+    *
+    * @throws IllegalArgumentException if zNear equals zFar
+    */
+   public final void setFrustum(float left, float right, float bottom, float top, float zNear, float zFar)
+   {
+      checkDepthRange(zNear, zFar);
+
+      float width = 1.0f / (right - left);
+      float height = 1.0f / (top - bottom);
+      float depth = 1.0f / (zNear - zFar);
+
+      m00 = 2.0f * zNear * width;
+      m01 = 0.0f;
+      m02 = (right + left) * width;
+      m03 = 0.0f;
+      m10 = 0.0f;
+      m11 = 2.0f * zNear * height;
+      m12 = (top + bottom) * height;
+      m13 = 0.0f;
+      m20 = 0.0f;
+      m21 = 0.0f;
+      m22 = (zFar + zNear) * depth;
+      m23 = 2.0f * zFar * zNear * depth;
+      m30 = 0.0f;
+      m31 = 0.0f;
+      m32 = -1.0f;
+      m33 = 0.0f;
+
+      properties = s_PROPERTY_PERSPECTIVE;
+   }
+
+   /**
+    * Sets the value of this matrix to an orthographic projection matrix equivalent to glOrtho. No allocation is
+    * performed.
+    *
+    * @param left   the left clipping plane
+    * @param right  the right clipping plane
+    * @param bottom the bottom clipping plane
+    * @param top    the top clipping plane
+    * @param zNear  the distance to the near clipping plane
+    * @param zFar   the distance to the far clipping plane
+    */
+   public final void setOrtho(float left, float right, float bottom, float top, float zNear, float zFar)
+   {
+      float width = 1.0f / (right - left);
+      float height = 1.0f / (top - bottom);
+      float depth = 1.0f / (zFar - zNear);
+
+      m00 = 2.0f * width;
+      m01 = 0.0f;
+      m02 = 0.0f;
+      m03 = -(right + left) * width;
+      m10 = 0.0f;
+      m11 = 2.0f * height;
+      m12 = 0.0f;
+      m13 = -(top + bottom) * height;
+      m20 = 0.0f;
+      m21 = 0.0f;
+      m22 = -2.0f * depth;
+      m23 = -(zFar + zNear) * depth;
+      m30 = 0.0f;
+      m31 = 0.0f;
+      m32 = 0.0f;
+      m33 = 1.0f;
+
+      properties = s_PROPERTY_AFFINE;
+   }
+
+   /**
+    * Sets the value of this matrix to a viewing matrix equivalent to gluLookAt. The up vector must not be parallel
+    * to the viewing direction. No allocation is performed.
+    *
+    * @param eyeX    x coordinate of the eye
+    * @param eyeY    y coordinate of the eye
+    * @param eyeZ    z coordinate of the eye
+    * @param centerX x coordinate of the point looked at
+    * @param centerY y coordinate of the point looked at
+    * @param centerZ z coordinate of the point looked at
+    * @param upX     x component of the up vector
+    * @param upY     y component of the up vector
+    * @param upZ     z component of the up vector
+    */
+   public final void setLookAt(float eyeX, float eyeY, float eyeZ, float centerX, float centerY, float centerZ,
+    float upX, float upY, float upZ)
+   {
+      float fx = centerX - eyeX;
+      float fy = centerY - eyeY;
+      float fz = centerZ - eyeZ;
+
+      float n = 1.0f / (float)Math.sqrt(fx * fx + fy * fy + fz * fz);
+      fx *= n;
+      fy *= n;
+      fz *= n;
+
+      // s = f x up
+      float sx = fy * upZ - fz * upY;
+      float sy = fz * upX - fx * upZ;
+      float sz = fx * upY - fy * upX;
+
+      n = 1.0f / (float)Math.sqrt(sx * sx + sy * sy + sz * sz);
+      sx *= n;
+      sy *= n;
+      sz *= n;
+
+      // u = s x f
+      float ux = sy * fz - sz * fy;
+      float uy = sz * fx - sx * fz;
+      float uz = sx * fy - sy * fx;
+
+      m00 = sx;
+      m01 = sy;
+      m02 = sz;
+      m03 = -(sx * eyeX + sy * eyeY + sz * eyeZ);
+      m10 = ux;
+      m11 = uy;
+      m12 = uz;
+      m13 = -(ux * eyeX + uy * eyeY + uz * eyeZ);
+      m20 = -fx;
+      m21 = -fy;
+      m22 = -fz;
+      m23 = fx * eyeX + fy * eyeY + fz * eyeZ;
+      m30 = 0.0f;
+      m31 = 0.0f;
+      m32 = 0.0f;
+      m33 = 1.0f;
+
+      properties = s_PROPERTIES_ORTHONORMAL;
+   }
+
+   /**
+    * Sets the value of this matrix to a viewing matrix equivalent to gluLookAt. The up vector must not be parallel
+    * to the viewing direction. No allocation is performed.
+    *
+    * @param eye    the position of the eye
+    * @param center the point looked at
+    * @param up     the up vector
+    */
+   public final void setLookAt(Tuple3f eye, Tuple3f center, Tuple3f up)
+   {
+      setLookAt(eye.x, eye.y, eye.z, center.x, center.y, center.z, up.x, up.y, up.z);
+   }
+
+   /**
+    * Sets the value of this matrix to the combined view-projection matrix perspective * lookAt in one pass without
+    * a temporary matrix; see setPerspective and setLookAt for the parameters.
+    *
+    * @param fovy    the vertical field of view in radians
+    * @param aspect  the aspect ratio (width / height) of the viewport
+    * @param zNear   the distance to the near clipping plane; must be positive
+    * @param zFar    the distance to the far clipping plane; must differ from zNear
+    * @param eyeX    x coordinate of the eye
+    * @param eyeY    y coordinate of the eye
+    * @param eyeZ    z coordinate of the eye
+    * @param centerX x coordinate of the point looked at
+    * @param centerY y coordinate of the point looked at
+    * @param centerZ z coordinate of the point looked at
+    * @param upX     x component of the up vector
+    * @param upY     y component of the up vector
+    * @param upZ     z component of the up vector
+    *
+    * @throws IllegalArgumentException if zNear equals zFar
+    */
+   public final void setPerspectiveLookAt(float fovy, float aspect, float zNear, float zFar, float eyeX, float eyeY,
+    float eyeZ, float centerX, float centerY, float centerZ, float upX, float upY, float upZ)
+   {
+      // Checked first so the matrix is left unchanged.
+      checkDepthRange(zNear, zFar);
+
+      setLookAt(eyeX, eyeY, eyeZ, centerX, centerY, centerZ, upX, upY, upZ);
+      mulPerspective(fovy, aspect, zNear, zFar, this);
+   }
+
+   /**
+    * Sets the value of this matrix to perspective * m1 where the perspective matrix is the one built by
+    * setPerspective; only the non-zero terms of the projection are evaluated and no temporary matrix is created.
+    * This is alias-safe, so passing this matrix as m1 premultiplies it, which turns a view matrix into a
+    * view-projection matrix.
+    *
+    * @param fovy   the vertical field of view in radians
+    * @param aspect the aspect ratio (width / height) of the viewport
+    * @param zNear  the distance to the near clipping plane; must be positive
+    * @param zFar   the distance to the far clipping plane; must differ from zNear
+    * @param m1     the matrix on the right hand side of the multiplication
+    *
+    * @throws IllegalArgumentException if zNear equals zFar
+    */
+   public final void mulPerspective(float fovy, float aspect, float zNear, float zFar, Matrix4f m1)
+   {
+      checkDepthRange(zNear, zFar);
+
+      float f = 1.0f / (float)Math.tan(fovy * 0.5f);
+      float rangeReciprocal = 1.0f / (zNear - zFar);
+
+      mulProjection(f / aspect, 0.0f, f, 0.0f, (zFar + zNear) * rangeReciprocal,
+       2.0f * zFar * zNear * rangeReciprocal, m1);
    }
 
    /**
-    * Sets the value of this matrix to a rotation matrix about the y axis
-    * by the passed angle.
+    * Sets the value of this matrix to ortho * m1 where the orthographic matrix is the one built by setOrtho; only
+    * the non-zero terms of the projection are evaluated and no temporary matrix is created. This is alias-safe.
     *
-    * @param angle the angle to rotate about the Y axis in radians
+    * @param left   the left clipping plane
+    * @param right  the right clipping plane
+    * @param bottom the bottom clipping plane
+    * @param top    the top clipping plane
+    * @param zNear  the distance to the near clipping plane
+    * @param zFar   the distance to the far clipping plane
+    * @param m1     the matrix on the right hand side of the multiplication
     */
-   public final void rotY(float angle)
+   public final void mulOrtho(float left, float right, float bottom, float top, float zNear, float zFar, Matrix4f m1)
    {
-      float c = (float) Math.cos(angle);
-      float s = (float) Math.sin(angle);
-      m00 = c;
-      m01 = 0.0f;
-      m02 = s;
-      m03 = 0.0f;
-      m10 = 0.0f;
-      m11 = 1.0f;
-      m12 = 0.0f;
-      m13 = 0.0f;
-      m20 = -s;
-      m21 = 0.0f;
-      m22 = c;
-      m23 = 0.0f;
-      m30 = 0.0f;
-      m31 = 0.0f;
-      m32 = 0.0f;
-      m33 = 1.0f;
+      float width = 1.0f / (right - left);
+      float height = 1.0f / (top - bottom);
+      float depth = 1.0f / (zFar - zNear);
+
+      float sx = 2.0f * width;
+      float sy = 2.0f * height;
+      float sz = -2.0f * depth;
+      float tx = -(right + left) * width;
+      float ty = -(top + bottom) * height;
+      float tz = -(zFar + zNear) * depth;
+
+      int p = m1.properties;
+
+      // alias-safe way; rows 0 - 2 are scaled and offset by row 3 of m1 which is carried over.
+      set(
+       sx * m1.m00 + tx * m1.m30,
+       sx * m1.m01 + tx * m1.m31,
+       sx * m1.m02 + tx * m1.m32,
+       sx * m1.m03 + tx * m1.m33,
+
+       sy * m1.m10 + ty * m1.m30,
+       sy * m1.m11 + ty * m1.m31,
+       sy * m1.m12 + ty * m1.m32,
+       sy * m1.m13 + ty * m1.m33,
+
+       sz * m1.m20 + tz * m1.m30,
+       sz * m1.m21 + tz * m1.m31,
+       sz * m1.m22 + tz * m1.m32,
+       sz * m1.m23 + tz * m1.m33,
+
+       m1.m30,
+       m1.m31,
+       m1.m32,
+       m1.m33
+      );
+
+      properties = p & s_PROPERTY_AFFINE;
    }
 
    /**
-    * Sets the value of this matrix to a rotation matrix about the z axis
-    * by the passed angle.
+    * Sets the value of this matrix to the inverse of the perspective matrix m1 as built by setPerspective or
+    * setFrustum. Only the six non-zero terms of the projection are read and the inverse is written in closed form,
+    * which is considerably cheaper than a general inverse; the result is undefined if m1 does not have that form.
     *
-    * @param angle the angle to rotate about the Z axis in radians
+    * @param m1 the perspective matrix to be inverted
     */
-   public final void rotZ(float angle)
+   public final void invertPerspective(Matrix4f m1)
    {
-      float c = (float) Math.cos(angle);
-      float s = (float) Math.sin(angle);
-      m00 = c;
-      m01 = -s;
+      float a = 1.0f / m1.m00;
+      float b = 1.0f / m1.m11;
+      float c = m1.m02;
+      float d = m1.m12;
+      float e = m1.m22;
+      float f = 1.0f / m1.m23;
+
+      m00 = a;
+      m01 = 0.0f;
       m02 = 0.0f;
-      m03 = 0.0f;
-      m10 = s;
-      m11 = c;
+      m03 = c * a;
+      m10 = 0.0f;
+      m11 = b;
       m12 = 0.0f;
-      m13 = 0.0f;
+      m13 = d * b;
       m20 = 0.0f;
       m21 = 0.0f;
-      m22 = 1.0f;
-      m23 = 0.0f;
+      m22 = 0.0f;
+      m23 = -1.0f;
       m30 = 0.0f;
       m31 = 0.0f;
-      m32 = 0.0f;
-      m33 = 1.0f;
+      m32 = f;
+      m33 = e * f;
+
+      properties = s_PROPERTY_GENERAL;
    }
 
    /**
@@ -1489,6 +2848,8 @@ public class Matrix4f
       m31 *= scalar;
       m32 *= scalar;
       m33 *= scalar;
+
+      properties = s_PROPERTY_GENERAL;
    }
 
    /**
@@ -1517,13 +2878,92 @@ public class Matrix4f
 
    /**
     * Sets the value of this matrix to the result of multiplying
-    * the two argument matrices together.
+    * the two argument matrices together. Identity, translation, affine
+    * and (left hand) perspective arguments take reduced paths based on
+    * their property flags.
     *
     * @param m1 the first matrix
     * @param m2 the second matrix
     */
    public final void mul(Matrix4f m1, Matrix4f m2)
    {
+      int p1 = m1.properties;
+      int p2 = m2.properties;
+
+      if ((p1 & s_PROPERTY_IDENTITY) != 0)
+      {
+         set(m2);
+         return;
+      }
+
+      if ((p2 & s_PROPERTY_IDENTITY) != 0)
+      {
+         set(m1);
+         return;
+      }
+
+      if ((p1 & s_PROPERTY_PERSPECTIVE) != 0)
+      {
+         mulProjection(m1.m00, m1.m02, m1.m11, m1.m12, m1.m22, m1.m23, m2);
+         return;
+      }
+
+      if ((p1 & s_PROPERTY_TRANSLATION) != 0 && (p2 & s_PROPERTY_AFFINE) != 0)
+      {
+         // alias-safe way.
+         float tx = m1.m03 + m2.m03;
+         float ty = m1.m13 + m2.m13;
+         float tz = m1.m23 + m2.m23;
+
+         set(m2);
+         m03 = tx;
+         m13 = ty;
+         m23 = tz;
+         properties = p2 & ~s_PROPERTY_IDENTITY;
+         return;
+      }
+
+      if ((p2 & s_PROPERTY_TRANSLATION) != 0 && (p1 & s_PROPERTY_AFFINE) != 0)
+      {
+         // alias-safe way.
+         float tx = m1.m00 * m2.m03 + m1.m01 * m2.m13 + m1.m02 * m2.m23 + m1.m03;
+         float ty = m1.m10 * m2.m03 + m1.m11 * m2.m13 + m1.m12 * m2.m23 + m1.m13;
+         float tz = m1.m20 * m2.m03 + m1.m21 * m2.m13 + m1.m22 * m2.m23 + m1.m23;
+
+         set(m1);
+         m03 = tx;
+         m13 = ty;
+         m23 = tz;
+         properties = p1 & ~s_PROPERTY_IDENTITY;
+         return;
+      }
+
+      if ((p1 & p2 & s_PROPERTY_AFFINE) != 0)
+      {
+         // alias-safe way; the fourth row of both matrices is (0, 0, 0, 1).
+         set(
+          m1.m00 * m2.m00 + m1.m01 * m2.m10 + m1.m02 * m2.m20,
+          m1.m00 * m2.m01 + m1.m01 * m2.m11 + m1.m02 * m2.m21,
+          m1.m00 * m2.m02 + m1.m01 * m2.m12 + m1.m02 * m2.m22,
+          m1.m00 * m2.m03 + m1.m01 * m2.m13 + m1.m02 * m2.m23 + m1.m03,
+
+          m1.m10 * m2.m00 + m1.m11 * m2.m10 + m1.m12 * m2.m20,
+          m1.m10 * m2.m01 + m1.m11 * m2.m11 + m1.m12 * m2.m21,
+          m1.m10 * m2.m02 + m1.m11 * m2.m12 + m1.m12 * m2.m22,
+          m1.m10 * m2.m03 + m1.m11 * m2.m13 + m1.m12 * m2.m23 + m1.m13,
+
+          m1.m20 * m2.m00 + m1.m21 * m2.m10 + m1.m22 * m2.m20,
+          m1.m20 * m2.m01 + m1.m21 * m2.m11 + m1.m22 * m2.m21,
+          m1.m20 * m2.m02 + m1.m21 * m2.m12 + m1.m22 * m2.m22,
+          m1.m20 * m2.m03 + m1.m21 * m2.m13 + m1.m22 * m2.m23 + m1.m23,
+
+          0.0f, 0.0f, 0.0f, 1.0f
+         );
+
+         properties = p1 & p2 & s_PROPERTIES_ORTHONORMAL;
+         return;
+      }
+
       // alias-safe way.
       set(
        m1.m00 * m2.m00 + m1.m01 * m2.m10 + m1.m02 * m2.m20 + m1.m03 * m2.m30,
@@ -1740,6 +3180,14 @@ public class Matrix4f
     */
    public final void transform(Tuple3f inputOutput)
    {
+      if ((properties & s_PROPERTY_TRANSLATION) != 0)
+      {
+         inputOutput.x += m03;
+         inputOutput.y += m13;
+         inputOutput.z += m23;
+         return;
+      }
+
       inputOutput.set(
        m00 * inputOutput.x + m01 * inputOutput.y + m02 * inputOutput.z + m03,
        m10 * inputOutput.x + m11 * inputOutput.y + m12 * inputOutput.z + m13,
@@ -1756,6 +3204,14 @@ public class Matrix4f
     */
    public final void transform(Tuple3f input, Tuple3f output)
    {
+      if ((properties & s_PROPERTY_TRANSLATION) != 0)
+      {
+         output.x = input.x + m03;
+         output.y = input.y + m13;
+         output.z = input.z + m23;
+         return;
+      }
+
       output.x = m00 * input.x + m01 * input.y + m02 * input.z + m03;
       output.y = m10 * input.x + m11 * input.y + m12 * input.z + m13;
       output.z = m20 * input.x + m21 * input.y + m22 * input.z + m23;
@@ -1769,6 +3225,18 @@ public class Matrix4f
     */
    public final void transform(Tuple4f inputOutput)
    {
+      if ((properties & s_PROPERTY_AFFINE) != 0)
+      {
+         // w is unchanged by an affine transform.
+         inputOutput.set(
+          m00 * inputOutput.x + m01 * inputOutput.y + m02 * inputOutput.z + m03 * inputOutput.w,
+          m10 * inputOutput.x + m11 * inputOutput.y + m12 * inputOutput.z + m13 * inputOutput.w,
+          m20 * inputOutput.x + m21 * inputOutput.y + m22 * inputOutput.z + m23 * inputOutput.w,
+          inputOutput.w
+         );
+         return;
+      }
+
       inputOutput.set(
        m00 * inputOutput.x + m01 * inputOutput.y + m02 * inputOutput.z + m03 * inputOutput.w,
        m10 * inputOutput.x + m11 * inputOutput.y + m12 * inputOutput.z + m13 * inputOutput.w,
@@ -1786,12 +3254,430 @@ public class Matrix4f
     */
    public final void transform(Tuple4f input, Tuple4f output)
    {
+      if ((properties & s_PROPERTY_AFFINE) != 0)
+      {
+         // w is unchanged by an affine transform.
+         output.x = m00 * input.x + m01 * input.y + m02 * input.z + m03 * input.w;
+         output.y = m10 * input.x + m11 * input.y + m12 * input.z + m13 * input.w;
+         output.z = m20 * input.x + m21 * input.y + m22 * input.z + m23 * input.w;
+         output.w = input.w;
+         return;
+      }
+
       output.x = m00 * input.x + m01 * input.y + m02 * input.z + m03 * input.w;
       output.y = m10 * input.x + m11 * input.y + m12 * input.z + m13 * input.w;
       output.z = m20 * input.x + m21 * input.y + m22 * input.z + m23 * input.w;
       output.w = m30 * input.x + m31 * input.y + m32 * input.z + m33 * input.w;
    }
 
+   /**
+    * Transforms count points (x, y, z) read from src with this matrix assuming a fourth component of one and writes
+    * the results to dst; the fourth row of this matrix is ignored as in transform(Tuple3f).
+    *
+    * @param src       source array
+    * @param srcOffset index of the x component of the first source element
+    * @param srcStride distance in floats between consecutive source elements; must be positive
+    * @param dst       destination array; may be src when the offsets and strides are equal
+    * @param dstOffset index of the x component of the first destination element
+    * @param dstStride distance in floats between consecutive destination elements
+    * @param count     number of elements to transform
+    */
+   public final void transformPoints(float[] src, int srcOffset, int srcStride, float[] dst, int dstOffset,
+    int dstStride, int count)
+   {
+      if ((properties & s_PROPERTY_TRANSLATION) != 0)
+      {
+         float tx = m03;
+         float ty = m13;
+         float tz = m23;
+
+         int srcEnd = srcOffset + count * srcStride;
+
+         for (; srcOffset < srcEnd; srcOffset += srcStride, dstOffset += dstStride)
+         {
+            float x = src[srcOffset];
+            float y = src[srcOffset + 1];
+            float z = src[srcOffset + 2];
+
+            dst[dstOffset] = x + tx;
+            dst[dstOffset + 1] = y + ty;
+            dst[dstOffset + 2] = z + tz;
+         }
+         return;
+      }
+
+      float a00 = m00;
+      float a01 = m01;
+      float a02 = m02;
+      float a03 = m03;
+      float a10 = m10;
+      float a11 = m11;
+      float a12 = m12;
+      float a13 = m13;
+      float a20 = m20;
+      float a21 = m21;
+      float a22 = m22;
+      float a23 = m23;
+
+      int srcEnd = srcOffset + count * srcStride;
+
+      for (; srcOffset < srcEnd; srcOffset += srcStride, dstOffset += dstStride)
+      {
+         float x = src[srcOffset];
+         float y = src[srcOffset + 1];
+         float z = src[srcOffset + 2];
+
+         dst[dstOffset] = a00 * x + a01 * y + a02 * z + a03;
+         dst[dstOffset + 1] = a10 * x + a11 * y + a12 * z + a13;
+         dst[dstOffset + 2] = a20 * x + a21 * y + a22 * z + a23;
+      }
+   }
+
+   /**
+    * Transforms count vectors (x, y, z) read from src with the upper 3x3 of this matrix and writes the results to
+    * dst; the translation is ignored.
+    *
+    * @param src       source array
+    * @param srcOffset index of the x component of the first source element
+    * @param srcStride distance in floats between consecutive source elements; must be positive
+    * @param dst       destination array; may be src when the offsets and strides are equal
+    * @param dstOffset index of the x component of the first destination element
+    * @param dstStride distance in floats between consecutive destination elements
+    * @param count     number of elements to transform
+    */
+   public final void transformVectors(float[] src, int srcOffset, int srcStride, float[] dst, int dstOffset,
+    int dstStride, int count)
+   {
+      float a00 = m00;
+      float a01 = m01;
+      float a02 = m02;
+      float a10 = m10;
+      float a11 = m11;
+      float a12 = m12;
+      float a20 = m20;
+      float a21 = m21;
+      float a22 = m22;
+
+      int srcEnd = srcOffset + count * srcStride;
+
+      for (; srcOffset < srcEnd; srcOffset += srcStride, dstOffset += dstStride)
+      {
+         float x = src[srcOffset];
+         float y = src[srcOffset + 1];
+         float z = src[srcOffset + 2];
+
+         dst[dstOffset] = a00 * x + a01 * y + a02 * z;
+         dst[dstOffset + 1] = a10 * x + a11 * y + a12 * z;
+         dst[dstOffset + 2] = a20 * x + a21 * y + a22 * z;
+      }
+   }
+
+   /**
+    * Transforms count unit length normals (x, y, z) read from src with the inverse transpose of the upper 3x3 of this
+    * matrix and writes the renormalized results to dst; orthonormal matrices preserve length, so they apply the upper
+    * 3x3 directly without renormalizing.
+    *
+    * @param src       source array
+    * @param srcOffset index of the x component of the first source element
+    * @param srcStride distance in floats between consecutive source elements; must be positive
+    * @param dst       destination array; may be src when the offsets and strides are equal
+    * @param dstOffset index of the x component of the first destination element
+    * @param dstStride distance in floats between consecutive destination elements
+    * @param count     number of elements to transform
+    */
+   public final void transformNormals(float[] src, int srcOffset, int srcStride, float[] dst, int dstOffset,
+    int dstStride, int count)
+   {
+      if ((properties & s_PROPERTY_ORTHONORMAL) != 0)
+      {
+         transformVectors(src, srcOffset, srcStride, dst, dstOffset, dstStride, count);
+         return;
+      }
+
+      // cofactor matrix; equals the inverse transpose scaled by the determinant which normalization removes.
+      float c00 = m11 * m22 - m12 * m21;
+      float c01 = m12 * m20 - m10 * m22;
+      float c02 = m10 * m21 - m11 * m20;
+      float c10 = m02 * m21 - m01 * m22;
+      float c11 = m00 * m22 - m02 * m20;
+      float c12 = m01 * m20 - m00 * m21;
+      float c20 = m01 * m12 - m02 * m11;
+      float c21 = m02 * m10 - m00 * m12;
+      float c22 = m00 * m11 - m01 * m10;
+
+      // keep the orientation of the normals when the matrix mirrors.
+      float sign = m00 * c00 + m01 * c01 + m02 * c02 < 0.0f ? -1.0f : 1.0f;
+
+      int srcEnd = srcOffset + count * srcStride;
+
+      for (; srcOffset < srcEnd; srcOffset += srcStride, dstOffset += dstStride)
+      {
+         float x = src[srcOffset];
+         float y = src[srcOffset + 1];
+         float z = src[srcOffset + 2];
+
+         float nx = c00 * x + c01 * y + c02 * z;
+         float ny = c10 * x + c11 * y + c12 * z;
+         float nz = c20 * x + c21 * y + c22 * z;
+
+         float length = nx * nx + ny * ny + nz * nz;
+         float scale = length > 0.0f ? sign / (float)Math.sqrt(length) : 0.0f;
+
+         dst[dstOffset] = nx * scale;
+         dst[dstOffset + 1] = ny * scale;
+         dst[dstOffset + 2] = nz * scale;
+      }
+   }
+
+   /**
+    * Transforms count points (x, y, z) read from src with this matrix assuming a fourth component of one and writes
+    * the results to dst; the fourth row of this matrix is ignored as in transform(Tuple3f).
+    *
+    * Interleaved vertex data with a byte stride, such as GLBufferUtil.s_QUAD_BUFFER_STRIDE, is addressed through
+    * asFloatBuffer() with the stride divided by MathUtil.s_FLOAT_SIZE_BYTES. Absolute indexing is used so the buffer
+    * positions are not modified.
+    *
+    * @param src       source buffer
+    * @param srcOffset absolute index of the x component of the first source element
+    * @param srcStride distance in floats between consecutive source elements; must be positive
+    * @param dst       destination buffer; may be src when the offsets and strides are equal
+    * @param dstOffset absolute index of the x component of the first destination element
+    * @param dstStride distance in floats between consecutive destination elements
+    * @param count     number of elements to transform
+    */
+   public final void transformPoints(FloatBuffer src, int srcOffset, int srcStride, FloatBuffer dst, int dstOffset,
+    int dstStride, int count)
+   {
+      if ((properties & s_PROPERTY_TRANSLATION) != 0)
+      {
+         float tx = m03;
+         float ty = m13;
+         float tz = m23;
+
+         int srcEnd = srcOffset + count * srcStride;
+
+         for (; srcOffset < srcEnd; srcOffset += srcStride, dstOffset += dstStride)
+         {
+            float x = src.get(srcOffset);
+            float y = src.get(srcOffset + 1);
+            float z = src.get(srcOffset + 2);
+
+            dst.put(dstOffset, x + tx);
+            dst.put(dstOffset + 1, y + ty);
+            dst.put(dstOffset + 2, z + tz);
+         }
+         return;
+      }
+
+      float a00 = m00;
+      float a01 = m01;
+      float a02 = m02;
+      float a03 = m03;
+      float a10 = m10;
+      float a11 = m11;
+      float a12 = m12;
+      float a13 = m13;
+      float a20 = m20;
+      float a21 = m21;
+      float a22 = m22;
+      float a23 = m23;
+
+      int srcEnd = srcOffset + count * srcStride;
+
+      for (; srcOffset < srcEnd; srcOffset += srcStride, dstOffset += dstStride)
+      {
+         float x = src.get(srcOffset);
+         float y = src.get(srcOffset + 1);
+         float z = src.get(srcOffset + 2);
+
+         dst.put(dstOffset, a00 * x + a01 * y + a02 * z + a03);
+         dst.put(dstOffset + 1, a10 * x + a11 * y + a12 * z + a13);
+         dst.put(dstOffset + 2, a20 * x + a21 * y + a22 * z + a23);
+      }
+   }
+
+   /**
+    * Transforms count vectors (x, y, z) read from src with the upper 3x3 of this matrix and writes the results to
+    * dst; the translation is ignored.
+    *
+    * Interleaved vertex data with a byte stride, such as GLBufferUtil.s_QUAD_BUFFER_STRIDE, is addressed through
+    * asFloatBuffer() with the stride divided by MathUtil.s_FLOAT_SIZE_BYTES. Absolute indexing is used so the buffer
+    * positions are not modified.
+    *
+    * @param src       source buffer
+    * @param srcOffset absolute index of the x component of the first source element
+    * @param srcStride distance in floats between consecutive source elements; must be positive
+    * @param dst       destination buffer; may be src when the offsets and strides are equal
+    * @param dstOffset absolute index of the x component of the first destination element
+    * @param dstStride distance in floats between consecutive destination elements
+    * @param count     number of elements to transform
+    */
+   public final void transformVectors(FloatBuffer src, int srcOffset, int srcStride, FloatBuffer dst, int dstOffset,
+    int dstStride, int count)
+   {
+      float a00 = m00;
+      float a01 = m01;
+      float a02 = m02;
+      float a10 = m10;
+      float a11 = m11;
+      float a12 = m12;
+      float a20 = m20;
+      float a21 = m21;
+      float a22 = m22;
+
+      int srcEnd = srcOffset + count * srcStride;
+
+      for (; srcOffset < srcEnd; srcOffset += srcStride, dstOffset += dstStride)
+      {
+         float x = src.get(srcOffset);
+         float y = src.get(srcOffset + 1);
+         float z = src.get(srcOffset + 2);
+
+         dst.put(dstOffset, a00 * x + a01 * y + a02 * z);
+         dst.put(dstOffset + 1, a10 * x + a11 * y + a12 * z);
+         dst.put(dstOffset + 2, a20 * x + a21 * y + a22 * z);
+      }
+   }
+
+   /**
+    * Transforms count unit length normals (x, y, z) read from src with the inverse transpose of the upper 3x3 of this
+    * matrix and writes the renormalized results to dst; orthonormal matrices preserve length, so they apply the upper
+    * 3x3 directly without renormalizing.
+    *
+    * Interleaved vertex data with a byte stride, such as GLBufferUtil.s_QUAD_BUFFER_STRIDE, is addressed through
+    * asFloatBuffer() with the stride divided by MathUtil.s_FLOAT_SIZE_BYTES. Absolute indexing is used so the buffer
+    * positions are not modified.
+    *
+    * @param src       source buffer
+    * @param srcOffset absolute index of the x component of the first source element
+    * @param srcStride distance in floats between consecutive source elements; must be positive
+    * @param dst       destination buffer; may be src when the offsets and strides are equal
+    * @param dstOffset absolute index of the x component of the first destination element
+    * @param dstStride distance in floats between consecutive destination elements
+    * @param count     number of elements to transform
+    */
+   public final void transformNormals(FloatBuffer src, int srcOffset, int srcStride, FloatBuffer dst, int dstOffset,
+    int dstStride, int count)
+   {
+      if ((properties & s_PROPERTY_ORTHONORMAL) != 0)
+      {
+         transformVectors(src, srcOffset, srcStride, dst, dstOffset, dstStride, count);
+         return;
+      }
+
+      // cofactor matrix; equals the inverse transpose scaled by the determinant which normalization removes.
+      float c00 = m11 * m22 - m12 * m21;
+      float c01 = m12 * m20 - m10 * m22;
+      float c02 = m10 * m21 - m11 * m20;
+      float c10 = m02 * m21 - m01 * m22;
+      float c11 = m00 * m22 - m02 * m20;
+      float c12 = m01 * m20 - m00 * m21;
+      float c20 = m01 * m12 - m02 * m11;
+      float c21 = m02 * m10 - m00 * m12;
+      float c22 = m00 * m11 - m01 * m10;
+
+      // keep the orientation of the normals when the matrix mirrors.
+      float sign = m00 * c00 + m01 * c01 + m02 * c02 < 0.0f ? -1.0f : 1.0f;
+
+      int srcEnd = srcOffset + count * srcStride;
+
+      for (; srcOffset < srcEnd; srcOffset += srcStride, dstOffset += dstStride)
+      {
+         float x = src.get(srcOffset);
+         float y = src.get(srcOffset + 1);
+         float z = src.get(srcOffset + 2);
+
+         float nx = c00 * x + c01 * y + c02 * z;
+         float ny = c10 * x + c11 * y + c12 * z;
+         float nz = c20 * x + c21 * y + c22 * z;
+
+         float length = nx * nx + ny * ny + nz * nz;
+         float scale = length > 0.0f ? sign / (float)Math.sqrt(length) : 0.0f;
+
+         dst.put(dstOffset, nx * scale);
+         dst.put(dstOffset + 1, ny * scale);
+         dst.put(dstOffset + 2, nz * scale);
+      }
+   }
+
+   /**
+    * Performs transformPoints on the float array splitting the work across the executor when count is large; see
+    * ParallelRange. Source and destination ranges of different chunks must not overlap.
+    *
+    * @param src       source array
+    * @param srcOffset index of the x component of the first source element
+    * @param srcStride distance in floats between consecutive source elements; must be positive
+    * @param dst       destination array; may be src when the offsets and strides are equal
+    * @param dstOffset index of the x component of the first destination element
+    * @param dstStride distance in floats between consecutive destination elements
+    * @param count     number of elements to transform
+    * @param executor  executor for the additional chunks; may be null to run serially
+    */
+   public final void transformPoints(final float[] src, final int srcOffset, final int srcStride, final float[] dst,
+    final int dstOffset, final int dstStride, int count, ExecutorService executor)
+   {
+      ParallelRange.execute(executor, count, ParallelRange.s_DEFAULT_MIN_CHUNK_SIZE, new IRangeTask()
+      {
+         public void run(int start, int end)
+         {
+            transformPoints(src, srcOffset + start * srcStride, srcStride, dst, dstOffset + start * dstStride,
+             dstStride, end - start);
+         }
+      });
+   }
+
+   /**
+    * Performs transformVectors on the float array splitting the work across the executor when count is large; see
+    * ParallelRange. Source and destination ranges of different chunks must not overlap.
+    *
+    * @param src       source array
+    * @param srcOffset index of the x component of the first source element
+    * @param srcStride distance in floats between consecutive source elements; must be positive
+    * @param dst       destination array; may be src when the offsets and strides are equal
+    * @param dstOffset index of the x component of the first destination element
+    * @param dstStride distance in floats between consecutive destination elements
+    * @param count     number of elements to transform
+    * @param executor  executor for the additional chunks; may be null to run serially
+    */
+   public final void transformVectors(final float[] src, final int srcOffset, final int srcStride, final float[] dst,
+    final int dstOffset, final int dstStride, int count, ExecutorService executor)
+   {
+      ParallelRange.execute(executor, count, ParallelRange.s_DEFAULT_MIN_CHUNK_SIZE, new IRangeTask()
+      {
+         public void run(int start, int end)
+         {
+            transformVectors(src, srcOffset + start * srcStride, srcStride, dst, dstOffset + start * dstStride,
+             dstStride, end - start);
+         }
+      });
+   }
+
+   /**
+    * Performs transformNormals on the float array splitting the work across the executor when count is large; see
+    * ParallelRange. Source and destination ranges of different chunks must not overlap.
+    *
+    * @param src       source array
+    * @param srcOffset index of the x component of the first source element
+    * @param srcStride distance in floats between consecutive source elements; must be positive
+    * @param dst       destination array; may be src when the offsets and strides are equal
+    * @param dstOffset index of the x component of the first destination element
+    * @param dstStride distance in floats between consecutive destination elements
+    * @param count     number of elements to transform
+    * @param executor  executor for the additional chunks; may be null to run serially
+    */
+   public final void transformNormals(final float[] src, final int srcOffset, final int srcStride, final float[] dst,
+    final int dstOffset, final int dstStride, int count, ExecutorService executor)
+   {
+      ParallelRange.execute(executor, count, ParallelRange.s_DEFAULT_MIN_CHUNK_SIZE, new IRangeTask()
+      {
+         public void run(int start, int end)
+         {
+            transformNormals(src, srcOffset + start * srcStride, srcStride, dst, dstOffset + start * dstStride,
+             dstStride, end - start);
+         }
+      });
+   }
+
    /**
     * Sets the rotational component (upper 3x3) of this matrix to the matrix
     * values in the single precision Matrix3f argument; the other elements of
@@ -1833,6 +3719,7 @@ public class Matrix4f
       float w1 = m31;
       float w2 = m32;
       float w3 = m33;
+      int p = properties;
 
       set(q1);
       mulRotationScale(scale);
@@ -1845,6 +3732,8 @@ public class Matrix4f
       m31 = w1;
       m32 = w2;
       m33 = w3;
+
+      properties = p & s_PROPERTY_AFFINE;
    }
 
    /**
@@ -1868,6 +3757,8 @@ public class Matrix4f
       m31 = 0.0f;
       m32 = 0.0f;
       m33 = 0.0f;
+
+      properties = s_PROPERTY_GENERAL;
    }
 
    /**
@@ -1891,6 +3782,8 @@ public class Matrix4f
       m31 = -m31;
       m32 = -m32;
       m33 = -m33;
+
+      properties = s_PROPERTY_GENERAL;
    }
 
    /**
@@ -1929,6 +3822,8 @@ public class Matrix4f
       this.m31 = m31;
       this.m32 = m32;
       this.m33 = m33;
+
+      properties = s_PROPERTY_GENERAL;
    }
 
    /**
@@ -2005,6 +3900,62 @@ public class Matrix4f
       return s;
    }
 
+   /**
+    * Inverts this matrix assuming the upper 3x3 is orthonormal and the fourth row is (0, 0, 0, 1).
+    */
+   private void invertOrthonormal()
+   {
+      float tx = m03;
+      float ty = m13;
+      float tz = m23;
+
+      float tmp = m01;
+      m01 = m10;
+      m10 = tmp;
+
+      tmp = m02;
+      m02 = m20;
+      m20 = tmp;
+
+      tmp = m12;
+      m12 = m21;
+      m21 = tmp;
+
+      m03 = -(m00 * tx + m01 * ty + m02 * tz);
+      m13 = -(m10 * tx + m11 * ty + m12 * tz);
+      m23 = -(m20 * tx + m21 * ty + m22 * tz);
+   }
+
+   /**
+    * Sets this matrix to P * m1 where P is the sparse projection with the given non-zero terms, a fourth row of
+    * (0, 0, -1, 0) and all other elements zero.
+    */
+   private void mulProjection(float p00, float p02, float p11, float p12, float p22, float p23, Matrix4f m1)
+   {
+      // alias-safe way.
+      set(
+       p00 * m1.m00 + p02 * m1.m20,
+       p00 * m1.m01 + p02 * m1.m21,
+       p00 * m1.m02 + p02 * m1.m22,
+       p00 * m1.m03 + p02 * m1.m23,
+
+       p11 * m1.m10 + p12 * m1.m20,
+       p11 * m1.m11 + p12 * m1.m21,
+       p11 * m1.m12 + p12 * m1.m22,
+       p11 * m1.m13 + p12 * m1.m23,
+
+       p22 * m1.m20 + p23 * m1.m30,
+       p22 * m1.m21 + p23 * m1.m31,
+       p22 * m1.m22 + p23 * m1.m32,
+       p22 * m1.m23 + p23 * m1.m33,
+
+       -m1.m20,
+       -m1.m21,
+       -m1.m22,
+       -m1.m23
+      );
+   }
+
    /**
     * Multiplies 3x3 upper elements of this matrix by a scalar.
     * The other elements are unchanged.
@@ -2059,9 +4010,22 @@ public class Matrix4f
       m20 = xz - wy;
       m21 = yz + wx;
       m22 = 1.0f - (xx + yy);
+
+      properties = s_PROPERTIES_ORTHONORMAL;
+   }
+
+   /**
+    * A perspective projection with zNear equal to zFar has infinite depth terms and no inverse.
+    */
+   private static void checkDepthRange(float zNear, float zFar)
+   {
+      if (zNear == zFar)
+      {
+         throw new IllegalArgumentException("zNear and zFar must differ and are both " + zNear);
+      }
    }
 
-   private void setFromAxisAngle(float x, float y, float z, float angle)
+   private void setFromAxisAngle(float x, float y, float z, float c, float s)
    {
       float n = (float)Math.sqrt(x * x + y * y + z * z);
       // zero-div may occur
@@ -2069,8 +4033,6 @@ public class Matrix4f
       x *= n;
       y *= n;
       z *= n;
-      float c = (float)Math.cos(angle);
-      float s = (float)Math.sin(angle);
       float omc = 1.0f - c;
 
       m00 = c + x * x * omc;
@@ -0,0 +1,621 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.vecmath;
+
+import java.nio.FloatBuffer;
+
+/**
+ * A fixed capacity array of single precision floating point 4 by 4 matrices stored as a structure of arrays in a
+ * single float[].
+ *
+ * Matrices are grouped in blocks of s_LANES; within a block each of the 16 elements is stored as s_LANES consecutive
+ * floats, so element (row, column) of the matrix at index i is stored at getOffset(i) + (row * 4 + column) * s_LANES.
+ * A block is 512 contiguous bytes, which avoids a heap object per matrix and the cache set conflicts of one stream
+ * per element, while the inner loop of each bulk operation is a unit-stride counted loop the JIT can unroll /
+ * vectorize.
+ *
+ * Bulk operations produce the same results as the corresponding scalar Matrix4f methods and are alias-safe per
+ * index, so the destination may be one of the source arrays.
+ *
+ * @author  Michael Leahy
+ */
+public class Matrix4fArray
+{
+   /**
+    * The number of matrices stored per block; the kernels below are written with element offsets for 8 lanes.
+    */
+   public static final int s_LANES = 8;
+
+   private static final int s_LANE_MASK = s_LANES - 1;
+
+   /**
+    * The number of matrices this array holds.
+    */
+   public final int capacity;
+
+   /**
+    * Blocked backing storage; see getOffset.
+    */
+   public final float[] data;
+
+   /**
+    * Constructs a Matrix4fArray with the given capacity; all matrices are initialized to zero.
+    *
+    * @param capacity the number of matrices to store
+    */
+   public Matrix4fArray(int capacity)
+   {
+      if (capacity < 0)
+      {
+         throw new IllegalArgumentException("capacity must be non-negative and is " + capacity);
+      }
+
+      this.capacity = capacity;
+      this.data = new float[((capacity + s_LANE_MASK) & ~s_LANE_MASK) * 16];
+   }
+
+   /**
+    * Returns the offset into data of element (0, 0) of the matrix at the given index; element (row, column) is
+    * stored at getOffset(index) + (row * 4 + column) * s_LANES.
+    *
+    * @param index index of the matrix
+    * @return offset of element (0, 0)
+    */
+   public static int getOffset(int index)
+   {
+      // block * s_LANES * 16 + lane == index + block * s_LANES * 15
+      return index + (index & ~s_LANE_MASK) * 15;
+   }
+
+   /**
+    * Copies the matrix at the given index into m1.
+    *
+    * @param index index of the matrix to retrieve
+    * @param m1    the matrix that receives the values
+    */
+   public final void get(int index, Matrix4f m1)
+   {
+      checkRange(index, 1);
+
+      final float[] d = data;
+      final int o = getOffset(index);
+
+      m1.m00 = d[o];
+      m1.m01 = d[o + 8];
+      m1.m02 = d[o + 16];
+      m1.m03 = d[o + 24];
+      m1.m10 = d[o + 32];
+      m1.m11 = d[o + 40];
+      m1.m12 = d[o + 48];
+      m1.m13 = d[o + 56];
+      m1.m20 = d[o + 64];
+      m1.m21 = d[o + 72];
+      m1.m22 = d[o + 80];
+      m1.m23 = d[o + 88];
+      m1.m30 = d[o + 96];
+      m1.m31 = d[o + 104];
+      m1.m32 = d[o + 112];
+      m1.m33 = d[o + 120];
+
+      m1.markDirty();
+   }
+
+   /**
+    * Stores the matrices in the given range into the buffer in column-major order as expected by glUniformMatrix4fv
+    * and std140 / std430 buffer layouts; 16 floats per matrix are written with relative puts.
+    *
+    * @param buffer the buffer that receives the values
+    * @param start  index of the first matrix
+    * @param count  number of matrices to store
+    */
+   public final void get(FloatBuffer buffer, int start, int count)
+   {
+      checkRange(start, count);
+
+      final float[] d = data;
+
+      for (int i = start, end = start + count; i < end; i++)
+      {
+         final int o = getOffset(i);
+
+         buffer.put(d[o]).put(d[o + 32]).put(d[o + 64]).put(d[o + 96]);
+         buffer.put(d[o + 8]).put(d[o + 40]).put(d[o + 72]).put(d[o + 104]);
+         buffer.put(d[o + 16]).put(d[o + 48]).put(d[o + 80]).put(d[o + 112]);
+         buffer.put(d[o + 24]).put(d[o + 56]).put(d[o + 88]).put(d[o + 120]);
+      }
+   }
+
+   /**
+    * Sets the matrix at the given index to the values of m1.
+    *
+    * @param index index of the matrix to set
+    * @param m1    the source matrix
+    */
+   public final void set(int index, Matrix4f m1)
+   {
+      checkRange(index, 1);
+
+      final float[] d = data;
+      final int o = getOffset(index);
+
+      d[o] = m1.m00;
+      d[o + 8] = m1.m01;
+      d[o + 16] = m1.m02;
+      d[o + 24] = m1.m03;
+      d[o + 32] = m1.m10;
+      d[o + 40] = m1.m11;
+      d[o + 48] = m1.m12;
+      d[o + 56] = m1.m13;
+      d[o + 64] = m1.m20;
+      d[o + 72] = m1.m21;
+      d[o + 80] = m1.m22;
+      d[o + 88] = m1.m23;
+      d[o + 96] = m1.m30;
+      d[o + 104] = m1.m31;
+      d[o + 112] = m1.m32;
+      d[o + 120] = m1.m33;
+   }
+
+   /**
+    * Sets the matrix at the given index from the rotation expressed by the quaternion q1, the translation t1, and
+    * the scale s; equivalent to Matrix4f.set(Quat4f, Vector3f, float).
+    *
+    * @param index index of the matrix to set
+    * @param q1    the rotation expressed as a quaternion
+    * @param t1    the translation
+    * @param s     the scale value
+    */
+   public final void set(int index, Quat4f q1, Vector3f t1, float s)
+   {
+      checkRange(index, 1);
+
+      setTRS(index, q1.x, q1.y, q1.z, q1.w, t1.x, t1.y, t1.z, s);
+   }
+
+   /**
+    * Sets each matrix in the given range from packed rotation, translation and scale arrays; equivalent to calling
+    * Matrix4f.set(Quat4f, Vector3f, float) for each index. The arrays are addressed by matrix index; rotations
+    * holds xyzw at index * 4, translations holds xyz at index * 3 and scales holds one value at index.
+    *
+    * @param rotations    packed quaternions
+    * @param translations packed translations
+    * @param scales       scale values
+    * @param start        index of the first matrix
+    * @param count        number of matrices to set
+    */
+   public final void set(float[] rotations, float[] translations, float[] scales, int start, int count)
+   {
+      checkRange(start, count);
+
+      for (int i = start, end = start + count; i < end; i++)
+      {
+         final int r = i * 4;
+         final int t = i * 3;
+
+         setTRS(i, rotations[r], rotations[r + 1], rotations[r + 2], rotations[r + 3], translations[t],
+          translations[t + 1], translations[t + 2], scales[i]);
+      }
+   }
+
+   /**
+    * Copies the matrices in the given range from src into this array.
+    *
+    * @param src   the source array
+    * @param start index of the first matrix
+    * @param count number of matrices to copy
+    */
+   public final void set(Matrix4fArray src, int start, int count)
+   {
+      checkRange(start, count);
+      src.checkRange(start, count);
+
+      if (src == this)
+      {
+         return;
+      }
+
+      final float[] d = data, sd = src.data;
+
+      for (int i = start, end = start + count; i < end; i++)
+      {
+         final int o = getOffset(i);
+
+         for (int k = 0; k < 16 * s_LANES; k += s_LANES)
+         {
+            d[o + k] = sd[o + k];
+         }
+      }
+   }
+
+   /**
+    * Sets the matrices in the given range to identity.
+    *
+    * @param start index of the first matrix
+    * @param count number of matrices to set
+    */
+   public final void setIdentity(int start, int count)
+   {
+      checkRange(start, count);
+
+      final float[] d = data;
+
+      for (int i = start, end = start + count; i < end; i++)
+      {
+         final int o = getOffset(i);
+
+         for (int k = 0; k < 16; k++)
+         {
+            d[o + k * s_LANES] = k % 5 == 0 ? 1.0f : 0.0f;
+         }
+      }
+   }
+
+   /**
+    * Sets each matrix in the given range to the result of multiplying the corresponding matrices of a and b
+    * (this[i] = a[i] * b[i]).
+    *
+    * @param a     the left hand side matrices
+    * @param b     the right hand side matrices
+    * @param start index of the first matrix
+    * @param count number of matrices to multiply
+    */
+   public final void mul(Matrix4fArray a, Matrix4fArray b, int start, int count)
+   {
+      checkRange(start, count);
+      a.checkRange(start, count);
+      b.checkRange(start, count);
+
+      final float[] d = data, ad = a.data, bd = b.data;
+
+      for (int i = start, end = start + count; i < end;)
+      {
+         // within a block the offset is linear in the index
+         final int blockEnd = Math.min((i & ~s_LANE_MASK) + s_LANES, end);
+         final int delta = getOffset(i) - i;
+
+         for (; i < blockEnd; i++)
+         {
+            final int o = i + delta;
+
+            float a00 = ad[o], a01 = ad[o + 8], a02 = ad[o + 16], a03 = ad[o + 24];
+            float a10 = ad[o + 32], a11 = ad[o + 40], a12 = ad[o + 48], a13 = ad[o + 56];
+            float a20 = ad[o + 64], a21 = ad[o + 72], a22 = ad[o + 80], a23 = ad[o + 88];
+            float a30 = ad[o + 96], a31 = ad[o + 104], a32 = ad[o + 112], a33 = ad[o + 120];
+
+            float b00 = bd[o], b01 = bd[o + 8], b02 = bd[o + 16], b03 = bd[o + 24];
+            float b10 = bd[o + 32], b11 = bd[o + 40], b12 = bd[o + 48], b13 = bd[o + 56];
+            float b20 = bd[o + 64], b21 = bd[o + 72], b22 = bd[o + 80], b23 = bd[o + 88];
+            float b30 = bd[o + 96], b31 = bd[o + 104], b32 = bd[o + 112], b33 = bd[o + 120];
+
+            d[o] = a00 * b00 + a01 * b10 + a02 * b20 + a03 * b30;
+            d[o + 8] = a00 * b01 + a01 * b11 + a02 * b21 + a03 * b31;
+            d[o + 16] = a00 * b02 + a01 * b12 + a02 * b22 + a03 * b32;
+            d[o + 24] = a00 * b03 + a01 * b13 + a02 * b23 + a03 * b33;
+
+            d[o + 32] = a10 * b00 + a11 * b10 + a12 * b20 + a13 * b30;
+            d[o + 40] = a10 * b01 + a11 * b11 + a12 * b21 + a13 * b31;
+            d[o + 48] = a10 * b02 + a11 * b12 + a12 * b22 + a13 * b32;
+            d[o + 56] = a10 * b03 + a11 * b13 + a12 * b23 + a13 * b33;
+
+            d[o + 64] = a20 * b00 + a21 * b10 + a22 * b20 + a23 * b30;
+            d[o + 72] = a20 * b01 + a21 * b11 + a22 * b21 + a23 * b31;
+            d[o + 80] = a20 * b02 + a21 * b12 + a22 * b22 + a23 * b32;
+            d[o + 88] = a20 * b03 + a21 * b13 + a22 * b23 + a23 * b33;
+
+            d[o + 96] = a30 * b00 + a31 * b10 + a32 * b20 + a33 * b30;
+            d[o + 104] = a30 * b01 + a31 * b11 + a32 * b21 + a33 * b31;
+            d[o + 112] = a30 * b02 + a31 * b12 + a32 * b22 + a33 * b32;
+            d[o + 120] = a30 * b03 + a31 * b13 + a32 * b23 + a33 * b33;
+         }
+      }
+   }
+
+   /**
+    * Sets each matrix in the given range to the result of multiplying m1 by the corresponding matrix of b
+    * (this[i] = m1 * b[i]); IE applying a view-projection matrix to a set of model matrices.
+    *
+    * @param m1    the left hand side matrix
+    * @param b     the right hand side matrices
+    * @param start index of the first matrix
+    * @param count number of matrices to multiply
+    */
+   public final void mul(Matrix4f m1, Matrix4fArray b, int start, int count)
+   {
+      checkRange(start, count);
+      b.checkRange(start, count);
+
+      final float a00 = m1.m00, a01 = m1.m01, a02 = m1.m02, a03 = m1.m03;
+      final float a10 = m1.m10, a11 = m1.m11, a12 = m1.m12, a13 = m1.m13;
+      final float a20 = m1.m20, a21 = m1.m21, a22 = m1.m22, a23 = m1.m23;
+      final float a30 = m1.m30, a31 = m1.m31, a32 = m1.m32, a33 = m1.m33;
+
+      final float[] d = data, bd = b.data;
+
+      for (int i = start, end = start + count; i < end;)
+      {
+         // within a block the offset is linear in the index
+         final int blockEnd = Math.min((i & ~s_LANE_MASK) + s_LANES, end);
+         final int delta = getOffset(i) - i;
+
+         for (; i < blockEnd; i++)
+         {
+            final int o = i + delta;
+
+            float b00 = bd[o], b01 = bd[o + 8], b02 = bd[o + 16], b03 = bd[o + 24];
+            float b10 = bd[o + 32], b11 = bd[o + 40], b12 = bd[o + 48], b13 = bd[o + 56];
+            float b20 = bd[o + 64], b21 = bd[o + 72], b22 = bd[o + 80], b23 = bd[o + 88];
+            float b30 = bd[o + 96], b31 = bd[o + 104], b32 = bd[o + 112], b33 = bd[o + 120];
+
+            d[o] = a00 * b00 + a01 * b10 + a02 * b20 + a03 * b30;
+            d[o + 8] = a00 * b01 + a01 * b11 + a02 * b21 + a03 * b31;
+            d[o + 16] = a00 * b02 + a01 * b12 + a02 * b22 + a03 * b32;
+            d[o + 24] = a00 * b03 + a01 * b13 + a02 * b23 + a03 * b33;
+
+            d[o + 32] = a10 * b00 + a11 * b10 + a12 * b20 + a13 * b30;
+            d[o + 40] = a10 * b01 + a11 * b11 + a12 * b21 + a13 * b31;
+            d[o + 48] = a10 * b02 + a11 * b12 + a12 * b22 + a13 * b32;
+            d[o + 56] = a10 * b03 + a11 * b13 + a12 * b23 + a13 * b33;
+
+            d[o + 64] = a20 * b00 + a21 * b10 + a22 * b20 + a23 * b30;
+            d[o + 72] = a20 * b01 + a21 * b11 + a22 * b21 + a23 * b31;
+            d[o + 80] = a20 * b02 + a21 * b12 + a22 * b22 + a23 * b32;
+            d[o + 88] = a20 * b03 + a21 * b13 + a22 * b23 + a23 * b33;
+
+            d[o + 96] = a30 * b00 + a31 * b10 + a32 * b20 + a33 * b30;
+            d[o + 104] = a30 * b01 + a31 * b11 + a32 * b21 + a33 * b31;
+            d[o + 112] = a30 * b02 + a31 * b12 + a32 * b22 + a33 * b32;
+            d[o + 120] = a30 * b03 + a31 * b13 + a32 * b23 + a33 * b33;
+         }
+      }
+   }
+
+   /**
+    * Sets each matrix in the given range to the result of multiplying the corresponding matrices of a and b where
+    * both are affine (the fourth row is 0, 0, 0, 1); the fourth row is not read and is written as 0, 0, 0, 1.
+    *
+    * @param a     the left hand side affine matrices
+    * @param b     the right hand side affine matrices
+    * @param start index of the first matrix
+    * @param count number of matrices to multiply
+    */
+   public final void mulAffine(Matrix4fArray a, Matrix4fArray b, int start, int count)
+   {
+      checkRange(start, count);
+      a.checkRange(start, count);
+      b.checkRange(start, count);
+
+      final float[] d = data, ad = a.data, bd = b.data;
+
+      for (int i = start, end = start + count; i < end;)
+      {
+         // within a block the offset is linear in the index
+         final int blockEnd = Math.min((i & ~s_LANE_MASK) + s_LANES, end);
+         final int delta = getOffset(i) - i;
+
+         for (; i < blockEnd; i++)
+         {
+            final int o = i + delta;
+
+            float a00 = ad[o], a01 = ad[o + 8], a02 = ad[o + 16], a03 = ad[o + 24];
+            float a10 = ad[o + 32], a11 = ad[o + 40], a12 = ad[o + 48], a13 = ad[o + 56];
+            float a20 = ad[o + 64], a21 = ad[o + 72], a22 = ad[o + 80], a23 = ad[o + 88];
+
+            float b00 = bd[o], b01 = bd[o + 8], b02 = bd[o + 16], b03 = bd[o + 24];
+            float b10 = bd[o + 32], b11 = bd[o + 40], b12 = bd[o + 48], b13 = bd[o + 56];
+            float b20 = bd[o + 64], b21 = bd[o + 72], b22 = bd[o + 80], b23 = bd[o + 88];
+
+            d[o] = a00 * b00 + a01 * b10 + a02 * b20;
+            d[o + 8] = a00 * b01 + a01 * b11 + a02 * b21;
+            d[o + 16] = a00 * b02 + a01 * b12 + a02 * b22;
+            d[o + 24] = a00 * b03 + a01 * b13 + a02 * b23 + a03;
+
+            d[o + 32] = a10 * b00 + a11 * b10 + a12 * b20;
+            d[o + 40] = a10 * b01 + a11 * b11 + a12 * b21;
+            d[o + 48] = a10 * b02 + a11 * b12 + a12 * b22;
+            d[o + 56] = a10 * b03 + a11 * b13 + a12 * b23 + a13;
+
+            d[o + 64] = a20 * b00 + a21 * b10 + a22 * b20;
+            d[o + 72] = a20 * b01 + a21 * b11 + a22 * b21;
+            d[o + 80] = a20 * b02 + a21 * b12 + a22 * b22;
+            d[o + 88] = a20 * b03 + a21 * b13 + a22 * b23 + a23;
+
+            d[o + 96] = 0.0f;
+            d[o + 104] = 0.0f;
+            d[o + 112] = 0.0f;
+            d[o + 120] = 1.0f;
+         }
+      }
+   }
+
+   /**
+    * Sets each matrix in the given range to the inverse of the corresponding matrix of src using the cofactor
+    * expansion of Matrix4f.invert(), which shares the 2x2 minors between the determinant and the adjugate. As with
+    * Matrix4f.invert(Matrix4f) a singular matrix is copied unchanged.
+    *
+    * @param src   the matrices to be inverted
+    * @param start index of the first matrix
+    * @param count number of matrices to invert
+    * @return number of singular matrices
+    */
+   public final int invert(Matrix4fArray src, int start, int count)
+   {
+      checkRange(start, count);
+      src.checkRange(start, count);
+
+      final float[] d = data, sd = src.data;
+
+      int singular = 0;
+
+      for (int i = start, end = start + count; i < end;)
+      {
+         // within a block the offset is linear in the index
+         final int blockEnd = Math.min((i & ~s_LANE_MASK) + s_LANES, end);
+         final int delta = getOffset(i) - i;
+
+         for (; i < blockEnd; i++)
+         {
+            final int o = i + delta;
+
+            float m00 = sd[o], m01 = sd[o + 8], m02 = sd[o + 16], m03 = sd[o + 24];
+            float m10 = sd[o + 32], m11 = sd[o + 40], m12 = sd[o + 48], m13 = sd[o + 56];
+            float m20 = sd[o + 64], m21 = sd[o + 72], m22 = sd[o + 80], m23 = sd[o + 88];
+            float m30 = sd[o + 96], m31 = sd[o + 104], m32 = sd[o + 112], m33 = sd[o + 120];
+
+            float s0 = m00 * m11 - m01 * m10;
+            float s1 = m00 * m12 - m02 * m10;
+            float s2 = m00 * m13 - m03 * m10;
+            float s3 = m01 * m12 - m02 * m11;
+            float s4 = m01 * m13 - m03 * m11;
+            float s5 = m02 * m13 - m03 * m12;
+
+            float c0 = m20 * m31 - m21 * m30;
+            float c1 = m20 * m32 - m22 * m30;
+            float c2 = m20 * m33 - m23 * m30;
+            float c3 = m21 * m32 - m22 * m31;
+            float c4 = m21 * m33 - m23 * m31;
+            float c5 = m22 * m33 - m23 * m32;
+
+            float s = s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0;
+
+            if (s == 0.0f)
+            {
+               singular++;
+
+               if (src != this)
+               {
+                  for (int k = 0; k < 16 * s_LANES; k += s_LANES)
+                  {
+                     d[o + k] = sd[o + k];
+                  }
+               }
+               continue;
+            }
+
+            s = 1.0f / s;
+
+            d[o] = (m11 * c5 - m12 * c4 + m13 * c3) * s;
+            d[o + 8] = (m02 * c4 - m01 * c5 - m03 * c3) * s;
+            d[o + 16] = (m31 * s5 - m32 * s4 + m33 * s3) * s;
+            d[o + 24] = (m22 * s4 - m21 * s5 - m23 * s3) * s;
+
+            d[o + 32] = (m12 * c2 - m10 * c5 - m13 * c1) * s;
+            d[o + 40] = (m00 * c5 - m02 * c2 + m03 * c1) * s;
+            d[o + 48] = (m32 * s2 - m30 * s5 - m33 * s1) * s;
+            d[o + 56] = (m20 * s5 - m22 * s2 + m23 * s1) * s;
+
+            d[o + 64] = (m10 * c4 - m11 * c2 + m13 * c0) * s;
+            d[o + 72] = (m01 * c2 - m00 * c4 - m03 * c0) * s;
+            d[o + 80] = (m30 * s4 - m31 * s2 + m33 * s0) * s;
+            d[o + 88] = (m21 * s2 - m20 * s4 - m23 * s0) * s;
+
+            d[o + 96] = (m11 * c1 - m10 * c3 - m12 * c0) * s;
+            d[o + 104] = (m00 * c3 - m01 * c1 + m02 * c0) * s;
+            d[o + 112] = (m31 * s1 - m30 * s3 - m32 * s0) * s;
+            d[o + 120] = (m20 * s3 - m21 * s1 + m22 * s0) * s;
+         }
+      }
+
+      return singular;
+   }
+
+   /**
+    * Sets each matrix in the given range to the transpose of the corresponding matrix of src.
+    *
+    * @param src   the matrices to be transposed
+    * @param start index of the first matrix
+    * @param count number of matrices to transpose
+    */
+   public final void transpose(Matrix4fArray src, int start, int count)
+   {
+      checkRange(start, count);
+      src.checkRange(start, count);
+
+      final float[] d = data, sd = src.data;
+
+      for (int i = start, end = start + count; i < end;)
+      {
+         // within a block the offset is linear in the index
+         final int blockEnd = Math.min((i & ~s_LANE_MASK) + s_LANES, end);
+         final int delta = getOffset(i) - i;
+
+         for (; i < blockEnd; i++)
+         {
+            final int o = i + delta;
+
+            float m00 = sd[o], m01 = sd[o + 8], m02 = sd[o + 16], m03 = sd[o + 24];
+            float m10 = sd[o + 32], m11 = sd[o + 40], m12 = sd[o + 48], m13 = sd[o + 56];
+            float m20 = sd[o + 64], m21 = sd[o + 72], m22 = sd[o + 80], m23 = sd[o + 88];
+            float m30 = sd[o + 96], m31 = sd[o + 104], m32 = sd[o + 112], m33 = sd[o + 120];
+
+            d[o] = m00;
+            d[o + 8] = m10;
+            d[o + 16] = m20;
+            d[o + 24] = m30;
+
+            d[o + 32] = m01;
+            d[o + 40] = m11;
+            d[o + 48] = m21;
+            d[o + 56] = m31;
+
+            d[o + 64] = m02;
+            d[o + 72] = m12;
+            d[o + 80] = m22;
+            d[o + 88] = m32;
+
+            d[o + 96] = m03;
+            d[o + 104] = m13;
+            d[o + 112] = m23;
+            d[o + 120] = m33;
+         }
+      }
+   }
+
+   /**
+    * Verifies that the range [start, start + count) lies within this array.
+    */
+   final void checkRange(int start, int count)
+   {
+      if (start < 0 || count < 0 || start + count > capacity)
+      {
+         throw new ArrayIndexOutOfBoundsException("range [" + start + ", " + (start + count)
+          + ") is outside of capacity " + capacity);
+      }
+   }
+
+   private void setTRS(int i, float x, float y, float z, float w, float tx, float ty, float tz, float scale)
+   {
+      // Same expressions as Matrix4f.setFromQuat followed by mulRotationScale.
+      float n = x * x + y * y + z * z + w * w;
+      float s = (n > 0.0f) ? (2.0f / n) : 0.0f;
+
+      float xs = x * s, ys = y * s, zs = z * s;
+      float wx = w * xs, wy = w * ys, wz = w * zs;
+      float xx = x * xs, xy = x * ys, xz = x * zs;
+      float yy = y * ys, yz = y * zs, zz = z * zs;
+
+      final float[] d = data;
+      final int o = getOffset(i);
+
+      d[o] = (1.0f - (yy + zz)) * scale;
+      d[o + 8] = (xy - wz) * scale;
+      d[o + 16] = (xz + wy) * scale;
+      d[o + 24] = tx;
+      d[o + 32] = (xy + wz) * scale;
+      d[o + 40] = (1.0f - (xx + zz)) * scale;
+      d[o + 48] = (yz - wx) * scale;
+      d[o + 56] = ty;
+      d[o + 64] = (xz - wy) * scale;
+      d[o + 72] = (yz + wx) * scale;
+      d[o + 80] = (1.0f - (xx + yy)) * scale;
+      d[o + 88] = tz;
+      d[o + 96] = 0.0f;
+      d[o + 104] = 0.0f;
+      d[o + 112] = 0.0f;
+      d[o + 120] = 1.0f;
+   }
+}
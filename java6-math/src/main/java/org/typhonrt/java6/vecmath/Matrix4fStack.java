@@ -0,0 +1,558 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.vecmath;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+/**
+ * A transform stack in the style of glPushMatrix / glPopMatrix backed by one float[] that grows on demand.
+ *
+ * Each level holds a 4 by 4 matrix as 16 consecutive floats in column-major order, so the top can be uploaded with a
+ * single bulk put. The push methods copy the top and multiply the transform onto the copy from the right
+ * (top = top * M), so transforms pushed later apply to the model first:
+ *
+ * <pre>
+ * stack.pushTranslate(x, y, 0.0f);
+ * stack.pushRotate(orientation);
+ * stack.get(uniformBuffer, 0);
+ * ...
+ * stack.pop();
+ * stack.pop();
+ * </pre>
+ *
+ * Levels whose fourth row is (0, 0, 0, 1) are tracked as affine and multiplied with the cheaper affine product. The
+ * inverse of each level is computed on first request and cached until that level is replaced, so the inverse of a
+ * parent survives pushes and pops of its children. Once the deepest level has been reached nothing is allocated.
+ *
+ * A stack is not thread safe.
+ *
+ * @author  Michael Leahy
+ */
+public class Matrix4fStack
+{
+   private static final int s_DEFAULT_CAPACITY = 16;
+
+   private float[] matrices;
+   private float[] inverses;
+
+   private boolean[] affine;
+   private boolean[] inverseValid;
+
+   private int depth;
+
+   private int growCount;
+
+   private final Matrix4f temp = new Matrix4f();
+
+   /**
+    * Constructs a stack with room for 16 levels whose base level is identity.
+    */
+   public Matrix4fStack()
+   {
+      this(s_DEFAULT_CAPACITY);
+   }
+
+   /**
+    * Constructs a stack whose base level is identity.
+    *
+    * @param capacity number of levels to preallocate including the base level; at least one
+    */
+   public Matrix4fStack(int capacity)
+   {
+      if (capacity < 1)
+      {
+         throw new IllegalArgumentException("capacity must be at least 1 and is " + capacity);
+      }
+
+      matrices = new float[capacity * 16];
+      inverses = new float[capacity * 16];
+      affine = new boolean[capacity];
+      inverseValid = new boolean[capacity];
+
+      loadIdentity();
+   }
+
+   /**
+    * @return number of levels pushed above the base level
+    */
+   public final int getDepth()
+   {
+      return depth;
+   }
+
+   /**
+    * Returns how often the backing arrays had to grow, which stops increasing once the deepest use has been reached.
+    *
+    * @return number of growths
+    */
+   public final int getGrowCount()
+   {
+      return growCount;
+   }
+
+   /**
+    * @return true if the fourth row of the top is known to be (0, 0, 0, 1)
+    */
+   public final boolean isAffine()
+   {
+      return affine[depth];
+   }
+
+   /**
+    * Pops all levels and sets the base level to identity.
+    */
+   public final void clear()
+   {
+      depth = 0;
+      loadIdentity();
+   }
+
+   /**
+    * Sets the top to identity.
+    */
+   public final void loadIdentity()
+   {
+      final float[] d = matrices;
+      final int o = depth * 16;
+
+      for (int cntr = 0; cntr < 16; cntr++)
+      {
+         d[o + cntr] = cntr % 5 == 0 ? 1.0f : 0.0f;
+      }
+
+      affine[depth] = true;
+      inverseValid[depth] = false;
+   }
+
+   /**
+    * Sets the top to the value of m1.
+    *
+    * @param m1 the source matrix
+    */
+   public final void load(Matrix4f m1)
+   {
+      store(depth, m1);
+   }
+
+   /**
+    * Copies the top into m1.
+    *
+    * @param m1 the matrix that receives the values
+    */
+   public final void get(Matrix4f m1)
+   {
+      copy(matrices, depth * 16, m1);
+   }
+
+   /**
+    * Stores the top into the buffer at its current position in column-major order as expected by OpenGL; the
+    * position is advanced by 16.
+    *
+    * @param buffer the buffer that receives the values
+    */
+   public final void get(FloatBuffer buffer)
+   {
+      buffer.put(matrices, depth * 16, 16);
+   }
+
+   /**
+    * Stores the top into the buffer starting at the absolute index in column-major order; the position of the
+    * buffer is not modified.
+    *
+    * @param buffer the buffer that receives the values
+    * @param index  index of the first element
+    */
+   public final void get(FloatBuffer buffer, int index)
+   {
+      put(matrices, depth * 16, buffer, index);
+   }
+
+   /**
+    * Copies the inverse of the top into m1; see getInverse(FloatBuffer, int).
+    *
+    * @param m1 the matrix that receives the inverse
+    * @return false if the top is singular, in which case m1 receives the top itself
+    */
+   public final boolean getInverse(Matrix4f m1)
+   {
+      boolean result = updateInverse();
+
+      copy(inverses, depth * 16, m1);
+
+      return result;
+   }
+
+   /**
+    * Stores the inverse of the top into the buffer starting at the absolute index in column-major order; the
+    * position of the buffer is not modified. The inverse is computed with Matrix4f.invertAffine or Matrix4f.invert on
+    * the first request after the top was set and reused until it is replaced.
+    *
+    * @param buffer the buffer that receives the values
+    * @param index  index of the first element
+    * @return false if the top is singular, in which case the buffer receives the top itself
+    */
+   public final boolean getInverse(FloatBuffer buffer, int index)
+   {
+      boolean result = updateInverse();
+
+      put(inverses, depth * 16, buffer, index);
+
+      return result;
+   }
+
+   /**
+    * Pushes a copy of the top.
+    */
+   public final void push()
+   {
+      final int o = depth * 16;
+
+      grow();
+
+      System.arraycopy(matrices, o, matrices, o + 16, 16);
+      System.arraycopy(inverses, o, inverses, o + 16, 16);
+
+      affine[depth + 1] = affine[depth];
+      inverseValid[depth + 1] = inverseValid[depth];
+
+      depth++;
+   }
+
+   /**
+    * Pushes the top multiplied by m1 (top * m1).
+    *
+    * @param m1 the matrix to multiply onto the top
+    */
+   public final void pushMul(Matrix4f m1)
+   {
+      grow();
+
+      final float[] d = matrices;
+      final int o = depth * 16;
+      final int n = o + 16;
+
+      final float a00 = d[o], a10 = d[o + 1], a20 = d[o + 2], a30 = d[o + 3];
+      final float a01 = d[o + 4], a11 = d[o + 5], a21 = d[o + 6], a31 = d[o + 7];
+      final float a02 = d[o + 8], a12 = d[o + 9], a22 = d[o + 10], a32 = d[o + 11];
+      final float a03 = d[o + 12], a13 = d[o + 13], a23 = d[o + 14], a33 = d[o + 15];
+
+      final float b00 = m1.m00, b01 = m1.m01, b02 = m1.m02, b03 = m1.m03;
+      final float b10 = m1.m10, b11 = m1.m11, b12 = m1.m12, b13 = m1.m13;
+      final float b20 = m1.m20, b21 = m1.m21, b22 = m1.m22, b23 = m1.m23;
+
+      boolean bAffine = m1.m30 == 0.0f && m1.m31 == 0.0f && m1.m32 == 0.0f && m1.m33 == 1.0f;
+
+      if (affine[depth] && bAffine)
+      {
+         d[n] = a00 * b00 + a01 * b10 + a02 * b20;
+         d[n + 1] = a10 * b00 + a11 * b10 + a12 * b20;
+         d[n + 2] = a20 * b00 + a21 * b10 + a22 * b20;
+         d[n + 3] = 0.0f;
+
+         d[n + 4] = a00 * b01 + a01 * b11 + a02 * b21;
+         d[n + 5] = a10 * b01 + a11 * b11 + a12 * b21;
+         d[n + 6] = a20 * b01 + a21 * b11 + a22 * b21;
+         d[n + 7] = 0.0f;
+
+         d[n + 8] = a00 * b02 + a01 * b12 + a02 * b22;
+         d[n + 9] = a10 * b02 + a11 * b12 + a12 * b22;
+         d[n + 10] = a20 * b02 + a21 * b12 + a22 * b22;
+         d[n + 11] = 0.0f;
+
+         d[n + 12] = a00 * b03 + a01 * b13 + a02 * b23 + a03;
+         d[n + 13] = a10 * b03 + a11 * b13 + a12 * b23 + a13;
+         d[n + 14] = a20 * b03 + a21 * b13 + a22 * b23 + a23;
+         d[n + 15] = 1.0f;
+      }
+      else
+      {
+         final float b30 = m1.m30, b31 = m1.m31, b32 = m1.m32, b33 = m1.m33;
+
+         d[n] = a00 * b00 + a01 * b10 + a02 * b20 + a03 * b30;
+         d[n + 1] = a10 * b00 + a11 * b10 + a12 * b20 + a13 * b30;
+         d[n + 2] = a20 * b00 + a21 * b10 + a22 * b20 + a23 * b30;
+         d[n + 3] = a30 * b00 + a31 * b10 + a32 * b20 + a33 * b30;
+
+         d[n + 4] = a00 * b01 + a01 * b11 + a02 * b21 + a03 * b31;
+         d[n + 5] = a10 * b01 + a11 * b11 + a12 * b21 + a13 * b31;
+         d[n + 6] = a20 * b01 + a21 * b11 + a22 * b21 + a23 * b31;
+         d[n + 7] = a30 * b01 + a31 * b11 + a32 * b21 + a33 * b31;
+
+         d[n + 8] = a00 * b02 + a01 * b12 + a02 * b22 + a03 * b32;
+         d[n + 9] = a10 * b02 + a11 * b12 + a12 * b22 + a13 * b32;
+         d[n + 10] = a20 * b02 + a21 * b12 + a22 * b22 + a23 * b32;
+         d[n + 11] = a30 * b02 + a31 * b12 + a32 * b22 + a33 * b32;
+
+         d[n + 12] = a00 * b03 + a01 * b13 + a02 * b23 + a03 * b33;
+         d[n + 13] = a10 * b03 + a11 * b13 + a12 * b23 + a13 * b33;
+         d[n + 14] = a20 * b03 + a21 * b13 + a22 * b23 + a23 * b33;
+         d[n + 15] = a30 * b03 + a31 * b13 + a32 * b23 + a33 * b33;
+      }
+
+      affine[depth + 1] = affine[depth] && bAffine;
+      inverseValid[depth + 1] = false;
+
+      depth++;
+   }
+
+   /**
+    * Pushes the top multiplied by a translation (top * T(x, y, z)); only the fourth column changes.
+    *
+    * @param x the x translation
+    * @param y the y translation
+    * @param z the z translation
+    */
+   public final void pushTranslate(float x, float y, float z)
+   {
+      grow();
+
+      final float[] d = matrices;
+      final int o = depth * 16;
+      final int n = o + 16;
+
+      System.arraycopy(d, o, d, n, 12);
+
+      d[n + 12] = d[o] * x + d[o + 4] * y + d[o + 8] * z + d[o + 12];
+      d[n + 13] = d[o + 1] * x + d[o + 5] * y + d[o + 9] * z + d[o + 13];
+      d[n + 14] = d[o + 2] * x + d[o + 6] * y + d[o + 10] * z + d[o + 14];
+      d[n + 15] = d[o + 3] * x + d[o + 7] * y + d[o + 11] * z + d[o + 15];
+
+      affine[depth + 1] = affine[depth];
+      inverseValid[depth + 1] = false;
+
+      depth++;
+   }
+
+   /**
+    * Pushes the top multiplied by the rotation expressed by the quaternion q1 (top * R(q1)); the quaternion need not
+    * be normalized as with Matrix4f.set(Quat4f). Only the first three columns change.
+    *
+    * @param q1 the rotation
+    */
+   public final void pushRotate(Quat4f q1)
+   {
+      grow();
+
+      final float x = q1.x, y = q1.y, z = q1.z, w = q1.w;
+
+      float norm = x * x + y * y + z * z + w * w;
+      float s = (norm > 0.0f) ? (2.0f / norm) : 0.0f;
+
+      float xs = x * s, ys = y * s, zs = z * s;
+      float wx = w * xs, wy = w * ys, wz = w * zs;
+      float xx = x * xs, xy = x * ys, xz = x * zs;
+      float yy = y * ys, yz = y * zs, zz = z * zs;
+
+      final float b00 = 1.0f - (yy + zz), b01 = xy - wz, b02 = xz + wy;
+      final float b10 = xy + wz, b11 = 1.0f - (xx + zz), b12 = yz - wx;
+      final float b20 = xz - wy, b21 = yz + wx, b22 = 1.0f - (xx + yy);
+
+      final float[] d = matrices;
+      final int o = depth * 16;
+      final int n = o + 16;
+
+      final float a00 = d[o], a10 = d[o + 1], a20 = d[o + 2], a30 = d[o + 3];
+      final float a01 = d[o + 4], a11 = d[o + 5], a21 = d[o + 6], a31 = d[o + 7];
+      final float a02 = d[o + 8], a12 = d[o + 9], a22 = d[o + 10], a32 = d[o + 11];
+
+      d[n] = a00 * b00 + a01 * b10 + a02 * b20;
+      d[n + 1] = a10 * b00 + a11 * b10 + a12 * b20;
+      d[n + 2] = a20 * b00 + a21 * b10 + a22 * b20;
+      d[n + 3] = a30 * b00 + a31 * b10 + a32 * b20;
+
+      d[n + 4] = a00 * b01 + a01 * b11 + a02 * b21;
+      d[n + 5] = a10 * b01 + a11 * b11 + a12 * b21;
+      d[n + 6] = a20 * b01 + a21 * b11 + a22 * b21;
+      d[n + 7] = a30 * b01 + a31 * b11 + a32 * b21;
+
+      d[n + 8] = a00 * b02 + a01 * b12 + a02 * b22;
+      d[n + 9] = a10 * b02 + a11 * b12 + a12 * b22;
+      d[n + 10] = a20 * b02 + a21 * b12 + a22 * b22;
+      d[n + 11] = a30 * b02 + a31 * b12 + a32 * b22;
+
+      System.arraycopy(d, o + 12, d, n + 12, 4);
+
+      affine[depth + 1] = affine[depth];
+      inverseValid[depth + 1] = false;
+
+      depth++;
+   }
+
+   /**
+    * Pushes the top multiplied by a scale (top * S(x, y, z)); only the first three columns change.
+    *
+    * @param x the x scale
+    * @param y the y scale
+    * @param z the z scale
+    */
+   public final void pushScale(float x, float y, float z)
+   {
+      grow();
+
+      final float[] d = matrices;
+      final int o = depth * 16;
+      final int n = o + 16;
+
+      d[n] = d[o] * x;
+      d[n + 1] = d[o + 1] * x;
+      d[n + 2] = d[o + 2] * x;
+      d[n + 3] = d[o + 3] * x;
+
+      d[n + 4] = d[o + 4] * y;
+      d[n + 5] = d[o + 5] * y;
+      d[n + 6] = d[o + 6] * y;
+      d[n + 7] = d[o + 7] * y;
+
+      d[n + 8] = d[o + 8] * z;
+      d[n + 9] = d[o + 9] * z;
+      d[n + 10] = d[o + 10] * z;
+      d[n + 11] = d[o + 11] * z;
+
+      System.arraycopy(d, o + 12, d, n + 12, 4);
+
+      affine[depth + 1] = affine[depth];
+      inverseValid[depth + 1] = false;
+
+      depth++;
+   }
+
+   /**
+    * Removes the top, restoring the previous level together with its cached inverse.
+    *
+    * @throws IllegalStateException if only the base level is left
+    */
+   public final void pop()
+   {
+      if (depth == 0)
+      {
+         throw new IllegalStateException("Matrix4fStack pop without matching push");
+      }
+
+      depth--;
+   }
+
+   /**
+    * Makes room for one more level above the top.
+    */
+   private void grow()
+   {
+      if (depth + 1 == affine.length)
+      {
+         int capacity = affine.length * 2;
+
+         matrices = Arrays.copyOf(matrices, capacity * 16);
+         inverses = Arrays.copyOf(inverses, capacity * 16);
+         affine = Arrays.copyOf(affine, capacity);
+         inverseValid = Arrays.copyOf(inverseValid, capacity);
+
+         growCount++;
+      }
+   }
+
+   /**
+    * Computes the inverse of the top unless it is cached.
+    *
+    * @return false if the top is singular
+    */
+   private boolean updateInverse()
+   {
+      final int o = depth * 16;
+
+      if (inverseValid[depth])
+      {
+         return true;
+      }
+
+      copy(matrices, o, temp);
+
+      boolean result = affine[depth] ? temp.invertAffine() : temp.invert();
+
+      inverses[o] = temp.m00;
+      inverses[o + 1] = temp.m10;
+      inverses[o + 2] = temp.m20;
+      inverses[o + 3] = temp.m30;
+      inverses[o + 4] = temp.m01;
+      inverses[o + 5] = temp.m11;
+      inverses[o + 6] = temp.m21;
+      inverses[o + 7] = temp.m31;
+      inverses[o + 8] = temp.m02;
+      inverses[o + 9] = temp.m12;
+      inverses[o + 10] = temp.m22;
+      inverses[o + 11] = temp.m32;
+      inverses[o + 12] = temp.m03;
+      inverses[o + 13] = temp.m13;
+      inverses[o + 14] = temp.m23;
+      inverses[o + 15] = temp.m33;
+
+      // a singular top is retried on the next request
+      inverseValid[depth] = result;
+
+      return result;
+   }
+
+   private void store(int level, Matrix4f m1)
+   {
+      final float[] d = matrices;
+      final int o = level * 16;
+
+      d[o] = m1.m00;
+      d[o + 1] = m1.m10;
+      d[o + 2] = m1.m20;
+      d[o + 3] = m1.m30;
+      d[o + 4] = m1.m01;
+      d[o + 5] = m1.m11;
+      d[o + 6] = m1.m21;
+      d[o + 7] = m1.m31;
+      d[o + 8] = m1.m02;
+      d[o + 9] = m1.m12;
+      d[o + 10] = m1.m22;
+      d[o + 11] = m1.m32;
+      d[o + 12] = m1.m03;
+      d[o + 13] = m1.m13;
+      d[o + 14] = m1.m23;
+      d[o + 15] = m1.m33;
+
+      affine[level] = m1.m30 == 0.0f && m1.m31 == 0.0f && m1.m32 == 0.0f && m1.m33 == 1.0f;
+      inverseValid[level] = false;
+   }
+
+   /**
+    * Stores one level with absolute puts, which unlike a relative bulk put of only 16 floats needs no position
+    * changes and no range checks beyond the per element index check.
+    */
+   private static void put(float[] d, int o, FloatBuffer buffer, int index)
+   {
+      for (int cntr = 0; cntr < 16; cntr++)
+      {
+         buffer.put(index + cntr, d[o + cntr]);
+      }
+   }
+
+   private static void copy(float[] d, int o, Matrix4f m1)
+   {
+      m1.m00 = d[o];
+      m1.m10 = d[o + 1];
+      m1.m20 = d[o + 2];
+      m1.m30 = d[o + 3];
+      m1.m01 = d[o + 4];
+      m1.m11 = d[o + 5];
+      m1.m21 = d[o + 6];
+      m1.m31 = d[o + 7];
+      m1.m02 = d[o + 8];
+      m1.m12 = d[o + 9];
+      m1.m22 = d[o + 10];
+      m1.m32 = d[o + 11];
+      m1.m03 = d[o + 12];
+      m1.m13 = d[o + 13];
+      m1.m23 = d[o + 14];
+      m1.m33 = d[o + 15];
+
+      m1.markDirty();
+   }
+}
@@ -7,6 +7,8 @@
  */
 package org.typhonrt.java6.vecmath;
 
+import org.typhonrt.java6.math.MathUtil;
+
 /**
  * A 4 element quaternion represented by single precision floating point x,y,z,w coordinates.
  *
@@ -14,6 +16,16 @@ package org.typhonrt.java6.vecmath;
  */
 public class Quat4f extends Tuple4f
 {
+   /**
+    * Minimum length of the sum of two quaternions below which they are treated as opposite by slerpFast and nlerp.
+    */
+   private static final float s_SLERP_EPSILON = 1e-6f;
+
+   /**
+    * Cosine of the angle, about 0.0014 radians, below which interpolateFast interpolates linearly.
+    */
+   private static final float s_INTERPOLATE_LINEAR_COS = 0.999999f;
+
    /**
     * Constructs and initializes a Quat4f from the specified xyzw coordinates.
     *
@@ -302,6 +314,419 @@ public class Quat4f extends Tuple4f
       interpolate(q2, alpha);
    }
 
+   /**
+    * Performs a great circle interpolation between this quaternion and the quaternion parameter like interpolate,
+    * in float arithmetic with MathUtil.acosFast / sinFast in place of Math.acos / sin. The components differ from a
+    * double precision slerp by less than 6e-7 while the dot product of the quaternions is at least -0.5. Toward
+    * opposite quaternions the interpolation is ill-conditioned and float rounding of the dot product raises the
+    * difference to 2e-6 for dot products above -0.9, 2e-5 above -0.99 and 2e-4 above -0.999; prefer slerpFast with
+    * the shortest path option when such inputs can occur.
+    *
+    * @param q1    the other quaternion
+    * @param alpha the alpha interpolation parameter
+    */
+   public final void interpolateFast(Quat4f q1, float alpha)
+   {
+      normalize();
+      float n1 = 1.0f / (float)Math.sqrt(q1.norm());
+      // zero-div may occur.
+      float x1 = q1.x * n1;
+      float y1 = q1.y * n1;
+      float z1 = q1.z * n1;
+      float w1 = q1.w * n1;
+
+      // t is cosine (dot product)
+      float t = x * x1 + y * y1 + z * z1 + w * w1;
+      float s;
+
+      if (t > s_INTERPOLATE_LINEAR_COS)
+      {
+         // The float dot product cannot resolve such small angles; over them the great circle is a straight line.
+         s = 1.0f - alpha;
+         t = alpha;
+      }
+      else
+      {
+         // opposite quaternion (avoid domain error)
+         if (t <= -1.0f)
+         {
+            return;
+         }
+
+         // t is now theta
+         t = MathUtil.acosFast(t);
+
+         float sin_t = MathUtil.sinFast(t);
+
+         s = MathUtil.sinFast((1.0f - alpha) * t) / sin_t;
+         t = MathUtil.sinFast(alpha * t) / sin_t;
+      }
+
+      x = s * x + t * x1;
+      y = s * y + t * y1;
+      z = s * z + t * z1;
+      w = s * w + t * w1;
+   }
+
+   /**
+    * Performs a great circle interpolation between quaternion q1 and quaternion q2 like interpolate(Quat4f, Quat4f,
+    * double), using interpolateFast.
+    *
+    * @param q1    the first quaternion
+    * @param q2    the second quaternion
+    * @param alpha the alpha interpolation parameter
+    */
+   public final void interpolateFast(Quat4f q1, Quat4f q2, float alpha)
+   {
+      set(q1);
+      interpolateFast(q2, alpha);
+   }
+
+   /**
+    * Sets this quaternion to the normalized linear interpolation (nlerp) of the unit quaternions q1 and q2 along the
+    * shortest path. Follows the same arc as interpolate but not at constant angular velocity; for rotations up to 90
+    * degrees apart the result is off from slerp by a rotation of at most 0.017 radians (1 degree), growing to 0.142
+    * radians at 180 degrees apart. Alias-safe.
+    *
+    * @param q1    the first unit quaternion
+    * @param q2    the second unit quaternion
+    * @param alpha the interpolation parameter in [0, 1]
+    */
+   public final void nlerp(Quat4f q1, Quat4f q2, float alpha)
+   {
+      nlerp(q1, q2, alpha, true);
+   }
+
+   /**
+    * Sets this quaternion to the normalized linear interpolation (nlerp) of the unit quaternions q1 and q2. Without
+    * the shortest path option opposite quaternions have no defined interpolation at alpha 0.5 and produce q1, as in
+    * slerpFast. Alias-safe.
+    *
+    * @param q1           the first unit quaternion
+    * @param q2           the second unit quaternion
+    * @param alpha        the interpolation parameter in [0, 1]
+    * @param shortestPath when true q2 is negated if needed so the result takes the shorter rotation; when false the
+    *                     quaternions are interpolated as given like interpolate
+    */
+   public final void nlerp(Quat4f q1, Quat4f q2, float alpha, boolean shortestPath)
+   {
+      float dot = q1.x * q2.x + q1.y * q2.y + q1.z * q2.z + q1.w * q2.w;
+
+      float s = 1.0f - alpha;
+      float t = shortestPath && dot < 0.0f ? -alpha : alpha;
+
+      float rx = s * q1.x + t * q2.x;
+      float ry = s * q1.y + t * q2.y;
+      float rz = s * q1.z + t * q2.z;
+      float rw = s * q1.w + t * q2.w;
+
+      float lengthSquared = rx * rx + ry * ry + rz * rz + rw * rw;
+
+      // The sum is only zero halfway between opposite quaternions where the result is undefined.
+      if (lengthSquared < s_SLERP_EPSILON * s_SLERP_EPSILON)
+      {
+         set(q1);
+         return;
+      }
+
+      float n = 1.0f / (float)Math.sqrt(lengthSquared);
+
+      x = rx * n;
+      y = ry * n;
+      z = rz * n;
+      w = rw * n;
+   }
+
+   /**
+    * Sets this quaternion to an approximation of the spherical linear interpolation (slerp) of the unit quaternions
+    * q1 and q2 along the shortest path using float arithmetic only. See slerpFast(Quat4f, Quat4f, float, boolean)
+    * for the error bound. Alias-safe.
+    *
+    * @param q1    the first unit quaternion
+    * @param q2    the second unit quaternion
+    * @param alpha the interpolation parameter in [0, 1]
+    */
+   public final void slerpFast(Quat4f q1, Quat4f q2, float alpha)
+   {
+      slerpFast(q1, q2, alpha, true);
+   }
+
+   /**
+    * Sets this quaternion to an approximation of the spherical linear interpolation (slerp) of the unit quaternions
+    * q1 and q2 using float arithmetic only, a drop in for interpolate when the inputs are normalized.
+    *
+    * The interpolation parameter is corrected by a polynomial fitted to cancel the uneven angular velocity of nlerp
+    * (after Kapoulkine, "Approximating slerp") and the result is renormalized, so no trigonometric functions are
+    * evaluated. Compared with interpolate the result is off by a rotation of at most 8e-4 radians (0.05 degrees),
+    * float rounding included, for any pair of unit quaternions and alpha in [0, 1]; the correction vanishes at alpha
+    * 0, 0.5 and 1 where the result matches slerp up to rounding. Without the shortest path option quaternions with a
+    * negative dot product are split at their midpoint so the same bound holds; opposite quaternions have no defined
+    * interpolation and produce q1. Alias-safe.
+    *
+    * @param q1           the first unit quaternion
+    * @param q2           the second unit quaternion
+    * @param alpha        the interpolation parameter in [0, 1]
+    * @param shortestPath when true q2 is negated if needed so the result takes the shorter rotation; when false the
+    *                     quaternions are interpolated as given like interpolate
+    */
+   public final void slerpFast(Quat4f q1, Quat4f q2, float alpha, boolean shortestPath)
+   {
+      float ax = q1.x, ay = q1.y, az = q1.z, aw = q1.w;
+      float bx = q2.x, by = q2.y, bz = q2.z, bw = q2.w;
+
+      float dot = ax * bx + ay * by + az * bz + aw * bw;
+
+      if (dot < 0.0f)
+      {
+         if (shortestPath)
+         {
+            bx = -bx;
+            by = -by;
+            bz = -bz;
+            bw = -bw;
+            dot = -dot;
+         }
+         else
+         {
+            // Interpolate on the half of the arc containing alpha; both halves are at most 90 degrees long.
+            float length = (float)Math.sqrt(2.0f + 2.0f * dot);
+
+            if (length < s_SLERP_EPSILON)
+            {
+               set(q1);
+               return;
+            }
+
+            float n = 1.0f / length;
+            float mx = (ax + bx) * n, my = (ay + by) * n, mz = (az + bz) * n, mw = (aw + bw) * n;
+
+            if (alpha < 0.5f)
+            {
+               bx = mx;
+               by = my;
+               bz = mz;
+               bw = mw;
+               alpha *= 2.0f;
+            }
+            else
+            {
+               ax = mx;
+               ay = my;
+               az = mz;
+               aw = mw;
+               alpha = alpha * 2.0f - 1.0f;
+            }
+
+            dot = length * 0.5f;
+         }
+      }
+
+      float t = slerpAlpha(dot, alpha);
+      float s = 1.0f - t;
+
+      float rx = s * ax + t * bx;
+      float ry = s * ay + t * by;
+      float rz = s * az + t * bz;
+      float rw = s * aw + t * bw;
+
+      float n = 1.0f / (float)Math.sqrt(rx * rx + ry * ry + rz * rz + rw * rw);
+
+      x = rx * n;
+      y = ry * n;
+      z = rz * n;
+      w = rw * n;
+   }
+
+   /**
+    * Interpolates count unit quaternions with nlerp using one interpolation parameter for all of them; see
+    * nlerp(Quat4f, Quat4f, float, boolean) for the error bound.
+    *
+    * The arrays store quaternions as structure of arrays in four blocks of stride floats, so quaternion i has x at
+    * [i], y at [stride + i], z at [2 * stride + i] and w at [3 * stride + i]. dst may be q1 or q2.
+    *
+    * @param q1           first quaternions
+    * @param q2           second quaternions
+    * @param alpha        the interpolation parameter in [0, 1]
+    * @param dst          receives the interpolated quaternions
+    * @param stride       number of floats per component block
+    * @param start        index of the first quaternion
+    * @param count        number of quaternions
+    * @param shortestPath when true each result takes the shorter rotation
+    */
+   public static void nlerp(float[] q1, float[] q2, float alpha, float[] dst, int stride, int start, int count,
+    boolean shortestPath)
+   {
+      interpolate(q1, q2, null, alpha, dst, stride, start, count, shortestPath, false);
+   }
+
+   /**
+    * Interpolates count unit quaternions with nlerp using one interpolation parameter per quaternion read from
+    * alpha[i]; the layout is the same as for nlerp(float[], float[], float, float[], int, int, int, boolean).
+    *
+    * @param q1           first quaternions
+    * @param q2           second quaternions
+    * @param alpha        interpolation parameters in [0, 1] indexed by quaternion
+    * @param dst          receives the interpolated quaternions
+    * @param stride       number of floats per component block
+    * @param start        index of the first quaternion
+    * @param count        number of quaternions
+    * @param shortestPath when true each result takes the shorter rotation
+    */
+   public static void nlerp(float[] q1, float[] q2, float[] alpha, float[] dst, int stride, int start, int count,
+    boolean shortestPath)
+   {
+      interpolate(q1, q2, alpha, 0.0f, dst, stride, start, count, shortestPath, false);
+   }
+
+   /**
+    * Interpolates count unit quaternions with the approximated slerp of slerpFast(Quat4f, Quat4f, float, boolean)
+    * using one interpolation parameter for all of them; the layout is the same as for
+    * nlerp(float[], float[], float, float[], int, int, int, boolean).
+    *
+    * @param q1           first quaternions
+    * @param q2           second quaternions
+    * @param alpha        the interpolation parameter in [0, 1]
+    * @param dst          receives the interpolated quaternions
+    * @param stride       number of floats per component block
+    * @param start        index of the first quaternion
+    * @param count        number of quaternions
+    * @param shortestPath when true each result takes the shorter rotation
+    */
+   public static void slerpFast(float[] q1, float[] q2, float alpha, float[] dst, int stride, int start, int count,
+    boolean shortestPath)
+   {
+      interpolate(q1, q2, null, alpha, dst, stride, start, count, shortestPath, true);
+   }
+
+   /**
+    * Interpolates count unit quaternions with the approximated slerp of slerpFast(Quat4f, Quat4f, float, boolean)
+    * using one interpolation parameter per quaternion read from alpha[i]; the layout is the same as for
+    * nlerp(float[], float[], float, float[], int, int, int, boolean).
+    *
+    * @param q1           first quaternions
+    * @param q2           second quaternions
+    * @param alpha        interpolation parameters in [0, 1] indexed by quaternion
+    * @param dst          receives the interpolated quaternions
+    * @param stride       number of floats per component block
+    * @param start        index of the first quaternion
+    * @param count        number of quaternions
+    * @param shortestPath when true each result takes the shorter rotation
+    */
+   public static void slerpFast(float[] q1, float[] q2, float[] alpha, float[] dst, int stride, int start, int count,
+    boolean shortestPath)
+   {
+      interpolate(q1, q2, alpha, 0.0f, dst, stride, start, count, shortestPath, true);
+   }
+
+   // helper for the batched nlerp / slerpFast; alphas overrides alpha when not null
+   private static void interpolate(float[] q1, float[] q2, float[] alphas, float alpha, float[] dst, int stride,
+    int start, int count, boolean shortestPath, boolean slerp)
+   {
+      final int oy = stride, oz = stride * 2, ow = stride * 3;
+
+      for (int cntr = start, end = start + count; cntr < end; cntr++)
+      {
+         float ax = q1[cntr], ay = q1[oy + cntr], az = q1[oz + cntr], aw = q1[ow + cntr];
+         float bx = q2[cntr], by = q2[oy + cntr], bz = q2[oz + cntr], bw = q2[ow + cntr];
+
+         float t = alphas != null ? alphas[cntr] : alpha;
+         float dot = ax * bx + ay * by + az * bz + aw * bw;
+
+         if (dot < 0.0f)
+         {
+            if (shortestPath)
+            {
+               bx = -bx;
+               by = -by;
+               bz = -bz;
+               bw = -bw;
+               dot = -dot;
+            }
+            else if (slerp)
+            {
+               float length = (float)Math.sqrt(2.0f + 2.0f * dot);
+
+               if (length < s_SLERP_EPSILON)
+               {
+                  dst[cntr] = ax;
+                  dst[oy + cntr] = ay;
+                  dst[oz + cntr] = az;
+                  dst[ow + cntr] = aw;
+                  continue;
+               }
+
+               float n = 1.0f / length;
+               float mx = (ax + bx) * n, my = (ay + by) * n, mz = (az + bz) * n, mw = (aw + bw) * n;
+
+               if (t < 0.5f)
+               {
+                  bx = mx;
+                  by = my;
+                  bz = mz;
+                  bw = mw;
+                  t *= 2.0f;
+               }
+               else
+               {
+                  ax = mx;
+                  ay = my;
+                  az = mz;
+                  aw = mw;
+                  t = t * 2.0f - 1.0f;
+               }
+
+               dot = length * 0.5f;
+            }
+         }
+
+         if (slerp)
+         {
+            t = slerpAlpha(dot, t);
+         }
+
+         float s = 1.0f - t;
+
+         float rx = s * ax + t * bx;
+         float ry = s * ay + t * by;
+         float rz = s * az + t * bz;
+         float rw = s * aw + t * bw;
+
+         float lengthSquared = rx * rx + ry * ry + rz * rz + rw * rw;
+
+         // Only nlerp of opposite quaternions without the shortest path option reaches a zero sum.
+         if (lengthSquared < s_SLERP_EPSILON * s_SLERP_EPSILON)
+         {
+            dst[cntr] = ax;
+            dst[oy + cntr] = ay;
+            dst[oz + cntr] = az;
+            dst[ow + cntr] = aw;
+            continue;
+         }
+
+         float n = 1.0f / (float)Math.sqrt(lengthSquared);
+
+         dst[cntr] = rx * n;
+         dst[oy + cntr] = ry * n;
+         dst[oz + cntr] = rz * n;
+         dst[ow + cntr] = rw * n;
+      }
+   }
+
+   /**
+    * Corrects the nlerp parameter t so that nlerp between unit quaternions whose dot product is d (0 <= d <= 1)
+    * approximates slerp; the cubic in t vanishes at 0, 0.5 and 1 and its coefficients are fitted over d.
+    */
+   private static float slerpAlpha(float d, float t)
+   {
+      float a = 1.0904f + d * (-3.2452f + d * (3.55645f - d * 1.43519f));
+      float b = 0.848013f + d * (-1.06021f + d * 0.215638f);
+
+      float h = t - 0.5f;
+      float k = a * h * h + b;
+
+      return t + t * h * (t - 1.0f) * k;
+   }
+
    // helper method
    private void setFromMat(double m00, double m01, double m02,
     double m10, double m11, double m12,
@@ -7,6 +7,9 @@
  */
 package org.typhonrt.java6.vecmath;
 
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
 /**
  * A generic 4 element tuple that is represented by single precision floating point x,y,z and w coordinates.
  *
@@ -185,6 +188,124 @@ public class Tuple4f
       return this;
    }
 
+   /**
+    * Stores the x, y, z and w values of this tuple into the buffer at its current position; the position is advanced
+    * by 4.
+    *
+    * @param buffer the buffer that receives the values
+    */
+   public final Tuple4f get(FloatBuffer buffer)
+   {
+      buffer.put(x).put(y).put(z).put(w);
+      return this;
+   }
+
+   /**
+    * Stores the values of this tuple into the buffer starting at the absolute index; the position of the buffer is not
+    * modified.
+    *
+    * @param buffer the buffer that receives the values
+    * @param index  index of the first element
+    */
+   public final Tuple4f get(FloatBuffer buffer, int index)
+   {
+      buffer.put(index, x);
+      buffer.put(index + 1, y);
+      buffer.put(index + 2, z);
+      buffer.put(index + 3, w);
+      return this;
+   }
+
+   /**
+    * Stores the values of this tuple as floats into the buffer at its current position using the byte order of the
+    * buffer; the position is advanced by 16.
+    *
+    * @param buffer the buffer that receives the values
+    */
+   public final Tuple4f get(ByteBuffer buffer)
+   {
+      buffer.putFloat(x).putFloat(y).putFloat(z).putFloat(w);
+      return this;
+   }
+
+   /**
+    * Stores the values of this tuple as floats into the buffer starting at the absolute byte offset using the byte
+    * order of the buffer; the position of the buffer is not modified.
+    *
+    * @param buffer the buffer that receives the values
+    * @param offset byte offset of the first element
+    */
+   public final Tuple4f get(ByteBuffer buffer, int offset)
+   {
+      buffer.putFloat(offset, x);
+      buffer.putFloat(offset + 4, y);
+      buffer.putFloat(offset + 8, z);
+      buffer.putFloat(offset + 12, w);
+      return this;
+   }
+
+   /**
+    * Sets the value of this tuple from 4 values read from the buffer at its current position; the position is advanced
+    * by 4.
+    *
+    * @param buffer the buffer that provides the values
+    */
+   public final Tuple4f set(FloatBuffer buffer)
+   {
+      x = buffer.get();
+      y = buffer.get();
+      z = buffer.get();
+      w = buffer.get();
+      return this;
+   }
+
+   /**
+    * Sets the value of this tuple from 4 values read from the buffer starting at the absolute index; the position of
+    * the buffer is not modified.
+    *
+    * @param buffer the buffer that provides the values
+    * @param index  index of the first element
+    */
+   public final Tuple4f set(FloatBuffer buffer, int index)
+   {
+      x = buffer.get(index);
+      y = buffer.get(index + 1);
+      z = buffer.get(index + 2);
+      w = buffer.get(index + 3);
+      return this;
+   }
+
+   /**
+    * Sets the value of this tuple from 4 floats read from the buffer at its current position using the byte order of
+    * the buffer; the position is advanced by 16.
+    *
+    * @param buffer the buffer that provides the values
+    */
+   public final Tuple4f set(ByteBuffer buffer)
+   {
+      x = buffer.getFloat();
+      y = buffer.getFloat();
+      z = buffer.getFloat();
+      w = buffer.getFloat();
+      return this;
+   }
+
+   /**
+    * Sets the value of this tuple from 4 floats read from the buffer starting at the absolute byte offset using the
+    * byte order of the buffer; the position of the buffer is not modified.
+    *
+    * @param buffer the buffer that provides the values
+    * @param offset byte offset of the first element
+    */
+   public final Tuple4f set(ByteBuffer buffer, int offset)
+   {
+      x = buffer.getFloat(offset);
+      y = buffer.getFloat(offset + 4);
+      z = buffer.getFloat(offset + 8);
+      w = buffer.getFloat(offset + 12);
+      return this;
+   }
+
    /**
     * Gets the value of this tuple and copies the values into the Tuple4f.
     *
@@ -0,0 +1,600 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.vecmath;
+
+import java.nio.FloatBuffer;
+
+/**
+ * A reusable view of one x,y,z,w element of a FloatBuffer, for instance the colors of an interleaved particle or
+ * vertex buffer that is uploaded to GL. The element at index i starts at base + i * stride + offset, where base is
+ * the index of the first float of the first record, stride the number of floats per record and offset the index of x
+ * within a record.
+ *
+ * The operations mirror those of Tuple4f / Vector4f and Vec4Cursor but use absolute get / put, so the buffer
+ * position is never modified and walking a large buffer with moveTo / next allocates nothing. Operations that take
+ * another cursor accept the same cursor or one over the same buffer; all operands are read before the result is
+ * written. Index errors surface as the IndexOutOfBoundsException of the buffer.
+ *
+ * <pre>
+ * colors.set(particles, 0, 12, 8);
+ *
+ * for (int cntr = 0; cntr < count; cntr++, colors.next())
+ * {
+ *    colors.interpolate(fadeColor, fade);
+ * }
+ * </pre>
+ *
+ * @author  Michael Leahy
+ */
+public class Vec4BufferCursor
+{
+   private FloatBuffer buffer;
+
+   private int base;
+   private int stride;
+   private int offset;
+
+   private int index;
+   private int position;
+
+   /**
+    * Constructs an unbound cursor; call set before use.
+    */
+   public Vec4BufferCursor()
+   {
+   }
+
+   /**
+    * Constructs a cursor at index 0 of the given buffer.
+    *
+    * @param buffer backing buffer
+    * @param base   index of the first float of the first record
+    * @param stride floats per record
+    * @param offset index of x within a record
+    */
+   public Vec4BufferCursor(FloatBuffer buffer, int base, int stride, int offset)
+   {
+      set(buffer, base, stride, offset);
+   }
+
+   /**
+    * Binds this cursor to the given buffer and moves it to index 0.
+    *
+    * @param buffer backing buffer
+    * @param base   index of the first float of the first record
+    * @param stride floats per record
+    * @param offset index of x within a record
+    * @return this cursor
+    */
+   public final Vec4BufferCursor set(FloatBuffer buffer, int base, int stride, int offset)
+   {
+      this.buffer = buffer;
+      this.base = base;
+      this.stride = stride;
+      this.offset = offset;
+
+      index = 0;
+      position = base + offset;
+
+      return this;
+   }
+
+   /**
+    * @return backing buffer
+    */
+   public final FloatBuffer getBuffer()
+   {
+      return buffer;
+   }
+
+   /**
+    * @return floats per record
+    */
+   public final int getStride()
+   {
+      return stride;
+   }
+
+   /**
+    * @return index of the current element
+    */
+   public final int getIndex()
+   {
+      return index;
+   }
+
+   /**
+    * @return index of x of the current element in the backing buffer
+    */
+   public final int getPosition()
+   {
+      return position;
+   }
+
+   /**
+    * Returns the number of elements from index 0 that lie completely within the backing buffer.
+    *
+    * @return number of elements
+    */
+   public final int getCount()
+   {
+      int first = base + offset;
+
+      return first + 4 > buffer.limit() ? 0 : (buffer.limit() - first - 4) / stride + 1;
+   }
+
+   /**
+    * Moves this cursor to the given element.
+    *
+    * @param index index of the element
+    * @return this cursor
+    */
+   public final Vec4BufferCursor moveTo(int index)
+   {
+      this.index = index;
+      position = base + index * stride + offset;
+
+      return this;
+   }
+
+   /**
+    * Moves this cursor to the next element.
+    *
+    * @return this cursor
+    */
+   public final Vec4BufferCursor next()
+   {
+      index++;
+      position += stride;
+
+      return this;
+   }
+
+   public final float getX()
+   {
+      return buffer.get(position);
+   }
+
+   public final float getY()
+   {
+      return buffer.get(position + 1);
+   }
+
+   public final float getZ()
+   {
+      return buffer.get(position + 2);
+   }
+
+   public final float getW()
+   {
+      return buffer.get(position + 3);
+   }
+
+   public final Vec4BufferCursor setX(float x)
+   {
+      buffer.put(position, x);
+      return this;
+   }
+
+   public final Vec4BufferCursor setY(float y)
+   {
+      buffer.put(position + 1, y);
+      return this;
+   }
+
+   public final Vec4BufferCursor setZ(float z)
+   {
+      buffer.put(position + 2, z);
+      return this;
+   }
+
+   public final Vec4BufferCursor setW(float w)
+   {
+      buffer.put(position + 3, w);
+      return this;
+   }
+
+   /**
+    * Sets the current element to the given values.
+    *
+    * @param x the x coordinate
+    * @param y the y coordinate
+    * @param z the z coordinate
+    * @param w the w coordinate
+    * @return this cursor
+    */
+   public final Vec4BufferCursor set(float x, float y, float z, float w)
+   {
+      final FloatBuffer a = buffer;
+      final int p = position;
+
+      a.put(p, x);
+      a.put(p + 1, y);
+      a.put(p + 2, z);
+      a.put(p + 3, w);
+
+      return this;
+   }
+
+   /**
+    * Sets the current element to the value of tuple t1.
+    *
+    * @param t1 the source tuple
+    * @return this cursor
+    */
+   public final Vec4BufferCursor set(Tuple4f t1)
+   {
+      return set(t1.x, t1.y, t1.z, t1.w);
+   }
+
+   /**
+    * Sets the current element to the current element of cursor c1.
+    *
+    * @param c1 the source cursor
+    * @return this cursor
+    */
+   public final Vec4BufferCursor set(Vec4BufferCursor c1)
+   {
+      final FloatBuffer a = c1.buffer;
+      final int p = c1.position;
+
+      return set(a.get(p), a.get(p + 1), a.get(p + 2), a.get(p + 3));
+   }
+
+   /**
+    * Copies the current element into tuple t1.
+    *
+    * @param t1 the tuple that receives the values
+    */
+   public final void get(Tuple4f t1)
+   {
+      final FloatBuffer a = buffer;
+      final int p = position;
+
+      t1.x = a.get(p);
+      t1.y = a.get(p + 1);
+      t1.z = a.get(p + 2);
+      t1.w = a.get(p + 3);
+   }
+
+   /**
+    * Adds tuple t1 to the current element (this += t1).
+    *
+    * @param t1 the tuple to add
+    * @return this cursor
+    */
+   public final Vec4BufferCursor add(Tuple4f t1)
+   {
+      final FloatBuffer a = buffer;
+      final int p = position;
+
+      a.put(p, a.get(p) + t1.x);
+      a.put(p + 1, a.get(p + 1) + t1.y);
+      a.put(p + 2, a.get(p + 2) + t1.z);
+      a.put(p + 3, a.get(p + 3) + t1.w);
+
+      return this;
+   }
+
+   /**
+    * Adds the current element of cursor c1 to the current element (this += c1).
+    *
+    * @param c1 the cursor to add
+    * @return this cursor
+    */
+   public final Vec4BufferCursor add(Vec4BufferCursor c1)
+   {
+      final FloatBuffer b = c1.buffer;
+      final int q = c1.position;
+
+      final float x = b.get(q);
+      final float y = b.get(q + 1);
+      final float z = b.get(q + 2);
+      final float w = b.get(q + 3);
+
+      final FloatBuffer a = buffer;
+      final int p = position;
+
+      a.put(p, a.get(p) + x);
+      a.put(p + 1, a.get(p + 1) + y);
+      a.put(p + 2, a.get(p + 2) + z);
+      a.put(p + 3, a.get(p + 3) + w);
+
+      return this;
+   }
+
+   /**
+    * Subtracts tuple t1 from the current element (this -= t1).
+    *
+    * @param t1 the tuple to subtract
+    * @return this cursor
+    */
+   public final Vec4BufferCursor sub(Tuple4f t1)
+   {
+      final FloatBuffer a = buffer;
+      final int p = position;
+
+      a.put(p, a.get(p) - t1.x);
+      a.put(p + 1, a.get(p + 1) - t1.y);
+      a.put(p + 2, a.get(p + 2) - t1.z);
+      a.put(p + 3, a.get(p + 3) - t1.w);
+
+      return this;
+   }
+
+   /**
+    * Subtracts the current element of cursor c1 from the current element (this -= c1).
+    *
+    * @param c1 the cursor to subtract
+    * @return this cursor
+    */
+   public final Vec4BufferCursor sub(Vec4BufferCursor c1)
+   {
+      final FloatBuffer b = c1.buffer;
+      final int q = c1.position;
+
+      final float x = b.get(q);
+      final float y = b.get(q + 1);
+      final float z = b.get(q + 2);
+      final float w = b.get(q + 3);
+
+      final FloatBuffer a = buffer;
+      final int p = position;
+
+      a.put(p, a.get(p) - x);
+      a.put(p + 1, a.get(p + 1) - y);
+      a.put(p + 2, a.get(p + 2) - z);
+      a.put(p + 3, a.get(p + 3) - w);
+
+      return this;
+   }
+
+   /**
+    * Negates the current element.
+    *
+    * @return this cursor
+    */
+   public final Vec4BufferCursor negate()
+   {
+      final FloatBuffer a = buffer;
+      final int p = position;
+
+      a.put(p, -a.get(p));
+      a.put(p + 1, -a.get(p + 1));
+      a.put(p + 2, -a.get(p + 2));
+      a.put(p + 3, -a.get(p + 3));
+
+      return this;
+   }
+
+   /**
+    * Multiplies the current element by s.
+    *
+    * @param s the scalar value
+    * @return this cursor
+    */
+   public final Vec4BufferCursor scale(float s)
+   {
+      final FloatBuffer a = buffer;
+      final int p = position;
+
+      a.put(p, a.get(p) * s);
+      a.put(p + 1, a.get(p + 1) * s);
+      a.put(p + 2, a.get(p + 2) * s);
+      a.put(p + 3, a.get(p + 3) * s);
+
+      return this;
+   }
+
+   /**
+    * Sets the current element to s times itself plus tuple t1 (this = s*this + t1), like Tuple4f.scaleAdd.
+    *
+    * @param s  the scalar value
+    * @param t1 the tuple to be added
+    * @return this cursor
+    */
+   public final Vec4BufferCursor scaleAdd(float s, Tuple4f t1)
+   {
+      final FloatBuffer a = buffer;
+      final int p = position;
+
+      a.put(p, s * a.get(p) + t1.x);
+      a.put(p + 1, s * a.get(p + 1) + t1.y);
+      a.put(p + 2, s * a.get(p + 2) + t1.z);
+      a.put(p + 3, s * a.get(p + 3) + t1.w);
+
+      return this;
+   }
+
+   /**
+    * Adds s times tuple t1 to the current element (this += s*t1).
+    *
+    * @param s  the scalar value
+    * @param t1 the tuple to be scaled and added
+    * @return this cursor
+    */
+   public final Vec4BufferCursor addScaled(float s, Tuple4f t1)
+   {
+      final FloatBuffer a = buffer;
+      final int p = position;
+
+      a.put(p, a.get(p) + s * t1.x);
+      a.put(p + 1, a.get(p + 1) + s * t1.y);
+      a.put(p + 2, a.get(p + 2) + s * t1.z);
+      a.put(p + 3, a.get(p + 3) + s * t1.w);
+
+      return this;
+   }
+
+   /**
+    * Adds s times the current element of cursor c1 to the current element (this += s*c1), for instance a velocity
+    * integrated over a time step.
+    *
+    * @param s  the scalar value
+    * @param c1 the cursor to be scaled and added
+    * @return this cursor
+    */
+   public final Vec4BufferCursor addScaled(float s, Vec4BufferCursor c1)
+   {
+      final FloatBuffer b = c1.buffer;
+      final int q = c1.position;
+
+      final float x = b.get(q);
+      final float y = b.get(q + 1);
+      final float z = b.get(q + 2);
+      final float w = b.get(q + 3);
+
+      final FloatBuffer a = buffer;
+      final int p = position;
+
+      a.put(p, a.get(p) + s * x);
+      a.put(p + 1, a.get(p + 1) + s * y);
+      a.put(p + 2, a.get(p + 2) + s * z);
+      a.put(p + 3, a.get(p + 3) + s * w);
+
+      return this;
+   }
+
+   /**
+    * Computes the dot product of the current element and vector v1.
+    *
+    * @param v1 the other vector
+    * @return the dot product
+    */
+   public final float dot(Tuple4f v1)
+   {
+      final FloatBuffer a = buffer;
+      final int p = position;
+
+      return a.get(p) * v1.x + a.get(p + 1) * v1.y + a.get(p + 2) * v1.z + a.get(p + 3) * v1.w;
+   }
+
+   /**
+    * Computes the dot product of the current elements of this cursor and cursor c1.
+    *
+    * @param c1 the other cursor
+    * @return the dot product
+    */
+   public final float dot(Vec4BufferCursor c1)
+   {
+      final FloatBuffer a = buffer;
+      final int p = position;
+      final FloatBuffer b = c1.buffer;
+      final int q = c1.position;
+
+      return a.get(p) * b.get(q) + a.get(p + 1) * b.get(q + 1) + a.get(p + 2) * b.get(q + 2) +
+       a.get(p + 3) * b.get(q + 3);
+   }
+
+   /**
+    * @return the squared length of the current element
+    */
+   public final float lengthSquared()
+   {
+      final FloatBuffer a = buffer;
+      final int p = position;
+
+      final float x = a.get(p);
+      final float y = a.get(p + 1);
+      final float z = a.get(p + 2);
+      final float w = a.get(p + 3);
+
+      return x * x + y * y + z * z + w * w;
+   }
+
+   /**
+    * @return the length of the current element
+    */
+   public final float length()
+   {
+      return (float)Math.sqrt(lengthSquared());
+   }
+
+   /**
+    * Normalizes the current element in place.
+    *
+    * @return this cursor
+    */
+   public final Vec4BufferCursor normalize()
+   {
+      final FloatBuffer a = buffer;
+      final int p = position;
+
+      final float x = a.get(p);
+      final float y = a.get(p + 1);
+      final float z = a.get(p + 2);
+      final float w = a.get(p + 3);
+
+      // zero-div may occur.
+      final float d = (float)Math.sqrt(x * x + y * y + z * z + w * w);
+
+      a.put(p, x / d);
+      a.put(p + 1, y / d);
+      a.put(p + 2, z / d);
+      a.put(p + 3, w / d);
+
+      return this;
+   }
+
+   /**
+    * Linearly interpolates between the current element and tuple t1: this = (1-alpha)*this + alpha*t1.
+    *
+    * @param t1    the target tuple
+    * @param alpha the alpha interpolation parameter
+    * @return this cursor
+    */
+   public final Vec4BufferCursor interpolate(Tuple4f t1, float alpha)
+   {
+      final FloatBuffer a = buffer;
+      final int p = position;
+      final float beta = 1 - alpha;
+
+      a.put(p, beta * a.get(p) + alpha * t1.x);
+      a.put(p + 1, beta * a.get(p + 1) + alpha * t1.y);
+      a.put(p + 2, beta * a.get(p + 2) + alpha * t1.z);
+      a.put(p + 3, beta * a.get(p + 3) + alpha * t1.w);
+
+      return this;
+   }
+
+   /**
+    * Linearly interpolates between the current elements of this cursor and cursor c1: this = (1-alpha)*this +
+    * alpha*c1.
+    *
+    * @param c1    the target cursor
+    * @param alpha the alpha interpolation parameter
+    * @return this cursor
+    */
+   public final Vec4BufferCursor interpolate(Vec4BufferCursor c1, float alpha)
+   {
+      final FloatBuffer b = c1.buffer;
+      final int q = c1.position;
+
+      final float x = b.get(q);
+      final float y = b.get(q + 1);
+      final float z = b.get(q + 2);
+      final float w = b.get(q + 3);
+
+      final FloatBuffer a = buffer;
+      final int p = position;
+      final float beta = 1 - alpha;
+
+      a.put(p, beta * a.get(p) + alpha * x);
+      a.put(p + 1, beta * a.get(p + 1) + alpha * y);
+      a.put(p + 2, beta * a.get(p + 2) + alpha * z);
+      a.put(p + 3, beta * a.get(p + 3) + alpha * w);
+
+      return this;
+   }
+
+   @Override
+   public String toString()
+   {
+      return "Vec4BufferCursor[index: " + index + ", position: " + position + "]";
+   }
+}
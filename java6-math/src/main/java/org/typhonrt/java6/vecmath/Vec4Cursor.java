@@ -0,0 +1,596 @@
+/**
+ * Copyright 2015 Michael Leahy / TyphonRT, Inc.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.typhonrt.java6.vecmath;
+
+/**
+ * A reusable view of one x,y,z,w element of packed float data, for instance the colors of an interleaved particle or
+ * vertex array. The element at index i starts at base + i * stride + offset, where base is the index of the first
+ * float of the first record, stride the number of floats per record and offset the index of x within a record.
+ *
+ * The operations mirror those of Tuple4f / Vector4f but read and write the backing array directly, so walking a
+ * large array with moveTo / next allocates nothing and copies nothing. Operations that take another cursor accept the
+ * same cursor or one over the same array; all operands are read before the result is written. Index errors surface as
+ * the ArrayIndexOutOfBoundsException of the backing array.
+ *
+ * <pre>
+ * colors.set(particles, 0, 12, 8);
+ *
+ * for (int cntr = 0; cntr < count; cntr++, colors.next())
+ * {
+ *    colors.interpolate(fadeColor, fade);
+ * }
+ * </pre>
+ *
+ * @author  Michael Leahy
+ */
+public class Vec4Cursor
+{
+   private float[] array;
+
+   private int base;
+   private int stride;
+   private int offset;
+
+   private int index;
+   private int position;
+
+   /**
+    * Constructs an unbound cursor; call set before use.
+    */
+   public Vec4Cursor()
+   {
+   }
+
+   /**
+    * Constructs a cursor at index 0 of the given array.
+    *
+    * @param array  backing array
+    * @param base   index of the first float of the first record
+    * @param stride floats per record
+    * @param offset index of x within a record
+    */
+   public Vec4Cursor(float[] array, int base, int stride, int offset)
+   {
+      set(array, base, stride, offset);
+   }
+
+   /**
+    * Binds this cursor to the given array and moves it to index 0.
+    *
+    * @param array  backing array
+    * @param base   index of the first float of the first record
+    * @param stride floats per record
+    * @param offset index of x within a record
+    * @return this cursor
+    */
+   public final Vec4Cursor set(float[] array, int base, int stride, int offset)
+   {
+      this.array = array;
+      this.base = base;
+      this.stride = stride;
+      this.offset = offset;
+
+      index = 0;
+      position = base + offset;
+
+      return this;
+   }
+
+   /**
+    * @return backing array
+    */
+   public final float[] getArray()
+   {
+      return array;
+   }
+
+   /**
+    * @return floats per record
+    */
+   public final int getStride()
+   {
+      return stride;
+   }
+
+   /**
+    * @return index of the current element
+    */
+   public final int getIndex()
+   {
+      return index;
+   }
+
+   /**
+    * @return index of x of the current element in the backing array
+    */
+   public final int getPosition()
+   {
+      return position;
+   }
+
+   /**
+    * Returns the number of elements from index 0 that lie completely within the backing array.
+    *
+    * @return number of elements
+    */
+   public final int getCount()
+   {
+      int first = base + offset;
+
+      return first + 4 > array.length ? 0 : (array.length - first - 4) / stride + 1;
+   }
+
+   /**
+    * Moves this cursor to the given element.
+    *
+    * @param index index of the element
+    * @return this cursor
+    */
+   public final Vec4Cursor moveTo(int index)
+   {
+      this.index = index;
+      position = base + index * stride + offset;
+
+      return this;
+   }
+
+   /**
+    * Moves this cursor to the next element.
+    *
+    * @return this cursor
+    */
+   public final Vec4Cursor next()
+   {
+      index++;
+      position += stride;
+
+      return this;
+   }
+
+   public final float getX()
+   {
+      return array[position];
+   }
+
+   public final float getY()
+   {
+      return array[position + 1];
+   }
+
+   public final float getZ()
+   {
+      return array[position + 2];
+   }
+
+   public final float getW()
+   {
+      return array[position + 3];
+   }
+
+   public final Vec4Cursor setX(float x)
+   {
+      array[position] = x;
+      return this;
+   }
+
+   public final Vec4Cursor setY(float y)
+   {
+      array[position + 1] = y;
+      return this;
+   }
+
+   public final Vec4Cursor setZ(float z)
+   {
+      array[position + 2] = z;
+      return this;
+   }
+
+   public final Vec4Cursor setW(float w)
+   {
+      array[position + 3] = w;
+      return this;
+   }
+
+   /**
+    * Sets the current element to the given values.
+    *
+    * @param x the x coordinate
+    * @param y the y coordinate
+    * @param z the z coordinate
+    * @param w the w coordinate
+    * @return this cursor
+    */
+   public final Vec4Cursor set(float x, float y, float z, float w)
+   {
+      final float[] a = array;
+      final int p = position;
+
+      a[p] = x;
+      a[p + 1] = y;
+      a[p + 2] = z;
+      a[p + 3] = w;
+
+      return this;
+   }
+
+   /**
+    * Sets the current element to the value of tuple t1.
+    *
+    * @param t1 the source tuple
+    * @return this cursor
+    */
+   public final Vec4Cursor set(Tuple4f t1)
+   {
+      return set(t1.x, t1.y, t1.z, t1.w);
+   }
+
+   /**
+    * Sets the current element to the current element of cursor c1.
+    *
+    * @param c1 the source cursor
+    * @return this cursor
+    */
+   public final Vec4Cursor set(Vec4Cursor c1)
+   {
+      final float[] a = c1.array;
+      final int p = c1.position;
+
+      return set(a[p], a[p + 1], a[p + 2], a[p + 3]);
+   }
+
+   /**
+    * Copies the current element into tuple t1.
+    *
+    * @param t1 the tuple that receives the values
+    */
+   public final void get(Tuple4f t1)
+   {
+      final float[] a = array;
+      final int p = position;
+
+      t1.x = a[p];
+      t1.y = a[p + 1];
+      t1.z = a[p + 2];
+      t1.w = a[p + 3];
+   }
+
+   /**
+    * Adds tuple t1 to the current element (this += t1).
+    *
+    * @param t1 the tuple to add
+    * @return this cursor
+    */
+   public final Vec4Cursor add(Tuple4f t1)
+   {
+      final float[] a = array;
+      final int p = position;
+
+      a[p] += t1.x;
+      a[p + 1] += t1.y;
+      a[p + 2] += t1.z;
+      a[p + 3] += t1.w;
+
+      return this;
+   }
+
+   /**
+    * Adds the current element of cursor c1 to the current element (this += c1).
+    *
+    * @param c1 the cursor to add
+    * @return this cursor
+    */
+   public final Vec4Cursor add(Vec4Cursor c1)
+   {
+      final float[] b = c1.array;
+      final int q = c1.position;
+
+      final float x = b[q];
+      final float y = b[q + 1];
+      final float z = b[q + 2];
+      final float w = b[q + 3];
+
+      final float[] a = array;
+      final int p = position;
+
+      a[p] += x;
+      a[p + 1] += y;
+      a[p + 2] += z;
+      a[p + 3] += w;
+
+      return this;
+   }
+
+   /**
+    * Subtracts tuple t1 from the current element (this -= t1).
+    *
+    * @param t1 the tuple to subtract
+    * @return this cursor
+    */
+   public final Vec4Cursor sub(Tuple4f t1)
+   {
+      final float[] a = array;
+      final int p = position;
+
+      a[p] -= t1.x;
+      a[p + 1] -= t1.y;
+      a[p + 2] -= t1.z;
+      a[p + 3] -= t1.w;
+
+      return this;
+   }
+
+   /**
+    * Subtracts the current element of cursor c1 from the current element (this -= c1).
+    *
+    * @param c1 the cursor to subtract
+    * @return this cursor
+    */
+   public final Vec4Cursor sub(Vec4Cursor c1)
+   {
+      final float[] b = c1.array;
+      final int q = c1.position;
+
+      final float x = b[q];
+      final float y = b[q + 1];
+      final float z = b[q + 2];
+      final float w = b[q + 3];
+
+      final float[] a = array;
+      final int p = position;
+
+      a[p] -= x;
+      a[p + 1] -= y;
+      a[p + 2] -= z;
+      a[p + 3] -= w;
+
+      return this;
+   }
+
+   /**
+    * Negates the current element.
+    *
+    * @return this cursor
+    */
+   public final Vec4Cursor negate()
+   {
+      final float[] a = array;
+      final int p = position;
+
+      a[p] = -a[p];
+      a[p + 1] = -a[p + 1];
+      a[p + 2] = -a[p + 2];
+      a[p + 3] = -a[p + 3];
+
+      return this;
+   }
+
+   /**
+    * Multiplies the current element by s.
+    *
+    * @param s the scalar value
+    * @return this cursor
+    */
+   public final Vec4Cursor scale(float s)
+   {
+      final float[] a = array;
+      final int p = position;
+
+      a[p] *= s;
+      a[p + 1] *= s;
+      a[p + 2] *= s;
+      a[p + 3] *= s;
+
+      return this;
+   }
+
+   /**
+    * Sets the current element to s times itself plus tuple t1 (this = s*this + t1), like Tuple4f.scaleAdd.
+    *
+    * @param s  the scalar value
+    * @param t1 the tuple to be added
+    * @return this cursor
+    */
+   public final Vec4Cursor scaleAdd(float s, Tuple4f t1)
+   {
+      final float[] a = array;
+      final int p = position;
+
+      a[p] = s * a[p] + t1.x;
+      a[p + 1] = s * a[p + 1] + t1.y;
+      a[p + 2] = s * a[p + 2] + t1.z;
+      a[p + 3] = s * a[p + 3] + t1.w;
+
+      return this;
+   }
+
+   /**
+    * Adds s times tuple t1 to the current element (this += s*t1).
+    *
+    * @param s  the scalar value
+    * @param t1 the tuple to be scaled and added
+    * @return this cursor
+    */
+   public final Vec4Cursor addScaled(float s, Tuple4f t1)
+   {
+      final float[] a = array;
+      final int p = position;
+
+      a[p] += s * t1.x;
+      a[p + 1] += s * t1.y;
+      a[p + 2] += s * t1.z;
+      a[p + 3] += s * t1.w;
+
+      return this;
+   }
+
+   /**
+    * Adds s times the current element of cursor c1 to the current element (this += s*c1), for instance a velocity
+    * integrated over a time step.
+    *
+    * @param s  the scalar value
+    * @param c1 the cursor to be scaled and added
+    * @return this cursor
+    */
+   public final Vec4Cursor addScaled(float s, Vec4Cursor c1)
+   {
+      final float[] b = c1.array;
+      final int q = c1.position;
+
+      final float x = b[q];
+      final float y = b[q + 1];
+      final float z = b[q + 2];
+      final float w = b[q + 3];
+
+      final float[] a = array;
+      final int p = position;
+
+      a[p] += s * x;
+      a[p + 1] += s * y;
+      a[p + 2] += s * z;
+      a[p + 3] += s * w;
+
+      return this;
+   }
+
+   /**
+    * Computes the dot product of the current element and vector v1.
+    *
+    * @param v1 the other vector
+    * @return the dot product
+    */
+   public final float dot(Tuple4f v1)
+   {
+      final float[] a = array;
+      final int p = position;
+
+      return a[p] * v1.x + a[p + 1] * v1.y + a[p + 2] * v1.z + a[p + 3] * v1.w;
+   }
+
+   /**
+    * Computes the dot product of the current elements of this cursor and cursor c1.
+    *
+    * @param c1 the other cursor
+    * @return the dot product
+    */
+   public final float dot(Vec4Cursor c1)
+   {
+      final float[] a = array;
+      final int p = position;
+      final float[] b = c1.array;
+      final int q = c1.position;
+
+      return a[p] * b[q] + a[p + 1] * b[q + 1] + a[p + 2] * b[q + 2] + a[p + 3] * b[q + 3];
+   }
+
+   /**
+    * @return the squared length of the current element
+    */
+   public final float lengthSquared()
+   {
+      final float[] a = array;
+      final int p = position;
+
+      final float x = a[p];
+      final float y = a[p + 1];
+      final float z = a[p + 2];
+      final float w = a[p + 3];
+
+      return x * x + y * y + z * z + w * w;
+   }
+
+   /**
+    * @return the length of the current element
+    */
+   public final float length()
+   {
+      return (float)Math.sqrt(lengthSquared());
+   }
+
+   /**
+    * Normalizes the current element in place.
+    *
+    * @return this cursor
+    */
+   public final Vec4Cursor normalize()
+   {
+      final float[] a = array;
+      final int p = position;
+
+      final float x = a[p];
+      final float y = a[p + 1];
+      final float z = a[p + 2];
+      final float w = a[p + 3];
+
+      // zero-div may occur.
+      final float d = (float)Math.sqrt(x * x + y * y + z * z + w * w);
+
+      a[p] = x / d;
+      a[p + 1] = y / d;
+      a[p + 2] = z / d;
+      a[p + 3] = w / d;
+
+      return this;
+   }
+
+   /**
+    * Linearly interpolates between the current element and tuple t1: this = (1-alpha)*this + alpha*t1.
+    *
+    * @param t1    the target tuple
+    * @param alpha the alpha interpolation parameter
+    * @return this cursor
+    */
+   public final Vec4Cursor interpolate(Tuple4f t1, float alpha)
+   {
+      final float[] a = array;
+      final int p = position;
+      final float beta = 1 - alpha;
+
+      a[p] = beta * a[p] + alpha * t1.x;
+      a[p + 1] = beta * a[p + 1] + alpha * t1.y;
+      a[p + 2] = beta * a[p + 2] + alpha * t1.z;
+      a[p + 3] = beta * a[p + 3] + alpha * t1.w;
+
+      return this;
+   }
+
+   /**
+    * Linearly interpolates between the current elements of this cursor and cursor c1: this = (1-alpha)*this +
+    * alpha*c1.
+    *
+    * @param c1    the target cursor
+    * @param alpha the alpha interpolation parameter
+    * @return this cursor
+    */
+   public final Vec4Cursor interpolate(Vec4Cursor c1, float alpha)
+   {
+      final float[] b = c1.array;
+      final int q = c1.position;
+
+      final float x = b[q];
+      final float y = b[q + 1];
+      final float z = b[q + 2];
+      final float w = b[q + 3];
+
+      final float[] a = array;
+      final int p = position;
+      final float beta = 1 - alpha;
+
+      a[p] = beta * a[p] + alpha * x;
+      a[p + 1] = beta * a[p + 1] + alpha * y;
+      a[p + 2] = beta * a[p + 2] + alpha * z;
+      a[p + 3] = beta * a[p + 3] + alpha * w;
+
+      return this;
+   }
+
+   @Override
+   public String toString()
+   {
+      return "Vec4Cursor[index: " + index + ", position: " + position + "]";
+   }
+}